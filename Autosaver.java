@@ -0,0 +1,238 @@
+import java.io.IOException; // Thrown when an autosave cannot be written.
+import java.nio.file.Files; // Deletes the autosave once the game is over.
+import java.nio.file.Path; // Names the autosave file.
+import java.util.concurrent.CompletableFuture; // Completes when a save queued on the autosave thread is done.
+import java.util.concurrent.Executors; // Creates the autosave thread.
+import java.util.concurrent.ScheduledExecutorService; // Runs the debounced saves on the autosave thread.
+import java.util.concurrent.TimeUnit; // The unit of the debounce delays.
+
+/**
+ * Autosaver saves a game in the background whenever it changes, so a crash loses at most the last
+ * moments of play. It listens to the board's {@link BoardEventBus} and keeps its own copy of the
+ * board, so a move costs the event thread one array write and never waits for the disk.
+ *
+ * A burst of moves is saved once: the save waits until the board has been quiet for the debounce
+ * delay, or until the maximum delay has passed since the first unsaved move. Saves are written by a
+ * single shared daemon thread as a {@link MoveJournal} snapshot, through a temporary file renamed over
+ * the autosave, and can be restored with {@link MoveJournal#load}. Every change gets a sequence number,
+ * so the UI can tell whether the board it shows has been saved.
+ */
+public class Autosaver implements BoardListener {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500; // Quiet time before a burst of moves is saved.
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000; // The longest a move waits to be saved.
+
+    // One thread serves every game, so saves never overlap and never run on the event thread.
+    private static final ScheduledExecutorService SAVER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A piece of file work run on the autosave thread.
+     */
+    public interface IoTask {
+        void run() throws IOException;
+    }
+
+    private final Path file; // The autosave file.
+    private final Board board; // The board being saved.
+    private final long debounceNanos; // Quiet time before a save.
+    private final long maxDelayNanos; // The longest a change waits to be saved.
+    private final byte[] givens; // The givens of the board, saved so the puzzle can be rebuilt from the file.
+    private final byte[] cells; // The board as of the latest change, guarded by this.
+    private long sequence; // The number of changes seen, guarded by this.
+    private long firstUnsavedNanos; // When the first change not yet scheduled to save was made, guarded by this.
+    private long lastChangeNanos; // When the latest change was made, guarded by this.
+    private boolean scheduled; // Whether a save is waiting on the autosave thread, guarded by this.
+    private boolean closed; // Whether the game has stopped being autosaved, guarded by this.
+    private boolean discarded; // Whether the autosave has been deleted and must not be written again, guarded by this.
+    private volatile long savedSequence; // The sequence number of the latest change on disk.
+    private volatile IOException lastError; // Why the latest save failed, or null if it succeeded.
+
+    /**
+     * Creates an autosaver with the default delays and subscribes it to the board.
+     * @param file The autosave file.
+     * @param board The board to save.
+     */
+    public Autosaver(Path file, Board board) {
+        this(file, board, DEFAULT_DEBOUNCE_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Creates an autosaver and subscribes it to the board. Nothing is written until the board changes.
+     * @param file The autosave file.
+     * @param board The board to save.
+     * @param debounceMillis How long the board must be quiet before a save.
+     * @param maxDelayMillis The longest a change waits to be saved while moves keep coming.
+     */
+    public Autosaver(Path file, Board board, long debounceMillis, long maxDelayMillis) {
+        this.file = file;
+        this.board = board;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(debounceMillis, maxDelayMillis));
+        this.givens = MoveJournal.givensOf(board);
+        this.cells = board.toArray();
+        board.getEvents().subscribe(this);
+    }
+
+    /**
+     * Records one change and schedules a save.
+     * @param event The cell that changed.
+     */
+    @Override
+    public synchronized void cellChanged(CellChanged event) {
+        cells[board.index(event.getRow(), event.getCol())] = (byte) event.getNewValue();
+        changed();
+    }
+
+    /**
+     * Records a change to many cells as one change, and schedules a save.
+     * @param event The board before and after the change.
+     */
+    @Override
+    public synchronized void boardReset(BoardReset event) {
+        for (int index = 0; index < cells.length; index++) {
+            cells[index] = (byte) event.getNewValue(index);
+        }
+        changed();
+    }
+
+    /**
+     * Gives the latest change its sequence number and schedules a save, unless one is already waiting.
+     */
+    private void changed() {
+        sequence++;
+        lastChangeNanos = System.nanoTime();
+        if (!scheduled && !closed) {
+            scheduled = true;
+            firstUnsavedNanos = lastChangeNanos;
+            SAVER.schedule(this::saveWhenQuiet, debounceNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Runs on the autosave thread: saves if the board has been quiet long enough, or waits longer.
+     */
+    private void saveWhenQuiet() {
+        synchronized (this) {
+            if (closed) {
+                return; // Closing queued its own last save, and a discarded game is not saved again.
+            }
+            long now = System.nanoTime();
+            long quiet = now - lastChangeNanos;
+            if (quiet < debounceNanos && now - firstUnsavedNanos < maxDelayNanos) {
+                SAVER.schedule(this::saveWhenQuiet, debounceNanos - quiet, TimeUnit.NANOSECONDS);
+                return;
+            }
+            scheduled = false;
+        }
+        save();
+    }
+
+    /**
+     * Writes the latest copy of the board, if it is newer than the one on disk. Runs on the autosave thread.
+     */
+    private void save() {
+        byte[] snapshot;
+        long snapshotSequence;
+        synchronized (this) {
+            if (discarded || sequence == savedSequence) {
+                return;
+            }
+            snapshot = cells.clone();
+            snapshotSequence = sequence;
+        }
+        try {
+            MoveJournal.writeSnapshot(file, board.getSize(), givens, snapshot);
+            savedSequence = snapshotSequence;
+            lastError = null;
+        } catch (IOException e) {
+            lastError = e; // The next change tries again
+        }
+    }
+
+    /**
+     * Saves the latest changes now, without waiting for the board to be quiet.
+     * @return Completes once the save has been written, or has failed.
+     */
+    public CompletableFuture<Void> saveNow() {
+        return CompletableFuture.runAsync(this::save, SAVER);
+    }
+
+    /**
+     * Runs other file work on the autosave thread, so it never blocks the event thread and never
+     * overlaps an autosave.
+     * @param task The work to run.
+     * @return Completes when the work is done, exceptionally if it failed.
+     */
+    public static CompletableFuture<Void> runInBackground(IoTask task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        SAVER.execute(() -> {
+            try {
+                task.run();
+                done.complete(null);
+            } catch (IOException | RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Stops autosaving the board after one last save of any changes not yet on disk.
+     * @return Completes once the last save has been written, or has failed.
+     */
+    public CompletableFuture<Void> close() {
+        synchronized (this) {
+            closed = true;
+        }
+        board.getEvents().unsubscribe(this);
+        return saveNow();
+    }
+
+    /**
+     * Stops autosaving the board and deletes the autosave, once the game no longer needs restoring.
+     * @return Completes once the autosave is gone.
+     */
+    public CompletableFuture<Void> discard() {
+        synchronized (this) {
+            closed = true;
+            discarded = true;
+        }
+        board.getEvents().unsubscribe(this);
+        return runInBackground(() -> Files.deleteIfExists(file));
+    }
+
+    /**
+     * Get the sequence number of the latest change to the board.
+     * @return The number of changes seen since autosaving started.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Get the sequence number of the latest change saved to disk.
+     * @return The saved sequence number; equal to {@link #getSequence()} when nothing is waiting to be saved.
+     */
+    public long getSavedSequence() {
+        return savedSequence;
+    }
+
+    /**
+     * Get why the latest autosave failed.
+     * @return The failure, or {@code null} if the latest autosave succeeded.
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Get the file the game is autosaved to.
+     * @return The autosave file.
+     */
+    public Path getFile() {
+        return file;
+    }
+}//end of Autosaver class
@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class AutosaverTest {
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = Files.createTempFile("autosave", ".journal");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    private static void waitForSave(Autosaver autosaver) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (autosaver.getSavedSequence() != autosaver.getSequence() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testSavesABurstOnceItIsQuiet() throws Exception {
+        Sudoku game = SolverTest.newGame();
+        Autosaver autosaver = new Autosaver(file, game.getBoard(), 100, 5000);
+        game.makeMove("0", "2", "4");
+        game.makeMove("0", "3", "6");
+        game.makeMove("0", "5", "8");
+        assertEquals(3, autosaver.getSequence());
+        // Nothing is written while the burst is still within the debounce delay
+        assertFalse(Files.exists(file));
+        assertEquals(0, autosaver.getSavedSequence());
+
+        waitForSave(autosaver);
+        assertEquals(3, autosaver.getSavedSequence());
+        assertNull(autosaver.getLastError());
+        Sudoku restored = SolverTest.newGame();
+        MoveJournal.load(file, restored.getBoard()).detach();
+        assertArrayEquals(game.getBoard().toArray(), restored.getBoard().toArray());
+        autosaver.close().join();
+    }
+
+    @Test
+    public void testSavesWithinTheMaximumDelayWhileMovesKeepComing() throws Exception {
+        Sudoku game = SolverTest.newGame();
+        Autosaver autosaver = new Autosaver(file, game.getBoard(), 200, 300);
+        long end = System.currentTimeMillis() + 1000;
+        int move = 0;
+        while (System.currentTimeMillis() < end && !Files.exists(file)) {
+            game.makeMove("0", "2", Integer.toString(move++ % 9 + 1));
+            Thread.sleep(20);
+        }
+        // The board was never quiet for 200 ms, but the save still happened
+        assertTrue(Files.exists(file));
+        autosaver.close().join();
+    }
+
+    @Test
+    public void testCloseSavesTheLastMoves() throws Exception {
+        Sudoku game = SolverTest.newGame();
+        Autosaver autosaver = new Autosaver(file, game.getBoard(), 60_000, 60_000);
+        game.makeMove("0", "2", "4");
+        autosaver.close().join();
+        assertEquals(1, autosaver.getSavedSequence());
+        // Moves after closing are not tracked
+        game.makeMove("0", "3", "6");
+        assertEquals(1, autosaver.getSequence());
+        Sudoku restored = SolverTest.newGame();
+        MoveJournal.load(file, restored.getBoard()).detach();
+        assertEquals("4", restored.getIndividualMove(0, 2));
+        assertEquals("-", restored.getIndividualMove(0, 3));
+    }
+
+    @Test
+    public void testRestoresAGeneratedPuzzle() throws Exception {
+        Puzzle generated = new PuzzleGenerator(new Random(11)).generate(9, PuzzleGenerator.Difficulty.EASY);
+        Sudoku game = new Sudoku(generated);
+        Autosaver autosaver = new Autosaver(file, game.getBoard(), 0, 0);
+        int cell = 0;
+        while (!game.getBoard().isFillableAt(cell)) {
+            cell++;
+        }
+        game.getBoard().setAt(cell, generated.getSolution(cell));
+        autosaver.close().join();
+
+        // The autosave alone is enough to deal the puzzle again and restore the moves
+        Sudoku restored = new Sudoku(MoveJournal.readPuzzle(file));
+        MoveJournal.load(file, restored.getBoard()).detach();
+        assertArrayEquals(game.getBoard().toArray(), restored.getBoard().toArray());
+    }
+
+    @Test
+    public void testDiscardDeletesTheAutosave() throws Exception {
+        Sudoku game = SolverTest.newGame();
+        Autosaver autosaver = new Autosaver(file, game.getBoard(), 10, 10);
+        game.makeMove("0", "2", "4");
+        waitForSave(autosaver);
+        assertTrue(Files.exists(file));
+        game.makeMove("0", "3", "6");
+        autosaver.discard().join();
+        autosaver.close().join();
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testRunsFileWorkInTheBackground() {
+        Thread[] ranOn = new Thread[1];
+        Autosaver.runInBackground(() -> ranOn[0] = Thread.currentThread()).join();
+        assertNotEquals(Thread.currentThread(), ranOn[0]);
+        assertEquals("autosave", ranOn[0].getName());
+        CompletableFuture<Void> failed = Autosaver.runInBackground(() -> {
+            throw new IOException("disk full");
+        });
+        assertThrows(CompletionException.class, failed::join);
+    }
+}
@@ -0,0 +1,228 @@
+import java.io.BufferedReader; // Reads the puzzles one line at a time.
+import java.io.BufferedWriter; // Buffers the solutions written out.
+import java.io.IOException; // Thrown when the input cannot be read or the output written.
+import java.io.InputStreamReader; // Reads puzzles from standard input.
+import java.io.OutputStreamWriter; // Writes solutions to standard output.
+import java.io.Writer; // Where the solutions are written.
+import java.nio.ByteBuffer; // Hands one puzzle's text to the level parser.
+import java.nio.charset.StandardCharsets; // Puzzles and solutions are plain ASCII.
+import java.nio.file.Files; // Opens an input file.
+import java.nio.file.Paths; // Turns a command line argument into a path.
+import java.util.ArrayList; // Collects the puzzles of one batch.
+import java.util.List; // The puzzles of one batch.
+import java.util.concurrent.ArrayBlockingQueue; // Bounds the batches in flight and keeps them in order.
+import java.util.concurrent.BlockingQueue; // The queue of batches between the reader and the writer.
+import java.util.concurrent.CompletableFuture; // Queues the end of the input, or a read failure, in order.
+import java.util.concurrent.ExecutionException; // Wraps a failure inside a solving task.
+import java.util.concurrent.ExecutorService; // The threads that solve the batches.
+import java.util.concurrent.Executors; // Creates the solving threads.
+import java.util.concurrent.Future; // The solutions of one batch, once they are ready.
+
+/**
+ * BatchSolver is a headless command line tool that solves a stream of puzzles through the game's
+ * own solvers ({@link Sudoku#solve}), with no Swing classes involved. Puzzles are read from a file
+ * or standard input, one per line in the compact format, or as the triplet format of the files in
+ * Levels/, where each puzzle starts with its size on a line of its own.
+ *
+ * Solving runs as a bounded pipeline: a reader thread groups puzzles into batches and hands each
+ * batch to a pool of solver threads, and the calling thread writes the finished batches in the
+ * order they were read. At most a few batches per thread are in flight, so memory stays flat
+ * however long the input is. Each output line holds the solution in the compact format, or {@code unsolvable}, then
+ * a tab and the solving time in microseconds. A summary goes to standard error.
+ *
+ * Usage: {@code java BatchSolver [--threads N] [file]}
+ */
+public class BatchSolver {
+    private static final int BATCH_SIZE = 256; // Puzzles per task, so the handoff cost is spread thin.
+    private static final int BATCHES_PER_THREAD = 4; // Batches in flight per solver thread.
+    private static final String END = new String(); // Marks the end of the input for the writer, compared by identity.
+
+    private final ExecutorService workers; // The threads that solve the batches.
+    private final int threads; // The number of solver threads.
+    private long solved; // The number of puzzles solved so far.
+    private long unsolvable; // The number of puzzles with no solution so far.
+
+    /**
+     * Creates a batch solver for one run; its threads stop when the run ends.
+     * @param threads The number of solver threads.
+     */
+    public BatchSolver(int threads) {
+        this.threads = threads;
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Solves every puzzle of the input and writes one line per puzzle, in input order.
+     * @param in The puzzles.
+     * @param out Where the solutions are written.
+     * @throws IOException if the input cannot be read or the output written.
+     * @throws IllegalArgumentException if a puzzle is malformed.
+     */
+    public void run(BufferedReader in, Writer out) throws IOException {
+        BlockingQueue<Future<String>> inFlight = new ArrayBlockingQueue<>(threads * BATCHES_PER_THREAD);
+        // The reader runs beside the writer, so reading, solving and writing overlap.
+        Thread reader = new Thread(() -> read(in, inFlight), "batch-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            String lines;
+            while ((lines = inFlight.take().get()) != END) {
+                out.write(lines);
+            }
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while solving", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Solving failed", e.getCause());
+        } finally {
+            reader.interrupt(); // Stops the reader if the writer gave up early.
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Reads the input into batches and queues them for solving, blocking while the pipeline is full.
+     * A read failure is queued in place of the next batch, so the writer reports it in order.
+     */
+    private void read(BufferedReader in, BlockingQueue<Future<String>> inFlight) {
+        try {
+            try {
+                List<byte[]> batch = new ArrayList<>(BATCH_SIZE);
+                byte[] puzzle;
+                while ((puzzle = readPuzzle(in)) != null) {
+                    batch.add(puzzle);
+                    if (batch.size() == BATCH_SIZE) {
+                        List<byte[]> full = batch;
+                        inFlight.put(workers.submit(() -> solveBatch(full)));
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    List<byte[]> last = batch;
+                    inFlight.put(workers.submit(() -> solveBatch(last)));
+                }
+                inFlight.put(CompletableFuture.completedFuture(END));
+            } catch (IOException | RuntimeException e) {
+                inFlight.put(CompletableFuture.failedFuture(e));
+            }
+        } catch (InterruptedException e) {
+            // The writer has stopped, so nobody is waiting for more batches.
+        }
+    }
+
+    /**
+     * Get the number of puzzles solved by the run.
+     * @return The number of solved puzzles.
+     */
+    public synchronized long getSolvedCount() {
+        return solved;
+    }
+
+    /**
+     * Get the number of puzzles without a solution in the run.
+     * @return The number of unsolvable puzzles.
+     */
+    public synchronized long getUnsolvableCount() {
+        return unsolvable;
+    }
+
+    /**
+     * Solves one batch and formats its output lines.
+     */
+    private String solveBatch(List<byte[]> batch) {
+        StringBuilder lines = new StringBuilder(batch.size() * 100);
+        int solvedHere = 0;
+        for (byte[] givens : batch) {
+            int size = (int) Math.round(Math.sqrt(givens.length));
+            long start = System.nanoTime();
+            byte[] solution = Sudoku.solve(givens, size);
+            long micros = (System.nanoTime() - start) / 1000;
+            if (solution == null) {
+                lines.append("unsolvable");
+            } else {
+                solvedHere++;
+                for (byte value : solution) {
+                    lines.append((char) (value <= 9 ? '0' + value : value <= 35 ? 'A' + value - 10 : 'a' + value - 36));
+                }
+            }
+            lines.append('\t').append(micros).append('\n');
+        }
+        synchronized (this) {
+            solved += solvedHere;
+            unsolvable += batch.size() - solvedHere;
+        }
+        return lines.toString();
+    }
+
+    /**
+     * Reads the next puzzle: a compact line, or a size header followed by one triplet line per cell.
+     * @return The cells of the puzzle, or {@code null} at the end of the input.
+     */
+    static byte[] readPuzzle(BufferedReader in) throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+            line = line.trim();
+        } while (line.isEmpty());
+        if (line.length() > 2) {
+            return LevelParser.parse(ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII)), 0);
+        }
+        // A size header, followed by size * size triplet lines.
+        int size = Integer.parseInt(line);
+        StringBuilder triplets = new StringBuilder(size * size * 8);
+        for (int read = 0; read < size * size; ) {
+            String cell = in.readLine();
+            if (cell == null) {
+                throw new IllegalArgumentException("Puzzle ended after " + read + " of " + size * size + " cells");
+            }
+            if (!cell.isBlank()) {
+                triplets.append(cell).append('\n');
+                read++;
+            }
+        }
+        return LevelParser.parse(ByteBuffer.wrap(triplets.toString().getBytes(StandardCharsets.US_ASCII)), size);
+    }
+
+    /**
+     * Solves the puzzles of a file, or of standard input if no file is given.
+     * @param args {@code [--threads N] [file]}
+     * @throws IOException if the input cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+            } else {
+                file = args[i];
+            }
+        }
+        BatchSolver solver = new BatchSolver(threads);
+        long start = System.nanoTime();
+        try (BufferedReader in = file == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII), 1 << 16)
+                : Files.newBufferedReader(Paths.get(file), StandardCharsets.US_ASCII);
+             Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16)) {
+            solver.run(in, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = solver.getSolvedCount() + solver.getUnsolvableCount();
+        System.err.printf("%d puzzles (%d unsolvable) in %.2f s, %.0f puzzles/s on %d threads%n",
+                total, solver.getUnsolvableCount(), seconds, total / Math.max(seconds, 1e-9), threads);
+    }
+}//end of BatchSolver class
@@ -0,0 +1,46 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class BatchSolverTest {
+
+    private static String[] solve(String input, int threads) throws IOException {
+        StringWriter out = new StringWriter();
+        new BatchSolver(threads).run(new BufferedReader(new StringReader(input)), out);
+        return out.toString().split("\n");
+    }
+
+    @Test
+    public void testSolvesCompactLinesInOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            // Every third puzzle has a contradiction in its first row
+            input.append(i % 3 == 0 ? "55" + SolverTest.PUZZLE.substring(2) : SolverTest.PUZZLE).append('\n');
+        }
+        String[] lines = solve(input.toString(), 4);
+        assertEquals(1000, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(i % 3 == 0 ? "unsolvable" : SolverTest.SOLUTION, lines[i].substring(0, lines[i].indexOf('\t')));
+        }
+    }
+
+    @Test
+    public void testReadsTripletLevelFiles() throws IOException {
+        String level = new String(Files.readAllBytes(Paths.get("Levels/esu1.txt")));
+        String[] lines = solve(level + "\n" + SolverTest.PUZZLE + "\n", 2);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("4"));
+        assertEquals(16, lines[0].indexOf('\t'));
+        assertTrue(lines[1].startsWith(SolverTest.SOLUTION + "\t"));
+    }
+
+    @Test
+    public void testReportsMalformedPuzzle() {
+        assertThrows(IllegalArgumentException.class, () -> solve(SolverTest.PUZZLE + "\nnot a puzzle at all\n", 2));
+    }
+}
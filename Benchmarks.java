@@ -0,0 +1,239 @@
+import java.io.File; // Names the temporary files of the persistence benchmarks.
+import java.io.Writer; // Writes the generated leaderboards.
+import java.nio.ByteBuffer; // Hands the benchmark puzzles to the level parser.
+import java.nio.charset.StandardCharsets; // Saved games are plain ASCII.
+import java.nio.file.Files; // Creates and cleans up the temporary files.
+import java.time.Duration; // The winning times recorded on the leaderboards.
+import java.util.ArrayList; // Collects the benchmarks selected to run.
+import java.util.List; // The benchmarks selected to run.
+import java.util.Random; // Seeds the generated puzzles so every run measures the same work.
+
+/**
+ * Benchmarks is the performance suite for the game's hot paths: the model (dealing a game, making
+ * moves, checking a win, validating a move, setting a slot with listeners attached), persistence
+ * (save and load round trips, leaderboards of 10 thousand and 1 million players, player profiles and the coin ledger) and the
+ * solvers. Every benchmark reports its throughput and its allocation rate, through {@link Microbenchmark}.
+ *
+ * Run it from the project directory, so the level files are found:
+ * {@code java Benchmarks [--quick] [name filter...]}. A benchmark runs if its name contains any of
+ * the filters, or always if none are given; {@code --quick} shortens the iterations for a smoke run.
+ */
+public class Benchmarks {
+    // The same puzzles as the solver tests: a typical one, and one built to defeat simple search.
+    private static final String EASY =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    private static final String HARD =
+            "800000000003600000070090200050007000000045700000100030001000068068010500090000400";
+
+    /**
+     * A named operation, set up before the suite runs.
+     */
+    private static final class Case {
+        private final String name; // The name of the benchmark.
+        private final Microbenchmark.Operation operation; // The work measured.
+
+        Case(String name, Microbenchmark.Operation operation) {
+            this.name = name;
+            this.operation = operation;
+        }
+    }
+
+    /**
+     * Runs the selected benchmarks and prints one row per benchmark.
+     * @param args {@code [--quick] [name filter...]}
+     * @throws Exception if a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        boolean quick = false;
+        List<String> filters = new ArrayList<>();
+        for (String arg : args) {
+            if ("--quick".equals(arg)) {
+                quick = true;
+            } else {
+                filters.add(arg);
+            }
+        }
+        Microbenchmark harness = quick ? new Microbenchmark(1, 2, 200) : new Microbenchmark(3, 5, 1000);
+        List<File> temporary = new ArrayList<>();
+        try {
+            for (Case benchmark : cases(temporary)) {
+                if (filters.isEmpty() || filters.stream().anyMatch(benchmark.name::contains)) {
+                    System.out.println(harness.measure(benchmark.name, benchmark.operation));
+                }
+            }
+        } finally {
+            for (File file : temporary) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    /**
+     * Builds every benchmark of the suite, with the state each one works on.
+     */
+    private static List<Case> cases(List<File> temporary) throws Exception {
+        List<Case> cases = new ArrayList<>();
+
+        // The model
+        cases.add(new Case("sudoku.new9x9", () -> new Sudoku("9x9")));
+        Sudoku game = new Sudoku("9x9");
+        int cell = firstFillable(game);
+        String row = Integer.toString(cell / 9);
+        String col = Integer.toString(cell % 9);
+        String[] values = {"1", "2"};
+        int[] counter = new int[1];
+        cases.add(new Case("sudoku.makeMove", () -> game.makeMove(row, col, values[counter[0]++ & 1])));
+        cases.add(new Case("sudoku.checkWin", game::checkWin));
+        Sudoku cleared = new Sudoku("9x9");
+        cases.add(new Case("sudoku.reset", () -> {
+            cleared.makeMove(row, col, values[counter[0]++ & 1]);
+            cleared.reset();
+            return cleared;
+        }));
+        // The text UI validates its moves through the game, so this is the cost of UI.isValidMove.
+        cases.add(new Case("sudoku.isValidMove", () -> {
+            int n = counter[0]++;
+            return game.isValidMove(n % 9, n / 9 % 9, n % 9 + 1);
+        }));
+        for (int listeners : new int[] {0, 1, 8}) {
+            Sudoku observed = new Sudoku("9x9");
+            for (int i = 0; i < listeners; i++) {
+                observed.addBoardListener(event -> counter[0] += event.getNewValue());
+            }
+            Slot slot = observed.getMoves()[cell / 9][cell % 9];
+            cases.add(new Case("slot.setState/listeners=" + listeners, () -> {
+                slot.setState(values[counter[0]++ & 1]);
+                return slot;
+            }));
+        }
+
+        // Undo and redo, over a long game of 100 thousand moves
+        Sudoku played = new Sudoku("9x9");
+        MoveHistory history = new MoveHistory(played.getBoard());
+        for (int i = 0; i < 100_000; i++) {
+            int old = played.getBoard().getAt(cell);
+            played.getBoard().setAt(cell, i % 9 + 1);
+            history.record(cell, old, i % 9 + 1);
+        }
+        cases.add(new Case("history.undoRedo", () -> {
+            history.undo();
+            return history.redo();
+        }));
+        cases.add(new Case("history.seek/100k", () -> {
+            history.seek(Math.floorMod(counter[0]++ * 7919, history.size() + 1));
+            return history;
+        }));
+
+        // Persistence
+        File save = temporaryFile("sudoku-save", temporary);
+        MoveJournal journal = new MoveJournal(save.toPath(), game.getBoard());
+        cases.add(new Case("game.saveLoad", () -> {
+            journal.compact(); // A full snapshot, as the first save of a game writes
+            Sudoku loaded = new Sudoku("9x9");
+            MoveJournal.load(save.toPath(), loaded.getBoard()).detach();
+            return loaded;
+        }));
+        cases.add(new Case("game.saveMove", () -> {
+            game.makeMove(row, col, values[counter[0]++ & 1]);
+            journal.save(); // Appends one move, compacting once the log outgrows the board
+            return journal;
+        }));
+        for (int entries : new int[] {10_000, 1_000_000}) {
+            String label = entries >= 1_000_000 ? entries / 1_000_000 + "M" : entries / 1_000 + "k";
+            File file = temporaryFile("leaderboard-" + label, temporary);
+            writeLeaderboard(file, entries);
+            LeaderboardStore.open(file.toPath()).compact(); // Sorted by wins, as the store keeps it
+            cases.add(new Case("leaderboard.open/" + label, () -> LeaderboardStore.open(file.toPath())));
+            LeaderboardStore leaderboard = LeaderboardStore.open(file.toPath());
+            Random players = new Random(entries);
+            cases.add(new Case("leaderboard.recordWin/" + label, () -> {
+                // Appends one line and forces it to disk, compacting once the log is twice the players
+                return leaderboard.recordWin("player" + players.nextInt(entries), Duration.ofSeconds(60 + players.nextInt(3600)));
+            }));
+            cases.add(new Case("leaderboard.rank/" + label, () -> leaderboard.rankByBestTime("player" + players.nextInt(entries))));
+            cases.add(new Case("leaderboard.top10/" + label, () -> leaderboard.topByBestTime(10)));
+        }
+
+        ProfileStore profiles = ProfileStore.open(temporaryFile("profiles", temporary).toPath());
+        for (int player = 0; player < 100_000; player++) {
+            profiles.setCoins("player" + player, 100);
+        }
+        Random players = new Random(24);
+        cases.add(new Case("profile.get/100k", () -> profiles.get("player" + players.nextInt(100_000))));
+        cases.add(new Case("profile.setCoins/100k", () -> {
+            // Writes into the mapped file; the flush runs behind on the autosave thread
+            profiles.setCoins("player" + players.nextInt(100_000), players.nextInt(1000));
+            return profiles;
+        }));
+        CoinLedger ledger = CoinLedger.open(temporaryFile("coins", temporary).toPath());
+        cases.add(new Case("ledger.credit", () -> ledger.credit("player" + players.nextInt(100), 1))); // One session: one fsync per change
+        cases.add(new Case("ledger.credit/8x16", () -> {
+            // Eight sessions of 16 changes each, 128 changes in all, sharing fsyncs through group commit
+            Thread[] sessions = new Thread[8];
+            for (int session = 0; session < sessions.length; session++) {
+                String nickname = "player" + session;
+                sessions[session] = new Thread(() -> {
+                    try {
+                        for (int change = 0; change < 16; change++) {
+                            ledger.credit(nickname, 1);
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                sessions[session].start();
+            }
+            for (Thread session : sessions) {
+                session.join();
+            }
+            return ledger;
+        }));
+
+        // The solvers
+        byte[] easy = LevelParser.parse(ByteBuffer.wrap(EASY.getBytes(StandardCharsets.US_ASCII)), 0);
+        byte[] hard = LevelParser.parse(ByteBuffer.wrap(HARD.getBytes(StandardCharsets.US_ASCII)), 0);
+        cases.add(new Case("solve.Solver/easy", () -> Solver.solve(easy, 9)));
+        cases.add(new Case("solve.Solver/hard", () -> Solver.solve(hard, 9)));
+        cases.add(new Case("solve.DancingLinks/hard", () -> DancingLinks.solve(hard, 9)));
+        cases.add(new Case("solve.Sudoku/hard", () -> Sudoku.solve(hard, 9)));
+        Puzzle large = new PuzzleGenerator(new Random(16)).generate(16, PuzzleGenerator.Difficulty.EASY);
+        ParallelSolver parallel = new ParallelSolver();
+        cases.add(new Case("solve.ParallelSolver/16x16", () -> parallel.solve(large.getGivens(), 16)));
+        cases.add(new Case("rate.DifficultyRater/hard", () -> DifficultyRater.rate(hard, 9)));
+        PuzzleGenerator generator = new PuzzleGenerator(new Random(9));
+        cases.add(new Case("generate.9x9/medium", () -> generator.generate(9, PuzzleGenerator.Difficulty.MEDIUM)));
+        return cases;
+    }
+
+    /**
+     * Get the index of the first cell a player can fill.
+     */
+    private static int firstFillable(Sudoku game) {
+        Slot[][] slots = game.getMoves();
+        for (int index = 0; index < 81; index++) {
+            if (slots[index / 9][index % 9].getFillable()) {
+                return index;
+            }
+        }
+        throw new IllegalStateException("The level has no empty cell");
+    }
+
+    /**
+     * Writes a compacted leaderboard of the given number of players, with a mix of best times and none.
+     */
+    private static void writeLeaderboard(File file, int entries) throws Exception {
+        Random random = new Random(entries);
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries; i++) {
+                long best = i % 10 == 0 ? -1 : 60 + random.nextInt(3600);
+                out.write("player" + i + "," + (1 + random.nextInt(100)) + "," + best + "\n");
+            }
+        }
+    }
+
+    private static File temporaryFile(String prefix, List<File> temporary) throws Exception {
+        File file = Files.createTempFile(prefix, ".txt").toFile();
+        temporary.add(file);
+        return file;
+    }
+}//end of Benchmarks class
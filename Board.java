@@ -0,0 +1,368 @@
+import java.util.Arrays; // Used for bulk comparisons and fills of the primitive cell arrays.
+
+/**
+ * Board is the compact core representation of a Sudoku grid. The cells are stored in a flat
+ * {@code byte[]} (row-major, 0 meaning empty) and every row, column and box keeps a bitmask of
+ * the digits it currently holds, so validity checks are single bit operations instead of
+ * String comparisons over the whole unit. Alongside the masks, every unit counts how many of
+ * its cells hold each digit. The counts are updated on every change, so legality and conflict
+ * queries stay constant-time even when the player has entered duplicates. The board also keeps
+ * running totals of filled cells and repeated digits, so {@link #isSolved()} is O(1) as well.
+ *
+ * {@link Sudoku} and {@link Slot} are thin views over a Board, which keeps the existing
+ * {@code getMoves()}/{@code getIndividualMove()} callers working unchanged. Every change to a cell
+ * is published on the board's {@link BoardEventBus}, so observers subscribe once per board.
+ */
+public class Board {
+    public static final int EMPTY = 0; // The value stored for an empty cell.
+    public static final int MAX_VALUE = Byte.MAX_VALUE; // The largest value a cell can hold.
+
+    private final int size; // The number of rows and columns (4, 9, ...).
+    private final int boxSize; // The width and height of one box (2 for 4x4, 3 for 9x9).
+    private final byte[] cells; // The current value of every cell, row-major.
+    private final boolean[] fillable; // Whether each cell can be changed by the player.
+    private final long[] rowMasks; // Bit d is set when digit d appears in the row.
+    private final long[] colMasks; // Bit d is set when digit d appears in the column.
+    private final long[] boxMasks; // Bit d is set when digit d appears in the box.
+    private final byte[] rowCounts; // How many cells of each row hold each digit, at row * (size + 1) + digit.
+    private final byte[] colCounts; // How many cells of each column hold each digit.
+    private final byte[] boxCounts; // How many cells of each box hold each digit.
+    private int filledCells; // The number of cells that are not empty.
+    private int duplicates; // Extra copies of digits across all units; 0 when no unit repeats a digit.
+    private int outOfRangeCells; // The number of cells holding a value larger than the board size.
+    private final BoardEventBus events = new BoardEventBus(); // Notifies listeners of every cell change.
+
+    /**
+     * Creates an empty board where every cell is fillable.
+     * @param size The number of rows and columns, which must be a perfect square.
+     * @throws IllegalArgumentException if the size is not a perfect square or is too large for the digit masks.
+     */
+    public Board(int size) {
+        int box = (int) Math.round(Math.sqrt(size));
+        if (size < 1 || box * box != size || size >= Long.SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        }
+        this.size = size;
+        this.boxSize = box;
+        this.cells = new byte[size * size];
+        this.fillable = new boolean[size * size];
+        Arrays.fill(fillable, true);
+        this.rowMasks = new long[size];
+        this.colMasks = new long[size];
+        this.boxMasks = new long[size];
+        this.rowCounts = new byte[size * (size + 1)];
+        this.colCounts = new byte[size * (size + 1)];
+        this.boxCounts = new byte[size * (size + 1)];
+    }
+
+    /**
+     * Get the number of rows and columns of the board.
+     * @return The board size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the event bus that publishes a {@link CellChanged} event for every change to a cell.
+     * @return The event bus of this board.
+     */
+    public BoardEventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * Get the width and height of one box of the board.
+     * @return The box size.
+     */
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * Get the flat index of a cell.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the cell in the row-major cell array.
+     */
+    public int index(int row, int col) {
+        return row * size + col;
+    }
+
+    /**
+     * Get the box number a cell belongs to.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The box number, counted row-major from the top left box.
+     */
+    public int boxOf(int row, int col) {
+        return (row / boxSize) * boxSize + col / boxSize;
+    }
+
+    /**
+     * Get the value held in a cell.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The value of the cell, or {@link #EMPTY} if it is empty.
+     */
+    public int get(int row, int col) {
+        return cells[row * size + col];
+    }
+
+    /**
+     * Get the value held in a cell by its flat index.
+     * @param index The row-major index of the cell.
+     * @return The value of the cell, or {@link #EMPTY} if it is empty.
+     */
+    public int getAt(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Check whether a cell can be changed by the player.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return {@code true} if the cell is fillable.
+     */
+    public boolean isFillable(int row, int col) {
+        return fillable[row * size + col];
+    }
+
+    /**
+     * Check whether a cell can be changed by the player, by its flat index.
+     * @param index The row-major index of the cell.
+     * @return {@code true} if the cell is fillable.
+     */
+    public boolean isFillableAt(int index) {
+        return fillable[index];
+    }
+
+    /**
+     * Places a given (pre-filled) value that the player cannot change. Used while loading a level.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param value The value of the given, or {@link #EMPTY} to leave the cell fillable.
+     */
+    public void setGiven(int row, int col, int value) {
+        int index = row * size + col;
+        fillable[index] = true;
+        write(row, col, value);
+        fillable[index] = value == EMPTY;
+    }
+
+    /**
+     * Sets the value of a fillable cell and keeps the unit masks up to date.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param value The new value, or {@link #EMPTY} to clear the cell.
+     * @return {@code true} if the cell was changed, {@code false} if it is not fillable or the value is out of range.
+     */
+    public boolean set(int row, int col, int value) {
+        return setAt(row * size + col, value);
+    }
+
+    /**
+     * Sets the value of a fillable cell by its flat index.
+     * @param index The row-major index of the cell.
+     * @param value The new value, or {@link #EMPTY} to clear the cell.
+     * @return {@code true} if the cell was changed, {@code false} if it is not fillable or the value is out of range.
+     */
+    public boolean setAt(int index, int value) {
+        if (!fillable[index] || value < EMPTY || value > MAX_VALUE) {
+            return false;
+        }
+        write(index / size, index % size, value);
+        return true;
+    }
+
+    /**
+     * Writes a value into a cell, moving the cell's count from the old digit to the new one in each
+     * of its units. A unit's mask bit only changes when its count for that digit goes to or from zero.
+     * Values above the board size are stored but are not tracked by the counts or masks.
+     * Once the board is consistent again, the change is published to the board's listeners.
+     */
+    private void write(int row, int col, int value) {
+        int index = row * size + col;
+        int old = cells[index];
+        if (old == value) {
+            return;
+        }
+        cells[index] = (byte) value;
+        int box = boxOf(row, col);
+        if (old == EMPTY) {
+            filledCells++;
+        } else if (old > size) {
+            outOfRangeCells--;
+        } else {
+            long bit = 1L << old;
+            // The digit may still be present elsewhere in a unit if the player entered a duplicate.
+            if (removeCount(rowCounts, row * (size + 1) + old)) {
+                rowMasks[row] &= ~bit;
+            }
+            if (removeCount(colCounts, col * (size + 1) + old)) {
+                colMasks[col] &= ~bit;
+            }
+            if (removeCount(boxCounts, box * (size + 1) + old)) {
+                boxMasks[box] &= ~bit;
+            }
+        }
+        if (value == EMPTY) {
+            filledCells--;
+        } else {
+            count(row, col, value);
+        }
+        events.publish(row, col, old, value);
+    }
+
+    /**
+     * Adds a non-empty value to the counts and masks of the cell's units.
+     */
+    private void count(int row, int col, int value) {
+        if (value > size) {
+            outOfRangeCells++;
+            return;
+        }
+        int box = boxOf(row, col);
+        long bit = 1L << value;
+        addCount(rowCounts, row * (size + 1) + value);
+        addCount(colCounts, col * (size + 1) + value);
+        addCount(boxCounts, box * (size + 1) + value);
+        rowMasks[row] |= bit;
+        colMasks[col] |= bit;
+        boxMasks[box] |= bit;
+    }
+
+    /**
+     * Overwrites every fillable cell at once, such as when a game is cleared back to its givens.
+     * The values are copied in bulk and the counts and masks rebuilt in one pass over the board,
+     * then listeners get a single {@link BoardReset} instead of one event per cell.
+     * @param values The new value of every cell, row-major. Values at given cells are ignored.
+     * @throws IllegalArgumentException if there is not one value per cell, or a value is out of range.
+     */
+    public void reset(byte[] values) {
+        if (values.length != cells.length) {
+            throw new IllegalArgumentException("Expected " + cells.length + " values but got " + values.length);
+        }
+        byte[] old = cells.clone();
+        System.arraycopy(values, 0, cells, 0, cells.length);
+        for (int index = 0; index < cells.length; index++) {
+            if (!fillable[index]) {
+                cells[index] = old[index]; // The givens never change.
+            } else if (cells[index] < EMPTY) {
+                System.arraycopy(old, 0, cells, 0, cells.length);
+                throw new IllegalArgumentException("Value out of range at cell " + index + ": " + values[index]);
+            }
+        }
+        Arrays.fill(rowMasks, 0);
+        Arrays.fill(colMasks, 0);
+        Arrays.fill(boxMasks, 0);
+        Arrays.fill(rowCounts, (byte) 0);
+        Arrays.fill(colCounts, (byte) 0);
+        Arrays.fill(boxCounts, (byte) 0);
+        filledCells = 0;
+        duplicates = 0;
+        outOfRangeCells = 0;
+        for (int index = 0; index < cells.length; index++) {
+            if (cells[index] != EMPTY) {
+                filledCells++;
+                count(index / size, index % size, cells[index]);
+            }
+        }
+        if (events.hasListeners()) {
+            events.publishReset(size, old, cells.clone());
+        }
+    }
+
+    /**
+     * Counts one more copy of a digit in a unit, noting a duplicate if it was already there.
+     */
+    private void addCount(byte[] counts, int slot) {
+        if (counts[slot]++ > 0) {
+            duplicates++;
+        }
+    }
+
+    /**
+     * Counts one less copy of a digit in a unit.
+     * @return {@code true} if the unit no longer holds the digit at all.
+     */
+    private boolean removeCount(byte[] counts, int slot) {
+        if (--counts[slot] > 0) {
+            duplicates--;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a digit can be placed in a cell without repeating it in the cell's row,
+     * column or box. The cell's own current value is not counted against it.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param value The digit to check.
+     * @return {@code true} if the digit is in range and does not appear elsewhere in the cell's units.
+     */
+    public boolean isValidPlacement(int row, int col, int value) {
+        if (value < 1 || value > size) {
+            return false;
+        }
+        if (cells[row * size + col] == value) {
+            // Re-entering the same digit is legal only if no other cell in the units holds it.
+            return !hasConflict(row, col);
+        }
+        long used = rowMasks[row] | colMasks[col] | boxMasks[boxOf(row, col)];
+        return (used & (1L << value)) == 0;
+    }
+
+    /**
+     * Checks whether the digit in a cell is repeated elsewhere in its row, column or box.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return {@code true} if another cell in one of its units holds the same digit.
+     */
+    public boolean hasConflict(int row, int col) {
+        int value = cells[row * size + col];
+        if (value == EMPTY || value > size) {
+            return false;
+        }
+        return rowCounts[row * (size + 1) + value] > 1
+                || colCounts[col * (size + 1) + value] > 1
+                || boxCounts[boxOf(row, col) * (size + 1) + value] > 1;
+    }
+
+    /**
+     * Checks whether the board is a valid completed grid: every cell is filled with a digit in
+     * range and no row, column or box repeats a digit. This reads running totals, so it is O(1).
+     * @return {@code true} if the board is solved.
+     */
+    public boolean isSolved() {
+        return filledCells == cells.length && duplicates == 0 && outOfRangeCells == 0;
+    }
+
+    /**
+     * Get the number of cells that are not empty.
+     * @return The number of filled cells.
+     */
+    public int getFilledCount() {
+        return filledCells;
+    }
+
+    /**
+     * Get the mask of digits that could still go in a cell (bit d set for digit d).
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The candidate mask for the cell.
+     */
+    public long candidates(int row, int col) {
+        long all = ((1L << (size + 1)) - 1) & ~1L;
+        return all & ~(rowMasks[row] | colMasks[col] | boxMasks[boxOf(row, col)]);
+    }
+
+    /**
+     * Get a copy of the cell values.
+     * @return A row-major copy of the board.
+     */
+    public byte[] toArray() {
+        return cells.clone();
+    }
+}//end of Board class
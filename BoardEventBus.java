@@ -0,0 +1,76 @@
+import java.util.concurrent.CopyOnWriteArrayList; // Lets listeners be added and removed while events are being published.
+
+/**
+ * BoardEventBus delivers {@link CellChanged} and {@link BoardReset} events from one {@link Board} to its listeners, such as
+ * the GUI, autosave or metrics. Listeners are kept in a {@link CopyOnWriteArrayList}, so publishing
+ * takes no lock and allocates nothing beyond the event itself; subscribing copies the small list.
+ * No event is created at all while nobody is listening.
+ */
+public class BoardEventBus {
+    private final CopyOnWriteArrayList<BoardListener> listeners = new CopyOnWriteArrayList<>(); // The subscribed listeners, in subscription order.
+
+    /**
+     * Subscribes a listener to every cell of the board. Subscribing the same listener twice has no effect.
+     * @param listener The listener to notify. This should not be null.
+     */
+    public void subscribe(BoardListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Unsubscribes a listener, so it is no longer notified.
+     * @param listener The listener to remove.
+     */
+    public void unsubscribe(BoardListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Check whether any listener is subscribed.
+     * @return {@code true} if at least one listener would receive an event.
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Get the number of subscribed listeners.
+     * @return The number of listeners.
+     */
+    public int getListenerCount() {
+        return listeners.size();
+    }
+
+    /**
+     * Publishes a change to one cell to every listener, on the calling thread.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param oldValue The value before the change.
+     * @param newValue The value after the change.
+     */
+    public void publish(int row, int col, int oldValue, int newValue) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        CellChanged event = new CellChanged(row, col, oldValue, newValue);
+        for (BoardListener listener : listeners) {
+            listener.cellChanged(event);
+        }
+    }
+
+    /**
+     * Publishes a change to many cells at once to every listener, on the calling thread.
+     * @param size The number of rows and columns of the board.
+     * @param oldCells Every cell before the change, row-major.
+     * @param newCells Every cell after the change, row-major. Neither array may change afterwards.
+     */
+    public void publishReset(int size, byte[] oldCells, byte[] newCells) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        BoardReset event = new BoardReset(size, oldCells, newCells);
+        for (BoardListener listener : listeners) {
+            listener.boardReset(event);
+        }
+    }
+}//end of BoardEventBus class
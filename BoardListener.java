@@ -0,0 +1,28 @@
+/**
+ * BoardListener is notified of every change to the cells of a {@link Board}. A listener subscribes
+ * once per board through its {@link BoardEventBus}, instead of once per cell. Bulk changes arrive
+ * as one {@link BoardReset}.
+ */
+@FunctionalInterface
+public interface BoardListener {
+    /**
+     * Called after a cell of the board has changed, on the thread that made the change.
+     * @param event The cell that changed, with its old and new values.
+     */
+    void cellChanged(CellChanged event);
+
+    /**
+     * Called after many cells of the board have changed at once, on the thread that made the change.
+     * By default this is handled as one {@link #cellChanged} per changed cell; listeners that can
+     * update themselves in one pass override it.
+     * @param event The board before and after the change.
+     */
+    default void boardReset(BoardReset event) {
+        int size = event.getSize();
+        for (int index = 0; index < size * size; index++) {
+            if (event.isChanged(index)) {
+                cellChanged(new CellChanged(index / size, index % size, event.getOldValue(index), event.getNewValue(index)));
+            }
+        }
+    }
+}//end of BoardListener interface
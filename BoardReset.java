@@ -0,0 +1,57 @@
+/**
+ * BoardReset is the event published by a {@link BoardEventBus} when many cells of a {@link Board}
+ * change at once, such as when a game is cleared back to its givens. It carries the whole board
+ * before and after, so a listener can update itself in one pass instead of once per cell.
+ */
+public final class BoardReset {
+    private final int size; // The number of rows and columns of the board.
+    private final byte[] oldCells; // Every cell before the reset, row-major.
+    private final byte[] newCells; // Every cell after the reset, row-major.
+
+    /**
+     * Constructor for BoardReset. The arrays are kept, not copied, so they must not change afterwards.
+     * @param size The number of rows and columns of the board.
+     * @param oldCells Every cell before the reset, row-major.
+     * @param newCells Every cell after the reset, row-major.
+     */
+    public BoardReset(int size, byte[] oldCells, byte[] newCells) {
+        this.size = size;
+        this.oldCells = oldCells;
+        this.newCells = newCells;
+    }
+
+    /**
+     * Get the number of rows and columns of the board.
+     * @return The board size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the value a cell held before the reset.
+     * @param index The row-major index of the cell.
+     * @return The old value, or {@link Board#EMPTY}.
+     */
+    public int getOldValue(int index) {
+        return oldCells[index];
+    }
+
+    /**
+     * Get the value a cell holds after the reset.
+     * @param index The row-major index of the cell.
+     * @return The new value, or {@link Board#EMPTY}.
+     */
+    public int getNewValue(int index) {
+        return newCells[index];
+    }
+
+    /**
+     * Check whether the reset changed a cell.
+     * @param index The row-major index of the cell.
+     * @return {@code true} if the old and new values differ.
+     */
+    public boolean isChanged(int index) {
+        return oldCells[index] != newCells[index];
+    }
+}//end of BoardReset class
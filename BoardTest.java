@@ -0,0 +1,165 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class BoardTest {
+
+    @Test
+    public void testRejectsNonSquareSize() {
+        // A board needs square boxes, so 5 is not a valid size
+        assertThrows(IllegalArgumentException.class, () -> new Board(5));
+    }
+
+    @Test
+    public void testGivenCellsAreNotFillable() {
+        Board board = new Board(4);
+        board.setGiven(0, 0, 3);
+        board.setGiven(0, 1, Board.EMPTY);
+
+        // To check the given cannot be changed but the empty cell can
+        assertFalse(board.isFillable(0, 0));
+        assertFalse(board.set(0, 0, 1));
+        assertEquals(3, board.get(0, 0));
+        assertTrue(board.isFillable(0, 1));
+        assertTrue(board.set(0, 1, 1));
+        assertEquals(1, board.get(0, 1));
+    }
+
+    @Test
+    public void testResetRebuildsCountsAndKeepsGivens() {
+        Board board = new Board(4);
+        board.setGiven(0, 0, 1);
+        board.set(0, 1, 1); // A duplicate in row 0
+        board.set(1, 1, 3);
+        assertTrue(board.hasConflict(0, 1));
+        java.util.List<BoardReset> resets = new java.util.ArrayList<>();
+        java.util.List<CellChanged> changes = new java.util.ArrayList<>();
+        board.getEvents().subscribe(new BoardListener() {
+            @Override
+            public void cellChanged(CellChanged event) {
+                changes.add(event);
+            }
+
+            @Override
+            public void boardReset(BoardReset event) {
+                resets.add(event);
+            }
+        });
+
+        byte[] values = new byte[16];
+        values[0] = 4; // Ignored, as cell 0 is a given
+        values[2] = 2;
+        board.reset(values);
+
+        // One bulk event, and the counts match the new cells
+        assertEquals(1, resets.size());
+        assertTrue(changes.isEmpty());
+        assertEquals(1, board.get(0, 0));
+        assertEquals(Board.EMPTY, board.get(0, 1));
+        assertEquals(2, board.get(0, 2));
+        assertEquals(2, board.getFilledCount());
+        assertFalse(board.hasConflict(0, 0));
+        assertTrue(board.isValidPlacement(1, 1, 3));
+        assertFalse(board.isValidPlacement(0, 3, 2));
+        assertTrue(resets.get(0).isChanged(1));
+        assertFalse(resets.get(0).isChanged(0));
+        assertThrows(IllegalArgumentException.class, () -> board.reset(new byte[15]));
+    }
+
+    @Test
+    public void testResetReachesCellListenersOncePerChangedCell() {
+        Board board = new Board(4);
+        board.set(0, 1, 2);
+        board.set(3, 3, 4);
+        java.util.List<CellChanged> changes = new java.util.ArrayList<>();
+        board.getEvents().subscribe(changes::add);
+        board.reset(new byte[16]);
+        assertEquals(2, changes.size());
+        assertEquals(4, changes.get(1).getOldValue());
+        assertEquals(Board.EMPTY, changes.get(1).getNewValue());
+    }
+
+    @Test
+    public void testValidPlacementUsesRowColumnAndBox() {
+        Board board = new Board(4);
+        board.set(0, 0, 1);
+
+        // Same row, same column and same box are all rejected
+        assertFalse(board.isValidPlacement(0, 3, 1));
+        assertFalse(board.isValidPlacement(3, 0, 1));
+        assertFalse(board.isValidPlacement(1, 1, 1));
+        // A different box, row and column is fine
+        assertTrue(board.isValidPlacement(2, 2, 1));
+        // Out of range digits are never valid
+        assertFalse(board.isValidPlacement(2, 2, 5));
+    }
+
+    @Test
+    public void testMasksSurviveDuplicateRemoval() {
+        Board board = new Board(4);
+        // To enter the same digit twice in a row, then remove one copy
+        board.set(0, 0, 2);
+        board.set(0, 3, 2);
+        board.set(0, 0, Board.EMPTY);
+
+        // The remaining copy must still block the row
+        assertFalse(board.isValidPlacement(0, 1, 2));
+        board.set(0, 3, Board.EMPTY);
+        assertTrue(board.isValidPlacement(0, 1, 2));
+    }
+
+    @Test
+    public void testCandidates() {
+        Board board = new Board(4);
+        board.set(0, 1, 1);
+        board.set(1, 0, 2);
+        board.set(3, 0, 3);
+
+        // Only digit 4 is left for the top left cell
+        assertEquals(1L << 4, board.candidates(0, 0));
+    }
+
+    @Test
+    public void testConflicts() {
+        Board board = new Board(4);
+        board.set(0, 0, 3);
+        assertFalse(board.hasConflict(0, 0));
+
+        // A duplicate in the same box conflicts with the first copy, and both cells report it
+        board.set(1, 1, 3);
+        assertTrue(board.hasConflict(0, 0));
+        assertTrue(board.hasConflict(1, 1));
+        // Re-entering the digit in a conflicting cell is not a valid placement
+        assertFalse(board.isValidPlacement(0, 0, 3));
+
+        board.set(1, 1, 4);
+        assertFalse(board.hasConflict(0, 0));
+        assertTrue(board.isValidPlacement(0, 0, 3));
+    }
+
+    @Test
+    public void testIsSolvedTracksFilledCellsAndDuplicates() {
+        Board board = new Board(4);
+        String grid = "1234341221434321";
+        for (int i = 0; i < 16; i++) {
+            assertFalse(board.isSolved());
+            board.set(i / 4, i % 4, grid.charAt(i) - '0');
+        }
+        // Any valid completed grid is solved
+        assertTrue(board.isSolved());
+        assertEquals(16, board.getFilledCount());
+
+        // A duplicate makes it unsolved, and undoing the move makes it solved again
+        board.set(0, 0, 2);
+        assertFalse(board.isSolved());
+        board.set(0, 0, 1);
+        assertTrue(board.isSolved());
+
+        // So does emptying a cell or entering a number that is too large
+        board.set(3, 3, Board.EMPTY);
+        assertFalse(board.isSolved());
+        board.set(3, 3, 9);
+        assertFalse(board.isSolved());
+        board.set(3, 3, 1);
+        assertTrue(board.isSolved());
+    }
+}
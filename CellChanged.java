@@ -0,0 +1,57 @@
+/**
+ * CellChanged is the event published by a {@link BoardEventBus} when the value of one cell of a
+ * {@link Board} changes. It carries the cell's position together with its old and new values, so
+ * listeners do not need to read the board back to find out what happened.
+ */
+public final class CellChanged {
+    private final int row; // The row of the cell that changed.
+    private final int col; // The column of the cell that changed.
+    private final int oldValue; // The value before the change, or Board.EMPTY.
+    private final int newValue; // The value after the change, or Board.EMPTY.
+
+    /**
+     * Constructor for CellChanged.
+     * @param row The row of the cell that changed.
+     * @param col The column of the cell that changed.
+     * @param oldValue The value before the change, or {@link Board#EMPTY}.
+     * @param newValue The value after the change, or {@link Board#EMPTY}.
+     */
+    public CellChanged(int row, int col, int oldValue, int newValue) {
+        this.row = row;
+        this.col = col;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Get the row of the cell that changed.
+     * @return The row.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Get the column of the cell that changed.
+     * @return The column.
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * Get the value the cell held before the change.
+     * @return The old value, or {@link Board#EMPTY} if the cell was empty.
+     */
+    public int getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Get the value the cell holds after the change.
+     * @return The new value, or {@link Board#EMPTY} if the cell was cleared.
+     */
+    public int getNewValue() {
+        return newValue;
+    }
+}//end of CellChanged class
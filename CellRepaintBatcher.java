@@ -0,0 +1,71 @@
+import java.util.BitSet; // Records which cells have changed since the last repaint.
+import java.util.function.IntConsumer; // Repaints one cell, given its index.
+import javax.swing.SwingUtilities; // Hands the repaint pass to the Swing event dispatch thread.
+
+/**
+ * CellRepaintBatcher coalesces cell change notifications into repaint passes on the Swing event
+ * dispatch thread. Changed cells are collected in a {@link BitSet}, and only the first change
+ * after a repaint schedules a flush with {@link SwingUtilities#invokeLater}. Everything that changes
+ * before that flush runs, such as a whole board being loaded, reset or played back by a solver,
+ * is repainted in a single pass with each cell painted once.
+ *
+ * Changes may be marked from any thread; the painter is always called on the event dispatch thread.
+ */
+public class CellRepaintBatcher {
+    private final IntConsumer painter; // Repaints the cell with the given row-major index.
+    private final BitSet dirty = new BitSet(); // The cells changed since the last flush.
+    private boolean scheduled; // Whether a flush is already queued on the event dispatch thread.
+
+    /**
+     * Constructor for CellRepaintBatcher.
+     * @param painter Repaints one cell, given its row-major index. Called on the event dispatch thread.
+     */
+    public CellRepaintBatcher(IntConsumer painter) {
+        this.painter = painter;
+    }
+
+    /**
+     * Marks one cell as changed.
+     * @param index The row-major index of the cell.
+     */
+    public void markDirty(int index) {
+        synchronized (this) {
+            dirty.set(index);
+            if (scheduled) {
+                return; // The queued flush will pick this cell up.
+            }
+            scheduled = true;
+        }
+        SwingUtilities.invokeLater(this::flush);
+    }
+
+    /**
+     * Marks every cell of a board as changed, for bulk operations such as loading or resetting a game.
+     * @param cellCount The number of cells on the board.
+     */
+    public void markAll(int cellCount) {
+        synchronized (this) {
+            dirty.set(0, cellCount);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        SwingUtilities.invokeLater(this::flush);
+    }
+
+    /**
+     * Repaints every cell marked since the last flush. Runs on the event dispatch thread.
+     */
+    void flush() {
+        BitSet batch;
+        synchronized (this) {
+            batch = (BitSet) dirty.clone();
+            dirty.clear();
+            scheduled = false;
+        }
+        for (int index = batch.nextSetBit(0); index >= 0; index = batch.nextSetBit(index + 1)) {
+            painter.accept(index);
+        }
+    }
+}//end of CellRepaintBatcher class
@@ -0,0 +1,39 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+
+public class CellRepaintBatcherTest {
+    private final List<Integer> painted = new ArrayList<>();
+    private final CellRepaintBatcher batcher = new CellRepaintBatcher(painted::add);
+
+    @Test
+    public void testRepeatedChangesArePaintedOnce() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            batcher.markDirty(5);
+            batcher.markDirty(2);
+            batcher.markDirty(5);
+        });
+        SwingUtilities.invokeAndWait(() -> { }); // Wait for the queued flush
+        assertEquals(List.of(2, 5), painted);
+    }
+
+    @Test
+    public void testMarkAllPaintsEveryCellInOnePass() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            batcher.markDirty(3);
+            batcher.markAll(16);
+        });
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals(16, painted.size());
+        assertEquals(0, painted.get(0));
+        assertEquals(15, painted.get(15));
+    }
+
+    @Test
+    public void testNothingIsPaintedWithoutChanges() {
+        batcher.flush();
+        assertTrue(painted.isEmpty());
+    }
+}
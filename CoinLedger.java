@@ -0,0 +1,430 @@
+import java.io.IOException; // Thrown when the ledger cannot be read or written.
+import java.io.InterruptedIOException; // Thrown when a wait for the disk is interrupted.
+import java.nio.ByteBuffer; // Holds the records of a commit, and those read back from the file.
+import java.nio.channels.FileChannel; // Appends and forces the records.
+import java.nio.channels.FileLock; // Keeps other programs out of the file while a group is committed.
+import java.nio.charset.StandardCharsets; // Nicknames are stored as UTF-8.
+import java.nio.file.Path; // Names the ledger file.
+import java.nio.file.StandardOpenOption; // Opens the ledger for reading and writing.
+import java.util.ArrayList; // The changes waiting to be committed.
+import java.util.HashSet; // The ledger files open in this program.
+import java.util.List; // The changes waiting to be committed.
+import java.util.Set; // The ledger files open in this program.
+import java.util.concurrent.ConcurrentHashMap; // The balance of every player.
+import java.util.zip.CRC32; // Detects a record torn by a crash.
+
+/**
+ * CoinLedger is the record of every change to every player's coins. Each change is one record
+ * appended to the ledger file, and a change returns only once its record is on disk. The balances
+ * are kept in memory, so reading one never touches the disk.
+ *
+ * Changes are committed in groups: a change queues itself, and the first change to find no commit
+ * running commits every queued change with one write and one fsync. Changes made while it waits for
+ * the disk queue behind it, and the next of them to wake commits them all together, so a burst of
+ * coin events, or many sessions spending at once, shares a few fsyncs rather than paying one each.
+ *
+ * Several programs, such as the GUI and the text UI, can have the file open at once. A commit holds
+ * an OS lock on the file while it reads the records other programs appended since, applies its
+ * changes to the balances that result, and appends them. So a debit is checked against every coin
+ * spent anywhere, two sessions or programs can never both spend the same coins, and a balance never
+ * goes below zero. Balances read between changes may lag behind other programs until the next
+ * commit. A program opens a file only once, as OS locks are held per program. If a commit fails,
+ * the ledger refuses further changes, since it can no longer tell what is on disk.
+ *
+ * The file is big-endian: an 8 byte header of the magic {@code SCLG}, the format version (short)
+ * and 2 reserved bytes, then one record per change: the nickname's length (byte) and UTF-8 bytes,
+ * the change (int), the balance after it (int) and a CRC-32 of all of those (int). Opening replays
+ * the records and drops a torn or corrupt tail. Records are never rewritten.
+ */
+public class CoinLedger {
+    public static final int MAX_NICKNAME_BYTES = ProfileStore.MAX_NICKNAME_BYTES; // The longest nickname a record holds.
+    private static final int MAGIC = 0x53434C47; // "SCLG".
+    private static final short VERSION = 1; // The format version written by this class.
+    private static final int HEADER_LENGTH = 8; // The bytes before the first record.
+    private static final int FIXED_LENGTH = 1 + 4 + 4 + 4; // The bytes of a record besides the nickname.
+    private static final Set<Path> OPEN = new HashSet<>(); // The ledger files open in this program. Guarded by itself.
+
+    private final Path file; // The ledger file, or null for a ledger kept only in memory.
+    private final FileChannel channel; // The ledger file, or null for a ledger kept only in memory.
+    private final ConcurrentHashMap<String, Integer> balances = new ConcurrentHashMap<>(); // Every player's balance.
+    private long end; // The length of the file as far as this ledger has read or written it, owned by the committing thread.
+    private ByteBuffer records = ByteBuffer.allocate(4096); // The records of the running commit, owned by the committing thread.
+    private List<Change> pending = new ArrayList<>(); // Changes waiting to be committed, guarded by this.
+    private List<Change> spare = new ArrayList<>(); // Swapped with pending when a commit starts, guarded by this.
+    private long appended; // The changes queued so far, guarded by this.
+    private long durable; // The changes committed so far, guarded by this.
+    private long commits; // The fsyncs so far, guarded by this.
+    private boolean committing; // Whether a commit is writing, guarded by this.
+    private IOException failure; // Why a commit failed, or null, guarded by this.
+
+    /**
+     * One change to a player's balance, and its outcome once committed.
+     */
+    private static final class Change {
+        final String nickname; // The player.
+        final byte[] name; // The player's nickname in UTF-8.
+        final int delta; // The coins to add, or to take if negative.
+        final boolean opening; // Whether the change only opens an account, and is dropped if there is one.
+        int balance = -1; // The balance after the change, or -1 if it was refused.
+
+        Change(String nickname, byte[] name, int delta, boolean opening) {
+            this.nickname = nickname;
+            this.name = name;
+            this.delta = delta;
+            this.opening = opening;
+        }
+    }
+
+    /**
+     * Creates an empty ledger kept only in memory.
+     */
+    public CoinLedger() {
+        this.file = null;
+        this.channel = null;
+    }
+
+    private CoinLedger(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the ledger in a file, creating it if it does not exist yet, and replays its records.
+     * Other programs may have the same file open.
+     * @param file The ledger file.
+     * @return The ledger.
+     * @throws IOException if the file cannot be read, is not a coin ledger, or is already open in this program.
+     */
+    public static CoinLedger open(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (OPEN) {
+            if (!OPEN.add(key)) {
+                throw new IOException("Coin ledger is already open in this program: " + file);
+            }
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            CoinLedger ledger = new CoinLedger(key, channel);
+            FileLock held = channel.lock();
+            try {
+                ledger.replay();
+            } finally {
+                held.release();
+            }
+            return ledger;
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            synchronized (OPEN) {
+                OPEN.remove(key);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the header, or writes it to a new file, and reads the balances from the records.
+     * Runs with the file locked.
+     */
+    private void replay() throws IOException {
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC).putShort(VERSION).putShort((short) 0).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, HEADER_LENGTH - header.remaining());
+            }
+            channel.force(false);
+            end = HEADER_LENGTH;
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Keep reading until the whole header is in memory.
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a coin ledger: " + file);
+        }
+        if (header.getShort(4) != VERSION) {
+            throw new IOException("Unsupported coin ledger version " + header.getShort(4) + ": " + file);
+        }
+        end = HEADER_LENGTH;
+        catchUp();
+    }
+
+    /**
+     * Reads the records appended since this ledger last read or wrote the file, by this or another
+     * program, into the balances. Only a program that crashed while appending can leave a torn or
+     * corrupt tail, as every commit holds the file locked, so the tail is dropped. Runs with the file locked.
+     */
+    private void catchUp() throws IOException {
+        long size = channel.size();
+        if (size == end) {
+            return;
+        }
+        if (size < end || size - end > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt coin ledger, " + size + " bytes: " + file);
+        }
+        ByteBuffer data = ByteBuffer.allocate((int) (size - end));
+        while (data.hasRemaining() && channel.read(data, end + data.position()) >= 0) {
+            // Keep reading until every new record is in memory.
+        }
+        data.flip();
+        CRC32 checksum = new CRC32();
+        int read = 0;
+        while (read < data.limit()) {
+            int length = data.get(read) & 0xFF;
+            int recordLength = FIXED_LENGTH + length;
+            if (length > MAX_NICKNAME_BYTES || read + recordLength > data.limit()) {
+                break; // A torn last record
+            }
+            checksum.reset();
+            checksum.update(data.array(), read, recordLength - 4);
+            if ((int) checksum.getValue() != data.getInt(read + recordLength - 4)) {
+                break; // A torn or corrupt record; nothing after it can be trusted
+            }
+            String nickname = new String(data.array(), read + 1, length, StandardCharsets.UTF_8);
+            balances.put(nickname, data.getInt(read + 1 + length + 4));
+            read += recordLength;
+        }
+        end += read;
+        if (end < size) {
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * Get whether a player has ever had coins recorded in the ledger, as of its latest commit.
+     * @param nickname The player.
+     * @return {@code true} if the ledger holds a balance for the player.
+     */
+    public boolean hasAccount(String nickname) {
+        return balances.containsKey(nickname);
+    }
+
+    /**
+     * Get a player's balance, as of the ledger's latest commit.
+     * @param nickname The player.
+     * @return The player's coins, or 0 if the player has no account.
+     */
+    public int getBalance(String nickname) {
+        return balances.getOrDefault(nickname, 0);
+    }
+
+    /**
+     * Opens an account with a starting balance, unless the player has one already, and waits until
+     * the change is on disk. Whether the player has an account is decided with the file locked, so
+     * two programs can never both open one, and a starting bonus is granted once.
+     * @param nickname The player.
+     * @param amount The starting balance, zero or more.
+     * @return {@code true} if this call opened the account, {@code false} if the player had one.
+     * @throws IOException if the change cannot be made durable; the ledger refuses further changes.
+     * @throws IllegalArgumentException if the amount is negative or the nickname does not fit a record.
+     */
+    public boolean openAccount(String nickname, int amount) throws IOException {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot open an account with a negative amount: " + amount);
+        }
+        return change(nickname, amount, true) >= 0;
+    }
+
+    /**
+     * Adds coins to a player's balance, opening an account if the player has none, and waits until
+     * the change is on disk.
+     * @param nickname The player.
+     * @param amount The coins to add, zero or more.
+     * @return The player's new balance.
+     * @throws IOException if the change cannot be made durable; the balance has changed in memory,
+     *         and the ledger refuses further changes.
+     * @throws IllegalArgumentException if the amount is negative or the nickname does not fit a record.
+     */
+    public int credit(String nickname, int amount) throws IOException {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot credit a negative amount: " + amount);
+        }
+        return change(nickname, amount, false);
+    }
+
+    /**
+     * Takes coins from a player's balance if the player has that many, and waits until the change is
+     * on disk. The balance is checked with the file locked, after the coins spent by other programs,
+     * so concurrent debits never overspend.
+     * @param nickname The player.
+     * @param amount The coins to take, zero or more.
+     * @return {@code true} if the coins were taken, {@code false} if the balance was too low.
+     * @throws IOException if the change cannot be made durable; the balance has changed in memory,
+     *         and the ledger refuses further changes.
+     * @throws IllegalArgumentException if the amount is negative or the nickname does not fit a record.
+     */
+    public boolean debit(String nickname, int amount) throws IOException {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot debit a negative amount: " + amount);
+        }
+        return change(nickname, -amount, false) >= 0;
+    }
+
+    /**
+     * Applies a change at once for a ledger kept in memory, or queues it and waits for it to be committed.
+     * @return The new balance, or -1 if the change was refused.
+     */
+    private int change(String nickname, int delta, boolean opening) throws IOException {
+        byte[] name = nickname.getBytes(StandardCharsets.UTF_8);
+        if (name.length == 0 || name.length > MAX_NICKNAME_BYTES) {
+            throw new IllegalArgumentException("Nickname empty or longer than " + MAX_NICKNAME_BYTES + " bytes: " + nickname);
+        }
+        Change change = new Change(nickname, name, delta, opening);
+        long sequence;
+        synchronized (this) {
+            if (failure != null) {
+                throw new IOException("The coin ledger failed earlier", failure);
+            }
+            if (channel == null) {
+                apply(change); // Nothing to commit, so nothing is queued
+                appended++;
+                return change.balance;
+            }
+            pending.add(change);
+            sequence = ++appended;
+        }
+        awaitCommit(sequence);
+        return change.balance;
+    }
+
+    /**
+     * Applies a change to the balances, setting its outcome.
+     * @return {@code true} if the change needs a record.
+     */
+    private boolean apply(Change change) {
+        Integer old = balances.get(change.nickname);
+        int current = old == null ? 0 : old;
+        if (change.opening && old != null) {
+            return false; // The account is open already; its balance is left as it is
+        }
+        long next = (long) current + change.delta;
+        if (next < 0 || next > Integer.MAX_VALUE) {
+            return false;
+        }
+        balances.put(change.nickname, (int) next);
+        change.balance = (int) next;
+        return true;
+    }
+
+    /**
+     * Waits until a change is committed. If no commit is running, this thread commits every queued
+     * change itself; otherwise it waits for the running commit, and tries again.
+     */
+    private void awaitCommit(long sequence) throws IOException {
+        List<Change> batch;
+        long batchEnd;
+        synchronized (this) {
+            while (durable < sequence) {
+                if (failure != null) {
+                    throw new IOException("The coin ledger failed to commit", failure);
+                }
+                if (!committing) {
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the coin ledger");
+                }
+            }
+            if (durable >= sequence) {
+                return;
+            }
+            committing = true;
+            batch = pending;
+            batchEnd = appended;
+            pending = spare; // Changes queued from now on go in the next group
+        }
+        IOException failed = null;
+        try {
+            commit(batch);
+        } catch (IOException e) {
+            failed = e;
+        }
+        synchronized (this) {
+            committing = false;
+            commits++;
+            if (failed == null) {
+                durable = batchEnd;
+            } else {
+                failure = failed;
+            }
+            batch.clear();
+            spare = batch;
+            notifyAll();
+        }
+        if (failed != null) {
+            throw failed;
+        }
+    }
+
+    /**
+     * Locks the file, catches up with other programs, applies a group of changes and appends the
+     * records of those that went through, then forces them to disk.
+     */
+    private void commit(List<Change> batch) throws IOException {
+        FileLock held = channel.lock();
+        try {
+            catchUp();
+            records.clear();
+            CRC32 checksum = new CRC32();
+            for (Change change : batch) {
+                if (!apply(change)) {
+                    continue;
+                }
+                int recordLength = FIXED_LENGTH + change.name.length;
+                if (records.remaining() < recordLength) {
+                    ByteBuffer grown = ByteBuffer.allocate(Math.max(records.capacity() * 2, records.position() + recordLength));
+                    records.flip();
+                    records = grown.put(records);
+                }
+                int start = records.position();
+                records.put((byte) change.name.length).put(change.name).putInt(change.delta).putInt(change.balance);
+                checksum.reset();
+                checksum.update(records.array(), start, recordLength - 4);
+                records.putInt((int) checksum.getValue());
+            }
+            records.flip();
+            while (records.hasRemaining()) {
+                end += channel.write(records, end);
+            }
+            channel.force(false);
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Get the number of changes made so far, each one record unless it was refused.
+     * @return The changes since the ledger was opened.
+     */
+    public synchronized long getRecords() {
+        return appended;
+    }
+
+    /**
+     * Get the number of commits so far, each one write and one fsync of a group of records.
+     * @return The commits since the ledger was opened.
+     */
+    public synchronized long getCommits() {
+        return commits;
+    }
+
+    /**
+     * Releases the ledger file. Every change has been committed by the time it returned, so there
+     * is nothing left to write. The ledger must not be used afterwards.
+     * @throws IOException if the file cannot be released.
+     */
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.close();
+            synchronized (OPEN) {
+                OPEN.remove(file);
+            }
+        }
+    }
+}//end of CoinLedger class
@@ -0,0 +1,208 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CoinLedgerTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = Files.createTempFile("coins", ".ledger");
+        Files.delete(file); // The ledger writes its own header
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testBalancesSurviveReopening() throws Exception {
+        CoinLedger ledger = CoinLedger.open(file);
+        assertFalse(ledger.hasAccount("alice"));
+        assertEquals(100, ledger.credit("alice", 100));
+        assertTrue(ledger.debit("alice", 30));
+        assertEquals(120, ledger.credit("alice", 50));
+        ledger.credit("bob", 0); // An account with no coins yet
+        ledger.close();
+
+        CoinLedger reopened = CoinLedger.open(file);
+        assertEquals(120, reopened.getBalance("alice"));
+        assertTrue(reopened.hasAccount("bob"));
+        assertEquals(0, reopened.getBalance("bob"));
+        reopened.close();
+    }
+
+    @Test
+    public void testDebitNeverOverdraws() throws Exception {
+        CoinLedger ledger = new CoinLedger();
+        ledger.credit("alice", 10);
+        assertFalse(ledger.debit("alice", 11));
+        assertEquals(10, ledger.getBalance("alice"));
+        assertTrue(ledger.debit("alice", 10));
+        assertFalse(ledger.debit("alice", 1));
+        assertEquals(0, ledger.getBalance("alice"));
+        assertFalse(ledger.debit("nobody", 1));
+        assertFalse(ledger.hasAccount("nobody"));
+        assertThrows(IllegalArgumentException.class, () -> ledger.debit("alice", -5));
+        assertThrows(IllegalArgumentException.class, () -> ledger.credit("alice", -5));
+    }
+
+    @Test
+    public void testTornTailIsDropped() throws Exception {
+        CoinLedger ledger = CoinLedger.open(file);
+        ledger.credit("alice", 100);
+        ledger.credit("alice", 25);
+        ledger.close();
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3); // A crash in the middle of the last record
+        }
+
+        CoinLedger reopened = CoinLedger.open(file);
+        assertEquals(100, reopened.getBalance("alice"));
+        assertEquals(105, reopened.credit("alice", 5)); // Appended where the torn record began
+        reopened.close();
+        assertBalanceOnDisk(105);
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws Exception {
+        Files.write(file, "alice,3,95\n".getBytes());
+        assertThrows(IOException.class, () -> CoinLedger.open(file));
+    }
+
+    @Test
+    public void testOnlyOneLedgerPerFile() throws Exception {
+        CoinLedger ledger = CoinLedger.open(file);
+        assertThrows(IOException.class, () -> CoinLedger.open(file));
+        ledger.close();
+        CoinLedger.open(file).close();
+    }
+
+    @Test
+    public void testAccountIsOpenedOnce() throws Exception {
+        CoinLedger ledger = CoinLedger.open(file);
+        assertTrue(ledger.openAccount("alice", 100));
+        assertTrue(ledger.debit("alice", 30));
+        assertFalse(ledger.openAccount("alice", 100)); // No second bonus
+        assertEquals(70, ledger.getBalance("alice"));
+        ledger.close();
+        assertBalanceOnDisk(70);
+    }
+
+    @Test
+    public void testProgramsNeverDoubleSpend() throws Exception {
+        CoinLedger ledger = CoinLedger.open(file);
+        ledger.credit("alice", 100);
+        // Another program spends most of the coins meanwhile, and has none to give a bonus with
+        assertEquals(0, runOtherProgram("80"));
+        assertEquals(100, ledger.getBalance("alice")); // Not read until the next commit
+        assertFalse(ledger.debit("alice", 50));
+        assertEquals(20, ledger.getBalance("alice"));
+        assertTrue(ledger.debit("alice", 20));
+        assertFalse(ledger.openAccount("alice", 100));
+        ledger.close();
+        assertBalanceOnDisk(0);
+    }
+
+    /**
+     * Runs {@link OtherProgram} in a JVM of its own, so it holds the OS locks as another program would.
+     */
+    private int runOtherProgram(String amount) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), OtherProgram.class.getName(),
+                file.toString(), amount).inheritIO().start().waitFor();
+    }
+
+    /**
+     * Tries to open alice's account with a bonus, then spends the given coins from it, in the ledger named first.
+     */
+    public static final class OtherProgram {
+        public static void main(String[] args) throws Exception {
+            CoinLedger ledger = CoinLedger.open(Path.of(args[0]));
+            if (ledger.openAccount("alice", 100) || !ledger.debit("alice", Integer.parseInt(args[1]))) {
+                System.exit(1);
+            }
+            ledger.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentSessionsNeverDoubleSpend() throws Exception {
+        CoinLedger ledger = CoinLedger.open(file);
+        ledger.credit("alice", 100);
+        AtomicInteger spent = new AtomicInteger();
+        runConcurrently(2, () -> {
+            for (int i = 0; i < 100; i++) {
+                if (ledger.debit("alice", 1)) {
+                    spent.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(100, spent.get());
+        assertEquals(0, ledger.getBalance("alice"));
+        ledger.close();
+        assertBalanceOnDisk(0);
+    }
+
+    @Test
+    public void testChangesShareCommits() throws Exception {
+        CoinLedger ledger = CoinLedger.open(file);
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 50; i++) {
+                ledger.credit("alice", 1);
+            }
+        });
+        assertEquals(400, ledger.getBalance("alice"));
+        assertEquals(400, ledger.getRecords());
+        assertTrue(ledger.getCommits() < ledger.getRecords(), ledger.getCommits() + " commits");
+        ledger.close();
+        assertBalanceOnDisk(400);
+    }
+
+    private void assertBalanceOnDisk(int expected) throws IOException {
+        CoinLedger reopened = CoinLedger.open(file);
+        assertEquals(expected, reopened.getBalance("alice"));
+        reopened.close();
+    }
+
+    private interface LedgerTask {
+        void run() throws IOException;
+    }
+
+    private static void runConcurrently(int threads, LedgerTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        IOException[] failure = new IOException[1];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (IOException | InterruptedException e) {
+                    synchronized (failure) {
+                        failure[0] = new IOException(e);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+}
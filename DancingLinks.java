@@ -0,0 +1,261 @@
+import java.util.concurrent.atomic.AtomicBoolean; // Lets a parallel search stop every worker once it is done.
+
+/**
+ * DancingLinks is an exact-cover solver (Knuth's Algorithm X with dancing links) for Sudoku
+ * boards of any box size. A board of size N is encoded as 4N&sup2; constraint columns (every cell
+ * is filled, and every row, column and box holds each digit once) and N&sup3; candidate rows
+ * (digit d in cell r,c). The links are kept in flat {@code int} arrays rather than node objects,
+ * so a 36x36 board needs a few megabytes at most and large puzzles solve within interactive latency
+ * where plain backtracking blows up.
+ */
+public class DancingLinks {
+    private final int size; // The number of rows and columns of the board.
+    private final int boxSize; // The width and height of one box.
+    private final int columns; // The number of constraint columns.
+    private final int[] left, right, up, down; // The four links of every node; node 0 is the root.
+    private final int[] column; // The column header node of every node.
+    private final int[] rowOf; // The candidate row (cell * size + digit - 1) of every data node.
+    private final int[] columnSize; // The number of live nodes in each column, indexed by header node.
+    private final int[] chosen; // The candidate rows currently selected by the search.
+    private int depth; // The number of candidate rows currently selected.
+    private boolean contradictory; // Whether the givens conflict with each other.
+    private int limit; // Stop searching once this many solutions have been found.
+    private AtomicBoolean cancelled; // Set by another thread to stop the search early.
+    private int solutions; // The number of solutions found so far.
+    private byte[] firstSolution; // The first solution found, row-major.
+
+    /**
+     * Builds the exact-cover matrix for a puzzle and selects the rows for its givens.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @throws IllegalArgumentException if the size is not supported or the puzzle has the wrong length.
+     */
+    DancingLinks(byte[] givens, int size) {
+        int box = (int) Math.round(Math.sqrt(size));
+        if (size < 1 || box * box != size || size > Board.MAX_VALUE || givens.length != size * size) {
+            throw new IllegalArgumentException("Unsupported puzzle of size " + size);
+        }
+        this.size = size;
+        this.boxSize = box;
+        int cells = size * size;
+        this.columns = 4 * cells;
+        int nodes = 1 + columns + 4 * cells * size;
+        left = new int[nodes];
+        right = new int[nodes];
+        up = new int[nodes];
+        down = new int[nodes];
+        column = new int[nodes];
+        rowOf = new int[nodes];
+        columnSize = new int[columns + 1];
+        chosen = new int[cells];
+
+        // The root and the column headers form a circular list.
+        for (int header = 0; header <= columns; header++) {
+            left[header] = header == 0 ? columns : header - 1;
+            right[header] = header == columns ? 0 : header + 1;
+            up[header] = header;
+            down[header] = header;
+            column[header] = header;
+        }
+        int next = columns + 1;
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / size;
+            int col = cell % size;
+            int boxNumber = (row / boxSize) * boxSize + col / boxSize;
+            for (int digit = 0; digit < size; digit++) {
+                int first = next;
+                int[] headers = {
+                    1 + cell,
+                    1 + cells + row * size + digit,
+                    1 + 2 * cells + col * size + digit,
+                    1 + 3 * cells + boxNumber * size + digit
+                };
+                for (int k = 0; k < 4; k++) {
+                    int node = next++;
+                    int header = headers[k];
+                    column[node] = header;
+                    rowOf[node] = cell * size + digit;
+                    // Append the node to the bottom of its column.
+                    up[node] = up[header];
+                    down[node] = header;
+                    down[up[header]] = node;
+                    up[header] = node;
+                    columnSize[header]++;
+                    // Link the node into its candidate row.
+                    left[node] = k == 0 ? node : node - 1;
+                    right[node] = first;
+                    right[left[node]] = node;
+                    left[first] = node;
+                }
+            }
+        }
+
+        // Select the candidate row of every given, which covers the constraints it satisfies.
+        for (int cell = 0; cell < cells; cell++) {
+            int value = givens[cell];
+            if (value == Board.EMPTY) {
+                continue;
+            }
+            if (value < 1 || value > size) {
+                contradictory = true;
+                continue;
+            }
+            int first = columns + 1 + 4 * (cell * size + value - 1);
+            // If one of the row's columns is already covered, the givens repeat a digit in a unit.
+            for (int node = first, k = 0; k < 4; node = right[node], k++) {
+                if (isCovered(column[node])) {
+                    contradictory = true;
+                }
+            }
+            if (!contradictory) {
+                select(first);
+                chosen[depth++] = rowOf[first];
+            }
+        }
+    }
+
+    /**
+     * Solves a puzzle.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @return The first solution found, row-major, or {@code null} if the puzzle has no solution.
+     */
+    public static byte[] solve(byte[] givens, int size) {
+        DancingLinks solver = new DancingLinks(givens, size);
+        solver.run(1);
+        return solver.firstSolution;
+    }
+
+    /**
+     * Counts the solutions of a puzzle, stopping early once a limit is reached.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @param limit The most solutions to count; 2 is enough to check that a solution is unique.
+     * @return The number of solutions found, at most {@code limit}.
+     */
+    public static int countSolutions(byte[] givens, int size, int limit) {
+        DancingLinks solver = new DancingLinks(givens, size);
+        solver.run(limit);
+        return solver.solutions;
+    }
+
+    /**
+     * Runs the search until {@code limit} solutions have been found or the search space is exhausted.
+     */
+    void run(int limit) {
+        run(limit, new AtomicBoolean());
+    }
+
+    /**
+     * Runs the search until {@code limit} solutions have been found, the search space is exhausted
+     * or {@code cancelled} is set by another thread.
+     */
+    void run(int limit, AtomicBoolean cancelled) {
+        this.limit = limit;
+        this.cancelled = cancelled;
+        if (!contradictory && limit > 0) {
+            search();
+        }
+    }
+
+    /**
+     * Get the number of solutions found by the last run.
+     */
+    int getSolutionCount() {
+        return solutions;
+    }
+
+    /**
+     * Get the first solution found by the last run, or {@code null}.
+     */
+    byte[] getFirstSolution() {
+        return firstSolution;
+    }
+
+    /**
+     * Algorithm X: pick the column with the fewest rows, try each row in it, and recurse.
+     */
+    private void search() {
+        if (right[0] == 0) {
+            // Every constraint is covered, so the selected rows form a solution.
+            solutions++;
+            if (firstSolution == null) {
+                firstSolution = new byte[size * size];
+                for (int i = 0; i < depth; i++) {
+                    firstSolution[chosen[i] / size] = (byte) (chosen[i] % size + 1);
+                }
+            }
+            return;
+        }
+        int best = right[0];
+        for (int header = right[best]; header != 0; header = right[header]) {
+            if (columnSize[header] < columnSize[best]) {
+                best = header;
+            }
+        }
+        if (columnSize[best] == 0) {
+            return; // A constraint nothing can satisfy: dead end.
+        }
+        cover(best);
+        for (int node = down[best]; node != best && solutions < limit && !cancelled.get(); node = down[node]) {
+            chosen[depth++] = rowOf[node];
+            for (int other = right[node]; other != node; other = right[other]) {
+                cover(column[other]);
+            }
+            search();
+            for (int other = left[node]; other != node; other = left[other]) {
+                uncover(column[other]);
+            }
+            depth--;
+        }
+        uncover(best);
+    }
+
+    /**
+     * Checks whether a column header has been unlinked from the header list.
+     */
+    private boolean isCovered(int header) {
+        return right[left[header]] != header;
+    }
+
+    /**
+     * Covers every column of the candidate row containing {@code node}.
+     */
+    private void select(int node) {
+        int current = node;
+        do {
+            cover(column[current]);
+            current = right[current];
+        } while (current != node);
+    }
+
+    /**
+     * Removes a column and every row that intersects it.
+     */
+    private void cover(int header) {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for (int row = down[header]; row != header; row = down[row]) {
+            for (int node = right[row]; node != row; node = right[node]) {
+                up[down[node]] = up[node];
+                down[up[node]] = down[node];
+                columnSize[column[node]]--;
+            }
+        }
+    }
+
+    /**
+     * Restores a column removed by {@link #cover(int)}, in exactly the reverse order.
+     */
+    private void uncover(int header) {
+        for (int row = up[header]; row != header; row = up[row]) {
+            for (int node = left[row]; node != row; node = left[node]) {
+                columnSize[column[node]]++;
+                up[down[node]] = node;
+                down[up[node]] = node;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+}//end of DancingLinks class
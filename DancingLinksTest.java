@@ -0,0 +1,61 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class DancingLinksTest {
+
+    /**
+     * Checks that a solved board repeats no digit in any row, column or box.
+     */
+    private static void assertValidGrid(byte[] solved, int size) {
+        assertNotNull(solved);
+        Board board = new Board(size);
+        for (int i = 0; i < size * size; i++) {
+            assertTrue(board.isValidPlacement(i / size, i % size, solved[i]));
+            board.set(i / size, i % size, solved[i]);
+        }
+    }
+
+    @Test
+    public void testAgreesWithSolver() {
+        byte[] puzzle = SolverTest.toCells(SolverTest.PUZZLE);
+        assertArrayEquals(Solver.solve(puzzle, 9), DancingLinks.solve(puzzle, 9));
+        assertEquals(1, DancingLinks.countSolutions(puzzle, 9, 2));
+    }
+
+    @Test
+    public void testSolvesLargeEmptyBoards() {
+        // 16x16, 25x25 and 36x36 boards all solve with the exact-cover encoding
+        assertValidGrid(DancingLinks.solve(new byte[16 * 16], 16), 16);
+        assertValidGrid(DancingLinks.solve(new byte[25 * 25], 25), 25);
+        assertValidGrid(DancingLinks.solve(new byte[36 * 36], 36), 36);
+    }
+
+    @Test
+    public void testCountsAllFourByFourGrids() {
+        // There are exactly 288 valid 4x4 Sudoku grids
+        assertEquals(288, DancingLinks.countSolutions(new byte[16], 4, 1000));
+    }
+
+    @Test
+    public void testContradictoryGivensHaveNoSolution() {
+        byte[] cells = new byte[16];
+        cells[0] = 1;
+        cells[5] = 1; // The same digit twice in the top left box
+        assertNull(DancingLinks.solve(cells, 4));
+    }
+
+    @Test
+    public void testSixteenBySixteenLevel() {
+        // The 16x16 level loads, is solved by the exact-cover engine and validates moves
+        Sudoku sudoku = new Sudoku("16x16");
+        assertEquals(16, sudoku.getGameSize());
+        assertEquals(4, sudoku.getBoard().getBoxSize());
+        assertFalse(sudoku.checkWin());
+        for (int row = 0; row < 16; row++) {
+            for (int col = 0; col < 16; col++) {
+                sudoku.makeMove(Integer.toString(row), Integer.toString(col), sudoku.getSolution(row, col));
+            }
+        }
+        assertTrue(sudoku.checkWin());
+    }
+}
@@ -0,0 +1,500 @@
+import java.io.IOException; // Thrown when a puzzle file cannot be read.
+import java.nio.ByteBuffer; // Wraps one line of a text file for the level parser.
+import java.nio.charset.StandardCharsets; // Encodes a line of a text file back into bytes.
+import java.nio.file.Files; // Reads the lines of a text puzzle file.
+import java.nio.file.Path; // Names the puzzle file to grade.
+import java.nio.file.Paths; // Turns a command line argument into a path.
+import java.util.Arrays; // Fills the candidate grid before the givens are placed.
+import java.util.List; // The puzzles of a text file.
+import java.util.concurrent.ExecutionException; // Wraps a failure inside the batch.
+import java.util.concurrent.ForkJoinPool; // The pool the batch is graded on.
+import java.util.function.IntFunction; // Reads one puzzle of a batch by its position.
+import java.util.stream.IntStream; // Splits a batch across the pool.
+
+/**
+ * DifficultyRater grades a puzzle the way a person would solve it. It works on a grid of candidate
+ * masks and applies a ladder of human techniques, always going back to the simplest one that makes
+ * progress: naked and hidden singles, naked pairs, pointing and claiming, and X-wings. Every step
+ * adds the weight of its technique to the score, and the hardest technique needed sets the grade.
+ * A puzzle that the ladder cannot finish needs guessing and is graded hardest of all.
+ *
+ * The batch methods grade many puzzles at once, one puzzle per task, across the cores of a
+ * {@link ForkJoinPool}. Run from the command line, the rater grades a {@link PuzzlePack} or a text
+ * file with one puzzle per line and prints one line per puzzle.
+ */
+public class DifficultyRater {
+
+    /**
+     * The techniques of the ladder, from the simplest up, with the score each use adds.
+     */
+    public enum Technique {
+        NAKED_SINGLE(1),
+        HIDDEN_SINGLE(2),
+        NAKED_PAIR(10),
+        POINTING(15),
+        X_WING(40),
+        GUESSING(200);
+
+        private final int weight; // The score one use of the technique adds.
+
+        Technique(int weight) {
+            this.weight = weight;
+        }
+
+        /**
+         * Get the score one use of the technique adds.
+         * @return The weight of the technique.
+         */
+        public int getWeight() {
+            return weight;
+        }
+    }
+
+    /**
+     * The grade of one puzzle: its score, the hardest technique it needed and the matching difficulty.
+     */
+    public static final class Rating {
+        private final int score; // The sum of the weights of every step taken.
+        private final Technique hardest; // The hardest technique needed.
+
+        Rating(int score, Technique hardest) {
+            this.score = score;
+            this.hardest = hardest;
+        }
+
+        /**
+         * Get the score of the puzzle; harder puzzles score higher.
+         * @return The score.
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Get the hardest technique the puzzle needed.
+         * @return The hardest technique, {@link Technique#GUESSING} if logic alone could not finish it.
+         */
+        public Technique getHardest() {
+            return hardest;
+        }
+
+        /**
+         * Get the difficulty level of the puzzle: singles only is easy, pairs and pointing are medium,
+         * and anything harder is hard.
+         * @return The difficulty.
+         */
+        public PuzzleGenerator.Difficulty getDifficulty() {
+            if (hardest.compareTo(Technique.HIDDEN_SINGLE) <= 0) {
+                return PuzzleGenerator.Difficulty.EASY;
+            }
+            if (hardest.compareTo(Technique.POINTING) <= 0) {
+                return PuzzleGenerator.Difficulty.MEDIUM;
+            }
+            return PuzzleGenerator.Difficulty.HARD;
+        }
+
+        @Override
+        public String toString() {
+            return score + " " + getDifficulty() + " " + hardest;
+        }
+    }
+
+    private final ForkJoinPool pool; // The pool batches are graded on.
+
+    /**
+     * Creates a rater that grades batches on every core, using the common fork-join pool.
+     */
+    public DifficultyRater() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a rater that grades batches on the given pool.
+     * @param pool The pool to grade on.
+     */
+    public DifficultyRater(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Grades one puzzle.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns of the puzzle.
+     * @return The rating, or {@code null} if the givens contradict each other.
+     * @throws IllegalArgumentException if the size is not supported or the puzzle has the wrong length.
+     */
+    public static Rating rate(byte[] givens, int size) {
+        return new Grid(givens, size).rate();
+    }
+
+    /**
+     * Grades a list of puzzles in parallel.
+     * @param puzzles The puzzles.
+     * @return The rating of each puzzle, in order, {@code null} where the givens contradict each other.
+     */
+    public Rating[] rateAll(List<Puzzle> puzzles) {
+        return rateAll(puzzles.size(), id -> rate(puzzles.get(id)));
+    }
+
+    /**
+     * Grades every puzzle of a pack in parallel. Each task reads its own puzzle from the mapping.
+     * @param pack The pack.
+     * @return The rating of each puzzle, by puzzle id.
+     */
+    public Rating[] rateAll(PuzzlePack pack) {
+        return rateAll(pack.getCount(), id -> rate(pack.get(id)));
+    }
+
+    private static Rating rate(Puzzle puzzle) {
+        return rate(puzzle.getGivens(), puzzle.getSize());
+    }
+
+    /**
+     * Grades puzzles 0 to count - 1 on the pool, each task grading one puzzle.
+     */
+    private Rating[] rateAll(int count, IntFunction<Rating> grade) {
+        Rating[] ratings = new Rating[count];
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(id -> ratings[id] = grade.apply(id))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Grading was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Grading failed", e.getCause());
+        }
+        return ratings;
+    }
+
+    /**
+     * Grades a puzzle file and prints {@code id score difficulty technique} for every puzzle.
+     * The file is either a puzzle pack or text with one puzzle per line in the compact format.
+     * @param args The path of the file to grade.
+     * @throws IOException if the file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java DifficultyRater <puzzle pack or text file>");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        DifficultyRater rater = new DifficultyRater();
+        Rating[] ratings;
+        try {
+            ratings = rater.rateAll(PuzzlePack.open(file));
+        } catch (IllegalArgumentException notAPack) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+            lines.removeIf(line -> line.isBlank());
+            ratings = rater.rateAll(lines.size(), id -> {
+                byte[] givens = LevelParser.parse(ByteBuffer.wrap(lines.get(id).getBytes(StandardCharsets.US_ASCII)), 0);
+                return rate(givens, (int) Math.round(Math.sqrt(givens.length)));
+            });
+        }
+        StringBuilder out = new StringBuilder();
+        for (int id = 0; id < ratings.length; id++) {
+            out.append(id).append(' ').append(ratings[id] == null ? "invalid" : ratings[id].toString()).append('\n');
+        }
+        System.out.print(out);
+    }
+
+    /**
+     * The candidate grid of one puzzle being graded.
+     */
+    private static final class Grid {
+        private final int size; // The number of rows and columns.
+        private final int boxSize; // The width and height of one box.
+        private final long[] candidates; // The candidate mask of every empty cell, 0 once it is filled.
+        private final int[][] units; // The cells of every row, then every column, then every box.
+        private final int[][] unitsOf; // The row, column and box unit of every cell.
+        private int emptyCount; // The number of cells still to fill.
+        private boolean contradiction; // Whether some empty cell has no candidate left.
+
+        Grid(byte[] givens, int size) {
+            int box = (int) Math.round(Math.sqrt(size));
+            if (size < 1 || box * box != size || size >= Long.SIZE || givens.length != size * size) {
+                throw new IllegalArgumentException("Unsupported puzzle of size " + size);
+            }
+            this.size = size;
+            this.boxSize = box;
+            this.candidates = new long[size * size];
+            this.units = new int[3 * size][size];
+            this.unitsOf = new int[size * size][3];
+            for (int index = 0; index < size * size; index++) {
+                int row = index / size;
+                int col = index % size;
+                int b = (row / box) * box + col / box;
+                int inBox = (row % box) * box + col % box;
+                units[row][col] = index;
+                units[size + col][row] = index;
+                units[2 * size + b][inBox] = index;
+                unitsOf[index][0] = row;
+                unitsOf[index][1] = size + col;
+                unitsOf[index][2] = 2 * size + b;
+            }
+            long all = ((1L << (size + 1)) - 1) & ~1L;
+            Arrays.fill(candidates, all);
+            emptyCount = size * size;
+            for (int index = 0; index < givens.length; index++) {
+                int value = givens[index];
+                if (value == Board.EMPTY) {
+                    continue;
+                }
+                if (value < 1 || value > size || (candidates[index] & (1L << value)) == 0) {
+                    contradiction = true;
+                    return;
+                }
+                place(index, value);
+            }
+        }
+
+        Rating rate() {
+            int score = 0;
+            Technique hardest = Technique.NAKED_SINGLE;
+            while (emptyCount > 0 && !contradiction) {
+                Technique step = step();
+                if (step == null) {
+                    break;
+                }
+                score += step.getWeight();
+                if (step.compareTo(hardest) > 0) {
+                    hardest = step;
+                }
+            }
+            if (contradiction) {
+                return null;
+            }
+            if (emptyCount > 0) {
+                // Logic alone is stuck; the rest needs trial and error.
+                score += Technique.GUESSING.getWeight();
+                hardest = Technique.GUESSING;
+            }
+            return new Rating(score, hardest);
+        }
+
+        /**
+         * Applies the simplest technique that makes progress.
+         * @return The technique applied, or {@code null} if none did.
+         */
+        private Technique step() {
+            if (nakedSingle()) {
+                return Technique.NAKED_SINGLE;
+            }
+            if (hiddenSingle()) {
+                return Technique.HIDDEN_SINGLE;
+            }
+            if (nakedPair()) {
+                return Technique.NAKED_PAIR;
+            }
+            if (pointing()) {
+                return Technique.POINTING;
+            }
+            if (xWing()) {
+                return Technique.X_WING;
+            }
+            return null;
+        }
+
+        private boolean nakedSingle() {
+            for (int index = 0; index < candidates.length; index++) {
+                long mask = candidates[index];
+                if (mask != 0 && (mask & (mask - 1)) == 0) {
+                    place(index, Long.numberOfTrailingZeros(mask));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hiddenSingle() {
+            for (int[] unit : units) {
+                long once = 0;
+                long twice = 0;
+                for (int index : unit) {
+                    twice |= once & candidates[index];
+                    once |= candidates[index];
+                }
+                long singles = once & ~twice;
+                if (singles != 0) {
+                    long bit = Long.lowestOneBit(singles);
+                    for (int index : unit) {
+                        if ((candidates[index] & bit) != 0) {
+                            place(index, Long.numberOfTrailingZeros(bit));
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Two cells of a unit with the same two candidates hold those two digits between them,
+         * so no other cell of the unit can.
+         */
+        private boolean nakedPair() {
+            for (int[] unit : units) {
+                for (int i = 0; i < size; i++) {
+                    long pair = candidates[unit[i]];
+                    if (Long.bitCount(pair) != 2) {
+                        continue;
+                    }
+                    for (int j = i + 1; j < size; j++) {
+                        if (candidates[unit[j]] != pair) {
+                            continue;
+                        }
+                        boolean progress = false;
+                        for (int k = 0; k < size; k++) {
+                            if (k != i && k != j) {
+                                progress |= eliminate(unit[k], pair);
+                            }
+                        }
+                        if (progress) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * A digit confined to one row or column within a box cannot go elsewhere in that row or
+         * column (pointing), and a digit confined to one box within a row or column cannot go
+         * elsewhere in that box (claiming).
+         */
+        private boolean pointing() {
+            for (int digit = 1; digit <= size; digit++) {
+                long bit = 1L << digit;
+                for (int b = 0; b < size; b++) {
+                    int[] box = units[2 * size + b];
+                    if (confinedTo(box, bit, 0) || confinedTo(box, bit, 1)) {
+                        return true;
+                    }
+                }
+                for (int line = 0; line < 2 * size; line++) {
+                    int[] unit = units[line];
+                    if (confinedTo(unit, bit, 2)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * If every cell of a unit that can hold the digit lies in one unit of the given kind
+         * (0 row, 1 column, 2 box), removes the digit from the rest of that other unit.
+         */
+        private boolean confinedTo(int[] unit, long bit, int kind) {
+            int target = -1;
+            for (int index : unit) {
+                if ((candidates[index] & bit) == 0) {
+                    continue;
+                }
+                int other = unitsOf[index][kind];
+                if (target >= 0 && other != target) {
+                    return false;
+                }
+                target = other;
+            }
+            if (target < 0) {
+                return false;
+            }
+            boolean progress = false;
+            for (int index : units[target]) {
+                if (!contains(unit, index)) {
+                    progress |= eliminate(index, bit);
+                }
+            }
+            return progress;
+        }
+
+        /**
+         * If a digit can go in exactly the same two columns of two rows, it must take those columns
+         * in those rows, so it is removed from the rest of both columns; and the same with rows and
+         * columns swapped.
+         */
+        private boolean xWing() {
+            for (int digit = 1; digit <= size; digit++) {
+                long bit = 1L << digit;
+                for (int across = 0; across <= 1; across++) {
+                    int lines = across * size; // Rows first, then columns.
+                    int crossLines = size - lines; // The units the fish eliminates in.
+                    for (int a = 0; a < size; a++) {
+                        long placesA = places(units[lines + a], bit);
+                        if (Long.bitCount(placesA) != 2) {
+                            continue;
+                        }
+                        for (int b = a + 1; b < size; b++) {
+                            if (places(units[lines + b], bit) != placesA) {
+                                continue;
+                            }
+                            boolean progress = false;
+                            for (long rest = placesA; rest != 0; rest &= rest - 1) {
+                                int cross = Long.numberOfTrailingZeros(rest);
+                                int[] crossUnit = units[crossLines + cross];
+                                for (int k = 0; k < size; k++) {
+                                    if (k != a && k != b) {
+                                        progress |= eliminate(crossUnit[k], bit);
+                                    }
+                                }
+                            }
+                            if (progress) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Get the positions within a row or column where a digit can go, as a bit per position.
+         */
+        private long places(int[] unit, long bit) {
+            long positions = 0;
+            for (int i = 0; i < size; i++) {
+                if ((candidates[unit[i]] & bit) != 0) {
+                    positions |= 1L << i;
+                }
+            }
+            return positions;
+        }
+
+        private void place(int index, int value) {
+            candidates[index] = 0;
+            emptyCount--;
+            long bit = 1L << value;
+            for (int unit : unitsOf[index]) {
+                for (int peer : units[unit]) {
+                    eliminate(peer, bit);
+                }
+            }
+        }
+
+        /**
+         * Removes candidates from a cell, noting a contradiction if an empty cell runs out.
+         * @return {@code true} if any candidate was removed.
+         */
+        private boolean eliminate(int index, long mask) {
+            long before = candidates[index];
+            if ((before & mask) == 0) {
+                return false;
+            }
+            candidates[index] = before & ~mask;
+            if (candidates[index] == 0) {
+                contradiction = true;
+            }
+            return true;
+        }
+
+        private static boolean contains(int[] cells, int index) {
+            for (int cell : cells) {
+                if (cell == index) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}//end of DifficultyRater class
@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class DifficultyRaterTest {
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testSinglesOnlyPuzzleIsEasy() {
+        // This well known puzzle falls to naked and hidden singles alone
+        DifficultyRater.Rating rating = DifficultyRater.rate(SolverTest.toCells(SolverTest.PUZZLE), 9);
+        assertEquals(PuzzleGenerator.Difficulty.EASY, rating.getDifficulty());
+        assertTrue(rating.getScore() >= 51); // At least one step per empty cell
+    }
+
+    @Test
+    public void testHardPuzzleNeedsMoreThanSingles() {
+        // "AI Escargot", which famously needs trial and error
+        DifficultyRater.Rating rating = DifficultyRater.rate(SolverTest.toCells(
+                "100007090030020008009600500005300900010080002600004000300000010040000007007000300"), 9);
+        assertEquals(DifficultyRater.Technique.GUESSING, rating.getHardest());
+        assertEquals(PuzzleGenerator.Difficulty.HARD, rating.getDifficulty());
+    }
+
+    @Test
+    public void testNakedPairPuzzleIsMedium() {
+        DifficultyRater.Rating rating = DifficultyRater.rate(SolverTest.toCells(
+                "287000100090000000001060003000700000060002007005409008000040006000005030028010900"), 9);
+        assertEquals(DifficultyRater.Technique.NAKED_PAIR, rating.getHardest());
+        assertEquals(PuzzleGenerator.Difficulty.MEDIUM, rating.getDifficulty());
+    }
+
+    @Test
+    public void testPointingPuzzleIsMedium() {
+        DifficultyRater.Rating rating = DifficultyRater.rate(SolverTest.toCells(
+                "080000060000040000060850009001000020004503070000007500500000932000092000600000080"), 9);
+        assertEquals(DifficultyRater.Technique.POINTING, rating.getHardest());
+        assertEquals(PuzzleGenerator.Difficulty.MEDIUM, rating.getDifficulty());
+    }
+
+    @Test
+    public void testXWingPuzzleIsHardWithoutGuessing() {
+        DifficultyRater.Rating rating = DifficultyRater.rate(SolverTest.toCells(
+                "001000000020000900080430005500017400000040013000800059960005820000000090040020000"), 9);
+        assertEquals(DifficultyRater.Technique.X_WING, rating.getHardest());
+        assertEquals(PuzzleGenerator.Difficulty.HARD, rating.getDifficulty());
+    }
+
+    @Test
+    public void testGeneratedPuzzlesAreGradedAsAskedFor() {
+        PuzzleGenerator generator = new PuzzleGenerator(new Random(3));
+        for (PuzzleGenerator.Difficulty difficulty : PuzzleGenerator.Difficulty.values()) {
+            Puzzle puzzle = generator.generate(9, difficulty);
+            assertEquals(difficulty, DifficultyRater.rate(puzzle.getGivens(), 9).getDifficulty());
+        }
+    }
+
+    @Test
+    public void testContradictoryGivensAreRejected() {
+        byte[] givens = new byte[81];
+        givens[0] = 5;
+        givens[1] = 5;
+        assertNull(DifficultyRater.rate(givens, 9));
+    }
+
+    @Test
+    public void testBatchMatchesSingleRatings() throws IOException {
+        PuzzleGenerator generator = new PuzzleGenerator(new Random(11));
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            puzzles.add(generator.generate(9, PuzzleGenerator.Difficulty.HARD));
+        }
+        DifficultyRater.Rating[] ratings = new DifficultyRater(pool).rateAll(puzzles);
+        for (int i = 0; i < puzzles.size(); i++) {
+            DifficultyRater.Rating single = DifficultyRater.rate(puzzles.get(i).getGivens(), 9);
+            assertEquals(single.getScore(), ratings[i].getScore());
+            assertEquals(single.getHardest(), ratings[i].getHardest());
+        }
+    }
+
+    @Test
+    public void testLevelsAreRated() {
+        for (String gameType : new String[] {"4x4", "9x9", "16x16"}) {
+            assertNotNull(new Sudoku(gameType).getRating());
+        }
+    }
+}
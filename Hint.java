@@ -0,0 +1,83 @@
+/**
+ * Hint is one cell the {@link HintEngine} can fill in for the player, with the value that goes
+ * there and the reasoning that finds it.
+ */
+public final class Hint {
+    /**
+     * How the value of a hinted cell was found, from the simplest deduction to none at all.
+     */
+    public enum Technique {
+        NAKED_SINGLE("only %d can go in this cell"),
+        HIDDEN_SINGLE("%d can go nowhere else in its %s"),
+        SOLUTION("no single deduction was found, so %d was taken from the solution");
+
+        private final String reason; // The explanation, with the value and unit filled in.
+
+        Technique(String reason) {
+            this.reason = reason;
+        }
+    }
+
+    private final int row; // The row of the hinted cell.
+    private final int col; // The column of the hinted cell.
+    private final int value; // The value that goes in the cell.
+    private final Technique technique; // How the value was found.
+    private final String unit; // The row, column or box a hidden single was found in, otherwise null.
+
+    /**
+     * Constructor for Hint.
+     * @param row The row of the hinted cell.
+     * @param col The column of the hinted cell.
+     * @param value The value that goes in the cell.
+     * @param technique How the value was found.
+     * @param unit "row", "column" or "box" for a hidden single, otherwise {@code null}.
+     */
+    public Hint(int row, int col, int value, Technique technique, String unit) {
+        this.row = row;
+        this.col = col;
+        this.value = value;
+        this.technique = technique;
+        this.unit = unit;
+    }
+
+    /**
+     * Get the row of the hinted cell.
+     * @return The row.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Get the column of the hinted cell.
+     * @return The column.
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * Get the value that goes in the hinted cell.
+     * @return The value.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Get how the value was found.
+     * @return The technique.
+     */
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    /**
+     * Get the reasoning of the hint, for showing to the player.
+     * @return A sentence explaining why the value goes in the cell.
+     */
+    public String getReason() {
+        String reason = String.format(technique.reason, value, unit);
+        return "Row " + row + ", column " + col + ": " + reason + ".";
+    }
+}//end of Hint class
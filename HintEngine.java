@@ -0,0 +1,181 @@
+/**
+ * HintEngine finds the next cell the player can fill in by logic, with the reasoning behind it.
+ * It listens to its {@link Board} and keeps the empty cells in an indexed set (a dense array of
+ * cell indices plus the position of each cell in it), so adding, removing and visiting empty cells
+ * never scans the filled ones. Candidates come from the board's unit masks in O(1) per cell.
+ *
+ * A hint is, in order of preference, a naked single (a cell with one candidate), a hidden single
+ * (a digit with one possible cell in a row, column or box) or, when neither exists, the solution
+ * value of the empty cell with the fewest candidates. A deduction that disagrees with the known
+ * solution, which happens once the player has made a mistake, is passed over.
+ */
+public class HintEngine implements BoardListener {
+    private final Board board; // The board the hints are for.
+    private final LevelTemplate template; // The solution of the level, used to check and fall back.
+    private final int size; // The number of rows and columns.
+    private final int[] empty; // The indices of the empty cells, in no particular order.
+    private final int[] position; // Where each cell sits in empty, or -1 if it is filled.
+    private int emptyCount; // The number of empty cells.
+
+    /**
+     * Creates a hint engine and subscribes it to the board, so it follows every later change.
+     * @param board The board the hints are for.
+     * @param template The level being played, for its solution.
+     */
+    public HintEngine(Board board, LevelTemplate template) {
+        this.board = board;
+        this.template = template;
+        this.size = board.getSize();
+        this.empty = new int[size * size];
+        this.position = new int[size * size];
+        for (int index = 0; index < position.length; index++) {
+            position[index] = -1;
+            if (board.getAt(index) == Board.EMPTY) {
+                add(index);
+            }
+        }
+        board.getEvents().subscribe(this);
+    }
+
+    /**
+     * Keeps the set of empty cells up to date as the board changes.
+     * @param event The cell that changed.
+     */
+    @Override
+    public void cellChanged(CellChanged event) {
+        int index = board.index(event.getRow(), event.getCol());
+        if (event.getNewValue() == Board.EMPTY) {
+            add(index);
+        } else {
+            remove(index);
+        }
+    }
+
+    /**
+     * Get the number of empty cells on the board.
+     * @return The number of empty cells.
+     */
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    /**
+     * Finds the next hint. Naked singles are found in O(empty cells), hidden singles in
+     * O(size * size) over all units.
+     * @return The hint, or {@code null} if every cell is filled or no hint can be found.
+     */
+    public Hint nextHint() {
+        if (emptyCount == 0) {
+            return null;
+        }
+        int fewest = -1; // The empty cell with the fewest candidates, for the fallback.
+        int fewestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < emptyCount; i++) {
+            int index = empty[i];
+            long candidates = board.candidates(index / size, index % size);
+            int count = Long.bitCount(candidates);
+            if (count == 1 && agrees(index, Long.numberOfTrailingZeros(candidates))) {
+                return new Hint(index / size, index % size, Long.numberOfTrailingZeros(candidates), Hint.Technique.NAKED_SINGLE, null);
+            }
+            if (count < fewestCount) {
+                fewest = index;
+                fewestCount = count;
+            }
+        }
+        Hint hidden = hiddenSingle();
+        if (hidden != null) {
+            return hidden;
+        }
+        int solved = template.getSolution(fewest);
+        if (solved == Board.EMPTY) {
+            return null; // No deduction and no known solution to fall back on.
+        }
+        return new Hint(fewest / size, fewest % size, solved, Hint.Technique.SOLUTION, null);
+    }
+
+    /**
+     * Looks for a digit that fits in only one empty cell of some row, column or box.
+     */
+    private Hint hiddenSingle() {
+        int boxSize = board.getBoxSize();
+        for (int unit = 0; unit < size; unit++) {
+            Hint hint = hiddenSingle(unit * size, 1, 0, "row");
+            if (hint == null) {
+                hint = hiddenSingle(unit, size, 0, "column");
+            }
+            if (hint == null) {
+                int first = (unit / boxSize) * boxSize * size + (unit % boxSize) * boxSize;
+                hint = hiddenSingle(first, 1, boxSize, "box");
+            }
+            if (hint != null) {
+                return hint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks for a hidden single in one unit, walking its cells from the first one. A row steps by 1,
+     * a column by the size, and a box steps by 1 and jumps to the next row every boxSize cells.
+     */
+    private Hint hiddenSingle(int first, int step, int boxSize, String unitName) {
+        long once = 0; // Digits that fit in at least one empty cell of the unit.
+        long twice = 0; // Digits that fit in at least two.
+        for (int i = 0, index = first; i < size; i++) {
+            if (board.getAt(index) == Board.EMPTY) {
+                long candidates = board.candidates(index / size, index % size);
+                twice |= once & candidates;
+                once |= candidates;
+            }
+            index = nextInUnit(index, i, step, boxSize);
+        }
+        long singles = once & ~twice;
+        while (singles != 0) {
+            int digit = Long.numberOfTrailingZeros(singles);
+            singles &= singles - 1;
+            for (int i = 0, index = first; i < size; i++) {
+                if (board.getAt(index) == Board.EMPTY && (board.candidates(index / size, index % size) & (1L << digit)) != 0) {
+                    if (agrees(index, digit)) {
+                        return new Hint(index / size, index % size, digit, Hint.Technique.HIDDEN_SINGLE, unitName);
+                    }
+                    break;
+                }
+                index = nextInUnit(index, i, step, boxSize);
+            }
+        }
+        return null;
+    }
+
+    private int nextInUnit(int index, int i, int step, int boxSize) {
+        if (boxSize > 0 && (i + 1) % boxSize == 0) {
+            return index + size - (boxSize - 1); // The next row of the box.
+        }
+        return index + step;
+    }
+
+    /**
+     * Checks a deduced value against the solution, if the level has one.
+     */
+    private boolean agrees(int index, int value) {
+        int solved = template.getSolution(index);
+        return solved == Board.EMPTY || solved == value;
+    }
+
+    private void add(int index) {
+        if (position[index] < 0) {
+            position[index] = emptyCount;
+            empty[emptyCount++] = index;
+        }
+    }
+
+    private void remove(int index) {
+        int at = position[index];
+        if (at >= 0) {
+            // Move the last empty cell into the gap, so removal is O(1).
+            int last = empty[--emptyCount];
+            empty[at] = last;
+            position[last] = at;
+            position[index] = -1;
+        }
+    }
+}//end of HintEngine class
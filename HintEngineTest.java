@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class HintEngineTest {
+
+    @Test
+    public void testHintsSolveTheWholePuzzle() {
+        Sudoku sudoku = SolverTest.newGame();
+        Hint hint;
+        while ((hint = sudoku.getHint()) != null) {
+            // This puzzle can be solved by singles alone, so every hint is a deduction
+            assertNotEquals(Hint.Technique.SOLUTION, hint.getTechnique());
+            assertEquals(sudoku.getSolution(hint.getRow(), hint.getCol()), Integer.toString(hint.getValue()));
+            assertTrue(sudoku.makeMove(Integer.toString(hint.getRow()), Integer.toString(hint.getCol()), Integer.toString(hint.getValue())));
+        }
+        assertTrue(sudoku.checkWin());
+    }
+
+    @Test
+    public void testFindsNakedSingle() {
+        Sudoku sudoku = SolverTest.newGame();
+        Board board = sudoku.getBoard();
+        // Fill every empty cell from the solution except the last one, which then has a single candidate
+        for (int index = 0; index < 78; index++) {
+            if (board.getAt(index) == Board.EMPTY) {
+                board.setAt(index, Integer.parseInt(sudoku.getSolution(index / 9, index % 9)));
+            }
+        }
+        Hint hint = sudoku.getHint();
+        assertEquals(Hint.Technique.NAKED_SINGLE, hint.getTechnique());
+        assertEquals(8, hint.getRow());
+        assertEquals(6, hint.getCol());
+        assertEquals(1, hint.getValue());
+        assertTrue(hint.getReason().contains("only 1"));
+    }
+
+    @Test
+    public void testFollowsBoardChanges() {
+        Sudoku sudoku = SolverTest.newGame();
+        HintEngine engine = new HintEngine(sudoku.getBoard(), sudoku.getTemplate());
+        int empty = engine.getEmptyCount();
+        sudoku.makeMove("0", "2", "4");
+        assertEquals(empty - 1, engine.getEmptyCount());
+        sudoku.makeMove("0", "2", "-");
+        assertEquals(empty, engine.getEmptyCount());
+    }
+
+    @Test
+    public void testFallsBackToSolutionAfterMistake() {
+        Sudoku sudoku = SolverTest.newGame();
+        Board board = sudoku.getBoard();
+        // Fill everything correctly except the last two empty cells, then put a wrong digit in one of them
+        for (int index = 0; index < 77; index++) {
+            if (board.getAt(index) == Board.EMPTY) {
+                board.setAt(index, Integer.parseInt(sudoku.getSolution(index / 9, index % 9)));
+            }
+        }
+        board.setAt(77, 1); // The solution has 6 here and 1 in the last empty cell
+        Hint hint = sudoku.getHint();
+        assertEquals(Hint.Technique.SOLUTION, hint.getTechnique());
+        assertEquals(6, hint.getCol());
+        assertEquals(1, hint.getValue());
+    }
+}
@@ -0,0 +1,639 @@
+import java.io.BufferedWriter; // Buffers the lines of a compacted leaderboard.
+import java.io.IOException; // Thrown when the leaderboard cannot be read or written.
+import java.io.OutputStreamWriter; // Writes the compacted leaderboard as text.
+import java.io.Writer; // Writes the compacted leaderboard as text.
+import java.nio.ByteBuffer; // Holds one appended update.
+import java.nio.channels.Channels; // Streams the compacted leaderboard into its file channel.
+import java.nio.channels.FileChannel; // Appends updates and truncates a torn last line.
+import java.nio.charset.StandardCharsets; // Nicknames are stored as UTF-8.
+import java.nio.file.Files; // Reads the leaderboard and renames the compacted one over it.
+import java.nio.file.NoSuchFileException; // A leaderboard that does not exist yet is empty.
+import java.nio.file.Path; // Names the leaderboard file.
+import java.nio.file.StandardCopyOption; // Renames the compacted leaderboard over the old one.
+import java.nio.file.StandardOpenOption; // Opens the leaderboard for appending or writing.
+import java.nio.file.attribute.BasicFileAttributes; // Tells a log compacted by another program from the one read.
+import java.time.Duration; // The best times of the players.
+import java.util.ArrayList; // Collects the players to index when opening.
+import java.util.Comparator; // The orders of the rank indexes.
+import java.util.List; // The top players.
+import java.util.Map; // Finds a player's standing by nickname.
+import java.util.concurrent.ConcurrentHashMap; // Finds a player's standing by nickname, and the leaderboard files open in this program.
+import java.util.concurrent.atomic.AtomicLong; // Counts the lines in the log, read without the lock.
+import java.util.concurrent.locks.Lock; // Keeps this program's threads apart while one holds the OS lock.
+import java.util.concurrent.locks.ReentrantLock; // Keeps this program's threads apart while one holds the OS lock.
+import java.util.function.UnaryOperator; // Turns a player's standing into their next one.
+
+/**
+ * LeaderboardStore keeps the wins and best time of every player, and ranks them by best time and
+ * by wins. Standings are found by nickname through a concurrent hash map, and ranked through two
+ * {@link RankIndex}es, so a win, a rank and the top k players each cost O(log n) however many
+ * players there are.
+ *
+ * The file is an append-only log with one line per update: the nickname, the wins and the best
+ * time in seconds, or -1 for none, separated by commas. A later line for a player replaces the
+ * earlier ones, so a win appends one short line and forces it to disk instead of rewriting the
+ * whole leaderboard. Once the log holds more than twice as many lines as there are players, it is
+ * compacted into one line per player, written to a temporary file renamed over the leaderboard.
+ * A compacted log is exactly the old {@code leaderboard.txt} format, so old leaderboards load as
+ * they are. A crash in the middle of an append can only leave a partial last line, which opening drops.
+ *
+ * Several programs, such as the GUI and the text UI, can share the file. Every update and every
+ * compaction holds an OS lock on a sibling {@code .lock} file, which unlike the log is never renamed,
+ * and first reads the lines other programs appended since, so a win is applied to the player's latest
+ * standing whichever program recorded the one before. If another program compacted the log into a
+ * new file meanwhile, that file is read whole. Ranks and top players show what this store last read;
+ * {@link #refresh()} picks up the rest.
+ *
+ * The store is safe to use from many game sessions on many threads at once. A player's standing is
+ * replaced through {@link ConcurrentHashMap#compute}, which applies every win to the player's latest
+ * standing, never losing it to a concurrent one, without holding up other players. Both indexes are
+ * guarded by the store's monitor, held only to move the standing in them, and ranks and top players
+ * read the one index under it, so they always see a consistent leaderboard. Updates to the file
+ * also take turns on the file lock, as they must read other programs' lines first, so the log keeps
+ * each player's updates in order; the line is written outside the monitor and forced to disk after
+ * the lock is released, so sessions do not wait for each other's fsync.
+ */
+public class LeaderboardStore {
+    private static final int MIN_COMPACT_LINES = 1024; // Logs shorter than this are never compacted.
+    private static final Map<Path, Lock> FILE_MUTEXES = new ConcurrentHashMap<>(); // One for each leaderboard file open in this program.
+
+    private final Path file; // The leaderboard file, or null for a store kept only in memory.
+    private final Path lockFile; // Locked by the program changing the leaderboard, or null for a store kept only in memory.
+    private final Lock fileMutex; // Held with the OS lock, which cannot keep this program's own threads apart.
+    private final Map<String, Standing> players = new ConcurrentHashMap<>(); // The standings, by nickname.
+    private final RankIndex<Standing> byBestTime = new RankIndex<>(Standing.BY_BEST_TIME); // Players with a best time. Guarded by this.
+    private final RankIndex<Standing> byWins = new RankIndex<>(Standing.BY_WINS); // Every player. Guarded by this.
+    private final AtomicLong loggedLines = new AtomicLong(); // The lines in the file, at most one of them current for each player.
+    private Object logIdentity; // Tells the log read so far from a new one compacted by another program. Guarded by fileMutex.
+    private long end; // The bytes of the log read so far. Guarded by fileMutex.
+
+    /**
+     * Creates an empty store kept only in memory, for when the leaderboard file cannot be read and
+     * must not be overwritten.
+     */
+    public LeaderboardStore() {
+        this(null);
+    }
+
+    private LeaderboardStore(Path file) {
+        this.file = file;
+        this.lockFile = file == null ? null : file.resolveSibling(file.getFileName() + ".lock");
+        this.fileMutex = file == null ? null : FILE_MUTEXES.computeIfAbsent(file.toAbsolutePath().normalize(), key -> new ReentrantLock());
+    }
+
+    /**
+     * Opens the leaderboard in a file, which need not exist yet. A partial last line left by a crash
+     * is dropped from the file, and lines that cannot be parsed are skipped. Other programs may have
+     * the same file open.
+     * @param file The leaderboard file.
+     * @return The store.
+     * @throws IOException if the file cannot be read.
+     */
+    public static LeaderboardStore open(Path file) throws IOException {
+        LeaderboardStore store = new LeaderboardStore(file);
+        store.refresh();
+        return store;
+    }
+
+    /**
+     * Picks up the wins other programs recorded in the leaderboard file since this store last read it.
+     * Updates and compaction do so themselves; this is for showing ranks that are up to date.
+     * @throws IOException if the file cannot be read.
+     */
+    public void refresh() throws IOException {
+        if (file == null) {
+            return;
+        }
+        FileChannel lock = lock();
+        try {
+            catchUp();
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    /**
+     * Locks the leaderboard against this program's other threads and other programs.
+     * @return The channel holding the OS lock, to pass to {@link #unlock(FileChannel)}.
+     */
+    private FileChannel lock() throws IOException {
+        fileMutex.lock();
+        FileChannel lock = null;
+        try {
+            lock = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lock.lock(); // Released when the channel closes
+            return lock;
+        } catch (IOException | RuntimeException e) {
+            if (lock != null) {
+                lock.close();
+            }
+            fileMutex.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the locks taken by {@link #lock()}.
+     */
+    private void unlock(FileChannel lock) throws IOException {
+        try {
+            lock.close();
+        } finally {
+            fileMutex.unlock();
+        }
+    }
+
+    /**
+     * Reads the lines appended to the log since this store last read it, and drops a partial last
+     * line left by a crash, as every append is written whole under the lock. If another program
+     * compacted the log into a new file meanwhile, reads that file whole instead; it holds every
+     * line this store appended, since compaction reads them first. Runs with the file locked.
+     */
+    private void catchUp() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return; // Nobody has won yet.
+        }
+        Object identity = identityOf(attributes);
+        boolean replaced = !identity.equals(logIdentity) || attributes.size() < end;
+        long from = replaced ? 0 : end;
+        if (attributes.size() == from && !replaced) {
+            return;
+        }
+        byte[] data = new byte[Math.toIntExact(attributes.size() - from)];
+        int complete;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) >= 0) {
+                // Read until the whole tail is in
+            }
+            complete = buffer.position();
+            while (complete > 0 && data[complete - 1] != '\n') {
+                complete--;
+            }
+            if (complete < channel.size() - from) {
+                // Drop the partial line, so the next append starts on a line of its own.
+                channel.truncate(from + complete);
+            }
+        }
+        List<Standing> lines = new ArrayList<>();
+        long logged = 0;
+        for (int start = 0; start < complete; ) {
+            int newline = start;
+            while (data[newline] != '\n') {
+                newline++;
+            }
+            Standing standing = parseLine(data, start, newline);
+            if (standing != null) {
+                lines.add(standing);
+            }
+            logged++;
+            start = newline + 1;
+        }
+        if (replaced) {
+            load(lines);
+            loggedLines.set(logged);
+        } else {
+            for (Standing standing : lines) {
+                apply(standing.nickname, old -> standing);
+            }
+            loggedLines.addAndGet(logged);
+        }
+        logIdentity = identity;
+        end = from + complete;
+    }
+
+    /**
+     * Tells one file from another at the same path: its inode where the system has them, else its
+     * creation time.
+     */
+    private static Object identityOf(BasicFileAttributes attributes) {
+        return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+    }
+
+    /**
+     * Replaces the standings with those of a log read whole, then indexes them all at once, which is
+     * much cheaper than one insert per line. Runs with the file locked.
+     * @param lines Every standing parsed, superseded ones included.
+     */
+    private void load(List<Standing> lines) {
+        for (Standing standing : lines) {
+            players.put(standing.nickname, standing); // A later line replaces an earlier one
+        }
+        List<Standing> all = new ArrayList<>(players.values());
+        List<Standing> timed = new ArrayList<>();
+        for (Standing standing : all) {
+            if (standing.bestSeconds >= 0) {
+                timed.add(standing);
+            }
+        }
+        synchronized (this) {
+            byBestTime.load(timed);
+            byWins.load(all);
+        }
+    }
+
+    /**
+     * Parses one line of the log, from {@code start} up to the newline at {@code end}. The wins and
+     * best time are the last two fields, so a nickname may hold commas of its own.
+     * @return The standing on the line, or null if the line cannot be parsed.
+     */
+    private static Standing parseLine(byte[] data, int start, int end) {
+        if (end > start && data[end - 1] == '\r') {
+            end--;
+        }
+        int secondComma = end - 1;
+        while (secondComma >= start && data[secondComma] != ',') {
+            secondComma--;
+        }
+        int firstComma = secondComma - 1;
+        while (firstComma >= start && data[firstComma] != ',') {
+            firstComma--;
+        }
+        if (firstComma < start) {
+            return null; // Not a leaderboard line.
+        }
+        long wins = parseNumber(data, firstComma + 1, secondComma);
+        long bestSeconds = parseNumber(data, secondComma + 1, end);
+        if (wins < 0 || wins > Integer.MAX_VALUE || bestSeconds < -1) {
+            return null;
+        }
+        return new Standing(new String(data, start, firstComma - start, StandardCharsets.UTF_8), (int) wins, bestSeconds);
+    }
+
+    /**
+     * Parses a decimal number of at most 18 digits, or returns -2 if there is none.
+     */
+    private static long parseNumber(byte[] data, int start, int end) {
+        boolean negative = start < end && data[start] == '-';
+        int digits = negative ? start + 1 : start;
+        if (digits == end || end - digits > 18) {
+            return -2;
+        }
+        long value = 0;
+        for (int i = digits; i < end; i++) {
+            if (data[i] < '0' || data[i] > '9') {
+                return -2;
+            }
+            value = value * 10 + (data[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Records a win: the player gains a win, and the time becomes their best if it beats it.
+     * Concurrent wins by the same player are applied one after the other, so none is lost.
+     * The update is appended to the file and forced to disk.
+     * @param nickname The player who won.
+     * @param time The time the puzzle took.
+     * @return The player's new standing.
+     * @throws IOException if the leaderboard cannot be read or the update written. Once the file is read,
+     * the standing is updated in memory even if its line cannot be written.
+     */
+    public Standing recordWin(String nickname, Duration time) throws IOException {
+        long seconds = time.getSeconds();
+        return change(nickname, old -> {
+            if (old == null) {
+                return new Standing(nickname, 1, seconds);
+            }
+            boolean faster = old.bestSeconds < 0 || seconds < old.bestSeconds;
+            return new Standing(nickname, old.wins + 1, faster ? seconds : old.bestSeconds);
+        });
+    }
+
+    /**
+     * Sets a player's wins and best time, appending the change to the file unless nothing changed.
+     * @param nickname The player.
+     * @param wins The player's wins.
+     * @param bestTime The player's best time, or {@code null} for none.
+     * @return The player's standing.
+     * @throws IOException if the leaderboard cannot be read or the update written. Once the file is read,
+     * the standing is updated in memory even if its line cannot be written.
+     * @throws IllegalArgumentException if the nickname holds a line break or the wins are negative.
+     */
+    public Standing update(String nickname, int wins, Duration bestTime) throws IOException {
+        if (wins < 0) {
+            throw new IllegalArgumentException("Wins cannot be negative: " + wins);
+        }
+        Standing standing = new Standing(nickname, wins, bestTime == null ? -1 : bestTime.getSeconds());
+        return change(nickname, old -> standing);
+    }
+
+    /**
+     * Replaces a player's standing with the one computed from it, once the lines of other programs
+     * are read, and logs the new standing unless it equals the old one.
+     * @param nickname The player.
+     * @param next Computes the new standing from the old one, or from null for a new player.
+     * @return The player's new standing.
+     */
+    private Standing change(String nickname, UnaryOperator<Standing> next) throws IOException {
+        if (nickname.indexOf('\n') >= 0 || nickname.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("A nickname cannot hold a line break");
+        }
+        if (file == null) {
+            return apply(nickname, next);
+        }
+        Standing standing;
+        FileChannel channel = null;
+        FileChannel lock = lock();
+        try {
+            catchUp();
+            Standing old = players.get(nickname);
+            standing = apply(nickname, next);
+            if (standing == old) {
+                return standing;
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // Written under the lock, so this player's next update is logged after this one
+            ByteBuffer line = ByteBuffer.wrap(standing.toLine().getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            end += line.limit();
+            loggedLines.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            throw e;
+        } finally {
+            unlock(lock);
+        }
+        try {
+            channel.force(false); // Outside the lock, so other players need not wait for the disk
+        } finally {
+            channel.close();
+        }
+        if (loggedLines.get() > 2L * size() + MIN_COMPACT_LINES) {
+            compactIfOutgrown();
+        }
+        return standing;
+    }
+
+    /**
+     * Replaces a player's standing with the one computed from it, atomically for that player, and
+     * moves it in both indexes under the monitor.
+     * @return The new standing, or the old one itself if the new one equals it.
+     */
+    private Standing apply(String nickname, UnaryOperator<Standing> next) {
+        return players.compute(nickname, (key, old) -> {
+            Standing standing = next.apply(old);
+            if (standing.equals(old)) {
+                return old;
+            }
+            synchronized (this) {
+                if (old != null) {
+                    byBestTime.remove(old);
+                    byWins.remove(old);
+                }
+                if (standing.bestSeconds >= 0) {
+                    byBestTime.add(standing);
+                }
+                byWins.add(standing);
+            }
+            return standing;
+        });
+    }
+
+    /**
+     * Rewrites the log as one line per player, best wins first, through a temporary file renamed
+     * over the leaderboard. Updates wait until the rewrite is done.
+     * @throws IOException if the leaderboard cannot be written.
+     */
+    public void compact() throws IOException {
+        if (file == null) {
+            return;
+        }
+        FileChannel lock = lock();
+        try {
+            catchUp();
+            rewrite();
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    /**
+     * Compacts the log if it still holds more than twice as many lines as there are players, counting
+     * those other programs appended. Of several threads that saw the log outgrow, only the first compacts.
+     */
+    private void compactIfOutgrown() throws IOException {
+        FileChannel lock = lock();
+        try {
+            catchUp();
+            if (loggedLines.get() > 2L * size() + MIN_COMPACT_LINES) {
+                rewrite();
+            }
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    /**
+     * Writes the compacted log. Runs with the file locked and caught up, so it holds every line of
+     * every program, and no standing changes meanwhile.
+     */
+    private void rewrite() throws IOException {
+        List<Standing> standings;
+        synchronized (this) {
+            standings = byWins.first(byWins.size());
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long written;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), 1 << 16);
+            for (Standing standing : standings) {
+                out.write(standing.toLine());
+            }
+            out.flush();
+            channel.force(false);
+            written = channel.size();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logIdentity = identityOf(Files.readAttributes(file, BasicFileAttributes.class));
+        end = written;
+        loggedLines.set(standings.size());
+    }
+
+    /**
+     * Get a player's standing.
+     * @param nickname The player.
+     * @return The standing, or {@code null} if the player has none.
+     */
+    public Standing get(String nickname) {
+        return players.get(nickname);
+    }
+
+    /**
+     * Get a player's rank by best time, the fastest being first.
+     * @param nickname The player.
+     * @return The rank counting from 1, or 0 if the player has no best time.
+     */
+    public int rankByBestTime(String nickname) {
+        Standing standing = players.get(nickname);
+        if (standing == null || standing.bestSeconds < 0) {
+            return 0;
+        }
+        synchronized (this) {
+            return byBestTime.rank(standing) + 1;
+        }
+    }
+
+    /**
+     * Get a player's rank by wins, the most wins being first and ties going to the faster best time.
+     * @param nickname The player.
+     * @return The rank counting from 1, or 0 if the player has no standing.
+     */
+    public int rankByWins(String nickname) {
+        Standing standing = players.get(nickname);
+        if (standing == null) {
+            return 0;
+        }
+        synchronized (this) {
+            return byWins.rank(standing) + 1;
+        }
+    }
+
+    /**
+     * Get the fastest players.
+     * @param count The number of players wanted.
+     * @return Up to {@code count} players with a best time, fastest first.
+     */
+    public synchronized List<Standing> topByBestTime(int count) {
+        return byBestTime.first(count);
+    }
+
+    /**
+     * Get the players with the most wins.
+     * @param count The number of players wanted.
+     * @return Up to {@code count} players, most wins first.
+     */
+    public synchronized List<Standing> topByWins(int count) {
+        return byWins.first(count);
+    }
+
+    /**
+     * Get the number of players with a standing.
+     * @return The number of players.
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * Get the number of players with a best time, who are ranked by it.
+     * @return The number of players with a best time.
+     */
+    public synchronized int getPlayersWithBestTime() {
+        return byBestTime.size();
+    }
+
+    /**
+     * Get the number of lines in the log, which compaction brings down to one per player.
+     * @return The logged lines.
+     */
+    public long getLoggedLines() {
+        return loggedLines.get();
+    }
+
+    /**
+     * Get the file the leaderboard is kept in.
+     * @return The leaderboard file, or {@code null} for a store kept only in memory.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * The wins and best time of one player. Standings never change; an update replaces them.
+     */
+    public static final class Standing {
+        static final Comparator<Standing> BY_BEST_TIME = Standing::compareByBestTime;
+        static final Comparator<Standing> BY_WINS = Standing::compareByWins;
+
+        private final String nickname; // The player.
+        private final int wins; // The player's wins.
+        private final long bestSeconds; // The player's best time in seconds, or -1 for none.
+
+        Standing(String nickname, int wins, long bestSeconds) {
+            this.nickname = nickname;
+            this.wins = wins;
+            this.bestSeconds = bestSeconds;
+        }
+
+        /**
+         * Get the player's nickname.
+         * @return The nickname.
+         */
+        public String getNickname() {
+            return nickname;
+        }
+
+        /**
+         * Get the player's wins.
+         * @return The number of wins.
+         */
+        public int getWins() {
+            return wins;
+        }
+
+        /**
+         * Get the player's best time.
+         * @return The best time, or {@code null} if the player has none.
+         */
+        public Duration getBestTime() {
+            return bestSeconds < 0 ? null : Duration.ofSeconds(bestSeconds);
+        }
+
+        /**
+         * Formats the standing as one line of the log.
+         */
+        String toLine() {
+            return nickname + "," + wins + "," + bestSeconds + "\n";
+        }
+
+        /**
+         * Orders the fastest first, then those with more wins, then by nickname so no two players are equal.
+         */
+        private static int compareByBestTime(Standing first, Standing second) {
+            if (first.bestSeconds != second.bestSeconds) {
+                return Long.compare(first.bestSeconds, second.bestSeconds);
+            }
+            if (first.wins != second.wins) {
+                return Integer.compare(second.wins, first.wins);
+            }
+            return first.nickname.compareTo(second.nickname);
+        }
+
+        /**
+         * Orders those with more wins first, then the fastest, with no best time last, then by nickname.
+         */
+        private static int compareByWins(Standing first, Standing second) {
+            if (first.wins != second.wins) {
+                return Integer.compare(second.wins, first.wins);
+            }
+            if (first.bestSeconds != second.bestSeconds) {
+                // Unsigned, so -1 for no best time comes after every time
+                return Long.compareUnsigned(first.bestSeconds, second.bestSeconds);
+            }
+            return first.nickname.compareTo(second.nickname);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Standing)) {
+                return false;
+            }
+            Standing standing = (Standing) other;
+            return wins == standing.wins && bestSeconds == standing.bestSeconds && nickname.equals(standing.nickname);
+        }
+
+        @Override
+        public int hashCode() {
+            return nickname.hashCode() * 31 + wins * 17 + Long.hashCode(bestSeconds);
+        }
+    }
+}//end of LeaderboardStore class
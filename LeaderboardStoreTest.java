@@ -0,0 +1,300 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LeaderboardStoreTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = Files.createTempFile("leaderboard", ".txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".lock"));
+    }
+
+    @Test
+    public void testLoadsLeaderboardWrittenByEarlierVersions() throws Exception {
+        // One line per user, as nickname, wins and best time in seconds
+        Files.write(file, "alice,3,95\nbob,0,-1\n".getBytes(StandardCharsets.UTF_8));
+
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        assertEquals(2, leaderboard.size());
+        assertEquals(3, leaderboard.get("alice").getWins());
+        assertEquals(Duration.ofSeconds(95), leaderboard.get("alice").getBestTime());
+        assertNull(leaderboard.get("bob").getBestTime());
+        assertNull(leaderboard.get("carol"));
+    }
+
+    @Test
+    public void testRecordWinAppendsOneLine() throws Exception {
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        leaderboard.recordWin("alice", Duration.ofSeconds(120));
+        leaderboard.recordWin("alice", Duration.ofSeconds(150)); // Slower, so only the wins change
+        leaderboard.recordWin("bob", Duration.ofSeconds(90));
+
+        assertEquals(3, Files.readAllLines(file).size());
+        LeaderboardStore reopened = LeaderboardStore.open(file);
+        assertEquals(2, reopened.get("alice").getWins());
+        assertEquals(Duration.ofSeconds(120), reopened.get("alice").getBestTime());
+        assertEquals(1, reopened.get("bob").getWins());
+    }
+
+    @Test
+    public void testUnchangedUpdateIsNotLogged() throws Exception {
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        leaderboard.update("alice", 2, Duration.ofSeconds(60));
+        leaderboard.update("alice", 2, Duration.ofSeconds(60));
+        assertEquals(1, leaderboard.getLoggedLines());
+    }
+
+    @Test
+    public void testRanksAndTopPlayers() throws Exception {
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        leaderboard.update("alice", 5, Duration.ofSeconds(200));
+        leaderboard.update("bob", 2, Duration.ofSeconds(100));
+        leaderboard.update("carol", 9, null);
+        leaderboard.update("dave", 2, Duration.ofSeconds(100));
+
+        assertEquals(1, leaderboard.rankByBestTime("bob"));
+        assertEquals(2, leaderboard.rankByBestTime("dave")); // Tied on time and wins, so by nickname
+        assertEquals(3, leaderboard.rankByBestTime("alice"));
+        assertEquals(0, leaderboard.rankByBestTime("carol"));
+        assertEquals(1, leaderboard.rankByWins("carol"));
+        assertEquals(2, leaderboard.rankByWins("alice"));
+        assertEquals(0, leaderboard.rankByWins("erin"));
+        assertEquals(3, leaderboard.getPlayersWithBestTime());
+
+        List<LeaderboardStore.Standing> fastest = leaderboard.topByBestTime(2);
+        assertEquals("bob", fastest.get(0).getNickname());
+        assertEquals("dave", fastest.get(1).getNickname());
+
+        leaderboard.recordWin("alice", Duration.ofSeconds(50));
+        assertEquals(1, leaderboard.rankByBestTime("alice"));
+        assertEquals("alice", leaderboard.topByBestTime(1).get(0).getNickname());
+        assertEquals(6, leaderboard.topByWins(4).get(1).getWins());
+    }
+
+    @Test
+    public void testCompactsOnceTheLogOutgrowsThePlayers() throws Exception {
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        for (int win = 1; win <= 1100; win++) {
+            leaderboard.update(win % 2 == 0 ? "alice" : "bob", win, Duration.ofSeconds(1000 - win % 500));
+        }
+        assertTrue(leaderboard.getLoggedLines() < 1100);
+        assertEquals(leaderboard.getLoggedLines(), Files.readAllLines(file).size());
+
+        leaderboard.compact();
+        assertEquals(2, Files.readAllLines(file).size());
+        LeaderboardStore reopened = LeaderboardStore.open(file);
+        assertEquals(1100, reopened.get("alice").getWins());
+        assertEquals(1099, reopened.get("bob").getWins());
+    }
+
+    @Test
+    public void testDropsATornLastLine() throws Exception {
+        Files.write(file, "alice,3,95\nbob,4,1".getBytes(StandardCharsets.UTF_8));
+
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        assertNull(leaderboard.get("bob"));
+        leaderboard.recordWin("bob", Duration.ofSeconds(80));
+        assertEquals("alice,3,95\nbob,1,80\n", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStoresOfTheSameFileSeeEachOthersWins() throws Exception {
+        LeaderboardStore first = LeaderboardStore.open(file);
+        LeaderboardStore second = LeaderboardStore.open(file);
+        first.recordWin("alice", Duration.ofSeconds(120));
+        assertEquals(2, second.recordWin("alice", Duration.ofSeconds(100)).getWins());
+
+        // To check that a store reads the log whole once the other one compacted it
+        first.compact();
+        assertEquals(3, second.recordWin("alice", Duration.ofSeconds(150)).getWins());
+        assertEquals(2, first.get("alice").getWins());
+        first.refresh();
+        assertEquals(3, first.get("alice").getWins());
+        assertEquals(Duration.ofSeconds(100), first.get("alice").getBestTime());
+        assertEquals(2, first.getLoggedLines());
+    }
+
+    @Test
+    public void testSharesTheFileWithAnotherProgram() throws Exception {
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        leaderboard.recordWin("alice", Duration.ofSeconds(120));
+
+        // The other program wins as alice, adds players and compacts the log into a new file
+        assertEquals(0, runOtherProgram("alice", "2000"));
+        assertEquals(3, leaderboard.recordWin("alice", Duration.ofSeconds(100)).getWins());
+        assertEquals(Duration.ofSeconds(90), leaderboard.get("alice").getBestTime());
+        assertEquals(2001, leaderboard.size());
+        assertEquals(1, leaderboard.rankByBestTime("player0"));
+        assertEquals(1999, leaderboard.get("player1999").getWins());
+        assertEquals(2002, leaderboard.getLoggedLines());
+
+        LeaderboardStore reopened = LeaderboardStore.open(file);
+        assertEquals(3, reopened.get("alice").getWins());
+        assertEquals(2001, reopened.size());
+    }
+
+    /**
+     * Runs {@link OtherProgram} in a JVM of its own, so it holds the OS locks as another program would.
+     */
+    private int runOtherProgram(String... args) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String[] command = new String[args.length + 5];
+        command[0] = java;
+        command[1] = "-cp";
+        command[2] = System.getProperty("java.class.path");
+        command[3] = OtherProgram.class.getName();
+        command[4] = file.toString();
+        System.arraycopy(args, 0, command, 5, args.length);
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    /**
+     * Records a win in 90 seconds for one player, then numbered players with as many wins as their
+     * number, in the leaderboard file named first, and compacts it.
+     */
+    public static final class OtherProgram {
+        public static void main(String[] args) throws Exception {
+            LeaderboardStore leaderboard = LeaderboardStore.open(Path.of(args[0]));
+            leaderboard.recordWin(args[1], Duration.ofSeconds(90));
+            for (int player = 0; player < Integer.parseInt(args[2]); player++) {
+                leaderboard.update("player" + player, player, Duration.ofSeconds(60 + player));
+            }
+            leaderboard.compact();
+        }
+    }
+
+    @Test
+    public void testNicknameMayHoldCommasButNotLineBreaks() throws Exception {
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        leaderboard.recordWin("smith, j", Duration.ofSeconds(70));
+        assertEquals(1, LeaderboardStore.open(file).get("smith, j").getWins());
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.recordWin("a\nb", Duration.ofSeconds(70)));
+    }
+
+    /**
+     * Records wins for a few players from many threads at once, all starting together.
+     * @return The best time each thread recorded for each player.
+     */
+    private static List<Map<String, Long>> recordConcurrently(LeaderboardStore leaderboard, int threads, int winsPerThread, int players) throws Exception {
+        ExecutorService sessions = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Long>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            Callable<Map<String, Long>> session = () -> {
+                Map<String, Long> best = new HashMap<>();
+                start.await();
+                for (int i = 0; i < winsPerThread; i++) {
+                    String nickname = "player" + random.nextInt(players);
+                    long seconds = 30 + random.nextInt(10_000);
+                    leaderboard.recordWin(nickname, Duration.ofSeconds(seconds));
+                    best.merge(nickname, seconds, Math::min);
+                }
+                return best;
+            };
+            results.add(sessions.submit(session));
+        }
+        start.countDown();
+        List<Map<String, Long>> best = new ArrayList<>();
+        for (Future<Map<String, Long>> result : results) {
+            best.add(result.get(60, TimeUnit.SECONDS));
+        }
+        sessions.shutdown();
+        return best;
+    }
+
+    @Test
+    public void testConcurrentWinsAreNeverLost() throws Exception {
+        LeaderboardStore leaderboard = new LeaderboardStore();
+        // Readers rank and list players the whole time the wins are recorded
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            try {
+                long seen = 0;
+                while (!done.get()) {
+                    leaderboard.rankByBestTime("player7");
+                    leaderboard.rankByWins("player3");
+                    assertTrue(leaderboard.topByBestTime(10).size() <= 10);
+                    // Each list is read whole under the lock, so the wins it counts never go back
+                    long wins = 0;
+                    for (LeaderboardStore.Standing standing : leaderboard.topByWins(50)) {
+                        wins += standing.getWins();
+                    }
+                    assertTrue(wins >= seen);
+                    seen = wins;
+                }
+            } catch (Throwable e) {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            }
+        });
+        reader.start();
+        List<Map<String, Long>> best = recordConcurrently(leaderboard, 8, 20_000, 50);
+        done.set(true);
+        reader.join();
+        assertEquals(new ArrayList<>(), failures);
+
+        int wins = 0;
+        for (int player = 0; player < 50; player++) {
+            String nickname = "player" + player;
+            long fastest = Long.MAX_VALUE;
+            for (Map<String, Long> thread : best) {
+                fastest = Math.min(fastest, thread.getOrDefault(nickname, Long.MAX_VALUE));
+            }
+            assertEquals(Duration.ofSeconds(fastest), leaderboard.get(nickname).getBestTime());
+            wins += leaderboard.get(nickname).getWins();
+        }
+        assertEquals(8 * 20_000, wins);
+        assertEquals(50, leaderboard.size());
+
+        // The ranks agree with the top lists
+        List<LeaderboardStore.Standing> byTime = leaderboard.topByBestTime(50);
+        List<LeaderboardStore.Standing> byWins = leaderboard.topByWins(50);
+        assertEquals(50, byTime.size());
+        for (int rank = 1; rank <= 50; rank++) {
+            assertEquals(rank, leaderboard.rankByBestTime(byTime.get(rank - 1).getNickname()));
+            assertEquals(rank, leaderboard.rankByWins(byWins.get(rank - 1).getNickname()));
+        }
+    }
+
+    @Test
+    public void testConcurrentWinsAreLoggedInOrder() throws Exception {
+        LeaderboardStore leaderboard = LeaderboardStore.open(file);
+        recordConcurrently(leaderboard, 4, 100, 10);
+
+        LeaderboardStore reopened = LeaderboardStore.open(file);
+        assertEquals(400, reopened.getLoggedLines());
+        for (int player = 0; player < 10; player++) {
+            String nickname = "player" + player;
+            assertEquals(leaderboard.get(nickname).getWins(), reopened.get(nickname).getWins());
+            assertEquals(leaderboard.get(nickname).getBestTime(), reopened.get(nickname).getBestTime());
+        }
+    }
+}
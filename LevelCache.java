@@ -0,0 +1,85 @@
+import java.io.IOException; // Thrown when a level that is not cached cannot be read.
+import java.util.LinkedHashMap; // Keeps the cached templates in least recently used order.
+import java.util.Map; // The entry type handed to the eviction check.
+
+/**
+ * LevelCache keeps the parsed and solved {@link LevelTemplate} of recently played levels, so a game
+ * is dealt a level without reading or solving it again. The cache holds a bounded number of
+ * templates and evicts the least recently used one when it is full. Templates are immutable, so
+ * they are shared freely between games and threads.
+ *
+ * Most callers share {@link #getDefault()}.
+ */
+public class LevelCache {
+    private static LevelCache defaultCache; // The cache shared by the game, created on first use.
+
+    private final Map<String, LevelTemplate> templates; // The cached templates by level path, least recently used first.
+
+    /**
+     * Creates a cache.
+     * @param capacity The most templates to keep.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public LevelCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.templates = new LinkedHashMap<String, LevelTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LevelTemplate> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the cache shared by the game, which keeps the templates of sixteen levels.
+     * @return The shared cache.
+     */
+    public static synchronized LevelCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache = new LevelCache(16);
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Get the template of a level, reading and solving the level file only if it is not cached.
+     * @param level The path of the level file.
+     * @return The template of the level.
+     * @throws IOException if the level is not cached and its file cannot be read.
+     */
+    public LevelTemplate get(String level) throws IOException {
+        synchronized (templates) {
+            LevelTemplate template = templates.get(level);
+            if (template != null) {
+                return template;
+            }
+        }
+        // Load outside the lock, so one slow level does not hold up the others; a race only loads it twice.
+        LevelTemplate template = LevelTemplate.load(level);
+        synchronized (templates) {
+            LevelTemplate raced = templates.putIfAbsent(level, template);
+            return raced != null ? raced : template;
+        }
+    }
+
+    /**
+     * Get the number of cached templates.
+     * @return The number of templates.
+     */
+    public int size() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    /**
+     * Removes every cached template, so the next game reads its level file again.
+     */
+    public void clear() {
+        synchronized (templates) {
+            templates.clear();
+        }
+    }
+}//end of LevelCache class
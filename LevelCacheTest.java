@@ -0,0 +1,43 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+
+public class LevelCacheTest {
+
+    @Test
+    public void testSharesTemplateOfCachedLevel() throws IOException {
+        LevelCache cache = new LevelCache(2);
+        LevelTemplate first = cache.get("Levels/esu1.txt");
+        assertSame(first, cache.get("Levels/esu1.txt"));
+        assertEquals(4, first.getSize());
+        assertEquals(4, first.getGiven(0));
+        assertFalse(first.isFillable(0));
+        assertTrue(first.isFillable(1));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedLevel() throws IOException {
+        LevelCache cache = new LevelCache(2);
+        LevelTemplate small = cache.get("Levels/esu1.txt");
+        cache.get("Levels/su1.txt");
+        cache.get("Levels/esu1.txt"); // Now the 9x9 level is the least recently used
+        cache.get("Levels/hsu1.txt");
+        assertEquals(2, cache.size());
+        assertSame(small, cache.get("Levels/esu1.txt"));
+    }
+
+    @Test
+    public void testTemplateHoldsSolvedLevel() throws IOException {
+        LevelTemplate template = new LevelCache(1).get("Levels/su1.txt");
+        byte[] solution = template.getSolution();
+        assertArrayEquals(Solver.solve(template.getGivens(), 9), solution);
+        // Copies are handed out, so the shared template cannot be changed
+        solution[0] = 0;
+        assertEquals(9, template.getSolution(0));
+    }
+
+    @Test
+    public void testMissingLevelIsReported() {
+        assertThrows(IOException.class, () -> new LevelCache(1).get("Levels/missing.txt"));
+    }
+}
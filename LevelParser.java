@@ -0,0 +1,221 @@
+import java.io.IOException; // Thrown when a level or solution file cannot be read.
+import java.nio.ByteBuffer; // Holds the raw bytes of a whole file while it is decoded.
+import java.nio.channels.FileChannel; // Reads a whole file in one go, without a Scanner.
+import java.nio.file.Path; // Names the file to read.
+import java.nio.file.StandardOpenOption; // Opens the file for reading.
+
+/**
+ * LevelParser decodes level and solution files straight from their bytes into the flat, row-major
+ * cell layout used by {@link Board}, with 0 for an empty cell. The whole file is read through a
+ * {@link FileChannel} into one {@link ByteBuffer} and digits are decoded in place, so no String,
+ * token or boxed number is allocated per cell.
+ *
+ * Two formats are accepted, each optionally preceded by the board size on its own:
+ * <ul>
+ * <li>the triplet format of the files in Levels/ and Solutions/, one {@code row col value} line per
+ * cell, where the value is a number or {@code -} for an empty cell;</li>
+ * <li>a compact format with the whole board on one line, one character per cell: {@code 1}-{@code 9},
+ * then {@code A}-{@code Z} for 10 to 35 and {@code a}-{@code z} for 36 upwards, so boards up to 49x49
+ * fit, and {@code 0}, {@code .} or {@code -} for an empty cell. An 81-character line is a 9x9 board.</li>
+ * </ul>
+ */
+public final class LevelParser {
+    private static final int COMPACT_MIN_LENGTH = 16; // The shortest compact line, a 4x4 board; size headers are shorter.
+
+    private LevelParser() {
+    }
+
+    /**
+     * Reads a level or solution file.
+     * @param file The file to read.
+     * @param size The number of rows and columns, or 0 to take it from the file's size header or compact line.
+     * @return The cells of the board, row-major, with 0 for empty cells.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not in either format.
+     */
+    public static byte[] read(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Level file too large: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the whole file is in the buffer.
+            }
+            buffer.flip();
+            return parse(buffer, size);
+        }
+    }
+
+    /**
+     * Decodes a board from the bytes between the buffer's position and its limit. The buffer's
+     * position is left unchanged, so a mapped or shared buffer can be parsed more than once.
+     * @param buffer The bytes of a level or solution in either format.
+     * @param size The number of rows and columns, or 0 to take it from the size header or compact line.
+     * @return The cells of the board, row-major, with 0 for empty cells.
+     * @throws IllegalArgumentException if the bytes are not in either format.
+     */
+    public static byte[] parse(ByteBuffer buffer, int size) {
+        int limit = buffer.limit();
+        int pos = skipSpace(buffer, buffer.position(), limit);
+        int end = tokenEnd(buffer, pos, limit);
+        if (end - pos < COMPACT_MIN_LENGTH && (size == 0 || isSizeHeader(buffer, pos, end, size))) {
+            // A short first token on a line of its own is the size header.
+            int header = parseNumber(buffer, pos, end);
+            if (size != 0 && header != size) {
+                throw new IllegalArgumentException("Expected a " + size + "x" + size + " board but found " + header);
+            }
+            size = header;
+            pos = skipSpace(buffer, end, limit);
+            end = tokenEnd(buffer, pos, limit);
+        }
+        int length = end - pos;
+        if (length >= COMPACT_MIN_LENGTH && (size == 0 || length == size * size)) {
+            return parseCompact(buffer, pos, end);
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Board size missing");
+        }
+        return parseTriplets(buffer, pos, limit, size);
+    }
+
+    /**
+     * Decodes a board written as one character per cell.
+     */
+    private static byte[] parseCompact(ByteBuffer buffer, int start, int end) {
+        int cellCount = end - start;
+        int size = (int) Math.round(Math.sqrt(cellCount));
+        if (size * size != cellCount) {
+            throw new IllegalArgumentException("A compact board of " + cellCount + " cells is not square");
+        }
+        byte[] cells = new byte[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            int value = cellValue(buffer.get(start + i));
+            if (value < 0 || value > size) {
+                throw new IllegalArgumentException("Bad cell '" + (char) buffer.get(start + i) + "' at " + i);
+            }
+            cells[i] = (byte) value;
+        }
+        return cells;
+    }
+
+    /**
+     * Decodes a board written as {@code row col value} triplets. Values that are not a number in
+     * range are read as empty cells, as the levels always have been.
+     */
+    private static byte[] parseTriplets(ByteBuffer buffer, int pos, int limit, int size) {
+        byte[] cells = new byte[size * size];
+        while (pos < limit) {
+            int end = tokenEnd(buffer, pos, limit);
+            int row = parseNumber(buffer, pos, end);
+            pos = skipSpace(buffer, end, limit);
+            end = tokenEnd(buffer, pos, limit);
+            int col = parseNumber(buffer, pos, end);
+            pos = skipSpace(buffer, end, limit);
+            end = tokenEnd(buffer, pos, limit);
+            if (pos == end) {
+                throw new IllegalArgumentException("Missing value for cell " + row + "," + col);
+            }
+            if (row < 0 || row >= size || col < 0 || col >= size) {
+                throw new IllegalArgumentException("Cell " + row + "," + col + " is outside the board");
+            }
+            int value = parseValue(buffer, pos, end);
+            cells[row * size + col] = (byte) (value > Board.MAX_VALUE ? Board.EMPTY : value);
+            pos = skipSpace(buffer, end, limit);
+        }
+        return cells;
+    }
+
+    /**
+     * Checks whether a short first token is the size header rather than the first row index.
+     */
+    private static boolean isSizeHeader(ByteBuffer buffer, int start, int end, int size) {
+        int limit = buffer.limit();
+        // A header sits alone on its line; a triplet's row index is followed by its column.
+        for (int i = end; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                return true;
+            }
+            if (!isSpace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a triplet value: a number, or 0 for {@code -} and anything else that is not a number.
+     */
+    private static int parseValue(ByteBuffer buffer, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Board.EMPTY;
+            }
+            value = value * 10 + digit;
+            if (value > Board.MAX_VALUE) {
+                return Board.EMPTY;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a row, column or size number.
+     */
+    private static int parseNumber(ByteBuffer buffer, int start, int end) {
+        if (start == end || end - start > 9) {
+            throw new IllegalArgumentException("Expected a number at byte " + start);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Expected a number at byte " + start);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes one character of a compact board.
+     * @return The cell value, 0 for an empty cell, or -1 if the character is not a cell.
+     */
+    private static int cellValue(byte b) {
+        if (b == '0' || b == '.' || b == '-') {
+            return Board.EMPTY;
+        }
+        if (b >= '1' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'A' && b <= 'Z') {
+            return b - 'A' + 10;
+        }
+        if (b >= 'a' && b <= 'z') {
+            return b - 'a' + 36;
+        }
+        return -1;
+    }
+
+    private static int skipSpace(ByteBuffer buffer, int pos, int limit) {
+        while (pos < limit && isSpace(buffer.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int tokenEnd(ByteBuffer buffer, int pos, int limit) {
+        while (pos < limit && !isSpace(buffer.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}//end of LevelParser class
@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+public class LevelParserTest {
+
+    private static byte[] parse(String text, int size) {
+        return LevelParser.parse(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)), size);
+    }
+
+    @Test
+    public void testParsesTripletsWithSizeHeader() {
+        byte[] cells = parse("4 \n0 0 4\n0 1 -\n1 1 2 \n3 3 1\n", 0);
+        assertEquals(16, cells.length);
+        assertEquals(4, cells[0]);
+        assertEquals(0, cells[1]);
+        assertEquals(2, cells[5]);
+        assertEquals(1, cells[15]);
+    }
+
+    @Test
+    public void testParsesTripletsWithoutHeaderWhenSizeIsKnown() {
+        byte[] cells = parse("0 0 3\n3 3 2\n", 4);
+        assertEquals(3, cells[0]);
+        assertEquals(2, cells[15]);
+    }
+
+    @Test
+    public void testParsesCompactLine() {
+        String line = SolverTest.PUZZLE;
+        assertArrayEquals(SolverTest.toCells(line), parse(line + "\n", 0));
+        // Dots are empty cells too, and a size header may precede the line
+        assertArrayEquals(SolverTest.toCells(line), parse("9\n" + line.replace('0', '.'), 9));
+    }
+
+    @Test
+    public void testParsesCompactLettersForLargeBoards() {
+        byte[] cells = parse("123456789ABCDEFG" + ".".repeat(240), 0);
+        assertEquals(256, cells.length);
+        assertEquals(10, cells[9]);
+        assertEquals(16, cells[15]);
+        assertEquals(0, cells[16]);
+    }
+
+    @Test
+    public void testParsesCompactRowOf36x36Board() {
+        byte[] cells = parse("123456789ABCDEFGHIJKLMNOPQRSTUVWXYZa" + ".".repeat(36 * 35), 0);
+        assertEquals(36 * 36, cells.length);
+        for (int col = 0; col < 36; col++) {
+            assertEquals(col + 1, cells[col]);
+        }
+        assertEquals(0, cells[36]);
+        // A letter beyond the board's size is not a cell of it
+        assertThrows(IllegalArgumentException.class, () -> parse("123456789ABCDEFGHIJKLMNOPQRSTUVWXYZb" + ".".repeat(36 * 35), 0));
+    }
+
+    @Test
+    public void testRejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> parse("0 0", 4));
+        assertThrows(IllegalArgumentException.class, () -> parse("9 9 1", 4));
+        assertThrows(IllegalArgumentException.class, () -> parse("12345678901234567", 0));
+    }
+
+    @Test
+    public void testLevelAndSolutionFilesAgree() throws IOException {
+        byte[] level = LevelParser.read(Paths.get("Levels/su1.txt"), 0);
+        byte[] solution = LevelParser.read(Paths.get("Solutions/su1solution.txt"), 9);
+        assertEquals(81, level.length);
+        for (int i = 0; i < level.length; i++) {
+            assertTrue(level[i] == 0 || level[i] == solution[i]);
+        }
+    }
+}
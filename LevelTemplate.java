@@ -0,0 +1,136 @@
+import java.io.IOException; // Thrown when a level file cannot be read.
+import java.nio.file.Paths; // Names the level and solution files.
+
+/**
+ * LevelTemplate is the immutable starting point of a level: its size, its givens, its solution and
+ * the mask of cells the player may fill, all row-major in the layout used by {@link Board}. A
+ * template is parsed and solved once and then shared, through the {@link LevelCache}, by every game
+ * dealt that level, so starting, clearing or reloading a game needs no file I/O.
+ */
+public final class LevelTemplate {
+    private final int size; // The number of rows and columns.
+    private final byte[] givens; // The pre-filled cells, 0 where the player fills in a value.
+    private final byte[] solution; // The completed grid, 0 everywhere if no solution is known.
+    private final boolean[] fillable; // Whether each cell can be changed by the player.
+    private volatile DifficultyRater.Rating rating; // The difficulty of the level, graded on first use.
+
+    /**
+     * Constructor for LevelTemplate. The arrays are copied, so the caller may reuse them.
+     * @param size The number of rows and columns.
+     * @param givens The pre-filled cells, row-major, 0 for empty cells.
+     * @param solution The completed grid, row-major, or {@code null} if no solution is known.
+     * @throws IllegalArgumentException if the arrays do not match the size.
+     */
+    public LevelTemplate(int size, byte[] givens, byte[] solution) {
+        if (givens.length != size * size || (solution != null && solution.length != size * size)) {
+            throw new IllegalArgumentException("Level arrays do not match size " + size);
+        }
+        this.size = size;
+        this.givens = givens.clone();
+        this.solution = solution != null ? solution.clone() : new byte[size * size];
+        this.fillable = new boolean[size * size];
+        for (int i = 0; i < givens.length; i++) {
+            fillable[i] = givens[i] == Board.EMPTY;
+        }
+    }
+
+    /**
+     * Creates the template of a generated puzzle.
+     * @param puzzle The puzzle.
+     * @return A template with the puzzle's givens and solution.
+     */
+    public static LevelTemplate of(Puzzle puzzle) {
+        return new LevelTemplate(puzzle.getSize(), puzzle.getGivens(), puzzle.getSolution());
+    }
+
+    /**
+     * Reads a level file and works out its solution. The solution is computed in process, so a level 
+     * does not need a file in Solutions/; only a level that cannot be solved falls back to the 
+     * solution file that matches the level file's name, such as Solutions/su1solution.txt for Levels/su1.txt.
+     * @param level The path of the level file.
+     * @return The template of the level.
+     * @throws IOException if the level file cannot be read.
+     */
+    public static LevelTemplate load(String level) throws IOException {
+        byte[] givens = LevelParser.read(Paths.get(level), 0);
+        int size = (int) Math.round(Math.sqrt(givens.length));
+        // Solve the level from its givens, which takes microseconds for a 9x9 board.
+        byte[] solution = Sudoku.solve(givens, size);
+        if (solution == null) {
+            // The givens could not be solved, so use the hand-written solution file instead.
+            String solutionFile = level.replace("Levels/", "Solutions/").replace(".txt", "solution.txt");
+            try {
+                solution = LevelParser.read(Paths.get(solutionFile), size);
+            } catch (IOException e) {
+                // To print an error trace if the solution file is not found; the level stays playable.
+                e.printStackTrace();
+            }
+        }
+        return new LevelTemplate(size, givens, solution);
+    }
+
+    /**
+     * Get the number of rows and columns of the level.
+     * @return The level size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the value a cell starts with.
+     * @param index The row-major index of the cell.
+     * @return The given value, or {@link Board#EMPTY} if the player fills the cell.
+     */
+    public int getGiven(int index) {
+        return givens[index];
+    }
+
+    /**
+     * Get the value of a cell in the solution.
+     * @param index The row-major index of the cell.
+     * @return The solution value of the cell, or {@link Board#EMPTY} if no solution is known.
+     */
+    public int getSolution(int index) {
+        return solution[index];
+    }
+
+    /**
+     * Check whether a cell can be changed by the player.
+     * @param index The row-major index of the cell.
+     * @return {@code true} if the cell is not a given.
+     */
+    public boolean isFillable(int index) {
+        return fillable[index];
+    }
+
+    /**
+     * Get the difficulty of the level. The level is graded by the {@link DifficultyRater} the first
+     * time this is called and the rating is then kept with the shared template.
+     * @return The rating, or {@code null} if the givens contradict each other.
+     */
+    public DifficultyRater.Rating getRating() {
+        DifficultyRater.Rating graded = rating;
+        if (graded == null) {
+            graded = DifficultyRater.rate(givens, size);
+            rating = graded; // Grading twice in a race gives the same answer, so no lock is needed.
+        }
+        return graded;
+    }
+
+    /**
+     * Get a copy of the givens.
+     * @return The pre-filled cells, row-major, 0 for empty cells.
+     */
+    public byte[] getGivens() {
+        return givens.clone();
+    }
+
+    /**
+     * Get a copy of the solution.
+     * @return The completed grid, row-major.
+     */
+    public byte[] getSolution() {
+        return solution.clone();
+    }
+}//end of LevelTemplate class
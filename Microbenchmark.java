@@ -0,0 +1,172 @@
+import java.lang.management.ManagementFactory; // Finds the thread bean that counts allocated bytes.
+import java.util.Arrays; // Sorts the rates of the measured iterations.
+
+/**
+ * Microbenchmark measures one operation the way a JMH run with the GC profiler reports it: the
+ * throughput in operations per second and the allocation rate in bytes per operation. The operation
+ * is first run for a few warmup iterations, so the JIT compiles it, then for a few measured
+ * iterations of a fixed length.
+ *
+ * Each operation's result is written to a volatile field so the JIT cannot remove the work as
+ * dead code. That costs a few nanoseconds per call, which only matters for the very cheapest
+ * operations. Allocation is counted per thread, so an operation that hands work to other
+ * threads reports only what the calling thread allocated.
+ */
+public class Microbenchmark {
+    private static final long BATCH_NANOS = 1_000_000; // The warmup grows batches until one takes this long.
+
+    private final int warmupIterations; // Iterations run before measuring.
+    private final int iterations; // Iterations measured.
+    private final long iterationNanos; // The length of one iteration.
+    private volatile Object sink; // Consumes every result, so no operation is optimised away.
+
+    /**
+     * An operation to measure. Its result is consumed, so returning what was computed keeps it alive.
+     */
+    public interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Creates a harness with the given number and length of iterations.
+     * @param warmupIterations The iterations run and discarded before measuring.
+     * @param iterations The iterations measured.
+     * @param iterationMillis The length of one iteration in milliseconds.
+     */
+    public Microbenchmark(int warmupIterations, int iterations, long iterationMillis) {
+        if (iterations < 1 || warmupIterations < 0 || iterationMillis < 1) {
+            throw new IllegalArgumentException("Need at least one measured iteration of at least a millisecond");
+        }
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+    }
+
+    /**
+     * Warms up and measures one operation.
+     * @param name The name the result is reported under.
+     * @param operation The operation to measure.
+     * @return The throughput and allocation of the operation.
+     * @throws Exception if the operation fails.
+     */
+    public Result measure(String name, Operation operation) throws Exception {
+        // Calls are timed in batches, so reading the clock does not dominate cheap operations.
+        long batch = 1;
+        for (int i = 0; i < warmupIterations; i++) {
+            long end = System.nanoTime() + iterationNanos;
+            long now;
+            do {
+                long start = System.nanoTime();
+                runBatch(operation, batch);
+                now = System.nanoTime();
+                if (now - start < BATCH_NANOS && batch < (1L << 30)) {
+                    batch <<= 1;
+                }
+            } while (now < end);
+        }
+        double[] rates = new double[iterations];
+        long totalOps = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long ops = 0;
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            long end = start + iterationNanos;
+            long now;
+            do {
+                runBatch(operation, batch);
+                ops += batch;
+                now = System.nanoTime();
+            } while (now < end);
+            totalBytes += allocatedBytes() - bytesBefore;
+            totalOps += ops;
+            rates[i] = ops * 1e9 / (now - start);
+        }
+        return new Result(name, rates, totalOps == 0 ? 0 : (double) totalBytes / totalOps);
+    }
+
+    private void runBatch(Operation operation, long batch) throws Exception {
+        for (long n = 0; n < batch; n++) {
+            sink = operation.run();
+        }
+    }
+
+    /**
+     * Get the bytes allocated by the current thread so far, or 0 if the JVM does not count them.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+            if (counting.isThreadAllocatedMemoryEnabled()) {
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The measured throughput and allocation of one operation.
+     */
+    public static final class Result {
+        private final String name; // The name of the operation.
+        private final double[] rates; // The operations per second of each measured iteration.
+        private final double bytesPerOp; // The bytes allocated per operation, over all iterations.
+
+        Result(String name, double[] rates, double bytesPerOp) {
+            this.name = name;
+            this.rates = rates.clone();
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        /**
+         * Get the name of the measured operation.
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the median throughput of the measured iterations.
+         * @return The operations per second.
+         */
+        public double getOpsPerSecond() {
+            double[] sorted = rates.clone();
+            Arrays.sort(sorted);
+            int middle = sorted.length / 2;
+            return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+        }
+
+        /**
+         * Get half the spread between the slowest and fastest measured iterations.
+         * @return The error of the throughput, in operations per second.
+         */
+        public double getError() {
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            for (double rate : rates) {
+                min = Math.min(min, rate);
+                max = Math.max(max, rate);
+            }
+            return (max - min) / 2;
+        }
+
+        /**
+         * Get the bytes the calling thread allocated per operation.
+         * @return The allocation rate in bytes per operation.
+         */
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        /**
+         * Formats the result as one row of the report.
+         * @return The name, throughput with its error, and allocation.
+         */
+        @Override
+        public String toString() {
+            return String.format("%-36s %14.1f +- %12.1f ops/s %14.1f B/op", name, getOpsPerSecond(), getError(), bytesPerOp);
+        }
+    }
+}//end of Microbenchmark class
@@ -0,0 +1,25 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class MicrobenchmarkTest {
+
+    @Test
+    public void testMeasuresThroughputAndAllocation() throws Exception {
+        Microbenchmark harness = new Microbenchmark(1, 3, 20);
+        Microbenchmark.Result counting = harness.measure("count", () -> Integer.bitCount(42));
+        Microbenchmark.Result allocating = harness.measure("allocate", () -> new byte[1024]);
+
+        assertEquals("count", counting.getName());
+        assertTrue(counting.getOpsPerSecond() > 0);
+        assertTrue(counting.getError() >= 0);
+        // A kilobyte array per call shows up in the allocation rate, the counting does not
+        assertTrue(allocating.getBytesPerOp() >= 1024, "Allocated " + allocating.getBytesPerOp() + " B/op");
+        assertTrue(counting.getBytesPerOp() < 64, "Allocated " + counting.getBytesPerOp() + " B/op");
+        assertTrue(allocating.toString().contains("B/op"));
+    }
+
+    @Test
+    public void testRejectsEmptyMeasurement() {
+        assertThrows(IllegalArgumentException.class, () -> new Microbenchmark(1, 0, 10));
+    }
+}
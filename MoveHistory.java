@@ -0,0 +1,182 @@
+import java.util.Arrays; // Grows the packed moves and checkpoints.
+
+/**
+ * MoveHistory is the undo and redo timeline of a game. Each move is packed into one {@code int}
+ * holding the cell index, the value before the move and the value after it, so a long session
+ * costs 4 bytes per move. Undo and redo move a cursor along the same array; making a new move after
+ * undoing drops the moves that could have been redone.
+ *
+ * Every {@code checkpointInterval} moves the history keeps a copy of the board. Jumping to any
+ * point of the timeline with {@link #seek(int)} restores the nearest checkpoint at or before it and
+ * replays at most one interval of moves, so a jump costs O(cells + interval) however long the game.
+ *
+ * Undo, redo and seek change cells through {@link Board#setAt}, so the board's listeners see every
+ * change. Like the board, a history is used from the one thread that makes the moves.
+ */
+public class MoveHistory {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 64; // Moves between two board checkpoints.
+    private static final int VALUE_BITS = 8; // Bits for one cell value; values never exceed Board.MAX_VALUE.
+    private static final int VALUE_MASK = (1 << VALUE_BITS) - 1; // Extracts one value from a packed move.
+
+    private final Board board; // The board the moves are made on.
+    private final int cells; // The number of cells on the board.
+    private final int checkpointInterval; // Moves between two checkpoints.
+    private int[] moves = new int[64]; // The packed moves, oldest first.
+    private int count; // The number of moves in the timeline, including those undone.
+    private int position; // The number of moves currently applied to the board.
+    private byte[] checkpoints; // The board after every checkpointInterval moves; only those up to the last move are read.
+
+    /**
+     * Creates an empty history with the default checkpoint interval, starting from the board as it is now.
+     * @param board The board the moves are made on.
+     */
+    public MoveHistory(Board board) {
+        this(board, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Creates an empty history, starting from the board as it is now.
+     * @param board The board the moves are made on.
+     * @param checkpointInterval The moves between two board checkpoints.
+     */
+    public MoveHistory(Board board, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.board = board;
+        this.cells = board.getSize() * board.getSize();
+        this.checkpointInterval = checkpointInterval;
+        this.checkpoints = new byte[cells * 4];
+        clear();
+    }
+
+    /**
+     * Records a move that has just been made on the board. Any moves that were undone can no longer be redone.
+     * @param index The row-major index of the cell.
+     * @param oldValue The value of the cell before the move.
+     * @param newValue The value of the cell after the move.
+     */
+    public void record(int index, int oldValue, int newValue) {
+        if (oldValue == newValue) {
+            return; // Nothing changed, so there is nothing to undo.
+        }
+        count = position;
+        if (count == moves.length) {
+            moves = Arrays.copyOf(moves, count * 2);
+        }
+        moves[count++] = index << (2 * VALUE_BITS) | oldValue << VALUE_BITS | newValue;
+        position = count;
+        if (position % checkpointInterval == 0) {
+            checkpoint(position / checkpointInterval);
+        }
+    }
+
+    /**
+     * Undoes the latest applied move.
+     * @return {@code true} if a move was undone, {@code false} if there was none.
+     */
+    public boolean undo() {
+        if (position == 0) {
+            return false;
+        }
+        int move = moves[--position];
+        board.setAt(indexOf(move), move >>> VALUE_BITS & VALUE_MASK);
+        return true;
+    }
+
+    /**
+     * Redoes the latest undone move.
+     * @return {@code true} if a move was redone, {@code false} if there was none.
+     */
+    public boolean redo() {
+        if (position == count) {
+            return false;
+        }
+        int move = moves[position++];
+        board.setAt(indexOf(move), move & VALUE_MASK);
+        return true;
+    }
+
+    /**
+     * Moves the board to any point of the timeline: after the first {@code target} moves.
+     * Nearby points are reached by undoing or redoing; far ones from the nearest checkpoint.
+     * @param target The number of moves to have applied, from 0 to {@link #size()}.
+     * @throws IllegalArgumentException if the target is outside the timeline.
+     */
+    public void seek(int target) {
+        if (target < 0 || target > count) {
+            throw new IllegalArgumentException("No point " + target + " in a history of " + count + " moves");
+        }
+        if (Math.abs(target - position) > checkpointInterval) {
+            int checkpoint = target / checkpointInterval;
+            int offset = checkpoint * cells;
+            for (int index = 0; index < cells; index++) {
+                if (board.getAt(index) != checkpoints[offset + index]) {
+                    board.setAt(index, checkpoints[offset + index]);
+                }
+            }
+            position = checkpoint * checkpointInterval;
+        }
+        while (position < target) {
+            redo();
+        }
+        while (position > target) {
+            undo();
+        }
+    }
+
+    /**
+     * Forgets every move and starts the timeline again from the board as it is now.
+     */
+    public void clear() {
+        count = 0;
+        position = 0;
+        checkpoint(0);
+    }
+
+    /**
+     * Get whether there is a move to undo.
+     * @return {@code true} if {@link #undo()} would change the board.
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * Get whether there is a move to redo.
+     * @return {@code true} if {@link #redo()} would change the board.
+     */
+    public boolean canRedo() {
+        return position < count;
+    }
+
+    /**
+     * Get the number of moves currently applied to the board.
+     * @return The position in the timeline.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Get the number of moves in the timeline, including those undone.
+     * @return The length of the timeline.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Copies the board as checkpoint {@code k}, taken after {@code k * checkpointInterval} moves.
+     */
+    private void checkpoint(int k) {
+        if ((k + 1) * cells > checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, Math.max((k + 1) * cells, checkpoints.length * 2));
+        }
+        System.arraycopy(board.toArray(), 0, checkpoints, k * cells, cells);
+    }
+
+    private static int indexOf(int move) {
+        return move >>> (2 * VALUE_BITS);
+    }
+}//end of MoveHistory class
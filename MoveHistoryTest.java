@@ -0,0 +1,116 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class MoveHistoryTest {
+    /**
+     * Makes a move on the board and records it, the way the text UI and the GUI do.
+     */
+    private static void move(Board board, MoveHistory history, int index, int value) {
+        int old = board.getAt(index);
+        board.setAt(index, value);
+        history.record(index, old, value);
+    }
+
+    @Test
+    public void testUndoAndRedo() {
+        Board board = SolverTest.newGame().getBoard();
+        MoveHistory history = new MoveHistory(board);
+        assertFalse(history.undo());
+        move(board, history, 2, 4);
+        move(board, history, 2, 7);
+        move(board, history, 3, 6);
+
+        assertTrue(history.undo());
+        assertEquals(0, board.getAt(3));
+        assertTrue(history.undo());
+        assertEquals(4, board.getAt(2));
+        assertTrue(history.canRedo());
+        assertTrue(history.redo());
+        assertEquals(7, board.getAt(2));
+        assertEquals(2, history.getPosition());
+        assertEquals(3, history.size());
+    }
+
+    @Test
+    public void testNewMoveDropsTheRedoneMoves() {
+        Board board = SolverTest.newGame().getBoard();
+        MoveHistory history = new MoveHistory(board);
+        move(board, history, 2, 4);
+        move(board, history, 3, 6);
+        history.undo();
+        move(board, history, 5, 8);
+        assertFalse(history.canRedo());
+        assertEquals(2, history.size());
+        history.undo();
+        history.undo();
+        assertEquals(0, board.getAt(2));
+        assertEquals(0, board.getAt(3));
+        assertEquals(0, board.getAt(5));
+    }
+
+    @Test
+    public void testUnchangedMoveIsNotRecorded() {
+        Board board = SolverTest.newGame().getBoard();
+        MoveHistory history = new MoveHistory(board);
+        history.record(2, 0, 0);
+        assertEquals(0, history.size());
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    public void testSeekMatchesStepping() {
+        Board board = SolverTest.newGame().getBoard();
+        MoveHistory history = new MoveHistory(board, 16);
+        List<Integer> fillable = new ArrayList<>();
+        for (int index = 0; index < 81; index++) {
+            if (board.isFillableAt(index)) {
+                fillable.add(index);
+            }
+        }
+        // The board after each recorded move; a move that leaves its cell unchanged is not recorded
+        List<byte[]> states = new ArrayList<>();
+        states.add(board.toArray());
+        Random random = new Random(20);
+        for (int i = 0; i < 1000; i++) {
+            move(board, history, fillable.get(random.nextInt(fillable.size())), random.nextInt(10));
+            if (!Arrays.equals(board.toArray(), states.get(states.size() - 1))) {
+                states.add(board.toArray());
+            }
+        }
+        assertEquals(states.size() - 1, history.size());
+
+        int last = history.size();
+        for (int target : new int[] {0, 500, 3, last, 17, 16, 250, 251, last - 1}) {
+            history.seek(target);
+            assertEquals(target, history.getPosition());
+            assertArrayEquals(states.get(target), board.toArray(), "At " + target);
+        }
+        assertThrows(IllegalArgumentException.class, () -> history.seek(last + 1));
+    }
+
+    @Test
+    public void testSeekAfterBranching() {
+        Board board = SolverTest.newGame().getBoard();
+        MoveHistory history = new MoveHistory(board, 4);
+        for (int i = 0; i < 12; i++) {
+            move(board, history, 2, i % 9 + 1);
+        }
+        history.seek(2);
+        // A new branch replaces moves 3 to 12, and with them the checkpoints taken on the old branch
+        for (int i = 0; i < 10; i++) {
+            move(board, history, 3, i % 9 + 1);
+        }
+        byte[] end = board.toArray();
+        history.seek(0);
+        assertEquals(0, board.getAt(2));
+        assertEquals(0, board.getAt(3));
+        history.seek(12);
+        assertArrayEquals(end, board.toArray());
+        history.seek(8);
+        assertEquals(2, board.getAt(2));
+        assertEquals(6, board.getAt(3));
+    }}
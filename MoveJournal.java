@@ -0,0 +1,310 @@
+import java.io.IOException; // Thrown when the journal cannot be read or written.
+import java.nio.ByteBuffer; // Holds the snapshot and the moves waiting to be saved.
+import java.nio.channels.FileChannel; // Appends moves and reads the journal back.
+import java.nio.file.Files; // Replaces the journal atomically when it is compacted.
+import java.nio.file.Path; // Names the journal file.
+import java.nio.file.StandardCopyOption; // Renames the compacted journal over the old one.
+import java.nio.file.StandardOpenOption; // Opens the journal for reading, appending or writing.
+
+/**
+ * MoveJournal saves a game as a snapshot of the board followed by an append-only log of moves.
+ * It listens to the board's {@link BoardEventBus} and keeps the moves made since the last save in
+ * memory, so each save appends only those moves, at 3 bytes each, and forces them to disk. Loading
+ * applies the snapshot and replays the log straight onto the board, with no text to parse. The
+ * journal also keeps the puzzle's givens, so a game dealt from a generated puzzle can be rebuilt
+ * from the file alone with {@link #readPuzzle(Path)}.
+ *
+ * Once the log holds more moves than the board has cells, the next save compacts the journal into
+ * a fresh snapshot. The snapshot is written to a temporary file that is renamed over the journal,
+ * so a crash leaves either the old journal or the new one. A crash in the middle of an append can
+ * only leave a partial last move, which loading drops.
+ *
+ * The file is big-endian and laid out as:
+ * <ul>
+ * <li>an 8 byte header: the magic {@code SJNL}, the format version (short) and the board size (short);</li>
+ * <li>the givens: the value of every given, 0 for the cells to fill, one byte each, in row-major order;</li>
+ * <li>the snapshot: the value of every cell, one byte each, in row-major order;</li>
+ * <li>the log: one record per move, the cell index (short) then the new value (byte).</li>
+ * </ul>
+ * Journals of version 1 have no givens, and can only be loaded onto a board dealt from the same level.
+ */
+public class MoveJournal implements BoardListener {
+    private static final int MAGIC = 0x534A4E4C; // "SJNL".
+    private static final short VERSION = 2; // The format version written by this class.
+    private static final short VERSION_WITHOUT_GIVENS = 1; // The format before the givens were kept.
+    private static final int HEADER_LENGTH = 8; // The bytes before the snapshot.
+    private static final int RECORD_LENGTH = 3; // The bytes of one logged move.
+
+    private final Path file; // The journal file.
+    private final Board board; // The board being journaled.
+    private final byte[] givens; // The givens of the board, 0 for the cells to fill.
+    private final byte[] cells; // A copy of the board kept by the listener, so saves can run on any thread.
+    private ByteBuffer pending = ByteBuffer.allocate(64 * RECORD_LENGTH); // Moves made since the last save.
+    private int loggedMoves = -1; // The moves in the file's log, or -1 if the file holds no snapshot of this game yet.
+
+    /**
+     * Creates a journal for a game and subscribes it to the board. Nothing is written until the
+     * first {@link #save()}, which writes a snapshot of the board as it is then.
+     * @param file The journal file.
+     * @param board The board to journal.
+     */
+    public MoveJournal(Path file, Board board) {
+        this.file = file;
+        this.board = board;
+        this.givens = givensOf(board);
+        this.cells = board.toArray();
+        board.getEvents().subscribe(this);
+    }
+
+    /**
+     * Checks whether a file is a move journal of any version, so other saves can be told apart.
+     * @param file The file to check.
+     * @return {@code true} if the file starts with the journal's magic number.
+     * @throws IOException if the file cannot be read.
+     */
+    public static boolean isJournal(Path file) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until the magic number is in the buffer.
+            }
+        }
+        return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+    }
+
+    /**
+     * Reads the puzzle a journal was saved from: its givens, and the solution worked out from them.
+     * A board dealt from this puzzle can then take the journal with {@link #load(Path, Board)}.
+     * @param file The journal file.
+     * @return The puzzle, or {@code null} for a journal of version 1, which did not keep its givens.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a move journal, or its givens have no solution.
+     */
+    public static Puzzle readPuzzle(Path file) throws IOException {
+        ByteBuffer data = read(file);
+        int size = checkHeader(file, data);
+        if (data.getShort(4) == VERSION_WITHOUT_GIVENS) {
+            return null;
+        }
+        byte[] givens = new byte[size * size];
+        data.get(HEADER_LENGTH, givens);
+        byte[] solution = Sudoku.solve(givens, size);
+        if (solution == null) {
+            throw new IllegalArgumentException("Corrupt move journal, the givens have no solution: " + file);
+        }
+        return new Puzzle(size, givens, solution);
+    }
+
+    /**
+     * Restores a saved game onto a freshly dealt board and returns a journal that appends to the same
+     * file. Givens are never overwritten, and a partial last move left by a crash is dropped.
+     * @param file The journal file.
+     * @param board The board of a freshly dealt game of the same level.
+     * @return The journal for the restored game.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a move journal or was saved from another puzzle.
+     */
+    public static MoveJournal load(Path file, Board board) throws IOException {
+        ByteBuffer data = read(file);
+        int size = checkHeader(file, data);
+        int cells = board.getSize() * board.getSize();
+        if (size != board.getSize()) {
+            throw new IllegalArgumentException("Journal of a " + size + "x" + size
+                    + " board cannot be loaded on a " + board.getSize() + "x" + board.getSize() + " board");
+        }
+        int snapshot = HEADER_LENGTH;
+        if (data.getShort(4) == VERSION_WITHOUT_GIVENS) {
+            for (int index = 0; index < cells; index++) {
+                // The givens of the snapshot must be the givens of the board, or the journal is of another puzzle.
+                if (!board.isFillableAt(index) && board.getAt(index) != data.get(snapshot + index)) {
+                    throw new IllegalArgumentException("Journal of another puzzle: " + file);
+                }
+            }
+        } else {
+            byte[] boardGivens = givensOf(board);
+            for (int index = 0; index < cells; index++) {
+                if (boardGivens[index] != data.get(HEADER_LENGTH + index)) {
+                    throw new IllegalArgumentException("Journal of another puzzle: " + file);
+                }
+            }
+            snapshot += cells;
+        }
+        data.position(snapshot);
+        for (int index = 0; index < cells; index++) {
+            board.setAt(index, data.get()); // Ignored for givens, which the fresh board already holds.
+        }
+        int moves = data.remaining() / RECORD_LENGTH;
+        for (int i = 0; i < moves; i++) {
+            int index = data.getShort();
+            int value = data.get();
+            if (index < 0 || index >= cells) {
+                throw new IllegalArgumentException("Corrupt move journal, cell " + index + ": " + file);
+            }
+            board.setAt(index, value);
+        }
+        long whole = snapshot + cells + (long) moves * RECORD_LENGTH;
+        if (whole < data.limit()) {
+            // Drop the partial move, so the next append starts on a record boundary.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(whole);
+            }
+        }
+        MoveJournal journal = new MoveJournal(file, board);
+        journal.loggedMoves = moves;
+        return journal;
+    }
+
+    /**
+     * Reads a whole journal into memory.
+     */
+    private static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a move journal: " + file);
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // Keep reading until the whole journal is in memory.
+            }
+            return data.flip();
+        }
+    }
+
+    /**
+     * Checks the header of a journal and that its givens and snapshot are whole.
+     * @return The board size of the journal.
+     */
+    private static int checkHeader(Path file, ByteBuffer data) {
+        if (data.remaining() < HEADER_LENGTH || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a move journal: " + file);
+        }
+        short version = data.getShort(4);
+        if (version != VERSION && version != VERSION_WITHOUT_GIVENS) {
+            throw new IllegalArgumentException("Unsupported move journal version " + version + ": " + file);
+        }
+        int size = data.getShort(6);
+        int sections = version == VERSION_WITHOUT_GIVENS ? 1 : 2;
+        if (size < 1 || size > Board.MAX_VALUE || data.remaining() < HEADER_LENGTH + sections * size * size) {
+            throw new IllegalArgumentException("Corrupt move journal: " + file);
+        }
+        return size;
+    }
+
+    /**
+     * Get the givens of a board, with 0 for the cells to fill.
+     * @param board The board.
+     * @return The givens, row-major.
+     */
+    static byte[] givensOf(Board board) {
+        byte[] givens = board.toArray();
+        for (int index = 0; index < givens.length; index++) {
+            if (board.isFillableAt(index)) {
+                givens[index] = Board.EMPTY;
+            }
+        }
+        return givens;
+    }
+
+    /**
+     * Queues one change to the board for the next save.
+     * @param event The cell that changed.
+     */
+    @Override
+    public synchronized void cellChanged(CellChanged event) {
+        if (pending.remaining() < RECORD_LENGTH) {
+            ByteBuffer grown = ByteBuffer.allocate(pending.capacity() * 2);
+            pending.flip();
+            pending = grown.put(pending);
+        }
+        int index = board.index(event.getRow(), event.getCol());
+        cells[index] = (byte) event.getNewValue();
+        pending.putShort((short) index).put((byte) event.getNewValue());
+    }
+
+    /**
+     * Saves the moves made since the last save and forces them to disk. The first save, and any save
+     * once the log has outgrown the board, writes a snapshot instead. Safe to call from any thread.
+     * @throws IOException if the journal cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        int moves = pending.position() / RECORD_LENGTH;
+        if (loggedMoves < 0 || loggedMoves + moves > board.getSize() * board.getSize()) {
+            compact();
+            return;
+        }
+        pending.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+            channel.force(false);
+        }
+        pending.clear();
+        loggedMoves += moves;
+    }
+
+    /**
+     * Rewrites the journal as a snapshot of the board with an empty log, through a temporary file
+     * renamed over the journal.
+     * @throws IOException if the journal cannot be written.
+     */
+    public synchronized void compact() throws IOException {
+        writeSnapshot(file, board.getSize(), givens, cells);
+        pending.clear();
+        loggedMoves = 0;
+    }
+
+    /**
+     * Writes a journal holding only a snapshot, through a temporary file renamed over the journal,
+     * so a reader sees either the old journal or the whole new one.
+     * @param file The journal file.
+     * @param size The number of rows and columns of the board.
+     * @param givens The givens of the puzzle, 0 for the cells to fill, in row-major order.
+     * @param cells The value of every cell, in row-major order.
+     * @throws IOException if the journal cannot be written.
+     */
+    static void writeSnapshot(Path file, int size, byte[] givens, byte[] cells) throws IOException {
+        ByteBuffer snapshot = ByteBuffer.allocate(HEADER_LENGTH + givens.length + cells.length);
+        snapshot.putInt(MAGIC).putShort(VERSION).putShort((short) size).put(givens).put(cells).flip();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Get the number of moves in the journal's log since its snapshot.
+     * @return The logged moves, or 0 before the first save.
+     */
+    public synchronized int getLoggedMoves() {
+        return Math.max(loggedMoves, 0);
+    }
+
+    /**
+     * Get the number of moves made since the last save.
+     * @return The moves waiting to be saved.
+     */
+    public synchronized int getPendingMoves() {
+        return pending.position() / RECORD_LENGTH;
+    }
+
+    /**
+     * Get the file this journal saves to.
+     * @return The journal file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Stops journaling this board. Moves not yet saved are dropped.
+     */
+    public void detach() {
+        board.getEvents().unsubscribe(this);
+    }
+}//end of MoveJournal class
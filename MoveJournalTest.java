@@ -0,0 +1,158 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public class MoveJournalTest {
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = Files.createTempFile("journal", ".journal");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testSavesOnlyNewMoves() throws Exception {
+        Sudoku game = SolverTest.newGame();
+        game.makeMove("0", "2", "4");
+        MoveJournal journal = new MoveJournal(file, game.getBoard());
+        journal.save();
+        long snapshot = Files.size(file);
+        assertEquals(8 + 81 + 81, snapshot);
+
+        game.makeMove("0", "3", "6");
+        game.makeMove("0", "5", "8");
+        assertEquals(2, journal.getPendingMoves());
+        journal.save();
+        // Two moves of 3 bytes each, appended after the snapshot
+        assertEquals(snapshot + 6, Files.size(file));
+        assertEquals(2, journal.getLoggedMoves());
+        assertEquals(0, journal.getPendingMoves());
+
+        Sudoku loaded = SolverTest.newGame();
+        MoveJournal resumed = MoveJournal.load(file, loaded.getBoard());
+        assertArrayEquals(game.getBoard().toArray(), loaded.getBoard().toArray());
+        assertEquals(2, resumed.getLoggedMoves());
+
+        // The resumed journal keeps appending to the same file
+        loaded.makeMove("0", "5", "-");
+        resumed.save();
+        Sudoku again = SolverTest.newGame();
+        MoveJournal.load(file, again.getBoard());
+        assertEquals("-", again.getIndividualMove(0, 5));
+        assertEquals("6", again.getIndividualMove(0, 3));
+    }
+
+    @Test
+    public void testCompactsOnceTheLogOutgrowsTheBoard() throws Exception {
+        Sudoku game = SolverTest.newGame();
+        MoveJournal journal = new MoveJournal(file, game.getBoard());
+        journal.save();
+        for (int i = 0; i < 100; i++) {
+            game.makeMove("0", "2", Integer.toString(i % 9 + 1));
+            journal.save();
+        }
+        assertTrue(journal.getLoggedMoves() <= 81);
+        assertEquals(8 + 81 + 81 + 3L * journal.getLoggedMoves(), Files.size(file));
+        Sudoku loaded = SolverTest.newGame();
+        MoveJournal.load(file, loaded.getBoard());
+        assertArrayEquals(game.getBoard().toArray(), loaded.getBoard().toArray());
+    }
+
+    @Test
+    public void testDropsTornLastMove() throws Exception {
+        Sudoku game = SolverTest.newGame();
+        MoveJournal journal = new MoveJournal(file, game.getBoard());
+        journal.save();
+        game.makeMove("0", "2", "4");
+        journal.save();
+        long whole = Files.size(file);
+        // A crash in the middle of the next append leaves part of a record
+        Files.write(file, new byte[] {0, 3}, StandardOpenOption.APPEND);
+
+        Sudoku loaded = SolverTest.newGame();
+        MoveJournal resumed = MoveJournal.load(file, loaded.getBoard());
+        assertEquals("4", loaded.getIndividualMove(0, 2));
+        assertEquals(whole, Files.size(file));
+        loaded.makeMove("0", "3", "6");
+        resumed.save();
+        Sudoku again = SolverTest.newGame();
+        MoveJournal.load(file, again.getBoard());
+        assertEquals("6", again.getIndividualMove(0, 3));
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws Exception {
+        Files.write(file, "5 3 - - 7 - - - -\n".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> MoveJournal.load(file, SolverTest.newGame().getBoard()));
+
+        // A journal of a different puzzle of the same size
+        Sudoku other = new Sudoku(new Puzzle(9, SolverTest.toCells(SolverTest.SOLUTION.substring(0, 40) + "0".repeat(41)), SolverTest.toCells(SolverTest.SOLUTION)));
+        new MoveJournal(file, other.getBoard()).save();
+        assertThrows(IllegalArgumentException.class, () -> MoveJournal.load(file, SolverTest.newGame().getBoard()));
+    }
+
+    @Test
+    public void testRebuildsGeneratedPuzzle() throws Exception {
+        // A generated puzzle is not in any level file, so the journal is all there is to rebuild it from
+        Puzzle generated = new PuzzleGenerator(new Random(3)).generate(9, PuzzleGenerator.Difficulty.EASY);
+        Sudoku game = new Sudoku(generated);
+        int cell = 0;
+        while (!game.getBoard().isFillableAt(cell)) {
+            cell++;
+        }
+        game.getBoard().setAt(cell, generated.getSolution(cell));
+        new MoveJournal(file, game.getBoard()).save();
+
+        assertTrue(MoveJournal.isJournal(file));
+        Puzzle saved = MoveJournal.readPuzzle(file);
+        assertArrayEquals(generated.getGivens(), saved.getGivens());
+        assertArrayEquals(generated.getSolution(), saved.getSolution());
+        Sudoku loaded = new Sudoku(saved);
+        MoveJournal.load(file, loaded.getBoard());
+        assertArrayEquals(game.getBoard().toArray(), loaded.getBoard().toArray());
+        assertTrue(loaded.getBoard().isFillableAt(cell));
+    }
+
+    @Test
+    public void testLoadsJournalWithoutGivens() throws Exception {
+        // Version 1 had the header and the snapshot only
+        Sudoku game = SolverTest.newGame();
+        game.makeMove("0", "2", "4");
+        byte[] snapshot = game.getBoard().toArray();
+        byte[] header = {0x53, 0x4A, 0x4E, 0x4C, 0, 1, 0, 9};
+        Files.write(file, header);
+        Files.write(file, snapshot, StandardOpenOption.APPEND);
+
+        assertTrue(MoveJournal.isJournal(file));
+        assertNull(MoveJournal.readPuzzle(file));
+        Sudoku loaded = SolverTest.newGame();
+        MoveJournal.load(file, loaded.getBoard());
+        assertEquals("4", loaded.getIndividualMove(0, 2));
+    }
+
+    @Test
+    public void testTellsTextSavesApart() throws Exception {
+        Files.write(file, "5 3 - - 7 - - - -\n".getBytes());
+        assertFalse(MoveJournal.isJournal(file));
+        assertThrows(IllegalArgumentException.class, () -> MoveJournal.readPuzzle(file));
+    }
+
+    @Test
+    public void testDetachedJournalIgnoresMoves() {
+        Sudoku game = SolverTest.newGame();
+        MoveJournal journal = new MoveJournal(file, game.getBoard());
+        journal.detach();
+        game.makeMove("0", "2", "4");
+        assertEquals(0, journal.getPendingMoves());
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.Arrays; // Grows the packed move array.
+
+/**
+ * MoveRecorder logs every change to a board as one packed {@code long}: the milliseconds since
+ * recording started, the cell index and the new value. It listens to the board's
+ * {@link BoardEventBus}, so moves, hints, undos and clears are all captured without the callers
+ * knowing about it. The log is what a {@link SolutionVerifier} replays.
+ *
+ * A game restored from a save replays its earlier moves in a burst, before the player starts the
+ * timer. {@link #markStart()} notes when the player started, so only the moves after it are held
+ * to human speed.
+ */
+public class MoveRecorder implements BoardListener {
+    private static final int VALUE_BITS = 8; // Bits for the new value of the cell.
+    private static final int INDEX_BITS = 16; // Bits for the cell index.
+
+    private final Board board; // The board being recorded.
+    private long startNanos = System.nanoTime(); // When recording started.
+    private long[] moves = new long[64]; // The packed moves, in order.
+    private int count; // The number of moves recorded.
+    private long startMillis; // When the player started solving, in milliseconds since recording started.
+
+    /**
+     * Creates a recorder and subscribes it to the board.
+     * @param board The board to record.
+     */
+    public MoveRecorder(Board board) {
+        this.board = board;
+        board.getEvents().subscribe(this);
+    }
+
+    /**
+     * Records one change to the board.
+     * @param event The cell that changed.
+     */
+    @Override
+    public synchronized void cellChanged(CellChanged event) {
+        if (count == moves.length) {
+            moves = Arrays.copyOf(moves, count * 2);
+        }
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        moves[count++] = pack(millis, board.index(event.getRow(), event.getCol()), event.getNewValue());
+    }
+
+    /**
+     * Notes that the player starts, or resumes, solving now. Moves recorded before this were
+     * replayed from a save rather than played, and are not timed.
+     */
+    public synchronized void markStart() {
+        startMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Get when the player started solving.
+     * @return The milliseconds since recording started, or 0 if no start was marked.
+     */
+    public synchronized long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Get a copy of the moves recorded so far.
+     * @return The packed moves, oldest first.
+     */
+    public synchronized long[] getMoves() {
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Stops recording this board.
+     */
+    public void detach() {
+        board.getEvents().unsubscribe(this);
+    }
+
+    /**
+     * Packs one move into a long.
+     * @param millis The milliseconds since recording started.
+     * @param index The row-major index of the cell.
+     * @param value The new value of the cell, or {@link Board#EMPTY}.
+     * @return The packed move.
+     */
+    public static long pack(long millis, int index, int value) {
+        return millis << (INDEX_BITS + VALUE_BITS) | (long) index << VALUE_BITS | value;
+    }
+
+    /**
+     * Get the time of a packed move.
+     * @param move The packed move.
+     * @return The milliseconds since recording started.
+     */
+    public static long millisOf(long move) {
+        return move >>> (INDEX_BITS + VALUE_BITS);
+    }
+
+    /**
+     * Get the cell of a packed move.
+     * @param move The packed move.
+     * @return The row-major index of the cell.
+     */
+    public static int indexOf(long move) {
+        return (int) (move >>> VALUE_BITS) & ((1 << INDEX_BITS) - 1);
+    }
+
+    /**
+     * Get the new value of a packed move.
+     * @param move The packed move.
+     * @return The value, or {@link Board#EMPTY} if the cell was cleared.
+     */
+    public static int valueOf(long move) {
+        return (int) move & ((1 << VALUE_BITS) - 1);
+    }
+}//end of MoveRecorder class
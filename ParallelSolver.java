@@ -0,0 +1,232 @@
+import java.util.ArrayList; // Used to collect the child branches of a split.
+import java.util.List; // The list of child branches forked together.
+import java.util.concurrent.ForkJoinPool; // The work-stealing pool the branches run on.
+import java.util.concurrent.RecursiveAction; // The base class of a forkable branch of the search.
+import java.util.concurrent.atomic.AtomicBoolean; // Cancels every branch once the search is done.
+import java.util.concurrent.atomic.AtomicInteger; // Counts the solutions found by all branches.
+import java.util.concurrent.atomic.AtomicReference; // Holds the first solution found by any branch.
+
+/**
+ * ParallelSolver splits the search tree of large puzzles across the cores of a {@link ForkJoinPool}.
+ * Near the root it fills forced cells, picks the empty cell with the fewest candidates and forks
+ * one branch per candidate; below a shallow split depth each branch is searched sequentially by
+ * {@link Solver} or {@link DancingLinks}. Idle workers steal pending branches, and every branch
+ * stops as soon as a solution is found (or, when counting, once the limit is reached).
+ *
+ * On a single-core pool there is nothing to split across, so the sequential engine runs directly.
+ */
+public class ParallelSolver {
+    private final ForkJoinPool pool; // The pool the branches are forked on.
+    private final int splitDepth; // How many levels of the search tree are split into separate tasks.
+
+    /**
+     * Creates a solver that runs on the common fork-join pool.
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a solver that runs on the given pool.
+     * @param pool The pool to fork branches on.
+     */
+    public ParallelSolver(ForkJoinPool pool) {
+        this.pool = pool;
+        // Enough levels that there are several branches per worker for work-stealing to balance.
+        this.splitDepth = 32 - Integer.numberOfLeadingZeros(Math.max(1, pool.getParallelism() - 1)) + 2;
+    }
+
+    /**
+     * Solves a puzzle.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @return The first solution found, row-major, or {@code null} if the puzzle has no solution.
+     */
+    public byte[] solve(byte[] givens, int size) {
+        Search search = new Search(size, 1);
+        run(search, givens);
+        return search.solution.get();
+    }
+
+    /**
+     * Counts the solutions of a puzzle in parallel, stopping every branch once a limit is reached.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @param limit The most solutions to count.
+     * @return The number of solutions found, at most {@code limit}.
+     */
+    public int countSolutions(byte[] givens, int size, int limit) {
+        Search search = new Search(size, limit);
+        run(search, givens);
+        return Math.min(search.count.get(), limit);
+    }
+
+    /**
+     * Runs a search on the pool, or sequentially when the pool has a single worker.
+     */
+    private void run(Search search, byte[] givens) {
+        if (search.limit <= 0) {
+            return;
+        }
+        if (pool.getParallelism() <= 1) {
+            search.searchSequentially(givens.clone());
+        } else {
+            pool.invoke(new Branch(search, givens.clone(), 0));
+        }
+    }
+
+    /**
+     * The state shared by every branch of one search.
+     */
+    private static final class Search {
+        final int size; // The number of rows and columns.
+        final int boxSize; // The width and height of one box.
+        final int limit; // Stop once this many solutions have been found.
+        final AtomicBoolean done = new AtomicBoolean(); // Set once the search can stop.
+        final AtomicInteger count = new AtomicInteger(); // The solutions found so far.
+        final AtomicReference<byte[]> solution = new AtomicReference<>(); // The first solution found.
+
+        Search(int size, int limit) {
+            int box = (int) Math.round(Math.sqrt(size));
+            if (size < 1 || box * box != size || size >= Long.SIZE) {
+                throw new IllegalArgumentException("Unsupported puzzle of size " + size);
+            }
+            this.size = size;
+            this.boxSize = box;
+            this.limit = limit;
+        }
+
+        /**
+         * Searches a sub-board with the sequential engine that suits the board size.
+         */
+        void searchSequentially(byte[] cells) {
+            int remaining = limit - count.get();
+            if (remaining <= 0 || done.get()) {
+                return;
+            }
+            int found;
+            byte[] first;
+            if (size > 9) {
+                DancingLinks engine = new DancingLinks(cells, size);
+                engine.run(remaining, done);
+                found = engine.getSolutionCount();
+                first = engine.getFirstSolution();
+            } else {
+                Solver engine = new Solver(cells, size);
+                engine.run(remaining, done);
+                found = engine.getSolutionCount();
+                first = engine.getFirstSolution();
+            }
+            record(found, first);
+        }
+
+        /**
+         * Adds the solutions found by one branch and stops the search once the limit is reached.
+         */
+        void record(int found, byte[] first) {
+            if (found == 0) {
+                return;
+            }
+            solution.compareAndSet(null, first);
+            if (count.addAndGet(found) >= limit) {
+                done.set(true);
+            }
+        }
+    }
+
+    /**
+     * One branch of the search tree: a partly filled board to be split further or searched sequentially.
+     */
+    private final class Branch extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // Branches are never serialized; this keeps -Xlint quiet.
+        private final Search search; // The search this branch belongs to.
+        private final byte[] cells; // The board of this branch, owned by the branch.
+        private final int depth; // How many guesses led to this branch.
+
+        Branch(Search search, byte[] cells, int depth) {
+            this.search = search;
+            this.cells = cells;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.done.get()) {
+                return; // Another branch already finished the search.
+            }
+            if (depth >= splitDepth) {
+                search.searchSequentially(cells);
+                return;
+            }
+            int size = search.size;
+            long[] rowMasks = new long[size];
+            long[] colMasks = new long[size];
+            long[] boxMasks = new long[size];
+            long allDigits = ((1L << (size + 1)) - 1) & ~1L;
+            for (int i = 0; i < cells.length; i++) {
+                int value = cells[i];
+                if (value == Board.EMPTY) {
+                    continue;
+                }
+                long bit = 1L << value;
+                int box = boxOf(i);
+                if (value > size || ((rowMasks[i / size] | colMasks[i % size] | boxMasks[box]) & bit) != 0) {
+                    return; // The board repeats a digit, so this branch has no solution.
+                }
+                rowMasks[i / size] |= bit;
+                colMasks[i % size] |= bit;
+                boxMasks[box] |= bit;
+            }
+
+            // Fill forced cells, then find the empty cell with the fewest candidates to split on.
+            int best;
+            long bestCandidates = 0;
+            boolean placed;
+            do {
+                best = -1;
+                int bestCount = Integer.MAX_VALUE;
+                placed = false;
+                for (int i = 0; i < cells.length; i++) {
+                    if (cells[i] != Board.EMPTY) {
+                        continue;
+                    }
+                    long candidates = allDigits & ~(rowMasks[i / size] | colMasks[i % size] | boxMasks[boxOf(i)]);
+                    int count = Long.bitCount(candidates);
+                    if (count == 0) {
+                        return; // Dead end.
+                    }
+                    if (count == 1) {
+                        int digit = Long.numberOfTrailingZeros(candidates);
+                        cells[i] = (byte) digit;
+                        rowMasks[i / size] |= candidates;
+                        colMasks[i % size] |= candidates;
+                        boxMasks[boxOf(i)] |= candidates;
+                        placed = true;
+                    } else if (count < bestCount) {
+                        best = i;
+                        bestCount = count;
+                        bestCandidates = candidates;
+                    }
+                }
+            } while (placed);
+
+            if (best < 0) {
+                search.record(1, cells); // Propagation alone solved the board.
+                return;
+            }
+            // The last pass placed nothing, so the candidates of the chosen cell are still current.
+            List<Branch> children = new ArrayList<>(Long.bitCount(bestCandidates));
+            for (long candidates = bestCandidates; candidates != 0; candidates &= candidates - 1) {
+                byte[] child = cells.clone();
+                child[best] = (byte) Long.numberOfTrailingZeros(candidates);
+                children.add(new Branch(search, child, depth + 1));
+            }
+            invokeAll(children);
+        }
+
+        private int boxOf(int index) {
+            int boxSize = search.boxSize;
+            return ((index / search.size) / boxSize) * boxSize + (index % search.size) / boxSize;
+        }
+    }
+}//end of ParallelSolver class
@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelSolverTest {
+    // Four workers, so the branches are split even on a machine with fewer cores
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ParallelSolver solver = new ParallelSolver(pool);
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testAgreesWithSequentialSolver() {
+        byte[] puzzle = SolverTest.toCells(SolverTest.PUZZLE);
+        assertArrayEquals(Solver.solve(puzzle, 9), solver.solve(puzzle, 9));
+    }
+
+    @Test
+    public void testSolvesSixteenBySixteenLevel() {
+        Sudoku sudoku = new Sudoku("16x16");
+        byte[] givens = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            givens[i] = (byte) sudoku.getBoard().get(i / 16, i % 16);
+        }
+        // The level has a unique solution, so both engines must find the same one
+        assertArrayEquals(DancingLinks.solve(givens, 16), solver.solve(givens, 16));
+        assertEquals(1, solver.countSolutions(givens, 16, 2));
+    }
+
+    @Test
+    public void testCountsSolutionsUpToLimit() {
+        // There are exactly 288 valid 4x4 grids; counting stops at the limit when it is lower
+        assertEquals(288, solver.countSolutions(new byte[16], 4, 1000));
+        assertEquals(10, solver.countSolutions(new byte[16], 4, 10));
+        assertEquals(50, solver.countSolutions(new byte[256], 16, 50));
+    }
+
+    @Test
+    public void testNoSolution() {
+        byte[] cells = new byte[81];
+        cells[0] = 1;
+        cells[1] = 1;
+        assertNull(solver.solve(cells, 9));
+        assertEquals(0, solver.countSolutions(cells, 9, 5));
+    }
+}
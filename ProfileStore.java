@@ -0,0 +1,421 @@
+import java.io.IOException; // Thrown when the profiles cannot be read or written.
+import java.nio.ByteBuffer; // Holds the profiles of a store kept only in memory.
+import java.nio.MappedByteBuffer; // Maps the profile file into memory.
+import java.nio.channels.FileChannel; // Maps and locks the profile file.
+import java.nio.channels.FileLock; // Keeps other programs out of the file while a profile is read or changed.
+import java.nio.charset.StandardCharsets; // Nicknames are stored as UTF-8.
+import java.nio.file.Path; // Names the profile file.
+import java.nio.file.StandardOpenOption; // Opens the profile file for reading and writing.
+import java.time.Duration; // The best times of the players.
+import java.util.HashMap; // Finds a player's record by nickname.
+import java.util.HashSet; // The profile files open in this program.
+import java.util.Map; // Finds a player's record by nickname.
+import java.util.Set; // The profile files open in this program.
+
+/**
+ * ProfileStore keeps every player's coins, wins and best time in one memory-mapped file, in place of
+ * a text file per player rewritten on every change. Each player has a fixed-size record, found
+ * through a hash index by nickname, so reading or changing a profile costs O(1) and writes a few
+ * bytes of memory however many players there are. Both the GUI and the text UI keep their players here.
+ *
+ * Changes are written behind: they land in the mapped pages at once, and the first change after a
+ * flush queues a flush on the autosave thread, so a burst of changes reaches the disk together and
+ * never waits for it. {@link #close()} flushes whatever is left.
+ *
+ * Several programs, such as the GUI and the text UI, can have the file open at once. Their mappings
+ * share the same pages, and every read or change holds an OS lock on the file for just that call,
+ * first picking up any records another program added since. A program opens a file only once, as
+ * OS locks are held per program and would not keep two of its own stores apart.
+ *
+ * The file is big-endian and laid out as:
+ * <ul>
+ * <li>a 16 byte header: the magic {@code SPRF}, the format version (short), the record length (short),
+ * the number of records (int) and 4 reserved bytes;</li>
+ * <li>the records, each the nickname's length (byte) and UTF-8 bytes padded to 64 bytes, then the
+ * coins (int), the wins (int) and the best time in seconds, or -1 for none (long).</li>
+ * </ul>
+ * Records are only ever added after the last one, and the file grows by doubling.
+ */
+public class ProfileStore {
+    public static final int MAX_NICKNAME_BYTES = 63; // The longest nickname a record holds, in UTF-8 bytes.
+    private static final int MAGIC = 0x53505246; // "SPRF".
+    private static final short VERSION = 1; // The format version written by this class.
+    private static final int HEADER_LENGTH = 16; // The bytes before the first record.
+    private static final int COUNT_OFFSET = 8; // Where the header holds the number of records.
+    private static final int NICKNAME_LENGTH = 1 + MAX_NICKNAME_BYTES; // The bytes of the nickname field.
+    private static final int COINS_OFFSET = NICKNAME_LENGTH; // Where a record holds the coins.
+    private static final int WINS_OFFSET = COINS_OFFSET + 4; // Where a record holds the wins.
+    private static final int BEST_OFFSET = WINS_OFFSET + 4; // Where a record holds the best time.
+    private static final int RECORD_LENGTH = BEST_OFFSET + 8; // The bytes of one record.
+    private static final int INITIAL_RECORDS = 1024; // The records a new file has room for.
+    private static final Set<Path> OPEN = new HashSet<>(); // The profile files open in this program. Guarded by itself.
+
+    private final Path file; // The profile file, or null for a store kept only in memory.
+    private final FileChannel channel; // The profile file, or null for a store kept only in memory.
+    private final Map<String, Integer> index = new HashMap<>(); // The record number of every nickname.
+    private ByteBuffer data; // The header and records; mapped from the file unless kept only in memory.
+    private int count; // The number of records.
+    private boolean flushQueued; // Whether a flush is waiting on the autosave thread.
+
+    /**
+     * Creates an empty store kept only in memory, for when the profile file cannot be opened.
+     */
+    public ProfileStore() {
+        this.file = null;
+        this.channel = null;
+        this.data = ByteBuffer.allocate(HEADER_LENGTH + INITIAL_RECORDS * RECORD_LENGTH);
+        writeHeader();
+    }
+
+    private ProfileStore(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the profiles in a file, creating it if it does not exist yet. Other programs may have
+     * the same file open.
+     * @param file The profile file.
+     * @return The store.
+     * @throws IOException if the file cannot be read, is not a profile file, or is already open in this program.
+     */
+    public static ProfileStore open(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (OPEN) {
+            if (!OPEN.add(key)) {
+                throw new IOException("Profiles are already open in this program: " + file);
+            }
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ProfileStore store = new ProfileStore(key, channel);
+            FileLock held = channel.lock();
+            try {
+                store.load();
+            } finally {
+                held.release();
+            }
+            return store;
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            synchronized (OPEN) {
+                OPEN.remove(key);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the file and indexes its records, or writes the header of a new file. Runs with the file locked.
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            data = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + (long) INITIAL_RECORDS * RECORD_LENGTH);
+            writeHeader();
+            return;
+        }
+        if (size < HEADER_LENGTH || size > Integer.MAX_VALUE) {
+            throw new IOException("Not a profile file: " + file);
+        }
+        data = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (data.getInt(0) != MAGIC) {
+            throw new IOException("Not a profile file: " + file);
+        }
+        if (data.getShort(4) != VERSION || data.getShort(6) != RECORD_LENGTH) {
+            throw new IOException("Unsupported profile file version " + data.getShort(4) + ": " + file);
+        }
+        catchUp();
+    }
+
+    /**
+     * Indexes the records other programs added since this store last looked, remapping the file
+     * if they grew it. Runs with the file locked.
+     */
+    private void catchUp() throws IOException {
+        int added = data.getInt(COUNT_OFFSET);
+        if (added == count) {
+            return;
+        }
+        long size = channel.size();
+        if (added < count || HEADER_LENGTH + (long) added * RECORD_LENGTH > size) {
+            throw new IOException("Corrupt profile file, " + added + " records: " + file);
+        }
+        if (offsetOf(added) > data.capacity()) {
+            data = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        for (int record = count; record < added; record++) {
+            index.put(readNickname(record), record);
+        }
+        count = added;
+    }
+
+    /**
+     * Locks the file for one read or change, and catches up with the records other programs added.
+     * @return The lock to release, or {@code null} for a store kept only in memory.
+     */
+    private FileLock lock() throws IOException {
+        if (channel == null) {
+            return null;
+        }
+        FileLock held = channel.lock();
+        try {
+            catchUp();
+            return held;
+        } catch (IOException | RuntimeException e) {
+            held.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases a lock taken by {@link #lock()}.
+     * @param held The lock, or {@code null} for a store kept only in memory.
+     */
+    private void unlock(FileLock held) throws IOException {
+        if (held != null) {
+            held.release();
+        }
+    }
+
+    private void writeHeader() {
+        data.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) RECORD_LENGTH).putInt(COUNT_OFFSET, 0).putInt(12, 0);
+    }
+
+    /**
+     * Get whether a nickname can have a profile: it must not be empty, and must fit in
+     * {@link #MAX_NICKNAME_BYTES} bytes of UTF-8.
+     * @param nickname The nickname.
+     * @return {@code true} if the nickname can have a profile.
+     */
+    public static boolean isValidNickname(String nickname) {
+        return !nickname.isEmpty() && nickname.getBytes(StandardCharsets.UTF_8).length <= MAX_NICKNAME_BYTES;
+    }
+
+    /**
+     * Get a player's profile.
+     * @param nickname The player.
+     * @return The profile, or {@code null} if the player has none.
+     * @throws IOException if the file cannot be locked, or another program left it corrupt.
+     */
+    public synchronized Profile get(String nickname) throws IOException {
+        FileLock held = lock();
+        try {
+            Integer record = index.get(nickname);
+            if (record == null) {
+                return null;
+            }
+            int offset = offsetOf(record);
+            long bestSeconds = data.getLong(offset + BEST_OFFSET);
+            return new Profile(nickname, data.getInt(offset + COINS_OFFSET), data.getInt(offset + WINS_OFFSET),
+                    bestSeconds < 0 ? null : Duration.ofSeconds(bestSeconds));
+        } finally {
+            unlock(held);
+        }
+    }
+
+    /**
+     * Sets everything in a player's profile, creating it if the player has none.
+     * @param nickname The player.
+     * @param coins The player's coins.
+     * @param wins The player's wins.
+     * @param bestTime The player's best time, or {@code null} for none.
+     * @throws IOException if the file cannot be locked or grow to hold a new player.
+     * @throws IllegalArgumentException if the nickname cannot have a profile, see {@link #isValidNickname}.
+     */
+    public synchronized void put(String nickname, int coins, int wins, Duration bestTime) throws IOException {
+        FileLock held = lock();
+        try {
+            int offset = offsetOf(recordOf(nickname));
+            data.putInt(offset + COINS_OFFSET, coins);
+            data.putInt(offset + WINS_OFFSET, wins);
+            data.putLong(offset + BEST_OFFSET, bestTime == null ? -1 : bestTime.getSeconds());
+        } finally {
+            unlock(held);
+        }
+        changed();
+    }
+
+    /**
+     * Sets a player's coins, creating the profile with no wins if the player has none.
+     * @param nickname The player.
+     * @param coins The player's coins.
+     * @throws IOException if the file cannot be locked or grow to hold a new player.
+     * @throws IllegalArgumentException if the nickname cannot have a profile, see {@link #isValidNickname}.
+     */
+    public synchronized void setCoins(String nickname, int coins) throws IOException {
+        FileLock held = lock();
+        try {
+            int offset = offsetOf(recordOf(nickname)); // Before reading data, which a new record may remap
+            data.putInt(offset + COINS_OFFSET, coins);
+        } finally {
+            unlock(held);
+        }
+        changed();
+    }
+
+    /**
+     * Get the record of a player, adding an empty one after the last record if the player has none.
+     * Runs with the file locked.
+     */
+    private int recordOf(String nickname) throws IOException {
+        Integer record = index.get(nickname);
+        if (record != null) {
+            return record;
+        }
+        if (!isValidNickname(nickname)) {
+            throw new IllegalArgumentException("Nickname empty or longer than " + MAX_NICKNAME_BYTES + " bytes: " + nickname);
+        }
+        byte[] name = nickname.getBytes(StandardCharsets.UTF_8);
+        if (offsetOf(count + 1) > data.capacity()) {
+            grow();
+        }
+        int offset = offsetOf(count);
+        data.put(offset, (byte) name.length);
+        for (int i = 0; i < name.length; i++) {
+            data.put(offset + 1 + i, name[i]);
+        }
+        data.putInt(offset + COINS_OFFSET, 0);
+        data.putInt(offset + WINS_OFFSET, 0);
+        data.putLong(offset + BEST_OFFSET, -1);
+        index.put(nickname, count);
+        data.putInt(COUNT_OFFSET, ++count); // Counted once the record is whole
+        return count - 1;
+    }
+
+    /**
+     * Doubles the room for records, remapping the file or copying the memory. The file may have
+     * been grown further by another program already, in which case all of it is mapped.
+     */
+    private void grow() throws IOException {
+        long capacity = HEADER_LENGTH + 2L * Math.max(count, INITIAL_RECORDS) * RECORD_LENGTH;
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Too many profiles: " + count);
+        }
+        if (channel == null) {
+            ByteBuffer grown = ByteBuffer.allocate((int) capacity);
+            grown.put(data.duplicate().clear());
+            data = grown;
+        } else {
+            data = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()));
+        }
+    }
+
+    private String readNickname(int record) {
+        int offset = offsetOf(record);
+        byte[] name = new byte[data.get(offset) & 0xFF];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = data.get(offset + 1 + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static int offsetOf(int record) {
+        return HEADER_LENGTH + record * RECORD_LENGTH;
+    }
+
+    /**
+     * Queues a flush on the autosave thread, unless one is already waiting.
+     */
+    private void changed() {
+        if (channel != null && !flushQueued) {
+            flushQueued = true;
+            Autosaver.runInBackground(this::flush);
+        }
+    }
+
+    /**
+     * Forces every change made so far to disk.
+     */
+    public void flush() {
+        MappedByteBuffer mapped;
+        synchronized (this) {
+            flushQueued = false; // Changes from here on queue another flush
+            if (channel == null) {
+                return;
+            }
+            mapped = (MappedByteBuffer) data;
+        }
+        mapped.force(); // Covers the whole file, whichever mapping the changes were made through
+    }
+
+    /**
+     * Flushes every change and releases the file. The store must not be used afterwards.
+     * @throws IOException if the file cannot be released.
+     */
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            flush();
+            channel.close();
+            synchronized (OPEN) {
+                OPEN.remove(file);
+            }
+        }
+    }
+
+    /**
+     * Get the number of players with a profile, counting those added by other programs.
+     * @return The number of profiles.
+     * @throws IOException if the file cannot be locked, or another program left it corrupt.
+     */
+    public synchronized int size() throws IOException {
+        FileLock held = lock();
+        try {
+            return count;
+        } finally {
+            unlock(held);
+        }
+    }
+
+    /**
+     * The coins, wins and best time of one player, as they were when it was read.
+     */
+    public static final class Profile {
+        private final String nickname; // The player.
+        private final int coins; // The player's coins.
+        private final int wins; // The player's wins.
+        private final Duration bestTime; // The player's best time, or null for none.
+
+        Profile(String nickname, int coins, int wins, Duration bestTime) {
+            this.nickname = nickname;
+            this.coins = coins;
+            this.wins = wins;
+            this.bestTime = bestTime;
+        }
+
+        /**
+         * Get the player's nickname.
+         * @return The nickname.
+         */
+        public String getNickname() {
+            return nickname;
+        }
+
+        /**
+         * Get the player's coins.
+         * @return The number of coins.
+         */
+        public int getCoins() {
+            return coins;
+        }
+
+        /**
+         * Get the player's wins.
+         * @return The number of wins.
+         */
+        public int getWins() {
+            return wins;
+        }
+
+        /**
+         * Get the player's best time.
+         * @return The best time, or {@code null} if the player has none.
+         */
+        public Duration getBestTime() {
+            return bestTime;
+        }
+    }
+}//end of ProfileStore class
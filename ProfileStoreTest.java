@@ -0,0 +1,145 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class ProfileStoreTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = Files.createTempFile("profiles", ".db");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testProfilesSurviveReopening() throws Exception {
+        ProfileStore profiles = ProfileStore.open(file);
+        assertNull(profiles.get("alice"));
+        profiles.put("alice", 150, 3, Duration.ofSeconds(95));
+        profiles.setCoins("bob", 100); // A new profile, with no wins yet
+        profiles.setCoins("alice", 120);
+        profiles.close();
+
+        ProfileStore reopened = ProfileStore.open(file);
+        assertEquals(2, reopened.size());
+        ProfileStore.Profile alice = reopened.get("alice");
+        assertEquals(120, alice.getCoins());
+        assertEquals(3, alice.getWins());
+        assertEquals(Duration.ofSeconds(95), alice.getBestTime());
+        assertEquals(0, reopened.get("bob").getWins());
+        assertNull(reopened.get("bob").getBestTime());
+        reopened.close();
+    }
+
+    @Test
+    public void testGrowsPastItsFirstMapping() throws Exception {
+        ProfileStore profiles = ProfileStore.open(file);
+        for (int player = 0; player < 5000; player++) {
+            profiles.setCoins("player" + player, player);
+        }
+        long size = Files.size(file);
+        profiles.close();
+        assertTrue(size >= 16 + 5000 * 80);
+
+        ProfileStore reopened = ProfileStore.open(file);
+        assertEquals(5000, reopened.size());
+        assertEquals(4321, reopened.get("player4321").getCoins());
+        reopened.close();
+    }
+
+    @Test
+    public void testFileIsOpenedOncePerProgram() throws Exception {
+        ProfileStore profiles = ProfileStore.open(file);
+        assertThrows(IOException.class, () -> ProfileStore.open(file));
+        profiles.close();
+        ProfileStore.open(file).close(); // Free again once closed
+    }
+
+    @Test
+    public void testProgramsShareTheFile() throws Exception {
+        ProfileStore profiles = ProfileStore.open(file);
+        profiles.setCoins("alice", 5);
+        // Another program opens the same file meanwhile, changes a profile and adds enough to grow the file
+        assertEquals(0, runOtherProgram("alice", "9", "2000"));
+        assertEquals(9, profiles.get("alice").getCoins());
+        assertEquals(2001, profiles.size());
+        assertEquals(1999, profiles.get("player1999").getCoins());
+        profiles.setCoins("carol", 3);
+        profiles.close();
+
+        ProfileStore reopened = ProfileStore.open(file);
+        assertEquals(2002, reopened.size());
+        assertEquals(3, reopened.get("carol").getCoins());
+        assertEquals(9, reopened.get("alice").getCoins());
+        reopened.close();
+    }
+
+    /**
+     * Runs {@link OtherProgram} in a JVM of its own, so it holds the OS locks as another program would.
+     */
+    private int runOtherProgram(String... args) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String[] command = new String[args.length + 5];
+        command[0] = java;
+        command[1] = "-cp";
+        command[2] = System.getProperty("java.class.path");
+        command[3] = OtherProgram.class.getName();
+        command[4] = file.toString();
+        System.arraycopy(args, 0, command, 5, args.length);
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    /**
+     * Sets one player's coins, then adds numbered players, in the profile file named first.
+     */
+    public static final class OtherProgram {
+        public static void main(String[] args) throws Exception {
+            ProfileStore profiles = ProfileStore.open(Path.of(args[0]));
+            profiles.setCoins(args[1], Integer.parseInt(args[2]));
+            for (int player = 0; player < Integer.parseInt(args[3]); player++) {
+                profiles.setCoins("player" + player, player);
+            }
+            profiles.close();
+        }
+    }
+
+    @Test
+    public void testNicknamesMustFitARecord() throws Exception {
+        ProfileStore profiles = new ProfileStore();
+        String longest = "\u00e9".repeat(31) + "x"; // 63 bytes of UTF-8
+        assertTrue(ProfileStore.isValidNickname(longest));
+        assertFalse(ProfileStore.isValidNickname(longest + "x"));
+        assertFalse(ProfileStore.isValidNickname(""));
+        profiles.setCoins(longest, 7);
+        assertEquals(7, profiles.get(longest).getCoins());
+        assertThrows(IllegalArgumentException.class, () -> profiles.setCoins(longest + "x", 7));
+    }
+
+    @Test
+    public void testMemoryStoreGrowsToo() throws Exception {
+        ProfileStore profiles = new ProfileStore();
+        for (int player = 0; player < 3000; player++) {
+            profiles.put("player" + player, player, 1, null);
+        }
+        assertEquals(3000, profiles.size());
+        assertEquals(2999, profiles.get("player2999").getCoins());
+        assertEquals(0, profiles.get("player0").getCoins());
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws Exception {
+        Files.write(file, "alice,3,95\n".repeat(4).getBytes(StandardCharsets.US_ASCII));
+        assertThrows(IOException.class, () -> ProfileStore.open(file));
+    }
+}
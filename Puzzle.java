@@ -0,0 +1,82 @@
+/**
+ * Puzzle is an immutable Sudoku puzzle: its size, its givens and its solution, both stored
+ * row-major in the flat layout used by {@link Board} with 0 for an empty cell. Puzzles are
+ * produced by the {@link PuzzleGenerator} and can be played with {@link Sudoku#Sudoku(Puzzle)}.
+ */
+public class Puzzle {
+    private final int size; // The number of rows and columns.
+    private final byte[] givens; // The pre-filled cells, 0 where the player fills in a value.
+    private final byte[] solution; // The completed grid.
+
+    /**
+     * Constructor for Puzzle. The arrays are copied, so the caller may reuse them.
+     * @param size The number of rows and columns.
+     * @param givens The pre-filled cells, row-major, 0 for empty cells.
+     * @param solution The completed grid, row-major.
+     * @throws IllegalArgumentException if the arrays do not match the size.
+     */
+    public Puzzle(int size, byte[] givens, byte[] solution) {
+        if (givens.length != size * size || solution.length != size * size) {
+            throw new IllegalArgumentException("Puzzle arrays do not match size " + size);
+        }
+        this.size = size;
+        this.givens = givens.clone();
+        this.solution = solution.clone();
+    }
+
+    /**
+     * Get the number of rows and columns of the puzzle.
+     * @return The puzzle size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the value a cell starts with.
+     * @param index The row-major index of the cell.
+     * @return The given value, or {@link Board#EMPTY} if the player fills the cell.
+     */
+    public int getGiven(int index) {
+        return givens[index];
+    }
+
+    /**
+     * Get the value of a cell in the solution.
+     * @param index The row-major index of the cell.
+     * @return The solution value of the cell.
+     */
+    public int getSolution(int index) {
+        return solution[index];
+    }
+
+    /**
+     * Get a copy of the givens.
+     * @return The pre-filled cells, row-major, 0 for empty cells.
+     */
+    public byte[] getGivens() {
+        return givens.clone();
+    }
+
+    /**
+     * Get a copy of the solution.
+     * @return The completed grid, row-major.
+     */
+    public byte[] getSolution() {
+        return solution.clone();
+    }
+
+    /**
+     * Count the pre-filled cells of the puzzle.
+     * @return The number of givens.
+     */
+    public int getClueCount() {
+        int clues = 0;
+        for (byte given : givens) {
+            if (given != Board.EMPTY) {
+                clues++;
+            }
+        }
+        return clues;
+    }
+}//end of Puzzle class
@@ -0,0 +1,198 @@
+import java.util.Random; // The source of randomness for grids and the order clues are removed in.
+
+/**
+ * PuzzleGenerator creates new puzzles by carving clues out of a random completed grid. A clue is
+ * only removed if the puzzle still has a single solution afterwards, so every generated puzzle is
+ * uniquely solvable. Harder difficulties carve more clues away, and every carved puzzle is graded by
+ * the {@link DifficultyRater}: one graded easier than asked for is carved again with fewer clues, and
+ * one graded harder with more, so the difficulty a puzzle is dealt at is the one a player will meet.
+ *
+ * Generating a puzzle takes many solver runs, so games normally take ready-made puzzles from the
+ * {@link PuzzlePool}, which runs the generator on background threads.
+ */
+public class PuzzleGenerator {
+
+    /**
+     * How hard a generated puzzle is graded, matching {@link DifficultyRater.Rating#getDifficulty()}.
+     * Each carries the fraction of the cells kept as clues that carving starts from.
+     */
+    public enum Difficulty {
+        EASY(0.50),
+        MEDIUM(0.40),
+        HARD(0.30);
+
+        private final double clueFraction; // The share of cells left as clues.
+
+        Difficulty(double clueFraction) {
+            this.clueFraction = clueFraction;
+        }
+
+        /**
+         * Get the number of clues carving first aims for on a board.
+         * @param size The number of rows and columns of the board.
+         * @return The target number of clues.
+         */
+        public int targetClues(int size) {
+            return (int) Math.ceil(size * size * clueFraction);
+        }
+    }
+
+    private static final int MAX_CARVES = 12; // The most carvings tried to reach the asked-for grade.
+
+    private final Random random; // The source of randomness for this generator.
+
+    /**
+     * Creates a generator with a random seed.
+     */
+    public PuzzleGenerator() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a generator that draws from the given source, so a seeded Random repeats its puzzles.
+     * @param random The source of randomness.
+     */
+    public PuzzleGenerator(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Generates a puzzle with a unique solution, graded at the given difficulty where the board
+     * allows it. A board too small for a grade, such as a 4x4 board that singles always finish,
+     * gets the closest grade reached.
+     * @param size The number of rows and columns, a perfect square.
+     * @param difficulty How hard the puzzle should be graded.
+     * @return The new puzzle.
+     */
+    public Puzzle generate(int size, Difficulty difficulty) {
+        byte[] solution = randomGrid(size);
+        int clues = difficulty.targetClues(size);
+        int step = Math.max(1, size * size / 27); // Three clues a carving on a 9x9 board
+        byte[] closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (int carving = 0; carving < MAX_CARVES; carving++) {
+            byte[] givens = carve(solution, size, clues);
+            int distance = DifficultyRater.rate(givens, size).getDifficulty().compareTo(difficulty);
+            if (Math.abs(distance) < closestDistance) {
+                closest = givens;
+                closestDistance = Math.abs(distance);
+            }
+            if (distance == 0) {
+                break;
+            }
+            // Too easy: carve deeper next time; too hard: leave more clues
+            clues = Math.max(0, Math.min(size * size, clues + (distance > 0 ? step : -step)));
+        }
+        return new Puzzle(size, closest, solution);
+    }
+
+    /**
+     * Creates a random completed grid. The boxes on the main diagonal share no row or column,
+     * so each is filled with a random permutation and a sequential solver completes the rest.
+     * @param size The number of rows and columns, a perfect square.
+     * @return A completed grid, row-major.
+     */
+    public byte[] randomGrid(int size) {
+        int boxSize = (int) Math.round(Math.sqrt(size));
+        byte[] cells = new byte[size * size];
+        for (int box = 0; box < boxSize; box++) {
+            byte[] digits = shuffledDigits(size);
+            for (int i = 0; i < size; i++) {
+                int row = box * boxSize + i / boxSize;
+                int col = box * boxSize + i % boxSize;
+                cells[row * size + col] = digits[i];
+            }
+        }
+        byte[] grid = solveSequentially(cells, size);
+        if (grid == null) {
+            // Not reachable for square boards, but fall back to the canonical grid rather than fail.
+            grid = solveSequentially(new byte[size * size], size);
+        }
+        // Relabel the digits so the solver's preference for low digits does not show in the grid.
+        byte[] relabel = shuffledDigits(size);
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = relabel[grid[i] - 1];
+        }
+        return grid;
+    }
+
+    /**
+     * Removes clues from a completed grid in random order, keeping each removal only if the
+     * puzzle still has a single solution, until the target number of clues is reached or no
+     * more clues can be removed.
+     * @param solution The completed grid, row-major.
+     * @param size The number of rows and columns.
+     * @param targetClues The number of clues to stop at.
+     * @return The givens of the puzzle, row-major, 0 for empty cells.
+     */
+    public byte[] carve(byte[] solution, int size, int targetClues) {
+        byte[] givens = solution.clone();
+        int[] order = new int[givens.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        shuffle(order);
+        int clues = givens.length;
+        for (int i = 0; i < order.length && clues > targetClues; i++) {
+            int index = order[i];
+            byte value = givens[index];
+            givens[index] = Board.EMPTY;
+            if (isUnique(givens, size)) {
+                clues--;
+            } else {
+                givens[index] = value; // Removing this clue would allow a second solution.
+            }
+        }
+        return givens;
+    }
+
+    /**
+     * Solves with a sequential engine, since the generator already runs on pool threads and must
+     * not hand its work to the shared fork/join pool of the {@link ParallelSolver}.
+     */
+    private static byte[] solveSequentially(byte[] givens, int size) {
+        if (size > 9) {
+            return DancingLinks.solve(givens, size);
+        }
+        return Solver.solve(givens, size);
+    }
+
+    /**
+     * Checks uniqueness with a sequential engine, since the generator already runs on pool threads.
+     */
+    private static boolean isUnique(byte[] givens, int size) {
+        if (size > 9) {
+            return DancingLinks.countSolutions(givens, size, 2) == 1;
+        }
+        return Solver.countSolutions(givens, size, 2) == 1;
+    }
+
+    /**
+     * Returns the digits 1..size in random order.
+     */
+    private byte[] shuffledDigits(int size) {
+        byte[] digits = new byte[size];
+        for (int i = 0; i < size; i++) {
+            digits[i] = (byte) (i + 1);
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte swap = digits[i];
+            digits[i] = digits[j];
+            digits[j] = swap;
+        }
+        return digits;
+    }
+
+    /**
+     * Shuffles an array in place (Fisher-Yates).
+     */
+    private void shuffle(int[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}//end of PuzzleGenerator class
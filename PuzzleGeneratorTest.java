@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+public class PuzzleGeneratorTest {
+
+    @Test
+    public void testGeneratedPuzzleIsUnique() {
+        PuzzleGenerator generator = new PuzzleGenerator(new Random(42));
+        Puzzle puzzle = generator.generate(9, PuzzleGenerator.Difficulty.MEDIUM);
+
+        // The puzzle must have exactly one solution, and it must be the stored one
+        assertTrue(Solver.hasUniqueSolution(puzzle.getGivens(), 9));
+        assertArrayEquals(puzzle.getSolution(), Solver.solve(puzzle.getGivens(), 9));
+        // Every given agrees with the solution
+        for (int i = 0; i < 81; i++) {
+            assertTrue(puzzle.getGiven(i) == Board.EMPTY || puzzle.getGiven(i) == puzzle.getSolution(i));
+        }
+    }
+
+    @Test
+    public void testHarderPuzzlesHaveFewerClues() {
+        PuzzleGenerator generator = new PuzzleGenerator(new Random(7));
+        Puzzle easy = generator.generate(9, PuzzleGenerator.Difficulty.EASY);
+        Puzzle hard = generator.generate(9, PuzzleGenerator.Difficulty.HARD);
+        assertEquals(PuzzleGenerator.Difficulty.EASY.targetClues(9), easy.getClueCount());
+        assertTrue(hard.getClueCount() < easy.getClueCount());
+    }
+
+    @Test
+    public void testSeededGeneratorRepeats() {
+        Puzzle first = new PuzzleGenerator(new Random(1)).generate(4, PuzzleGenerator.Difficulty.HARD);
+        Puzzle second = new PuzzleGenerator(new Random(1)).generate(4, PuzzleGenerator.Difficulty.HARD);
+        assertArrayEquals(first.getGivens(), second.getGivens());
+    }
+
+    @Test
+    public void testPoolDealsPlayablePuzzles() throws InterruptedException {
+        PuzzlePool pool = new PuzzlePool(2, 1);
+        try {
+            pool.prepare(4, PuzzleGenerator.Difficulty.EASY);
+            // Wait for the background thread to fill the queue
+            for (int i = 0; i < 100 && pool.readyCount(4, PuzzleGenerator.Difficulty.EASY) < 2; i++) {
+                Thread.sleep(20);
+            }
+            assertEquals(2, pool.readyCount(4, PuzzleGenerator.Difficulty.EASY));
+
+            Sudoku sudoku = new Sudoku(pool.take(4, PuzzleGenerator.Difficulty.EASY));
+            assertEquals(4, sudoku.getGameSize());
+            assertFalse(sudoku.checkWin());
+            for (int row = 0; row < 4; row++) {
+                for (int col = 0; col < 4; col++) {
+                    sudoku.makeMove(Integer.toString(row), Integer.toString(col), sudoku.getSolution(row, col));
+                }
+            }
+            assertTrue(sudoku.checkWin());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testPollNeverWaitsForGeneration() {
+        PuzzlePool pool = new PuzzlePool(2, 1);
+        pool.shutdown(); // Nothing will ever be generated
+        assertNull(pool.poll(9, PuzzleGenerator.Difficulty.HARD));
+    }
+
+    @Test
+    public void testSizeOfGameType() {
+        assertEquals(4, Sudoku.sizeOf("4x4"));
+        assertEquals(16, Sudoku.sizeOf("16x16"));
+        assertEquals(9, Sudoku.sizeOf("anything else"));
+    }
+}
@@ -0,0 +1,258 @@
+import java.io.IOException; // Thrown when a pack cannot be read or written.
+import java.nio.ByteBuffer; // Builds the header, index and records of a pack being written.
+import java.nio.MappedByteBuffer; // The read-only mapping of a pack file.
+import java.nio.channels.FileChannel; // Maps a pack into memory and writes new packs.
+import java.nio.file.Files; // Tells whether a shared pack's file has changed since it was mapped.
+import java.nio.file.Path; // Names the pack file.
+import java.nio.file.StandardCopyOption; // Renames a newly written pack over the old one.
+import java.nio.file.StandardOpenOption; // Opens the pack for reading or writing.
+import java.nio.file.attribute.BasicFileAttributes; // Tells whether a shared pack's file has been replaced.
+import java.nio.file.attribute.FileTime; // When a pack's file was last written.
+import java.util.LinkedHashMap; // The shared packs by file, least recently used first.
+import java.util.List; // The puzzles written into a new pack.
+import java.util.Map; // The shared packs by file.
+import java.util.Objects; // Compares file keys, which may be null.
+
+/**
+ * PuzzlePack is a binary file holding many puzzles of one size, read through a read-only memory
+ * mapping so a puzzle is found by its id in O(1) without reading the rest of the file. Only the
+ * pages of the puzzles actually played are loaded, and they live outside the Java heap, so one
+ * pack can serve millions of puzzles with instant startup.
+ *
+ * The file is big-endian and laid out as:
+ * <ul>
+ * <li>a 16 byte header: the magic {@code SPAK}, the format version (short), the board size (short),
+ * the number of puzzles (int) and the length of one record in bytes (int);</li>
+ * <li>an index holding the file offset (long) of each puzzle's record, by puzzle id;</li>
+ * <li>the records, each the givens followed by the solution, packed at the fewest bits per cell
+ * that hold the board size (3 bits for 4x4, 4 bits for 9x9, 5 bits for 16x16).</li>
+ * </ul>
+ * A mapping is limited to 2 GB, which is over 25 million 9x9 puzzles. Games share one mapping of
+ * each pack through {@link #openShared(Path)}, rather than mapping the file again for every game;
+ * only the most recently used packs stay shared, and the others are unmapped once nothing holds them.
+ * A pack is written to a temporary file renamed over the old one, so a live mapping never sees a
+ * file cut short under it.
+ */
+public class PuzzlePack {
+    private static final int MAGIC = 0x5350414B; // "SPAK".
+    private static final short VERSION = 1; // The format version written by this class.
+    private static final int HEADER_LENGTH = 16; // The bytes before the offset index.
+    private static final int MAX_SHARED = 8; // The most packs kept mapped for games.
+    private static final Map<Path, PuzzlePack> SHARED = new LinkedHashMap<>(16, 0.75f, true) { // The packs opened for games, by absolute path, guarded by itself.
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, PuzzlePack> eldest) {
+            return size() > MAX_SHARED;
+        }
+    };
+
+    private final MappedByteBuffer data; // The whole pack, mapped read-only.
+    private final Object fileKey; // The file that was mapped, where the system tells files apart, or null.
+    private final FileTime modified; // When the file was last written before it was mapped.
+    private final int size; // The number of rows and columns of every puzzle.
+    private final int count; // The number of puzzles in the pack.
+    private final int bitsPerCell; // The bits used to pack one cell.
+    private final int gridLength; // The bytes holding one packed grid.
+    private final long recordsStart; // The offset of the first record, just past the index.
+
+    private PuzzlePack(MappedByteBuffer data, BasicFileAttributes attributes, int size, int count) {
+        this.data = data;
+        this.fileKey = attributes.fileKey();
+        this.modified = attributes.lastModifiedTime();
+        this.size = size;
+        this.count = count;
+        this.bitsPerCell = bitsPerCell(size);
+        this.gridLength = gridLength(size);
+        this.recordsStart = HEADER_LENGTH + (long) count * Long.BYTES;
+    }
+
+    /**
+     * Maps a pack file read-only and checks its header. No puzzle is read until it is asked for.
+     * @param file The pack file.
+     * @return The opened pack.
+     * @throws IOException if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file is not a puzzle pack.
+     */
+    public static PuzzlePack open(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.capacity() < HEADER_LENGTH || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a puzzle pack: " + file);
+        }
+        if (data.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported puzzle pack version " + data.getShort(4) + ": " + file);
+        }
+        int size = data.getShort(6);
+        int count = data.getInt(8);
+        int recordLength = data.getInt(12);
+        if (size < 1 || size > Board.MAX_VALUE || count < 0 || recordLength != 2 * gridLength(size)
+                || HEADER_LENGTH + (long) count * (Long.BYTES + recordLength) > data.capacity()) {
+            throw new IllegalArgumentException("Corrupt puzzle pack: " + file);
+        }
+        return new PuzzlePack(data, attributes, size, count);
+    }
+
+    /**
+     * Get the pack in a file, shared by every game played from it. The file is mapped once, and
+     * mapped again only if it has been replaced or written since, or has not been used for so long
+     * that other packs took its place.
+     * @param file The pack file.
+     * @return The opened pack.
+     * @throws IOException if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file is not a puzzle pack.
+     */
+    public static PuzzlePack openShared(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        synchronized (SHARED) {
+            PuzzlePack pack = SHARED.get(key);
+            if (pack == null || !Objects.equals(pack.fileKey, attributes.fileKey())
+                    || !pack.modified.equals(attributes.lastModifiedTime()) || pack.data.capacity() != attributes.size()) {
+                pack = open(key);
+                SHARED.put(key, pack);
+            }
+            return pack;
+        }
+    }
+
+    /**
+     * Writes a pack file, replacing any file already there. The pack is written and forced to a
+     * temporary file first, then renamed over the old one in one step, so games still playing from
+     * the old pack keep their mapping of it.
+     * @param file The pack file to write.
+     * @param size The number of rows and columns of every puzzle.
+     * @param puzzles The puzzles, in id order.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if a puzzle is not of the given size.
+     */
+    public static void write(Path file, int size, List<Puzzle> puzzles) throws IOException {
+        int recordLength = 2 * gridLength(size);
+        long length = HEADER_LENGTH + (long) puzzles.size() * (Long.BYTES + recordLength);
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many puzzles for one pack: " + puzzles.size());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) size).putInt(puzzles.size()).putInt(recordLength);
+        long recordsStart = HEADER_LENGTH + (long) puzzles.size() * Long.BYTES;
+        for (int id = 0; id < puzzles.size(); id++) {
+            buffer.putLong(recordsStart + (long) id * recordLength);
+        }
+        int bits = bitsPerCell(size);
+        for (Puzzle puzzle : puzzles) {
+            if (puzzle.getSize() != size) {
+                throw new IllegalArgumentException("Puzzle of size " + puzzle.getSize() + " in a pack of size " + size);
+            }
+            int record = buffer.position();
+            pack(buffer, record, puzzle.getGivens(), bits);
+            pack(buffer, record + gridLength(size), puzzle.getSolution(), bits);
+            buffer.position(record + recordLength);
+        }
+        buffer.flip();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (SHARED) {
+            SHARED.remove(file.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Get the number of rows and columns of every puzzle in the pack.
+     * @return The board size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of puzzles in the pack.
+     * @return The number of puzzles.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Reads one puzzle by its id. Only the index entry and the record of that puzzle are touched.
+     * Safe to call from several threads at once.
+     * @param id The id of the puzzle, from 0 to {@link #getCount()} - 1.
+     * @return The puzzle.
+     * @throws IllegalArgumentException if there is no puzzle with that id, or its record is corrupt.
+     */
+    public Puzzle get(int id) {
+        if (id < 0 || id >= count) {
+            throw new IllegalArgumentException("No puzzle " + id + " in a pack of " + count);
+        }
+        long record = data.getLong(HEADER_LENGTH + id * Long.BYTES);
+        if (record < recordsStart || record > data.capacity() - 2L * gridLength) {
+            throw new IllegalArgumentException("Corrupt puzzle pack: puzzle " + id + " points outside the records");
+        }
+        byte[] givens = unpack(id, (int) record);
+        byte[] solution = unpack(id, (int) record + gridLength);
+        return new Puzzle(size, givens, solution);
+    }
+
+    /**
+     * Decodes one packed grid with absolute reads, so the shared mapping's position never moves.
+     */
+    private byte[] unpack(int id, int offset) {
+        byte[] cells = new byte[size * size];
+        int mask = (1 << bitsPerCell) - 1;
+        int bitPos = 0;
+        for (int i = 0; i < cells.length; i++, bitPos += bitsPerCell) {
+            int at = offset + (bitPos >>> 3);
+            // A cell spans at most two bytes, since it is never wider than 8 bits.
+            int pair = (data.get(at) & 0xFF) << 8;
+            if (at + 1 < data.capacity()) {
+                pair |= data.get(at + 1) & 0xFF;
+            }
+            int value = (pair >>> (16 - bitsPerCell - (bitPos & 7))) & mask;
+            if (value > size) {
+                throw new IllegalArgumentException("Corrupt puzzle pack: puzzle " + id + " holds the value " + value);
+            }
+            cells[i] = (byte) value;
+        }
+        return cells;
+    }
+
+    /**
+     * Encodes one grid at the given offset of the buffer, most significant bit first.
+     */
+    private static void pack(ByteBuffer buffer, int offset, byte[] cells, int bits) {
+        int bitPos = 0;
+        for (byte cell : cells) {
+            for (int bit = bits - 1; bit >= 0; bit--, bitPos++) {
+                if ((cell >>> bit & 1) != 0) {
+                    int at = offset + (bitPos >>> 3);
+                    buffer.put(at, (byte) (buffer.get(at) | (0x80 >>> (bitPos & 7))));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the fewest bits that hold every value from 0 to the board size.
+     */
+    private static int bitsPerCell(int size) {
+        if (size < 1 || size > Board.MAX_VALUE) {
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros(size);
+    }
+
+    /**
+     * Get the bytes holding one packed grid of the given size.
+     */
+    private static int gridLength(int size) {
+        return (size * size * bitsPerCell(size) + 7) / 8;
+    }
+}//end of PuzzlePack class
@@ -0,0 +1,160 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PuzzlePackTest {
+
+    @Test
+    public void testReadsEveryPuzzleBack() throws IOException {
+        PuzzleGenerator generator = new PuzzleGenerator(new Random(3));
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            puzzles.add(generator.generate(9, PuzzleGenerator.Difficulty.EASY));
+        }
+        Path file = Files.createTempFile("pack", ".spak");
+        try {
+            PuzzlePack.write(file, 9, puzzles);
+            PuzzlePack pack = PuzzlePack.open(file);
+            assertEquals(9, pack.getSize());
+            assertEquals(5, pack.getCount());
+            // Read out of order, as random access would
+            for (int id = 4; id >= 0; id--) {
+                assertArrayEquals(puzzles.get(id).getGivens(), pack.get(id).getGivens());
+                assertArrayEquals(puzzles.get(id).getSolution(), pack.get(id).getSolution());
+            }
+            assertThrows(IllegalArgumentException.class, () -> pack.get(5));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSixteenBySixteenUsesFiveBitCells() throws IOException {
+        byte[] solution = new PuzzleGenerator(new Random(5)).randomGrid(16);
+        byte[] givens = solution.clone();
+        givens[0] = Board.EMPTY;
+        Path file = Files.createTempFile("pack", ".spak");
+        try {
+            PuzzlePack.write(file, 16, List.of(new Puzzle(16, givens, solution)));
+            Puzzle read = PuzzlePack.open(file).get(0);
+            assertArrayEquals(givens, read.getGivens());
+            assertArrayEquals(solution, read.getSolution());
+            // Header, one index entry and two grids of 256 five-bit cells
+            assertEquals(16 + 8 + 2 * 160, Files.size(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSudokuPlaysPuzzleFromPack() throws IOException {
+        Puzzle puzzle = new PuzzleGenerator(new Random(9)).generate(4, PuzzleGenerator.Difficulty.EASY);
+        Path file = Files.createTempFile("pack", ".spak");
+        try {
+            PuzzlePack.write(file, 4, List.of(puzzle));
+            Sudoku sudoku = new Sudoku(file, 0);
+            assertEquals(4, sudoku.getGameSize());
+            assertArrayEquals(puzzle.getGivens(), sudoku.getBoard().toArray());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRejectsFileThatIsNotAPack() throws IOException {
+        Path file = Files.createTempFile("pack", ".txt");
+        try {
+            Files.writeString(file, "9\n0 0 1\n0 1 2\n0 2 3\n");
+            assertThrows(IllegalArgumentException.class, () -> PuzzlePack.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRejectsCorruptRecords() throws IOException {
+        Puzzle puzzle = new PuzzleGenerator(new Random(9)).generate(4, PuzzleGenerator.Difficulty.EASY);
+        Path file = Files.createTempFile("pack", ".spak");
+        try {
+            PuzzlePack.write(file, 4, List.of(puzzle, puzzle));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(8).putLong(0, 1L << 40), 16); // Puzzle 0 points past the file
+                channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), 16 + 2 * 8 + 12); // Puzzle 1 holds a 7
+            }
+            PuzzlePack pack = PuzzlePack.open(file);
+            assertThrows(IllegalArgumentException.class, () -> pack.get(0));
+            assertThrows(IllegalArgumentException.class, () -> pack.get(1));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testGamesShareOneMappingOfAPack() throws IOException {
+        Puzzle puzzle = new PuzzleGenerator(new Random(9)).generate(4, PuzzleGenerator.Difficulty.EASY);
+        Path file = Files.createTempFile("pack", ".spak");
+        try {
+            PuzzlePack.write(file, 4, List.of(puzzle));
+            PuzzlePack pack = PuzzlePack.openShared(file);
+            assertSame(pack, PuzzlePack.openShared(file));
+            // A pack written again is mapped again
+            PuzzlePack.write(file, 4, List.of(puzzle, puzzle));
+            PuzzlePack rewritten = PuzzlePack.openShared(file);
+            assertTrue(pack != rewritten);
+            assertEquals(2, rewritten.getCount());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRewritingAPackLeavesItsMappingIntact() throws IOException {
+        Random random = new Random(10);
+        Puzzle first = new PuzzleGenerator(random).generate(4, PuzzleGenerator.Difficulty.EASY);
+        Puzzle second = new PuzzleGenerator(random).generate(4, PuzzleGenerator.Difficulty.EASY);
+        Path file = Files.createTempFile("pack", ".spak");
+        try {
+            PuzzlePack.write(file, 4, List.of(first, first));
+            PuzzlePack pack = PuzzlePack.openShared(file);
+            PuzzlePack.write(file, 4, List.of(second));
+
+            // To check that the old mapping still reads the old pack in full
+            assertEquals(2, pack.getCount());
+            assertArrayEquals(first.getSolution(), pack.get(1).getSolution());
+            assertArrayEquals(second.getSolution(), PuzzlePack.openShared(file).get(0).getSolution());
+            assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testOnlyRecentPacksStayShared() throws IOException {
+        Puzzle puzzle = new PuzzleGenerator(new Random(11)).generate(4, PuzzleGenerator.Difficulty.EASY);
+        List<Path> files = new ArrayList<>();
+        try {
+            for (int i = 0; i < 9; i++) {
+                Path file = Files.createTempFile("pack", ".spak");
+                files.add(file);
+                PuzzlePack.write(file, 4, List.of(puzzle));
+            }
+            PuzzlePack oldest = PuzzlePack.openShared(files.get(0));
+            for (Path file : files.subList(1, 9)) {
+                PuzzlePack.openShared(file);
+            }
+            assertTrue(oldest != PuzzlePack.openShared(files.get(0)));
+        } finally {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+}
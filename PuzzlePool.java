@@ -0,0 +1,149 @@
+import java.util.Map; // Maps a size and difficulty to its queue of ready puzzles.
+import java.util.concurrent.ArrayBlockingQueue; // A bounded queue of ready puzzles.
+import java.util.concurrent.BlockingQueue; // The queue type handed between generator threads and games.
+import java.util.concurrent.ConcurrentHashMap; // Lets games and generator threads share the queues.
+import java.util.concurrent.ExecutorService; // The background threads that generate puzzles.
+import java.util.concurrent.Executors; // Creates the background thread pool.
+import java.util.concurrent.RejectedExecutionException; // Thrown if the pool shuts down while refilling.
+import java.util.concurrent.atomic.AtomicInteger; // Counts the puzzles being generated for a queue.
+
+/**
+ * PuzzlePool keeps a bounded queue of ready-made puzzles for each board size and difficulty,
+ * topped up by a {@link PuzzleGenerator} running on background threads. Taking a puzzle is a
+ * queue poll, so a new game does not wait for generation unless the queue has run dry.
+ *
+ * Most callers share {@link #getDefault()}, whose threads are daemons so they never keep the
+ * game from exiting.
+ */
+public class PuzzlePool {
+    private static PuzzlePool defaultPool; // The pool shared by the game, created on first use.
+
+    private final int capacity; // The most ready puzzles kept per size and difficulty.
+    private final ExecutorService workers; // The threads that generate puzzles.
+    private final Map<String, Shelf> shelves = new ConcurrentHashMap<>(); // The queue for each size and difficulty.
+
+    /**
+     * The ready puzzles for one size and difficulty, and how many more are being generated.
+     */
+    private static final class Shelf {
+        final BlockingQueue<Puzzle> ready; // Puzzles waiting to be played.
+        final AtomicInteger pending = new AtomicInteger(); // Puzzles being generated right now.
+
+        Shelf(int capacity) {
+            ready = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * Creates a pool.
+     * @param capacity The most ready puzzles to keep for each size and difficulty.
+     * @param threads The number of background generator threads.
+     */
+    public PuzzlePool(int capacity, int threads) {
+        this.capacity = capacity;
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "puzzle-generator");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY); // Generation must not compete with the game for the CPU.
+            return thread;
+        });
+    }
+
+    /**
+     * Get the pool shared by the game, which keeps four puzzles per size and difficulty.
+     * @return The shared pool.
+     */
+    public static synchronized PuzzlePool getDefault() {
+        if (defaultPool == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            defaultPool = new PuzzlePool(4, threads);
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Starts filling the queue for a size and difficulty, so later calls to {@link #take} are instant.
+     * @param size The number of rows and columns.
+     * @param difficulty The difficulty of the puzzles.
+     */
+    public void prepare(int size, PuzzleGenerator.Difficulty difficulty) {
+        refill(size, difficulty, shelf(size, difficulty));
+    }
+
+    /**
+     * Takes a ready puzzle, if there is one, and starts generating its replacement. Never waits
+     * for generation, so it is safe to call on the event thread.
+     * @param size The number of rows and columns.
+     * @param difficulty The difficulty of the puzzle.
+     * @return A puzzle with a unique solution, or {@code null} if none is ready yet.
+     */
+    public Puzzle poll(int size, PuzzleGenerator.Difficulty difficulty) {
+        Shelf shelf = shelf(size, difficulty);
+        Puzzle puzzle = shelf.ready.poll();
+        refill(size, difficulty, shelf);
+        return puzzle;
+    }
+
+    /**
+     * Takes a ready puzzle and starts generating its replacement. If none is ready yet, the
+     * puzzle is generated on the calling thread, so the event thread should use {@link #poll} instead.
+     * @param size The number of rows and columns.
+     * @param difficulty The difficulty of the puzzle.
+     * @return A puzzle with a unique solution.
+     */
+    public Puzzle take(int size, PuzzleGenerator.Difficulty difficulty) {
+        Puzzle puzzle = poll(size, difficulty);
+        if (puzzle == null) {
+            puzzle = new PuzzleGenerator().generate(size, difficulty);
+        }
+        return puzzle;
+    }
+
+    /**
+     * Get the number of puzzles ready to be taken for a size and difficulty.
+     * @param size The number of rows and columns.
+     * @param difficulty The difficulty of the puzzles.
+     * @return The number of ready puzzles.
+     */
+    public int readyCount(int size, PuzzleGenerator.Difficulty difficulty) {
+        return shelf(size, difficulty).ready.size();
+    }
+
+    /**
+     * Stops the background threads. Puzzles already queued can still be taken.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private Shelf shelf(int size, PuzzleGenerator.Difficulty difficulty) {
+        return shelves.computeIfAbsent(size + "/" + difficulty, key -> new Shelf(capacity));
+    }
+
+    /**
+     * Queues generation tasks until the ready and in-progress puzzles fill the shelf.
+     */
+    private void refill(int size, PuzzleGenerator.Difficulty difficulty, Shelf shelf) {
+        while (!workers.isShutdown()) {
+            int pending = shelf.pending.get();
+            if (pending + shelf.ready.size() >= capacity) {
+                return;
+            }
+            if (!shelf.pending.compareAndSet(pending, pending + 1)) {
+                continue;
+            }
+            try {
+                workers.execute(() -> {
+                    try {
+                        shelf.ready.offer(new PuzzleGenerator().generate(size, difficulty));
+                    } finally {
+                        shelf.pending.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                shelf.pending.decrementAndGet(); // The pool was shut down meanwhile.
+                return;
+            }
+        }
+    }
+}//end of PuzzlePool class
@@ -0,0 +1,287 @@
+import java.util.ArrayDeque; // Walks the tree in order for the first k items.
+import java.util.ArrayList; // Holds the first k items.
+import java.util.Arrays; // Sorts the items and priorities of a bulk load.
+import java.util.Collection; // The items of a bulk load.
+import java.util.Comparator; // The order of the index.
+import java.util.Deque; // The path of the in-order walk.
+import java.util.List; // The first k items.
+import java.util.SplittableRandom; // Draws the node priorities.
+
+/**
+ * RankIndex keeps a set of items sorted, and answers how many items come before a given one and
+ * which item sits at a given position, each in O(log n) time. A sorted set can only answer those
+ * by walking it, which costs O(n) at a million items.
+ *
+ * The index is a treap: a binary search tree whose nodes also carry a random priority, which keeps
+ * the tree balanced in expectation whatever order the items arrive in. Every node counts the items
+ * below it, so ranks are summed on the way down. Items must not change their order while indexed;
+ * remove an item, change it, and add it again. Like a TreeSet, an index is not thread-safe.
+ *
+ * @param <T> The type of the indexed items.
+ */
+public class RankIndex<T> {
+    private final Comparator<? super T> order; // The order of the items; equal items are the same item.
+    private final SplittableRandom random = new SplittableRandom(); // Draws the node priorities.
+    private Node<T> root; // The root of the tree, or null when the index is empty.
+    private boolean changed; // Whether the latest add or remove changed the tree.
+
+    /**
+     * Creates an empty index.
+     * @param order The order of the items. Items it finds equal are treated as the same item.
+     */
+    public RankIndex(Comparator<? super T> order) {
+        this.order = order;
+    }
+
+    /**
+     * Adds an item, unless an equal item is already indexed.
+     * @param item The item to add.
+     * @return {@code true} if the item was added.
+     */
+    public boolean add(T item) {
+        changed = false;
+        root = insert(root, item);
+        return changed;
+    }
+
+    /**
+     * Removes the item equal to the given one.
+     * @param item The item to remove.
+     * @return {@code true} if an item was removed.
+     */
+    public boolean remove(T item) {
+        changed = false;
+        root = delete(root, item);
+        return changed;
+    }
+
+    /**
+     * Get the number of indexed items that come before an item. The item itself need not be indexed.
+     * @param item The item to rank.
+     * @return The number of items ordered before it, so 0 for the first.
+     */
+    public int rank(T item) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (order.compare(item, node.item) > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Get the item at a position of the order.
+     * @param position The number of items before it, from 0 to {@code size() - 1}.
+     * @return The item.
+     * @throws IndexOutOfBoundsException if the position is outside the index.
+     */
+    public T get(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException("No position " + position + " in an index of " + size() + " items");
+        }
+        Node<T> node = root;
+        while (true) {
+            int before = size(node.left);
+            if (position < before) {
+                node = node.left;
+            } else if (position == before) {
+                return node.item;
+            } else {
+                position -= before + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Get the first items of the order.
+     * @param count The number of items wanted.
+     * @return Up to {@code count} items, first first.
+     */
+    public List<T> first(int count) {
+        List<T> items = new ArrayList<>(Math.max(0, Math.min(count, size())));
+        Deque<Node<T>> path = new ArrayDeque<>();
+        Node<T> node = root;
+        while (items.size() < count && (node != null || !path.isEmpty())) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            items.add(node.item);
+            node = node.right;
+        }
+        return items;
+    }
+
+    /**
+     * Get the number of indexed items.
+     * @return The size of the index.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Removes every item.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Replaces every item with the given ones in one pass: a sort, then a balanced tree built
+     * bottom up, instead of one O(log n) insert per item.
+     * @param items The items to index. Of equal items only the first is kept.
+     */
+    @SuppressWarnings("unchecked")
+    public void load(Collection<? extends T> items) {
+        T[] sorted = (T[]) items.toArray();
+        Arrays.sort(sorted, order);
+        int distinct = 0;
+        for (T item : sorted) {
+            if (distinct == 0 || order.compare(sorted[distinct - 1], item) != 0) {
+                sorted[distinct++] = item;
+            }
+        }
+        root = build(sorted, 0, distinct);
+        // Hand out random priorities, highest first, level by level, so every parent outranks its children
+        int[] priorities = new int[distinct];
+        for (int i = 0; i < distinct; i++) {
+            priorities[i] = random.nextInt();
+        }
+        Arrays.sort(priorities);
+        Deque<Node<T>> level = new ArrayDeque<>();
+        if (root != null) {
+            level.add(root);
+        }
+        for (int next = distinct - 1; !level.isEmpty(); next--) {
+            Node<T> node = level.poll();
+            node.priority = priorities[next];
+            if (node.left != null) {
+                level.add(node.left);
+            }
+            if (node.right != null) {
+                level.add(node.right);
+            }
+        }
+    }
+
+    /**
+     * Builds a balanced tree of the sorted items from {@code start} up to {@code end}.
+     */
+    private static <T> Node<T> build(T[] sorted, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        int middle = (start + end) >>> 1;
+        Node<T> node = new Node<>(sorted[middle], 0);
+        node.left = build(sorted, start, middle);
+        node.right = build(sorted, middle + 1, end);
+        node.size = end - start;
+        return node;
+    }
+
+    private Node<T> insert(Node<T> node, T item) {
+        if (node == null) {
+            changed = true;
+            return new Node<>(item, random.nextInt());
+        }
+        int comparison = order.compare(item, node.item);
+        if (comparison == 0) {
+            return node;
+        }
+        if (comparison < 0) {
+            node.left = insert(node.left, item);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, item);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, T item) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = order.compare(item, node.item);
+        if (comparison == 0) {
+            changed = true;
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            node.left = delete(node.left, item);
+        } else {
+            node.right = delete(node.right, item);
+        }
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    /**
+     * Joins two trees, every item of the first coming before every item of the second.
+     */
+    private static <T> Node<T> merge(Node<T> first, Node<T> second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            first.size = 1 + size(first.left) + size(first.right);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        second.size = 1 + size(second.left) + size(second.right);
+        return second;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.size = 1 + size(node.left) + size(node.right);
+        return left;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.size = 1 + size(node.left) + size(node.right);
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * One item of the tree, with its priority and the number of items below it, itself included.
+     */
+    private static final class Node<T> {
+        private final T item; // The indexed item.
+        private int priority; // Parents have higher priorities than their children.
+        private Node<T> left; // The items before this one.
+        private Node<T> right; // The items after this one.
+        private int size = 1; // The items of this subtree.
+
+        Node(T item, int priority) {
+            this.item = item;
+            this.priority = priority;
+        }
+    }
+}//end of RankIndex class
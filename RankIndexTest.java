@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class RankIndexTest {
+
+    @Test
+    public void testRanksAndPositions() {
+        RankIndex<Integer> index = new RankIndex<>(Comparator.naturalOrder());
+        for (int value : new int[] {50, 10, 40, 20, 30}) {
+            assertTrue(index.add(value));
+        }
+        assertFalse(index.add(30));
+        assertEquals(5, index.size());
+        assertEquals(0, index.rank(10));
+        assertEquals(3, index.rank(40));
+        assertEquals(2, index.rank(25)); // Not indexed, but ranked among those that are
+        assertEquals(20, index.get(1));
+        assertEquals(Arrays.asList(10, 20, 30), index.first(3));
+        assertEquals(5, index.first(10).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> index.get(5));
+    }
+
+    @Test
+    public void testRemove() {
+        RankIndex<Integer> index = new RankIndex<>(Comparator.naturalOrder());
+        for (int value = 0; value < 10; value++) {
+            index.add(value);
+        }
+        assertTrue(index.remove(4));
+        assertFalse(index.remove(4));
+        assertEquals(9, index.size());
+        assertEquals(4, index.rank(5));
+        assertEquals(5, index.get(4));
+    }
+
+    @Test
+    public void testMatchesASortedListUnderRandomChanges() {
+        Random random = new Random(22);
+        RankIndex<Integer> index = new RankIndex<>(Comparator.reverseOrder());
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(5_000);
+            int at = Collections.binarySearch(expected, value, Comparator.reverseOrder());
+            if (random.nextBoolean()) {
+                assertEquals(at < 0, index.add(value));
+                if (at < 0) {
+                    expected.add(-at - 1, value);
+                }
+            } else {
+                assertEquals(at >= 0, index.remove(value));
+                if (at >= 0) {
+                    expected.remove(at);
+                }
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (int position = 0; position < expected.size(); position += 97) {
+            assertEquals(expected.get(position), index.get(position));
+            assertEquals(position, index.rank(expected.get(position)));
+        }
+        assertEquals(expected.subList(0, 50), index.first(50));
+    }
+
+    @Test
+    public void testLoadBuildsAnIndexThatKeepsWorking() {
+        RankIndex<Integer> index = new RankIndex<>(Comparator.naturalOrder());
+        index.add(-1);
+        List<Integer> values = new ArrayList<>();
+        for (int value = 999; value >= 0; value--) {
+            values.add(value);
+        }
+        values.add(500); // Equal items are kept once
+        index.load(values);
+        assertEquals(1000, index.size());
+        assertEquals(0, index.rank(0)); // The earlier contents are gone
+        assertEquals(500, index.get(500));
+
+        index.add(1500);
+        index.remove(0);
+        assertEquals(1, index.get(0));
+        assertEquals(999, index.rank(1500));
+    }
+}
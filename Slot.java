@@ -1,17 +1,24 @@
-import java.util.Observable; // Importing Observable class for implementing the observer design pattern.
-
 /**
- * This Represents a single slot (cell) in our Sudoku game. This class extends {@link Observable} to notify observers 
- * (such as a GUI component) when the state of the slot changes. Each slot maintains its current state, 
+ * This Represents a single slot (cell) in our Sudoku game. Each slot maintains its current state, 
  * its position (row and column) on the board, and whether it is fillable (i.e., whether its state can be changed).
+ * The value itself lives in a {@link Board}; a Slot is a view onto one cell of it. Changes to the slot are 
+ * published on the board's {@link BoardEventBus}, so observers (such as a GUI component) subscribe once per board.
  * 
  * @author Lauren Scott
  * @version Student Sample Code
  */
-public class Slot extends Observable{
-    private String state;//The current state of the slot
+public class Slot {
+    private static final String[] STATES = new String[Board.MAX_VALUE + 1];//Shared state strings, so reading a slot never allocates
+    private final Board board;//The board holding the value of this slot
+    private final int index;//The index of this slot's cell in the board
     private int row, col;//The row and column number of the slot 
-    private Boolean fillable;//whether that slot can be changed
+
+    static {
+        STATES[Board.EMPTY] = "-";
+        for (int value = 1; value <= Board.MAX_VALUE; value++) {
+            STATES[value] = Integer.toString(value);
+        }
+    }
 
 /**
  * Constructor for the Slot class. This will create a slot and sets its position on the game board.
@@ -23,10 +30,8 @@ public class Slot extends Observable{
  * @param number The initial number or state to be set in this slot.
  */
     public Slot(int col, int row, String number) {
-        this.row = row;
-        this.col = col;
-        this.state = number;
-        this.fillable = true;// This will initialize the slot as fillable.
+        this(new Board(1), 0, row, col);// A standalone slot gets its own one cell board.
+        board.set(0, 0, toValue(number));// This will initialize the slot as fillable.
     }
 
 /**
@@ -40,31 +45,70 @@ public class Slot extends Observable{
 * @param number The initial number or state to be set in this slot. If this does not contain a "-", the slot is not fillable.
 */
     public Slot (int col, int row, String number, Boolean fillable) {
+        this(new Board(1), 0, row, col);
+        // To set the slot as fillable only if the number contains a "-"
+        board.setGiven(0, 0, Math.max(Board.EMPTY, toValue(number)));
+    }
+
+/**
+* Constructor for a slot that is a view onto a cell of an existing board. 
+* The state and fillability are read from the board, so the slot stores no value of its own.
+*
+* @param board The board holding the cell.
+* @param row The row number where the slot is located on the Sudoku board.
+* @param col The column number where the slot is located on the Sudoku board.
+*/
+    public Slot(Board board, int row, int col) {
+        this(board, board.index(row, col), row, col);
+    }
+
+    private Slot(Board board, int index, int row, int col) {
+        this.board = board;
+        this.index = index;
         this.row = row;
         this.col = col;
-        this.state = number;
-        // To set the slot as fillable only if the number contains a "-"
-        if (!number.contains("-") ){
-            this.fillable = false;
-        } else {
-            this.fillable = true;
+    }
+
+/**
+* Converts a state string into the value stored on the board. 
+* A state containing "-" is an empty cell; anything that is not a number from 1 to {@link Board#MAX_VALUE} is rejected.
+*
+* @param state The state to convert.
+* @return The board value, or -1 if the state cannot be stored.
+*/
+    static int toValue(String state) {
+        if (state.contains("-")) {
+            return Board.EMPTY;
+        }
+        try {
+            int value = Integer.parseInt(state);
+            return value >= 1 && value <= Board.MAX_VALUE ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
         }
     }
+
+/**
+* Converts a board value back into the state string used by the rest of the game.
+*
+* @param value The board value.
+* @return "-" for an empty cell, otherwise the number as a String.
+*/
+    static String toState(int value) {
+        return STATES[value];
+    }
     
     // Method to set the state of the slot
 /**
 * This will set the state of this slot if the new state is valid and the slot is fillable.
-* After setting the new state, it marks the Observable (Slot) as changed and notifies 
-* all observers, typically triggering an update in the GUI or other observing components.
+* The board publishes the change to its listeners, typically triggering an update in the GUI or other observing components.
 *
 * @param newState The new state to be set for this slot. The method checks if this state is valid before setting it.
 */
     public void setState(String newState) {
     // To check if the new state is valid and the slot is fillable before setting the state.
-   if (isValidState(newState) && fillable) { // Ensure the state is valid and the slot is fillable
-    this.state = newState; // Set the new state.
-    setChanged(); // Mark this Observable(slot) as having been changed
-    notifyObservers(); // Notify all observers, this will call update() in SudokuGUI
+   if (isValidState(newState)) { // Ensure the state is valid; the board ignores the change if the slot is not fillable
+    board.setAt(index, toValue(newState)); // The board notifies its listeners, this will call cellChanged() in SudokuGUI
     }
 }
     
@@ -75,7 +119,7 @@ public class Slot extends Observable{
 * @return The current state (value or number) of the slot.
 */
     public String getState(){
-        return state; // Returns the current state of the slot.
+        return STATES[board.getAt(index)]; // Returns the current state of the slot.
     }
     
 /**
@@ -110,8 +154,18 @@ public class Slot extends Observable{
 * @return {@code true} if the slot is fillable (empty or allows user input); {@code false} otherwise.
 */
     public Boolean getFillable() {
-        return fillable;  // Returns the fillable status of the slot.
+        return board.isFillableAt(index);  // Returns the fillable status of the slot.
+    }
+/**
+* Retrieves the board holding the value of this slot. Listeners subscribe to its {@link BoardEventBus} 
+* to be notified when this slot, or any other slot of the board, changes.
+*
+* @return The board this slot is a view onto.
+*/
+    public Board getBoard() {
+        return board;
     }
+
      // Getter for row
 /**
 * Retrieves the row number of this slot on the Sudoku board.
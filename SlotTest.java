@@ -9,12 +9,11 @@ public class SlotTest {
    @Test
 public void testSetState() {
     Slot slot = new Slot(0, 0, "-", true);
-    slot.addObserver((o, arg) -> {
-        // Observer update logic here
-    });
+    int[] notified = new int[1];
+    slot.getBoard().getEvents().subscribe(event -> notified[0] = event.getNewValue());
     slot.setState("2");
     assertEquals("2", slot.getState());
-    // Additional assertions to check if observers were notified
+    assertEquals(2, notified[0]); // The listener was told about the new value
 }
 
 @Test
@@ -0,0 +1,169 @@
+import java.util.Arrays; // Compares the replayed board with the submitted one.
+import java.util.concurrent.CompletableFuture; // The verdict of a submission checked in the background.
+import java.util.concurrent.ExecutorService; // The threads that check submissions.
+import java.util.concurrent.Executors; // Creates the checking threads.
+
+/**
+ * SolutionVerifier decides whether a {@link Submission} is a genuine win before it may reach the
+ * leaderboard. It replays the move log on a fresh {@link Board} holding the level's givens, checks
+ * that no given was touched and every move is in range, that the replay ends on exactly the
+ * submitted board, that this board is a valid completed grid, and that the timing is plausible:
+ * the moves are in time order, the moves made after the player started are spread over at least
+ * a minimum time for every cell of the level to fill, and the claimed time covers them. Moves
+ * before the start were restored from a save, which is not trusted: the cells they filled count
+ * toward the minimum time like any other, and a board that was already solved when the player
+ * started is rejected outright.
+ *
+ * A check is a replay of a few hundred moves over primitive arrays and keeps no shared state, so
+ * many submissions are checked at once on the verifier's threads. Most callers share
+ * {@link #getDefault()}, whose threads are daemons so they never keep the game from exiting.
+ */
+public class SolutionVerifier {
+    private static SolutionVerifier defaultVerifier; // The verifier shared by the game, created on first use.
+
+    /**
+     * The outcome of checking a submission.
+     */
+    public enum Verdict {
+        ACCEPTED("The win is genuine."),
+        WRONG_SIZE("The board does not match the level."),
+        BAD_MOVE("A move was outside the board or changed a given."),
+        REPLAY_MISMATCH("The moves do not lead to the submitted board."),
+        NOT_SOLVED("The board is not a valid completed grid."),
+        OUT_OF_ORDER("The moves are not in time order."),
+        SOLVED_BEFORE_START("The board was already solved when the timer started."),
+        TOO_FAST("The puzzle was solved faster than is humanly possible."),
+        TIME_MISMATCH("The claimed time is shorter than the recorded moves.");
+
+        private final String message; // The explanation shown to the player.
+
+        Verdict(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Check whether the win may go on the leaderboard.
+         * @return {@code true} only for {@link #ACCEPTED}.
+         */
+        public boolean isAccepted() {
+            return this == ACCEPTED;
+        }
+
+        /**
+         * Get the explanation of the verdict.
+         * @return A sentence for the player.
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final ExecutorService workers; // The threads that check submissions.
+    private final long minMillisPerCell; // The least time a player can take to fill one cell.
+
+    /**
+     * Creates a verifier.
+     * @param threads The number of checking threads.
+     * @param minMillisPerCell The least time, in milliseconds, a player can take to fill one empty cell.
+     */
+    public SolutionVerifier(int threads, long minMillisPerCell) {
+        this.minMillisPerCell = minMillisPerCell;
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "solution-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the verifier shared by the game, which allows at least half a second per empty cell.
+     * @return The shared verifier.
+     */
+    public static synchronized SolutionVerifier getDefault() {
+        if (defaultVerifier == null) {
+            defaultVerifier = new SolutionVerifier(Runtime.getRuntime().availableProcessors(), 500);
+        }
+        return defaultVerifier;
+    }
+
+    /**
+     * Checks a submission in the background.
+     * @param level The level the win is claimed on, with its trusted givens.
+     * @param submission The claimed win.
+     * @return The verdict, once the check has run.
+     */
+    public CompletableFuture<Verdict> submit(LevelTemplate level, Submission submission) {
+        return CompletableFuture.supplyAsync(() -> verify(level, submission), workers);
+    }
+
+    /**
+     * Checks a submission on the calling thread.
+     * @param level The level the win is claimed on, with its trusted givens.
+     * @param submission The claimed win.
+     * @return The verdict.
+     */
+    public Verdict verify(LevelTemplate level, Submission submission) {
+        int size = level.getSize();
+        byte[] claimed = submission.finalBoard();
+        if (claimed.length != size * size) {
+            return Verdict.WRONG_SIZE;
+        }
+        Board board = new Board(size);
+        for (int index = 0; index < claimed.length; index++) {
+            board.setGiven(index / size, index % size, level.getGiven(index));
+        }
+        long startMillis = submission.getStartMillis();
+        boolean started = false; // Whether the replay has reached the player's start
+        long lastMillis = 0;
+        for (long move : submission.moves()) {
+            int index = MoveRecorder.indexOf(move);
+            int value = MoveRecorder.valueOf(move);
+            long millis = MoveRecorder.millisOf(move);
+            if (millis < lastMillis) {
+                return Verdict.OUT_OF_ORDER;
+            }
+            lastMillis = millis;
+            if (!started && millis >= startMillis) {
+                if (board.isSolved()) {
+                    return Verdict.SOLVED_BEFORE_START;
+                }
+                started = true;
+            }
+            // A given is not fillable, so the board refuses to change it.
+            if (index >= claimed.length || value > size || !board.setAt(index, value)) {
+                return Verdict.BAD_MOVE;
+            }
+        }
+        if (!Arrays.equals(board.toArray(), claimed)) {
+            return Verdict.REPLAY_MISMATCH;
+        }
+        if (!board.isSolved()) {
+            return Verdict.NOT_SOLVED;
+        }
+        if (!started) {
+            return Verdict.SOLVED_BEFORE_START; // No move was made after the start
+        }
+        // Restored cells count too, as nothing shows they were filled at a human pace
+        int toFill = 0;
+        for (int index = 0; index < claimed.length; index++) {
+            if (level.isFillable(index)) {
+                toFill++;
+            }
+        }
+        long playMillis = Math.max(0, lastMillis - startMillis);
+        if (playMillis < toFill * minMillisPerCell) {
+            return Verdict.TOO_FAST;
+        }
+        if (submission.getClaimedTime().toMillis() < playMillis) {
+            return Verdict.TIME_MISMATCH;
+        }
+        return Verdict.ACCEPTED;
+    }
+
+    /**
+     * Stops the checking threads. Checks already queued are abandoned.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}//end of SolutionVerifier class
@@ -0,0 +1,129 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class SolutionVerifierTest {
+    private static final LevelTemplate LEVEL = new LevelTemplate(9, SolverTest.toCells(SolverTest.PUZZLE), SolverTest.toCells(SolverTest.SOLUTION));
+
+    private final SolutionVerifier verifier = new SolutionVerifier(4, 500);
+
+    @AfterEach
+    public void tearDown() {
+        verifier.shutdown();
+    }
+
+    /**
+     * Fills every empty cell from the solution, one second apart.
+     */
+    private static long[] honestMoves() {
+        List<Long> moves = new ArrayList<>();
+        for (int index = 0; index < 81; index++) {
+            if (LEVEL.isFillable(index)) {
+                moves.add(MoveRecorder.pack(moves.size() * 1000L, index, LEVEL.getSolution(index)));
+            }
+        }
+        return moves.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static Submission submission(long[] moves, Duration time) {
+        return new Submission("tester", LEVEL.getSolution(), moves, time);
+    }
+
+    @Test
+    public void testAcceptsHonestWin() {
+        assertEquals(SolutionVerifier.Verdict.ACCEPTED, verifier.verify(LEVEL, submission(honestMoves(), Duration.ofMinutes(5))));
+    }
+
+    /**
+     * Restores every empty cell but the last from a save in a burst, then fills the last one at a given time.
+     */
+    private static long[] restoredMoves(long lastMillis) {
+        long[] moves = honestMoves();
+        for (int i = 0; i < moves.length - 1; i++) {
+            moves[i] = MoveRecorder.pack(i, MoveRecorder.indexOf(moves[i]), MoveRecorder.valueOf(moves[i]));
+        }
+        int last = moves.length - 1;
+        moves[last] = MoveRecorder.pack(lastMillis, MoveRecorder.indexOf(moves[last]), MoveRecorder.valueOf(moves[last]));
+        return moves;
+    }
+
+    @Test
+    public void testRestoredCellsCountTowardTheMinimumTime() {
+        // The player starts at 100 ms; the 51 cells need 25.5 seconds of play, restored ones included
+        Submission hurried = new Submission("tester", LEVEL.getSolution(), restoredMoves(700), 100, Duration.ofSeconds(1));
+        assertEquals(SolutionVerifier.Verdict.TOO_FAST, verifier.verify(LEVEL, hurried));
+        Submission patient = new Submission("tester", LEVEL.getSolution(), restoredMoves(30_000), 100, Duration.ofSeconds(30));
+        assertEquals(SolutionVerifier.Verdict.ACCEPTED, verifier.verify(LEVEL, patient));
+    }
+
+    @Test
+    public void testRejectsBoardSolvedBeforeTheStart() {
+        // A save that already holds the solution, then one cell cleared and filled again after Start
+        long[] restored = restoredMoves(50);
+        long[] moves = java.util.Arrays.copyOf(restored, restored.length + 2);
+        int cell = MoveRecorder.indexOf(restored[0]);
+        moves[restored.length] = MoveRecorder.pack(1_000, cell, Board.EMPTY);
+        moves[restored.length + 1] = MoveRecorder.pack(60_000, cell, LEVEL.getSolution(cell));
+        Submission toggled = new Submission("tester", LEVEL.getSolution(), moves, 500, Duration.ofMinutes(1));
+        assertEquals(SolutionVerifier.Verdict.SOLVED_BEFORE_START, verifier.verify(LEVEL, toggled));
+        // Or no move at all after Start
+        Submission idle = new Submission("tester", LEVEL.getSolution(), restored, 500, Duration.ofMinutes(1));
+        assertEquals(SolutionVerifier.Verdict.SOLVED_BEFORE_START, verifier.verify(LEVEL, idle));
+    }
+
+    @Test
+    public void testRejectsTamperedSubmissions() {
+        long[] moves = honestMoves();
+        // Moves a tenth of a second apart are too quick for 51 cells at half a second each, whatever time is claimed
+        long[] hurried = moves.clone();
+        for (int i = 0; i < hurried.length; i++) {
+            hurried[i] = MoveRecorder.pack(i * 100L, MoveRecorder.indexOf(moves[i]), MoveRecorder.valueOf(moves[i]));
+        }
+        assertEquals(SolutionVerifier.Verdict.TOO_FAST, verifier.verify(LEVEL, submission(hurried, Duration.ofMinutes(5))));
+        // A claimed time shorter than the 50 seconds the moves span
+        assertEquals(SolutionVerifier.Verdict.TIME_MISMATCH, verifier.verify(LEVEL, submission(moves, Duration.ofSeconds(10))));
+        // The final board does not follow from the moves
+        long[] missing = java.util.Arrays.copyOf(moves, moves.length - 1);
+        assertEquals(SolutionVerifier.Verdict.REPLAY_MISMATCH, verifier.verify(LEVEL, submission(missing, Duration.ofMinutes(5))));
+        // Overwriting a given
+        long[] given = moves.clone();
+        given[0] = MoveRecorder.pack(0, 0, 5);
+        assertEquals(SolutionVerifier.Verdict.BAD_MOVE, verifier.verify(LEVEL, submission(given, Duration.ofMinutes(5))));
+        // Time running backwards
+        long[] reordered = moves.clone();
+        reordered[1] = MoveRecorder.pack(0, MoveRecorder.indexOf(moves[1]), MoveRecorder.valueOf(moves[1]));
+        reordered[0] = MoveRecorder.pack(5000, MoveRecorder.indexOf(moves[0]), MoveRecorder.valueOf(moves[0]));
+        assertEquals(SolutionVerifier.Verdict.OUT_OF_ORDER, verifier.verify(LEVEL, submission(reordered, Duration.ofMinutes(5))));
+    }
+
+    @Test
+    public void testRejectsInvalidCompletedGrid() {
+        // A full grid that breaks the rules, replayed honestly
+        byte[] wrong = LEVEL.getSolution();
+        List<Long> moves = new ArrayList<>();
+        for (int index = 0; index < 81; index++) {
+            if (LEVEL.isFillable(index)) {
+                wrong[index] = 1;
+                moves.add(MoveRecorder.pack(index * 1000L, index, 1));
+            }
+        }
+        Submission cheat = new Submission("tester", wrong, moves.stream().mapToLong(Long::longValue).toArray(), Duration.ofMinutes(5));
+        assertEquals(SolutionVerifier.Verdict.NOT_SOLVED, verifier.verify(LEVEL, cheat));
+    }
+
+    @Test
+    public void testChecksSubmissionsConcurrently() {
+        List<CompletableFuture<SolutionVerifier.Verdict>> verdicts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Duration time = i % 2 == 0 ? Duration.ofMinutes(5) : Duration.ofSeconds(1);
+            verdicts.add(verifier.submit(LEVEL, submission(honestMoves(), time)));
+        }
+        for (int i = 0; i < verdicts.size(); i++) {
+            assertEquals(i % 2 == 0 ? SolutionVerifier.Verdict.ACCEPTED : SolutionVerifier.Verdict.TIME_MISMATCH, verdicts.get(i).join());
+        }
+    }
+}
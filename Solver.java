@@ -0,0 +1,222 @@
+import java.util.concurrent.atomic.AtomicBoolean; // Lets a parallel search stop every worker once it is done.
+
+/**
+ * Solver is an in-process constraint solver for Sudoku boards of any square size up to 63x63.
+ * It works directly on the flat cell layout used by {@link Board}: each row, column and box
+ * keeps a bitmask of the digits it holds, cells with a single candidate are filled in by
+ * constraint propagation, and when a guess is needed the search branches on the empty cell with
+ * the fewest candidates (the minimum-remaining-values heuristic). A 9x9 puzzle is solved in
+ * microseconds, which lets a level be played without a paired file in {@code Solutions/}.
+ */
+public class Solver {
+    private final int size; // The number of rows and columns.
+    private final int boxSize; // The width and height of one box.
+    private final int[] cells; // The current value of every cell, row-major, 0 when empty.
+    private final int[] boxOf; // The box number of every cell.
+    private final long[] rowMasks; // Bit d is set when digit d is placed in the row.
+    private final long[] colMasks; // Bit d is set when digit d is placed in the column.
+    private final long[] boxMasks; // Bit d is set when digit d is placed in the box.
+    private final long allDigits; // The mask with a bit set for every digit 1..size.
+    private final int[] trail; // The cells filled during the search, so they can be undone.
+    private int trailSize; // The number of cells currently on the trail.
+    private boolean contradictory; // Whether the givens already repeat a digit in some unit.
+    private int limit; // Stop searching once this many solutions have been found.
+    private AtomicBoolean cancelled; // Set by another thread to stop the search early.
+    private int solutions; // The number of solutions found so far.
+    private byte[] firstSolution; // The first solution found, row-major.
+
+    /**
+     * Creates a solver for a puzzle.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @throws IllegalArgumentException if the size is not supported or the puzzle has the wrong length.
+     */
+    Solver(byte[] givens, int size) {
+        int box = (int) Math.round(Math.sqrt(size));
+        if (size < 1 || box * box != size || size >= Long.SIZE || givens.length != size * size) {
+            throw new IllegalArgumentException("Unsupported puzzle of size " + size);
+        }
+        this.size = size;
+        this.boxSize = box;
+        this.cells = new int[size * size];
+        this.boxOf = new int[size * size];
+        this.rowMasks = new long[size];
+        this.colMasks = new long[size];
+        this.boxMasks = new long[size];
+        this.allDigits = ((1L << (size + 1)) - 1) & ~1L;
+        this.trail = new int[size * size];
+        for (int i = 0; i < cells.length; i++) {
+            boxOf[i] = ((i / size) / boxSize) * boxSize + (i % size) / boxSize;
+            int value = givens[i];
+            if (value == Board.EMPTY) {
+                continue;
+            }
+            // A given that is out of range or repeats a digit makes the puzzle unsolvable.
+            if (value < 1 || value > size || (candidates(i) & (1L << value)) == 0) {
+                contradictory = true;
+            } else {
+                assign(i, value);
+            }
+        }
+        trailSize = 0; // Givens are never undone.
+    }
+
+    /**
+     * Solves a puzzle.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @return The first solution found, row-major, or {@code null} if the puzzle has no solution.
+     */
+    public static byte[] solve(byte[] givens, int size) {
+        Solver solver = new Solver(givens, size);
+        solver.run(1);
+        return solver.firstSolution;
+    }
+
+    /**
+     * Counts the solutions of a puzzle, stopping early once a limit is reached.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @param limit The most solutions to count; 2 is enough to check that a solution is unique.
+     * @return The number of solutions found, at most {@code limit}.
+     */
+    public static int countSolutions(byte[] givens, int size, int limit) {
+        Solver solver = new Solver(givens, size);
+        solver.run(limit);
+        return solver.solutions;
+    }
+
+    /**
+     * Checks whether a puzzle has exactly one solution.
+     * @param givens The puzzle, row-major, with 0 for empty cells.
+     * @param size The number of rows and columns.
+     * @return {@code true} if the puzzle has a single solution.
+     */
+    public static boolean hasUniqueSolution(byte[] givens, int size) {
+        return countSolutions(givens, size, 2) == 1;
+    }
+
+    /**
+     * Runs the search until {@code limit} solutions have been found or the search space is exhausted.
+     */
+    void run(int limit) {
+        run(limit, new AtomicBoolean());
+    }
+
+    /**
+     * Runs the search until {@code limit} solutions have been found, the search space is exhausted
+     * or {@code cancelled} is set by another thread.
+     */
+    void run(int limit, AtomicBoolean cancelled) {
+        this.limit = limit;
+        this.cancelled = cancelled;
+        if (!contradictory && limit > 0) {
+            search();
+        }
+    }
+
+    /**
+     * Get the number of solutions found by the last run.
+     */
+    int getSolutionCount() {
+        return solutions;
+    }
+
+    /**
+     * Get the first solution found by the last run, or {@code null}.
+     */
+    byte[] getFirstSolution() {
+        return firstSolution;
+    }
+
+    /**
+     * Fills every forced cell, then branches on the empty cell with the fewest candidates.
+     */
+    private void search() {
+        int mark = trailSize;
+        int best;
+        boolean placed;
+        do {
+            best = -1;
+            int bestCount = Integer.MAX_VALUE;
+            placed = false;
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != Board.EMPTY) {
+                    continue;
+                }
+                long candidates = candidates(i);
+                int count = Long.bitCount(candidates);
+                if (count == 0) {
+                    // Dead end: an empty cell with nothing left to place.
+                    undo(mark);
+                    return;
+                }
+                if (count == 1) {
+                    // Naked single: the only candidate can be placed without guessing.
+                    assign(i, Long.numberOfTrailingZeros(candidates));
+                    placed = true;
+                } else if (count < bestCount) {
+                    best = i;
+                    bestCount = count;
+                }
+            }
+        } while (placed);
+
+        if (best < 0) {
+            // No empty cells are left, so the board is solved.
+            solutions++;
+            if (firstSolution == null) {
+                firstSolution = new byte[cells.length];
+                for (int i = 0; i < cells.length; i++) {
+                    firstSolution[i] = (byte) cells[i];
+                }
+            }
+            undo(mark);
+            return;
+        }
+
+        long candidates = candidates(best);
+        while (candidates != 0 && solutions < limit && !cancelled.get()) {
+            int digit = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            int before = trailSize;
+            assign(best, digit);
+            search();
+            undo(before);
+        }
+        undo(mark);
+    }
+
+    /**
+     * Get the digits that can still be placed in a cell.
+     */
+    private long candidates(int index) {
+        return allDigits & ~(rowMasks[index / size] | colMasks[index % size] | boxMasks[boxOf[index]]);
+    }
+
+    /**
+     * Places a digit in a cell and records it on the trail.
+     */
+    private void assign(int index, int digit) {
+        long bit = 1L << digit;
+        cells[index] = digit;
+        rowMasks[index / size] |= bit;
+        colMasks[index % size] |= bit;
+        boxMasks[boxOf[index]] |= bit;
+        trail[trailSize++] = index;
+    }
+
+    /**
+     * Clears every cell placed since the trail had {@code mark} entries.
+     */
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int index = trail[--trailSize];
+            long bit = 1L << cells[index];
+            cells[index] = Board.EMPTY;
+            rowMasks[index / size] &= ~bit;
+            colMasks[index % size] &= ~bit;
+            boxMasks[boxOf[index]] &= ~bit;
+        }
+    }
+}//end of Solver class
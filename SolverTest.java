@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class SolverTest {
+
+    // A well known 9x9 puzzle with a single solution, written as one row-major line (0 for empty)
+    static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    static final String SOLUTION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    /**
+     * Converts a line of digits into the flat cell layout used by the solver.
+     */
+    static byte[] toCells(String line) {
+        byte[] cells = new byte[line.length()];
+        for (int i = 0; i < line.length(); i++) {
+            cells[i] = (byte) (line.charAt(i) - '0');
+        }
+        return cells;
+    }
+
+    /**
+     * Deals a fresh game of the well known puzzle, for the tests that play moves on a board.
+     */
+    static Sudoku newGame() {
+        return new Sudoku(new Puzzle(9, toCells(PUZZLE), toCells(SOLUTION)));
+    }
+
+    @Test
+    public void testSolvesPuzzle() {
+        assertArrayEquals(toCells(SOLUTION), Solver.solve(toCells(PUZZLE), 9));
+    }
+
+    @Test
+    public void testSolvesEmptyBoard() {
+        // Every empty board has a solution, which must be a valid grid
+        byte[] solved = Solver.solve(new byte[81], 9);
+        assertNotNull(solved);
+        Board board = new Board(9);
+        for (int i = 0; i < 81; i++) {
+            assertTrue(board.isValidPlacement(i / 9, i % 9, solved[i]));
+            board.set(i / 9, i % 9, solved[i]);
+        }
+    }
+
+    @Test
+    public void testContradictoryGivensHaveNoSolution() {
+        byte[] cells = toCells(PUZZLE);
+        cells[2] = 5; // A second 5 in the first row
+        assertNull(Solver.solve(cells, 9));
+    }
+
+    @Test
+    public void testCountSolutions() {
+        assertTrue(Solver.hasUniqueSolution(toCells(PUZZLE), 9));
+        // An empty 4x4 board has many solutions, so counting stops at the limit
+        assertEquals(5, Solver.countSolutions(new byte[16], 4, 5));
+        assertFalse(Solver.hasUniqueSolution(new byte[16], 4));
+    }
+
+    @Test
+    public void testLevelSolutionMatchesSolutionFile() {
+        // The solver must agree with the hand-written solution for the shipped 4x4 level
+        Sudoku sudoku = new Sudoku("4x4");
+        assertEquals("4", sudoku.getSolution(0, 0));
+        assertEquals("3", sudoku.getSolution(0, 1));
+        assertEquals("1", sudoku.getSolution(3, 3));
+    }
+}
@@ -0,0 +1,81 @@
+import java.time.Duration; // The solving time the player claims.
+
+/**
+ * Submission is a win sent for the leaderboard: the final board, the log of moves that led to it
+ * (packed as by {@link MoveRecorder}), when in that log the player started solving, and the solving
+ * time the client claims. Nothing in it is trusted until a {@link SolutionVerifier} has replayed it
+ * against the level's givens.
+ */
+public final class Submission {
+    private final String nickname; // The player claiming the win.
+    private final byte[] finalBoard; // The completed grid, row-major.
+    private final long[] moves; // The packed moves, oldest first.
+    private final long startMillis; // When the player started solving, on the clock of the moves.
+    private final Duration claimedTime; // The solving time shown to the player.
+
+    /**
+     * Constructor for Submission. The arrays are copied, so the caller may reuse them.
+     * @param nickname The player claiming the win.
+     * @param finalBoard The completed grid, row-major.
+     * @param moves The packed moves, oldest first.
+     * @param claimedTime The solving time the client measured.
+     */
+    public Submission(String nickname, byte[] finalBoard, long[] moves, Duration claimedTime) {
+        this(nickname, finalBoard, moves, 0, claimedTime);
+    }
+
+    /**
+     * Constructor for Submission of a game that was restored before the player started solving.
+     * The arrays are copied, so the caller may reuse them.
+     * @param nickname The player claiming the win.
+     * @param finalBoard The completed grid, row-major.
+     * @param moves The packed moves, oldest first.
+     * @param startMillis When the player started solving, as {@link MoveRecorder#getStartMillis()}.
+     * @param claimedTime The solving time the client measured from that start.
+     */
+    public Submission(String nickname, byte[] finalBoard, long[] moves, long startMillis, Duration claimedTime) {
+        this.nickname = nickname;
+        this.finalBoard = finalBoard.clone();
+        this.moves = moves.clone();
+        this.startMillis = startMillis;
+        this.claimedTime = claimedTime;
+    }
+
+    /**
+     * Get the player claiming the win.
+     * @return The nickname.
+     */
+    public String getNickname() {
+        return nickname;
+    }
+
+    /**
+     * Get the final board of the win. The array is shared, so it must not be changed.
+     */
+    byte[] finalBoard() {
+        return finalBoard;
+    }
+
+    /**
+     * Get the packed moves of the win. The array is shared, so it must not be changed.
+     */
+    long[] moves() {
+        return moves;
+    }
+
+    /**
+     * Get when the player started solving. Moves before it were restored from a save.
+     * @return The milliseconds since recording started.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Get the solving time the client claims.
+     * @return The claimed time.
+     */
+    public Duration getClaimedTime() {
+        return claimedTime;
+    }
+}//end of Submission class
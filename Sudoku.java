@@ -1,78 +1,141 @@
-import java.io.File; //This package will help in handling the file operations,it defines interfaces and classes for the Java virtual machine to access files, file attributes, and file systems (Tutorialspoint.com, 2024). 
-import java.io.FileNotFoundException;//  when a user attempts to open a file with the specified pathname that does not exist
-import java.util.Scanner;// This is used for reading text from a file.
-import java.util.Observer; // This is used to implement the observer-observable design pattern.
+import java.io.IOException;//  when a level or solution file cannot be read, for example because it does not exist
+import java.nio.file.Path; // This is used to name a puzzle pack file.
 /**
 * Sudoku class provides the functionality for this Sudoku game.
-* It uses {@link java.io.File} to handle game level and solution files,
-* {@link java.io.FileNotFoundException} to manage the errors during file reading,
-* {@link java.util.Scanner} to read the game data from files,
-* and {@link java.util.Observer} for observing changes in game state.
+* It uses the {@link LevelCache} to get the parsed and solved game levels,
+* {@link java.io.IOException} to manage the errors during file reading,
+* and a {@link BoardListener} for observing changes in game state.
 *
 * This is the Sudoku class and it handles the functionality of the main game.
 * @author Lauren Scott
 * @version Student Sample Code
 */
 public class Sudoku {
-    private String[][] solution;//This array stores the solution to the game
-    private Slot[][] populatedBoard;//This is the board of moves for the game
-    private Scanner reader;//This scanner is used to read the game and level files
+    private static final ParallelSolver LARGE_SOLVER = new ParallelSolver();//This solves boards larger than 9x9 on every core
+    private Board board;//This is the compact board holding the value of every cell
+    private Slot[][] populatedBoard;//This is the board of moves for the game, as views onto the board
+    private LevelTemplate template;//The shared givens, solution and fillable mask this game was dealt
+    private HintEngine hints;//Finds logical hints, created when the first hint is asked for
     private int gameSize;    //This will be the size of the game
     private String level;//This is the level file,changable for 4*4 and 9*9
 /**
-* This will Construct a new Sudoku game. It initializes the game board and loads the game solution from files.
-* The game type determines whether a 4x4 or 9x9 Sudoku game is initialized. Based on the game type, 
-* it sets the appropriate level file path. The constructor attempts to read the level file and 
-* the corresponding solution file, initializes the game board with slots, and loads the winning solution.
+* This will Construct a new Sudoku game. It initializes the game board and loads the game solution.
+* The game type determines whether a 4x4, 9x9 or 16x16 Sudoku game is initialized. Based on the game type, 
+* it sets the appropriate level file path. The constructor takes the level's template from the {@link LevelCache}, 
+* which reads and solves the level file only the first time, initializes the game board with slots, and loads the winning solution.
 *
-* @param gameType The type of Sudoku game to initialize, either "4x4" for a smaller game or any other string for the standard 9x9 game.
-* @throws FileNotFoundException if the level file corresponding to the specified game type is not found.
+* @param gameType The type of Sudoku game to initialize, "4x4" for a smaller game, "16x16" for a large game or any other string for the standard 9x9 game.
 */
     public Sudoku(String gameType) {
         // This is to the level file based on game type
         if ("4x4".equals(gameType)) {
             this.level = "Levels/esu1.txt"; // Path to 4x4 game file
+        } else if ("16x16".equals(gameType)) {
+            this.level = "Levels/hsu1.txt"; // Path to 16x16 game file
         } else {
             // Default to 9x9 game
             this.level = "Levels/su1.txt"; // Path to 9x9 game file
         }
 
         try {
-            //The scanner will read from the selected level file
-            reader = new Scanner(new File(level));
-        } catch (FileNotFoundException e) {
+            //The cache will only read the selected level file if it has not been played recently
+            template = LevelCache.getDefault().get(level);
+        } catch (IOException e) {
             //It will printthe stack trace to console if the file is not found
             e.printStackTrace();
         }
-            // Calculate the size of the game (either 4x4 or 9x9) based on the level file's first entry.
+            // Calculate the size of the game (4x4, 9x9 or 16x16) based on the level file's first entry.
         gameSize = calculateGameSize();
         
-        //to initialize he solution and populated array with the calculated game size
-        solution = new String[gameSize][gameSize];
-        populatedBoard = new Slot[gameSize][gameSize];
-        //It will read the level file to set the initial state of the sudoku board
+        //to initialize he solution, the board and the populated array of slot views with the calculated game size
+        initBoard();
+        //It will place the level's givens to set the initial state of the sudoku board
         readLevelFile();
-        // It will load the winning solution from the solution file
-        loadWinSolution();
 }
     
 /**
-* Adds the specified observer to all slots in the Sudoku board. 
-* This allows the observer to be notified of changes in the state of each slot, 
-* The observer will be added to every slot in the populatedBoard array.
+* Constructs a new Sudoku game from a generated puzzle. No files are read: the givens are placed 
+* on the board and the puzzle's own solution is used to check for a win.
 *
-* @param observer The observer to be added to each slot. This should not be null.
-*/    
-public void addObserverToSlots(Observer observer) {
-        // Iterate over each row of the Sudoku board.
+* @param puzzle The puzzle to play.
+*/
+    public Sudoku(Puzzle puzzle) {
+        template = LevelTemplate.of(puzzle);
+        gameSize = puzzle.getSize();
+        initBoard();
+        readLevelFile();
+    }
+
+/**
+* Constructs a new Sudoku game from one puzzle of a {@link PuzzlePack}. The pack is memory-mapped 
+* once and shared by every game played from it, so only that puzzle's record is read, however many 
+* puzzles the pack holds.
+*
+* @param packPath The pack file.
+* @param puzzleId The id of the puzzle in the pack, counted from 0.
+* @throws IOException if the pack cannot be opened.
+* @throws IllegalArgumentException if the file is not a pack or has no puzzle with that id.
+*/
+    public Sudoku(Path packPath, int puzzleId) throws IOException {
+        this(PuzzlePack.openShared(packPath).get(puzzleId));
+    }
+
+/**
+* Constructs a new Sudoku game with a fresh puzzle instead of a level file. The puzzle is taken 
+* from the shared {@link PuzzlePool}, so this does not wait for generation when the pool has one ready.
+*
+* @param gameType The type of Sudoku game, such as "4x4", "9x9" or "16x16".
+* @param difficulty How hard the puzzle should be.
+*/
+    public Sudoku(String gameType, PuzzleGenerator.Difficulty difficulty) {
+        this(PuzzlePool.getDefault().take(sizeOf(gameType), difficulty));
+    }
+
+/**
+* Works out the board size of a game type such as "16x16". 
+* Anything that is not of the form "NxN" is the standard 9x9 game.
+*
+* @param gameType The type of Sudoku game.
+* @return The number of rows and columns for that game type.
+*/
+    public static int sizeOf(String gameType) {
+        if (gameType != null && gameType.matches("\\d+x\\d+")) {
+            return Integer.parseInt(gameType.substring(0, gameType.indexOf('x')));
+        }
+        return 9;
+    }
+
+/**
+* Creates the board for the current game size, along with the slot views onto its cells.
+*/
+    private void initBoard() {
+        board = new Board(gameSize);
+        populatedBoard = new Slot[gameSize][gameSize];
         for (int row = 0; row < gameSize; row++) {
-                    // Iterate over each column in the current row.
             for (int col = 0; col < gameSize; col++) {
-            // Add the passed observer to the Slot at the current row and column.
-            // This allows the observer to be notified of changes to the Slot's state.
-                populatedBoard[row][col].addObserver(observer);
+                populatedBoard[row][col] = new Slot(board, row, col);
             }
         }
+    }
+    
+/**
+* Subscribes a listener to changes in the state of every slot of the Sudoku board. 
+* The listener is registered once on the board's event bus rather than on each slot, 
+* and receives a {@link CellChanged} event whenever a cell changes.
+*
+* @param listener The listener to be notified. This should not be null.
+*/    
+public void addBoardListener(BoardListener listener) {
+        board.getEvents().subscribe(listener);
+}
+
+/**
+* Unsubscribes a listener added with {@link #addBoardListener(BoardListener)}.
+*
+* @param listener The listener to remove.
+*/
+public void removeBoardListener(BoardListener listener) {
+        board.getEvents().unsubscribe(listener);
 }
     
 /**
@@ -99,23 +162,53 @@ public Slot[][] getMoves() {
 * @return The state of the cell at the specified row and column. This is typically the number in the cell as a String.
 */
     public String getIndividualMove(int row, int col) {
-    // Returns the state of the Slot at the specified row and column.
-        return populatedBoard[row][col].getState();
+    // Returns the state of the cell at the specified row and column.
+        return Slot.toState(board.get(row, col));
+    }
+
+/**
+* Retrieves the compact board that holds the values of every cell. 
+* The slots returned by {@link #getMoves()} are views onto this board.
+*
+* @return The board of this game.
+*/
+    public Board getBoard() {
+        return board;
     }
     
 /**
-* Calculates the size of the Sudoku game by reading it from the level file. 
+* Clears every cell the player has filled in, restoring the game to the level as it was dealt. 
+* The givens are copied back from the retained level template in one bulk write, and the board's 
+* listeners get a single reset event, so this game, its slots and its listeners all stay in place.
+*/
+    public void reset() {
+        board.reset(template.getGivens());
+    }
+
+/**
+* Retrieves the template of the level being played: its givens, solution and fillable mask as dealt, 
+* before any move. This is the trusted starting point a {@link SolutionVerifier} replays a win from.
+*
+* @return The level template of this game.
+*/
+    public LevelTemplate getTemplate() {
+        return template;
+    }
+
+/**
+* Calculates the size of the Sudoku game from the level's template. 
 * This method is used to determine the dimensions of the Sudoku board. 
-* The game size is read from the beginning of the level file and is expected to be 
-* an integer representing the number of rows and columns in the Sudoku grid 
+* The size is the number of rows and columns in the Sudoku grid 
 * (e.g., 9 for a standard 9x9 Sudoku puzzle).
 *
 * @return The size of the Sudoku puzzle as an integer, representing both the number of rows and columns.
-* @throws NumberFormatException if the value read from the file is not a valid integer.
+* @throws IllegalStateException if the level file could not be read.
  */
     public int calculateGameSize() {
-    // Reads and returns the next integer from the file, which represents the size of the Sudoku game.
-        return Integer.parseInt(reader.next());
+        if (template == null) {
+            throw new IllegalStateException("Level file could not be read: " + level);
+        }
+        return template.getSize();
     }
     
 /**
@@ -127,98 +220,115 @@ public Slot[][] getMoves() {
 * @return The size of the Sudoku puzzle, indicating the number of rows and columns in the grid.
 */
     public int getGameSize() {
-        // Return the size of the Sudoku game (4 for 4x4 grid and 9 for a 9x9 grid).
+        // Return the size of the Sudoku game (4 for 4x4 grid, 9 for a 9x9 grid and 16 for a 16x16 grid).
         return gameSize;
     }
     
 /**
-* Reads the level file and populates the Sudoku board with initial moves. This method iterates 
-* through the contents of the level file, extracting information about the initial state of each cell 
-* (or Slot) on the Sudoku board. For each cell, it reads the row and column indices, and the initial value 
-* or move, and creates a {@link Slot} object with this information. These {@link Slot} objects are stored 
-* in a two-dimensional array representing the Sudoku board.
+* Populates the Sudoku board with the initial moves of the level. The file was decoded once by the 
+* {@link LevelParser} into a cached {@link LevelTemplate}, so this only places the value of each cell 
+* (or Slot) on the {@link Board}. The {@link Slot} objects in the two-dimensional array 
+* representing the Sudoku board are views onto those cells.
 *
 * @return A two-dimensional array of {@link Slot} objects representing the initial state of the Sudoku board as defined in the level file.
-* @throws NumberFormatException if the file contains non-integer values where integers are expected for row and column indices.
 */
     public Slot[][] readLevelFile() {
-        // This is a Loop where it will go through the file as long as there are more cells to read.
-        while (reader.hasNext()) {
-             // It will read the row and column indices, and the initial move (value) for each cell.
-            int row =Integer.parseInt(reader.next());
-            int col =Integer.parseInt(reader.next());
-            String move = reader.next();
-            
-            // It will create a new Slot object with the read values and set it at the corresponding position in the board.
-            populatedBoard[row][col] = new Slot(col, row, move, false);
-            
+        // This is a Loop where it will go through every cell of the parsed level.
+        for (int index = 0; index < gameSize * gameSize; index++) {
+            // It will place the read value on the board; the Slot at that position is a view onto it.
+            board.setGiven(index / gameSize, index % gameSize, template.getGiven(index));
         }
             // It will return the fully populated board with initial moves.
         return populatedBoard;
     }
     
 /**
-* Loads the winning solution for the Sudoku game from a solution file. This method determines 
-* the correct solution file based on the current level file's name. It then reads the solution file, 
+* Solves a puzzle with the engine that suits its size. Boards up to 9x9 use the bitmask {@link Solver}; 
+* larger boards use the {@link ParallelSolver}, which splits the search across cores and runs 
+* the {@link DancingLinks} exact-cover solver on each branch, where plain backtracking blows up.
 *
-* @throws FileNotFoundException if the solution file corresponding to the level file is not found.
-* @throws NumberFormatException if the file contains non-integer values where integers are expected for row and column indices.
+* @param givens The puzzle, row-major, with 0 for empty cells.
+* @param size The number of rows and columns of the puzzle.
+* @return The solution, row-major, or {@code null} if the puzzle has no solution.
 */
-    public void loadWinSolution() {
-    // Use the level file name to determine the corresponding solution file
-    String solutionFile;
-    if (this.level.endsWith("esu1.txt")) {
-        solutionFile = "Solutions/esu1solution.txt"; // Path to 4x4 solution file
-    } else {
-        solutionFile = "Solutions/su1solution.txt"; // Path to 9x9 solution file
+    public static byte[] solve(byte[] givens, int size) {
+        if (size > 9) {
+            return LARGE_SOLVER.solve(givens, size);
+        }
+        return Solver.solve(givens, size);
     }
 
-    Scanner reader = null;
-    try {
-         // To initialize a new Scanner to read from the solution file.
-        reader = new Scanner(new File(solutionFile));
-    } catch (FileNotFoundException e) {
-        // To print an error trace if the solution file is not found.
-        e.printStackTrace();
+/**
+* Retrieves the value of a cell in the winning solution. 
+* The solution is held by the shared level template, so this is used to reveal a cell as a hint without reading any file.
+*
+* @param row The row index of the cell. Row indices start at 0.
+* @param col The column index of the cell. Column indices start at 0.
+* @return The solution value of the cell as a String, or "-" if no solution is known.
+*/
+    public String getSolution(int row, int col) {
+        return Slot.toState(template.getSolution(board.index(row, col)));
     }
 
-        // Reads and stores the solution from the file into the 'solution' array.
-    while (reader != null && reader.hasNext()) {
-        // Parse each line of the solution file to get the row, column, and the correct move.
-        int row = Integer.parseInt(reader.next());
-        int col = Integer.parseInt(reader.next());
-        String move = reader.next();
-        // It will store the move in the corresponding location in the solution array.
-        solution[row][col] = move;
+/**
+* Retrieves the difficulty of the level being played, graded by the {@link DifficultyRater} from the 
+* human techniques needed to solve it. The rating is kept with the shared level template, so it is only 
+* worked out once per level.
+*
+* @return The rating of the level, or {@code null} if its givens contradict each other.
+*/
+    public DifficultyRater.Rating getRating() {
+        return template.getRating();
     }
-    // To close the scanner after reading the file.
-    if (reader != null) {
-        reader.close(); // Close the scanner
+
+/**
+* Finds the next hint for the player: a cell that can be filled in by logic, with the reasoning, 
+* or the solution value of a cell when no simple deduction is left. The engine is created on the first hint 
+* and then follows the board through its event bus, so later hints do not scan the filled cells.
+*
+* @return The hint, or {@code null} if the board is full or no hint can be found.
+*/
+    public Hint getHint() {
+        if (hints == null) {
+            hints = new HintEngine(board, template);
+        }
+        return hints.nextHint();
     }
-}
 
 /**
-* Checks whether the current state of the Sudoku game matches the winning solution. 
-* This method iterates through each cell (or Slot) of the Sudoku board and compares its current state 
-* (the value it holds) with the corresponding value in the winning solution. The game is considered won 
-* if all cells match their corresponding values in the solution array.
+* Checks whether the game has been won, which is when the board is a valid completed grid. 
+* The board keeps running counts of filled cells and repeated digits as moves are made and undone, 
+* so this is O(1). Any valid completed grid wins, not only the one stored as the solution.
 *
-* @return {@code true} if the current state of the game matches the winning solution, indicating that the game has been won; {@code false} otherwise.
+* @return {@code true} if every cell is filled and no row, column or box repeats a number, indicating that the game has been won; {@code false} otherwise.
 */
     public Boolean checkWin(){
-            // The Loop for it to go through each row of the Sudoku board.
-        for (int i = 0; i<gameSize; i++) {
-                    // The Loop for it to go through each column in the current row.
-            for (int c = 0; c <gameSize; c++) {
-                // To check if the current cell's state does not match the corresponding cell in the solution.
-                if (!populatedBoard[i][c].getState().equals(solution[i][c])) {
-                    // If any cell does not match, the game is not yet won.
-                    return false;
-                }
-            }
-        }
-        // If all cells match their corresponding cells in the solution, the game is won.
-        return true;
+        return board.isSolved();
+    }
+
+/**
+* Checks whether a number can be placed in a cell without repeating it in the cell's row, column or box. 
+* The board keeps digit counts for every unit, so this takes the same constant time for any board size 
+* and is shared by the text UI, the GUI and any other caller.
+*
+* @param row The row of the cell.
+* @param col The column of the cell.
+* @param number The number to place.
+* @return {@code true} if the number is in range and the move follows the Sudoku rules.
+*/
+    public boolean isValidMove(int row, int col, int number) {
+        return board.isValidPlacement(row, col, number);
+    }
+
+/**
+* Checks whether the number in a cell is repeated elsewhere in its row, column or box.
+*
+* @param row The row of the cell.
+* @param col The column of the cell.
+* @return {@code true} if the cell conflicts with another cell.
+*/
+    public boolean hasConflict(int row, int col) {
+        return board.hasConflict(row, col);
     }
 
 /**
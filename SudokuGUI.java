@@ -2,34 +2,37 @@ import javax.swing.*;// Importing the swing components for building the graphica
 import java.awt.*;// Importing AWT (Abstract Window Toolkit) for basic GUI operations like handling events and layouts.
 import java.awt.event.ActionEvent;// Importing ActionEvent class for handling action events like button clicks.
 import java.awt.event.ActionListener; // Importing ActionListener interface for receiving action events.
-import java.util.Stack; // Importing Stack class for using stack data structures.
+import java.awt.event.WindowAdapter; // Importing WindowAdapter for saving the game when the window closes.
+import java.awt.event.WindowEvent; // Importing WindowEvent for the window closing event.
 import java.io.IOException; // Importing IOException class for handling exceptions produced by failed or interrupted I/O operations.
-import java.io.FileWriter; // Importing FileWriter for writing to files.
 import java.io.File; // Importing File class to represent file and directory pathnames.
-import java.io.PrintWriter; // Importing PrintWriter for printing formatted representations of objects to a text-output stream.
+import java.io.UncheckedIOException; // Importing UncheckedIOException for carrying a failed coin change out of the ledger thread.
 import java.util.Scanner; // Importing Scanner class for reading input (like files).
+import java.util.concurrent.CompletableFuture; // Importing CompletableFuture for the outcome of a coin change made on the ledger thread.
+import java.util.concurrent.ExecutorService; // Importing ExecutorService for the thread that waits on the coin ledger.
+import java.util.concurrent.Executors; // Importing Executors for creating the coin ledger thread.
+import java.nio.file.Files; // Importing Files for checking whether an autosave exists.
+import java.nio.file.Path; // Importing Path for naming the autosave file.
+import java.nio.file.Paths; // Importing Paths for building the autosave file name.
+import java.nio.file.NoSuchFileException; // Importing NoSuchFileException for a saved game that is not found.
 import java.io.FileNotFoundException; // Importing FileNotFoundException for handling cases where a file is not found.
 import java.time.LocalTime; // Importing LocalTime class for representing time without a date.
-import java.util.Map;  // Importing Map interface for using collections that map keys to values.
 import java.time.Duration;  // Importing Duration class for handling time-based amount of time.
-import java.util.HashMap; // Importing HashMap for using hash table based implementation of the Map interface.
-import java.util.Observer; // Importing Observer interface for implementing the observer side of the Observer design pattern.
-import java.util.Observable; // Importing Observable class for creating objects that can be observed.
 
 /**
- * A graphical user interface (GUI) for playing Sudoku. This class implements the Observer interface, allowing it
+ * A graphical user interface (GUI) for playing Sudoku. This class implements the BoardListener interface, allowing it
  * to be notified of changes in the game state. It provides a visual representation of the Sudoku game, including
  * the game grid, control buttons, a timer, and various other interactive elements.
  *
  * Features include starting a new game, selecting themes, viewing leaderboards, getting hints, undoing/redoing moves,
  * and tracking game time.
  */
-public class SudokuGUI implements Observer {
+public class SudokuGUI implements BoardListener {
     private Sudoku thegame; // The Sudoku game logic this GUI interacts with.
     private JFrame frame; // The main window for the Sudoku game.
     private JButton[][] gridButtons; // Buttons representing each cell of the Sudoku grid.
     private JPanel gridPanel; // Panel to hold the Sudoku grid.
-    private String gameType; // Stores the type of Sudoku game 4x4, 9x9).
+    private String gameType; // Stores the type of Sudoku game 4x4, 9x9, 16x16).
     private JLabel coinLabel; // Label to display the number of coins.
     private int coins; // The number of coins the player has.
     private String nickname;  // The player's nickname.
@@ -40,46 +43,40 @@ public class SudokuGUI implements Observer {
     private JLabel timerLabel; // Label to display the game timer.
     private LocalTime startTime; // Time when the current game started.
     private Timer gameTimer; // Timer for tracking game duration.
-    private Map<String, LeaderboardEntry> leaderboard = new HashMap<>(); // Leaderboard data.
+    private LeaderboardStore leaderboard = new LeaderboardStore(); // Leaderboard data, kept in memory until the leaderboard file is opened.
+    private ProfileStore profiles = new ProfileStore(); // Every player's coins and record, kept in memory until the profile file is opened.
+    static final String PROFILE_FILE = "profiles.db"; // The profile file, shared with the text UI.
+    private CoinLedger ledger; // Every change to every player's coins, or null if the ledger file could not be opened.
+    private static final int NEW_USER_BONUS = 100; // The coins a new user starts with.
+    static final String LEDGER_FILE = "coins.ledger"; // The coin ledger file, shared with the text UI.
+    // Coin changes wait for the ledger's fsync on this thread, never on the event thread or behind an autosave.
+    private static final ExecutorService LEDGER_THREAD = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "coin-ledger");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int LEADERBOARD_TOP = 5; // The number of top players shown on the leaderboard.
     private int[][] hintCounts; // Stores the number of hints used in each cell.
     private JButton btnHelp; // Button for help or hints.
     private JButton btnInstructions; // Button to show game instructions.
     private boolean gameStarted = false; // Flag to check if a game has started.
+    private static final PuzzleGenerator.Difficulty NEW_GAME_DIFFICULTY = PuzzleGenerator.Difficulty.MEDIUM; // Difficulty of the fresh puzzle dealt after a game that could not be graded.
     
-    private Stack<Move> moveHistory = new Stack<>(); // History of moves for undo functionality.
-    private Stack<Move> redoHistory = new Stack<>(); // History of undone moves for redo functionality.
-
- // Inner class to hold the move details for undo functionality
-/**
- * Represents a single move made in the Sudoku game. This class stores the row and column of the move, 
- * as well as the previous value of the cell before the move was made. It is used to facilitate undoing moves,
- * allowing the game state to be reverted to a previous state.
- */
- private class Move {
-    int row; // The row number of the cell where the move was made.
-    int col; // The column number of the cell where the move was made.
-    String prevValue; // The value of the cell before the move.
+    private Autosaver autosaver; // Saves the game in the background after every burst of moves.
+    private JLabel saveStatusLabel; // Label to show whether the latest moves have been autosaved.
+    private MoveJournal journal; // Saves the moves made since the last save, or null until the game is first saved.
+    private MoveRecorder recorder; // Logs every change to the board, so a win can be verified before it is accepted.
+    private final CellRepaintBatcher repaints = new CellRepaintBatcher(this::paintCell); // Coalesces slot changes into one repaint pass per frame.
+    
+    private MoveHistory history; // The undo and redo timeline of the current game.
 
-    /**
-     * Constructs a Move object to represent a single Sudoku move.
-     *
-     * @param row The row number of the cell.
-     * @param col The column number of the cell.
-     * @param prevValue The previous value of the cell before the move.
-     */
-    public Move(int row, int col, String prevValue) {
-        this.row = row;
-        this.col = col;
-        this.prevValue = prevValue;
-    }
-}
    
 /**
  * Constructs a new SudokuGUI instance. This constructor initiates several key steps:
- * 1. It prompts the user to select the game type (4x4 or 9x9 Sudoku).
+ * 1. It prompts the user to select the game type (4x4, 9x9 or 16x16 Sudoku).
  * 2. It requests the player's nickname for personalized experience and leaderboard tracking.
- * 3. It loads or creates user data, setting up the player's profile.
- * 4. It loads the leaderboard data to display past high scores.
+ * 3. It loads the leaderboard data to display past high scores, and opens the players' profiles and coin ledger.
+ * 4. It loads or creates user data, setting up the player's profile.
  * 5. It initializes the Sudoku game logic with the selected game type and adds this GUI as an observer to the game slots.
  * 6. It sets up and displays the GUI components and initializes the hint counts array based on the game size.
  *
@@ -89,10 +86,18 @@ public class SudokuGUI implements Observer {
 public SudokuGUI() {
         this.gameType = selectGameType(); // Prompt for game type
         nicknamePrompt(); // Prompt the user for a nickname.
-        loadOrCreateUser(); // Load existing user data or create a new user.
         loadLeaderboard(); // Load leaderboard data
+        loadProfiles(); // Open the players' profiles
+        loadCoinLedger(); // Open the players' coin balances
+        loadOrCreateUser(); // Load existing user data or create a new user.
         thegame = new Sudoku(gameType); // Initialize the game with selected game type
-        thegame.addObserverToSlots(this); // Add this GUI as an observer to all Slots
+        thegame.addBoardListener(this); // Subscribe this GUI to changes on the board
+        recorder = new MoveRecorder(thegame.getBoard()); // Record the moves of this game for verification
+        restoreAutosave(); // Offer to continue the game that was being played when the program last stopped
+        startAutosave();
+        history = new MoveHistory(thegame.getBoard());
+        // Start generating fresh puzzles in the background so the next game is ready at once
+        PuzzlePool.getDefault().prepare(thegame.getGameSize(), nextDifficulty());
         createAndShowGUI();     // Set up and display the GUI components.
             // Initializes the hint counts array based on the size of the game.
         hintCounts = new int[thegame.getGameSize()][thegame.getGameSize()];
@@ -100,14 +105,14 @@ public SudokuGUI() {
 
     // Method to prompt user to select the game type
 /**
- * Prompts the user to select the game type for Sudoku. The options presented are either a 4x4 game
- * or a 9x9 game. This method displays a dialog box with these options and returns the user's choice.
+ * Prompts the user to select the game type for Sudoku. The options presented are a 4x4 game,
+ * a 9x9 game or a 16x16 game. This method displays a dialog box with these options and returns the user's choice.
  *
- * @return A string representing the selected game type, either "4x4" or "9x9".
+ * @return A string representing the selected game type, either "4x4", "9x9" or "16x16".
  */
     private String selectGameType() {
             // To define the options for game types.
-        Object[] options = {"4x4 Game", "9x9 Game"};
+        Object[] options = {"4x4 Game", "9x9 Game", "16x16 Game"};
             // It will show a dialog box to the user with the game type options.
         int choice = JOptionPane.showOptionDialog(null, 
                 "Choose the Game Type",  // Dialog title.
@@ -116,14 +121,17 @@ public SudokuGUI() {
                 JOptionPane.INFORMATION_MESSAGE, // Type of message to be displayed.
                 null, options, options[0]); // Array of options and the default selection.
             
-        // Return "4x4" if the first option is chosen, otherwise return "9x9".
-                return choice == 0 ? "4x4" : "9x9";
+        // Return "4x4" or "16x16" if the first or last option is chosen, otherwise return "9x9".
+        if (choice == 0) {
+            return "4x4";
+        }
+        return choice == 2 ? "16x16" : "9x9";
     }
     
      // Method to prompt for nickname and load or initialize user data
 /**
  * Prompts the user to enter a nickname for the game session. 
- * If the user does not enter a nickname or clicks cancel, an error message is displayed, 
+ * If the user does not enter a nickname, enters one too long for a profile, or clicks cancel, an error message is displayed, 
  * and the application exits. If a valid nickname is entered, a welcome message is displayed.
  */
      private void nicknamePrompt() {
@@ -136,72 +144,148 @@ public SudokuGUI() {
                     // Display an error message and exit the application if the nickname is not provided.
             JOptionPane.showMessageDialog(null, "A nickname is required to play.", "Error", JOptionPane.ERROR_MESSAGE);
             System.exit(0);
+        } else if (!ProfileStore.isValidNickname(nickname)) {
+                    // Display an error message and exit the application if the nickname does not fit a profile.
+            JOptionPane.showMessageDialog(null, "A nickname can be at most " + ProfileStore.MAX_NICKNAME_BYTES + " characters long.", "Error", JOptionPane.ERROR_MESSAGE);
+            System.exit(0);
         } else {
                     // Display a welcome message if a valid nickname is entered.
             JOptionPane.showMessageDialog(null, "Welcome, " + nickname + "! Let's play Sudoku Vision.");
         }
     }
     
+    // Open the profile file
+/**
+ * Opens the profile file, which holds every player's coins, wins and best time. The text UI may
+ * have it open at the same time. If it cannot be opened, an error message is displayed and the
+ * profile is kept in memory only for this session.
+ */
+private void loadProfiles() {
+    try {
+        profiles = ProfileStore.open(Paths.get(PROFILE_FILE));
+    } catch (IOException e) {
+        JOptionPane.showMessageDialog(null, "Error opening player profiles: " + e.getMessage() + "\nYour coins will not be saved this session.", "Error", JOptionPane.ERROR_MESSAGE);
+    }
+}
+
+    // Open the coin ledger
+/**
+ * Opens the coin ledger, which records every change to every player's coins. The text UI may have
+ * it open at the same time. If it cannot be opened, an error message is displayed and coins can be
+ * neither spent nor earned this session, since the ledger is what keeps them from being spent twice.
+ */
+private void loadCoinLedger() {
+    try {
+        ledger = CoinLedger.open(Paths.get(LEDGER_FILE));
+    } catch (IOException e) {
+        JOptionPane.showMessageDialog(null, "Error opening the coin ledger: " + e.getMessage() + "\nCoins cannot be spent or earned this session.", "Error", JOptionPane.ERROR_MESSAGE);
+    }
+}
+
     // Load or create user data
 /**
- * Loads the user data from a file specific to the nickname entered. If the user file exists, it reads
- * the user's coins and leaderboard entry. If the file does not exist, it creates new user data with
- * a starting bonus of coins and notifies the user of this bonus. After loading or creating, it updates 
- * the coin display on the GUI.
+ * Loads the user data from the profile store. If the user has no profile yet but has a file
+ * written by earlier versions, it reads the user's coins and leaderboard entry from that file and
+ * moves them into the profile store. The coin ledger holds the balance from then on: a user it has
+ * no account for yet opens one with the coins loaded here, or with a starting bonus for a new user,
+ * who is notified of it. The ledger decides whether the account exists with its file locked, so the
+ * bonus is granted once however many programs the user starts, and never while the ledger could not
+ * be opened. After loading or creating, it updates the coin display on the GUI.
  */
 private void loadOrCreateUser() {
-        // To create a file object based on the user's nickname.
+    ProfileStore.Profile profile;
+    try {
+        profile = profiles.get(nickname);
+    } catch (IOException e) {
+        JOptionPane.showMessageDialog(null, "Error reading player profiles: " + e.getMessage() + "\nYour coins will not be saved this session.", "Error", JOptionPane.ERROR_MESSAGE);
+        profiles = new ProfileStore();
+        profile = null;
+    }
+        // To create a file object for the file earlier versions kept the user's data in.
     File userFile = new File(nickname + "_data.txt");
-        // To check if the user file exists.
-    if (userFile.exists()) {
+    if (profile != null) {
+        coins = profile.getCoins(); // Load coins
+            // It will add the user's wins and best time to the leaderboard if it lacks the user.
+        if (profile.getWins() > 0 && leaderboard.get(nickname) == null) {
+            try {
+                leaderboard.update(nickname, profile.getWins(), profile.getBestTime());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    } else if (userFile.exists()) {
         try (Scanner fileScanner = new Scanner(userFile)) {
                         // To read coins from the file if available.
             if (fileScanner.hasNextInt()) {
                 coins = fileScanner.nextInt(); // Load coins
             }
-            // It will read additional data like wins and best time, then update leaderboard.
+            // It will read additional data like wins and best time, then add them to the leaderboard if it lacks the user.
             if (fileScanner.hasNextInt()) {
                 int wins = fileScanner.nextInt();
                 long bestTimeInSeconds = fileScanner.nextLong();
                 Duration bestTime = bestTimeInSeconds == -1 ? null : Duration.ofSeconds(bestTimeInSeconds);
-                leaderboard.put(nickname, new LeaderboardEntry(wins, bestTime));
+                if (leaderboard.get(nickname) == null) {
+                    leaderboard.update(nickname, wins, bestTime);
+                }
             }
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             //It will display error message if there is a problem reading the file.
             JOptionPane.showMessageDialog(null, "Error reading user file.", "Error", JOptionPane.ERROR_MESSAGE);
         }
-    } else {
-        // It will set a starting bonus for new users and save their data.
-        coins = 100; // New user bonus
-        saveUserData();
-        JOptionPane.showMessageDialog(null, "As a new user, you get a bonus of 100 coins!");
+    }
+    if (ledger != null) {
+        boolean newUser = profile == null && !userFile.exists();
+        try {
+                // The ledger's balance wins over the profile's, which only mirrors it
+            if (ledger.openAccount(nickname, newUser ? NEW_USER_BONUS : coins) && newUser) {
+                JOptionPane.showMessageDialog(null, "As a new user, you get a bonus of " + NEW_USER_BONUS + " coins!");
+            }
+            coins = ledger.getBalance(nickname);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error saving coins.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        saveUserData(); // Move the user into the profile store, or bring the profile up to date
     }
     updateCoinDisplay(); // Update the coins display after loading or creating the user.
 }
 
-    // Save user data to file
+    // Save user data to the profile store
 /**
- * Saves the user's data, including coins and leaderboard entry, to a file specific to the user's nickname.
- * If the user has a best time in the leaderboard, it is also saved. In case of any errors during the 
- * saving process, an error message is displayed.
+ * Saves the user's data, including coins and leaderboard entry, to the user's record in the profile store.
+ * The coins saved there mirror the coin ledger, which is what changes them.
+ * If the user has a best time in the leaderboard, it is also saved. The record is written behind, so this
+ * never waits for the disk. In case of any errors during the saving process, an error message is displayed.
+ * Nothing is saved while the coin ledger could not be opened, so the profile never loses the coins it mirrors.
  */
     private void saveUserData() {
-    try (PrintWriter out = new PrintWriter(nickname + "_data.txt")) {
-        // It will save the user's coins to the file.
-        out.println(coins); // Save coins
+    if (ledger == null) {
+        return;
+    }
         // It will retrieve the user's leaderboard entry, if available.
-        LeaderboardEntry entry = leaderboard.get(nickname);
-        if (entry != null) {
-            // It will save wins and best time (if exists) to the file.
-            long bestTimeInSeconds = entry.getBestTime() != null ? entry.getBestTime().getSeconds() : -1;
-            out.printf("%d %d\n", entry.getWins(), bestTimeInSeconds);
-        }
+    LeaderboardStore.Standing entry = leaderboard.get(nickname);
+    try {
+        // It will save the user's coins, wins and best time (if exists) to the profile.
+        profiles.put(nickname, coins, entry != null ? entry.getWins() : 0, entry != null ? entry.getBestTime() : null);
     } catch (IOException e) {
         // It will display an error message if there is a problem saving user data.
         JOptionPane.showMessageDialog(null, "Error saving user data.", "Error", JOptionPane.ERROR_MESSAGE);
     }
 }
 
+/**
+ * Flushes the profiles to disk and releases the profile and coin ledger files, before the program exits.
+ */
+private void closeProfiles() {
+    try {
+        profiles.close();
+        if (ledger != null) {
+            ledger.close();
+        }
+    } catch (IOException e) {
+        e.printStackTrace();
+    }
+}
+
 /**
  * Creates and displays the Sudoku game's graphical user interface (GUI) including buttons,
  * labels, and the game grid. It also sets up event listeners for various components.
@@ -209,13 +293,25 @@ private void loadOrCreateUser() {
     private void createAndShowGUI() {
     // Create and set up the window.
     frame = new JFrame("Sudoku Game");
+    updateTitle(); // Show how hard the level is
     frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    frame.addWindowListener(new WindowAdapter() {
+        @Override
+        public void windowClosing(WindowEvent e) {
+            autosaver.close().join(); // Save any moves not yet autosaved before the program exits
+            closeProfiles();
+        }
+    });
     frame.setSize(600, 500); // Increase width to accommodate the new section
+    if (thegame.getGameSize() > 9) {
+        frame.setSize(900, 800); // Larger boards need more room for their cells
+    }
     frame.setLayout(new BorderLayout());
 
     // Initialize components
     btnStartGame = new JButton("Start Game");
     timerLabel = new JLabel("Timer: 00:00");
+    saveStatusLabel = new JLabel("All changes saved");
     themeSelector = new JComboBox<>(THEMES);
     nameLabel = new JLabel("Nickname: " + nickname);
     coinLabel = new JLabel("Coins: " + coins);
@@ -262,6 +358,7 @@ private void loadOrCreateUser() {
     rightPanel.setLayout(new BoxLayout(rightPanel, BoxLayout.PAGE_AXIS));
     rightPanel.add(btnStartGame);
     rightPanel.add(timerLabel);
+    rightPanel.add(saveStatusLabel);
     rightPanel.add(btnLeaderboard);
     rightPanel.add(btnHelp);
     rightPanel.add(btnInstructions); // Add instructions button
@@ -302,7 +399,7 @@ private JPanel createButtonsPanel() {
     btnRedo.addActionListener(e -> redoMove());
     btnClear.addActionListener(e -> clearGame());
     btnLoad.addActionListener(e -> loadGame());
-    btnQuit.addActionListener(e -> System.exit(0));
+    btnQuit.addActionListener(e -> quit());
 
         // Add buttons to the buttonsPanel
     buttonsPanel.add(btnSave);
@@ -315,6 +412,17 @@ private JPanel createButtonsPanel() {
     return buttonsPanel; // Return the panel with action buttons
 }
 
+/**
+ * Shows the game type and the difficulty of the current level in the window title, 
+ * so the player knows how hard the level is before starting.
+ */
+    private void updateTitle() {
+        DifficultyRater.Rating rating = thegame.getRating();
+        String difficulty = rating == null ? "" : " - " + rating.getDifficulty().name().charAt(0)
+                + rating.getDifficulty().name().substring(1).toLowerCase();
+        frame.setTitle("Sudoku Game (" + gameType + ")" + difficulty);
+    }
+
 /**
  * Initializes the grid of buttons for the Sudoku game. Creates a grid of buttons
  * with the same size as the Sudoku game board and sets up action listeners for each button.
@@ -341,27 +449,50 @@ private JPanel createButtonsPanel() {
 
 /**
  * It displays the leaderboard for the current user in a new JFrame. The leaderboard includes the user's
- * nickname, current coins, number of wins, and best time (if available).
+ * nickname, current coins, number of wins, best time (if available) and ranks, followed by the fastest players.
  */
 private void showLeaderboard() {
         // To create a new JFrame for the leaderboard
     JFrame leaderboardFrame = new JFrame("Leaderboard");
-    leaderboardFrame.setSize(300, 200);
+    leaderboardFrame.setSize(300, 320);
     leaderboardFrame.setLayout(new BorderLayout());
 
         // To create a JTextArea to display the leaderboard text
     JTextArea leaderboardText = new JTextArea();
     leaderboardText.append("Leaderboard for " + nickname + ":\n\n");
 
+    try {
+            // Pick up the wins the text UI recorded since
+        leaderboard.refresh();
+    } catch (IOException e) {
+        // Show what this program has read, but print the stack trace
+        e.printStackTrace();
+    }
+
     // Use default values if no data is available
-    LeaderboardEntry currentUserEntry = leaderboard.getOrDefault(nickname, new LeaderboardEntry(0, null));
+    LeaderboardStore.Standing currentUserEntry = leaderboard.get(nickname);
+    int wins = currentUserEntry != null ? currentUserEntry.getWins() : 0;
+    Duration bestTime = currentUserEntry != null ? currentUserEntry.getBestTime() : null;
     // Display user information in the leaderboard
     leaderboardText.append("Nickname: " + nickname + "\n");
     leaderboardText.append("Coins: " + coins + "\n"); // Display current coins
-    leaderboardText.append("Wins: " + currentUserEntry.getWins() + "\n");
+    leaderboardText.append("Wins: " + wins + "\n");
     
         // Display the best time or "N/A" if not available
-    leaderboardText.append("Best Time: " + (currentUserEntry.getBestTime() != null ? formatDuration(currentUserEntry.getBestTime()) : "N/A") + "\n");
+    leaderboardText.append("Best Time: " + (bestTime != null ? formatDuration(bestTime) : "N/A") + "\n");
+
+        // Display the ranks among all players, or "N/A" if the player has none yet
+    int timeRank = leaderboard.rankByBestTime(nickname);
+    int winsRank = leaderboard.rankByWins(nickname);
+    leaderboardText.append("Rank by Best Time: " + (timeRank > 0 ? timeRank + " of " + leaderboard.getPlayersWithBestTime() : "N/A") + "\n");
+    leaderboardText.append("Rank by Wins: " + (winsRank > 0 ? winsRank + " of " + leaderboard.size() : "N/A") + "\n");
+
+        // Display the fastest players
+    leaderboardText.append("\nFastest Players:\n");
+    int place = 1;
+    for (LeaderboardStore.Standing standing : leaderboard.topByBestTime(LEADERBOARD_TOP)) {
+        leaderboardText.append(place++ + ". " + standing.getNickname() + " - " + formatDuration(standing.getBestTime()) + "\n");
+    }
 
     leaderboardFrame.add(new JScrollPane(leaderboardText), BorderLayout.CENTER);
     leaderboardFrame.setVisible(true);   // Make the leaderboardFrame visible
@@ -385,42 +516,18 @@ private String formatDuration(Duration duration) {
     return String.format("%02d:%02d", minutes, seconds);
 }
 
-/**
- * Reads the solution for a Sudoku game from a solution file based on the game type.
- *
- * @param gameType The type of Sudoku game ("4x4" or "9x9").
- * @return A 2D array representing the Sudoku game solution.
- */
-private String[][] readSolution(String gameType) {
-        // It determines the solution file path based on the game type
-    String solutionFile = gameType.equals("4x4") ? "Solutions/esu1solution.txt" : "Solutions/su1solution.txt";
-        // It create a 2D array to store the Sudoku game solution
-    String[][] solution = new String[thegame.getGameSize()][thegame.getGameSize()];
-
-    try (Scanner scanner = new Scanner(new File(solutionFile))) {
-        // It reads the solution file and populate the solution array
-        while (scanner.hasNextInt()) {
-            int row = scanner.nextInt();
-            int col = scanner.nextInt();
-            String value = scanner.next();
-            solution[row][col] = value;
-        }
-    } catch (FileNotFoundException e) {
-        e.printStackTrace(); // Handles file not found exception
-    }
-    return solution; // Returns the Sudoku game solution
-}
-
 /**
  * Displays game instructions to the user based on the selected game type.
  */
 private void showInstructions() {
     String instructions;
-        // Determines the game instructions based on the game type ("4x4" or "9x9")
+        // Determines the game instructions based on the game type ("4x4", "9x9" or larger)
     if ("4x4".equals(gameType)) {
         instructions = get4x4Instructions();
-    } else {
+    } else if ("9x9".equals(gameType)) {
         instructions = get9x9Instructions();
+    } else {
+        instructions = getLargeInstructions();
     }
         // Shows the game instructions in a dialog box
     JOptionPane.showMessageDialog(frame, instructions, "Game Instructions", JOptionPane.INFORMATION_MESSAGE);
@@ -446,18 +553,33 @@ private String get9x9Instructions() {
            " Objective: \n Fill the 9x9 grid with numbers so that each row, column, and 3x3 box contains the numbers 1 through 9 without repeating.\n How to Play:\n Click on an empty cell to select it. \n Enter a number from 1 to 9. Each number must appear exactly once in each row, column, and 3x3 box.\n If you make a mistake, you can change the number in a cell or use the undo feature. \n You can also use the coins to get hints.";
 }
 
+/**
+ * Provides the instructions for playing Sudoku games larger than 9x9, based on the size of the current game.
+ *
+ * @return The instructions for playing the current game size.
+ */
+private String getLargeInstructions() {
+    int size = thegame.getGameSize();
+    int box = thegame.getBoard().getBoxSize();
+    return "Instructions for " + size + "x" + size + " Sudoku:\n" + 
+           " Objective: \n Fill the " + size + "x" + size + " grid with numbers so that each row, column, and " + box + "x" + box + " box contains the numbers 1 through " + size + " without repeating.\n How to Play:\n Click on an empty cell to select it. \n Enter a number from 1 to " + size + ". Each number must appear exactly once in each row, column, and " + box + "x" + box + " box.\n If you make a mistake, you can change the number in a cell or use the undo feature. \n You can also use the coins to get hints.";
+}
+
 /**
  * Provides a hint to the player during the game.
- * Randomly selects an empty cell and displays the correct number as a hint if the player has enough coins.
+ * Asks the game's hint engine for the next cell that can be filled in by logic, and displays the number 
+ * and the reasoning behind it if the player has enough coins.
  * If the player doesn't have enough coins, an error message is displayed.
  */
 private void useHelp() {
     // Select a cell for the hint
-    int row, col;
-    do {
-        row = (int) (Math.random() * thegame.getGameSize());
-        col = (int) (Math.random() * thegame.getGameSize());
-    } while (!thegame.getMoves()[row][col].getFillable() || !thegame.getIndividualMove(row, col).equals("-"));
+    Hint next = thegame.getHint();
+    if (next == null) {
+        JOptionPane.showMessageDialog(frame, "There are no empty cells left to hint.", "Hint", JOptionPane.INFORMATION_MESSAGE);
+        return;
+    }
+    int row = next.getRow();
+    int col = next.getCol();
 
     // Increment hint count and calculate the cost
     hintCounts[row][col]++;
@@ -466,15 +588,19 @@ private void useHelp() {
     if (coins >= hintCost) {
         int result = JOptionPane.showConfirmDialog(frame, "Use " + hintCost + " coins for a hint?", "Confirm Hint", JOptionPane.YES_NO_OPTION);
         if (result == JOptionPane.YES_OPTION) {
-            coins -= hintCost;
-            saveUserData();
-            updateCoinDisplay();
-
-            String[][] solution = readSolution(gameType);
-            String hint = solution[row][col];
-            gridButtons[row][col].setText(hint);
-            thegame.makeMove(Integer.toString(row), Integer.toString(col), hint); // Update game state
-            checkWin(); // Check if the game is won after using a hint
+            Sudoku game = thegame;
+            spendCoins(hintCost, () -> {
+                // The player may have moved on while the coins were being spent
+                if (game != thegame || thegame.getBoard().get(row, col) != Board.EMPTY || !thegame.isValidMove(row, col, next.getValue())) {
+                    earnCoins(hintCost);
+                    JOptionPane.showMessageDialog(frame, "The board changed before the hint arrived, so your " + hintCost + " coins were refunded.", "Hint", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                String hint = Integer.toString(next.getValue());
+                thegame.makeMove(Integer.toString(row), Integer.toString(col), hint); // Update game state; the board notifies this GUI, which repaints the button
+                JOptionPane.showMessageDialog(frame, next.getReason(), "Hint", JOptionPane.INFORMATION_MESSAGE);
+                checkWin(); // Check if the game is won after using a hint
+            });
         }
     } else {
         JOptionPane.showMessageDialog(frame, "Not enough coins for a hint.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -678,6 +804,17 @@ private void setRetroVintageTheme() {
     }
 }
 
+/**
+ * Repaints one grid button from the current state of its cell. Called by the repaint batcher on the event dispatch thread.
+ *
+ * @param index The row-major index of the cell.
+ */
+    private void paintCell(int index) {
+        int row = index / thegame.getGameSize();
+        int col = index % thegame.getGameSize();
+        updateButtonDisplay(row, col, thegame.getIndividualMove(row, col));
+    }
+
 /**
  * Updates the display of a button based on the state of a slot.
  *
@@ -715,21 +852,28 @@ private void setRetroVintageTheme() {
         }
     }
 
-// Observer update method
+// Board listener method
 /**
- * This method is called when an observed Slot object notifies its observers of a change.
- * It updates the display of the corresponding button in the Sudoku GUI grid based on the
- * state of the Slot.
+ * This method is called when a cell of the game board changes.
+ * It marks the corresponding button as changed; the repaint batcher then updates every button
+ * changed in the same frame in a single pass on the event dispatch thread.
  *
- * @param o   The Observable object (a Slot) that triggered the update.
- * @param arg An optional argument (not used in this implementation).
+ * @param event The cell that changed, with its old and new values.
  */
     @Override
-    public void update(Observable o, Object arg) {
-        if (o instanceof Slot) {// To check if the observed object is an instance of Slot
-            Slot slot = (Slot) o; // To cast the observed object to a Slot
-            updateButtonDisplay(slot.getRow(), slot.getCol(), slot.getState());
-        }
+    public void cellChanged(CellChanged event) {
+        repaints.markDirty(event.getRow() * thegame.getGameSize() + event.getCol());
+    }
+
+/**
+ * Called by the board when many cells change at once, such as when the game is cleared.
+ * The whole grid is repainted in one pass.
+ *
+ * @param event The board before and after the change.
+ */
+    @Override
+    public void boardReset(BoardReset event) {
+        repaints.markAll(event.getSize() * event.getSize());
     }
 
 /**
@@ -751,35 +895,75 @@ private class ThemeChangeListener implements ActionListener {
     }
 }
     
-    // Call this method to use a hint
+    // Call this method when the user spends coins
 /**
- * This method allows the user to use a hint by spending coins. If the user has enough coins,
- * the method deducts the hint cost, saves user data, provides a hint to the user (hint logic is
- * not implemented here), and updates the coin display. If there are not enough coins, it displays
- * an error message.
+ * Takes coins from the user's balance through the coin ledger, which checks the balance and takes
+ * the coins in one step, so coins can never be spent twice. The change waits for the disk on the
+ * coin ledger thread, never on the event thread. Once it is on disk, this mirrors the balance into the
+ * user's profile, updates the coin display and runs what the coins paid for, back on the event thread.
+ * If the user has too few coins, the change cannot be saved, or the ledger could not be opened, it
+ * displays an error message instead.
+ *
+ * @param amount The amount of coins to take from the user's balance.
+ * @param onSpent What the coins pay for, run on the event thread once they are spent.
  */
-    private void useHint() {
-        int hintCost = 50; // Cost for a hint
-        if (coins >= hintCost) {
-            coins -= hintCost;
-            saveUserData();
-            // Provide a hint to the user
-            updateCoinDisplay();
-        } else {
-            JOptionPane.showMessageDialog(null, "Not enough coins for a hint.", "Error", JOptionPane.ERROR_MESSAGE);
+    private void spendCoins(int amount, Runnable onSpent) {
+        if (ledger == null) {
+            JOptionPane.showMessageDialog(frame, "Coins cannot be spent, as the coin ledger could not be opened.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        CoinLedger spending = ledger;
+        String spender = nickname;
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return spending.debit(spender, amount);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, LEDGER_THREAD).whenComplete((spent, failure) -> SwingUtilities.invokeLater(() -> {
+            if (failure != null) {
+                JOptionPane.showMessageDialog(frame, "Error saving coins.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (!spent) {
+                JOptionPane.showMessageDialog(frame, "Not enough coins for a hint.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                coins = spending.getBalance(nickname);
+                saveUserData();
+                updateCoinDisplay();
+                onSpent.run();
+            }
+        }));
     }
     
     // Call this method when the user earns coins
 /**
- * We will call this method when the user earns coins to increase their coin balance.
+ * We will call this method when the user earns coins to increase their coin balance. The coins
+ * are added through the coin ledger on the coin ledger thread, so the event thread never waits for
+ * the disk, and mirrored into the user's profile and the coin display once on disk. No coins are
+ * earned while the ledger could not be opened, as the user was told when it failed.
  *
  * @param amount The amount of coins to add to the user's balance.
  */
     private void earnCoins(int amount) {
-        coins += amount;
-        saveUserData();
-        updateCoinDisplay();
+        if (ledger == null) {
+            return;
+        }
+        CoinLedger earning = ledger;
+        String earner = nickname;
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return earning.credit(earner, amount);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, LEDGER_THREAD).whenComplete((balance, failure) -> SwingUtilities.invokeLater(() -> {
+            if (failure != null) {
+                JOptionPane.showMessageDialog(frame, "Error saving coins.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            coins = earning.getBalance(nickname);
+            saveUserData();
+            updateCoinDisplay();
+        }));
     }
     
     // Update the coin display label
@@ -812,7 +996,7 @@ private class ThemeChangeListener implements ActionListener {
 /**
 * Handles the actionPerformed event when a cell is clicked.
 * Prompts the user to enter a number for the selected cell.
-* Validates the input number and updates the game state.
+* Validates the input number against the range and the Sudoku rules and updates the game state.
 * @param e The ActionEvent representing the cell click event.
 */
  @Override
@@ -822,16 +1006,21 @@ public void actionPerformed(ActionEvent e) {
         return;
     }
 
-    int maxNumber = gameType.equals("4x4") ? 4 : 9;
+    int maxNumber = thegame.getGameSize();
     String number = JOptionPane.showInputDialog(frame, "Enter number (1-" + maxNumber + "):");
 
     if (number != null && !number.isEmpty() && isNumberValid(number, maxNumber)) {
-        String prevState = thegame.getIndividualMove(row, col);
+        // Sudoku rules validation, shared with the text UI (given cells are reported below instead)
+        if (thegame.getMoves()[row][col].getFillable() && !thegame.isValidMove(row, col, Integer.parseInt(number))) {
+            JOptionPane.showMessageDialog(frame, "That move is not valid according to Sudoku rules.");
+            return;
+        }
+        Board board = thegame.getBoard();
+        int prevValue = board.get(row, col);
         boolean moveMade = thegame.makeMove(Integer.toString(row), Integer.toString(col), number);
 
         if (moveMade) {
-            moveHistory.push(new Move(row, col, prevState));
-            updateButtonDisplay(row, col, thegame.getIndividualMove(row, col));
+            history.record(board.index(row, col), prevValue, board.get(row, col)); // The board notifies this GUI, which repaints the button
             checkWin(); // Checks if the game is won after each move
         } else {
             JOptionPane.showMessageDialog(frame, "Cannot change this number.");
@@ -859,30 +1048,148 @@ private boolean isNumberValid(String number, int maxNumber) {
 }
 
 /**
- * Saves the current game state to a text file.
+ * Saves the current game state to a move journal. The file is written on the autosave thread,
+ * so the grid stays responsive, and a message is shown once the save is done.
  */
     private void saveGame() {
     // Creates a file chooser dialog for the user to choose where to save the game.
     JFileChooser fileChooser = new JFileChooser();
     fileChooser.setDialogTitle("Save Game");
-    fileChooser.setSelectedFile(new File("sudoku_save.txt"));
+    fileChooser.setSelectedFile(new File("sudoku_save.journal"));
         // Shows the save dialog and get the user's selection.
     int userSelection = fileChooser.showSaveDialog(frame);
         // Checks if the user approved the save dialog.
     if (userSelection == JFileChooser.APPROVE_OPTION) {
                 // Get the selected file to save the game data.
         File fileToSave = fileChooser.getSelectedFile();
-        try (FileWriter writer = new FileWriter(fileToSave)) {
-            for (int i = 0; i < thegame.getGameSize(); i++) {
-                for (int j = 0; j < thegame.getGameSize(); j++) {
-                    writer.write(thegame.getIndividualMove(i, j) + " ");
-                }
-                writer.write("\n"); // Start a new line for the next row of cells.
+        // Saving again to the same file only appends the moves made since the last save
+        if (journal == null || !journal.getFile().equals(fileToSave.toPath())) {
+            stopJournal();
+            journal = new MoveJournal(fileToSave.toPath(), thegame.getBoard());
+        }
+        Autosaver.runInBackground(journal::save).whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+            if (error == null) {
+                JOptionPane.showMessageDialog(frame, "Game saved successfully to " + fileToSave.getAbsolutePath());
+            } else {
+                JOptionPane.showMessageDialog(frame, "An error occurred while saving the game.", "Save Error", JOptionPane.ERROR_MESSAGE);
+                error.printStackTrace();
+            }
+        }));
+    }
+}
+
+/**
+ * Get the file the player's current game is autosaved to.
+ */
+private Path autosaveFile() {
+    return Paths.get(nickname + "_autosave.journal");
+}
+
+/**
+ * Starts autosaving the current game, after a last save of the game it replaces.
+ */
+private void startAutosave() {
+    if (autosaver != null) {
+        autosaver.close();
+    }
+    autosaver = new Autosaver(autosaveFile(), thegame.getBoard());
+}
+
+/**
+ * Offers to restore the player's autosaved game, if the program stopped in the middle of one.
+ * The puzzle is rebuilt from the autosave, so a game dealt from a generated puzzle is restored too.
+ * A game autosaved on a grid of another size cannot be restored onto this one and is left alone.
+ */
+private void restoreAutosave() {
+    Path file = autosaveFile();
+    if (!Files.exists(file)) {
+        return;
+    }
+    int choice = JOptionPane.showConfirmDialog(null, "Continue the game you were playing last time?", "Restore Game", JOptionPane.YES_NO_OPTION);
+    if (choice != JOptionPane.YES_OPTION) {
+        return;
+    }
+    try {
+        Sudoku saved = dealSavedPuzzle(file);
+        thegame = saved;
+        thegame.addBoardListener(this); // Subscribe this GUI to the restored board
+        recorder = new MoveRecorder(thegame.getBoard()); // The restored moves are recorded too, so the win can be replayed
+        MoveJournal.load(file, thegame.getBoard()).detach();
+    } catch (IllegalArgumentException e) {
+        JOptionPane.showMessageDialog(null, "The autosaved game cannot be restored: " + e.getMessage());
+    } catch (IOException e) {
+        e.printStackTrace();
+    }
+}
+
+/**
+ * Shows whether the latest moves have been autosaved.
+ */
+private void updateSaveStatus() {
+    if (autosaver.getLastError() != null) {
+        saveStatusLabel.setText("Autosave failed");
+    } else if (autosaver.getSavedSequence() == autosaver.getSequence()) {
+        saveStatusLabel.setText("All changes saved");
+    } else {
+        saveStatusLabel.setText("Saving...");
+    }
+}
+
+/**
+ * Saves any moves not yet autosaved, flushes the players' profiles, releases the coin ledger and exits the program.
+ */
+private void quit() {
+    autosaver.close().join(); // Wait for the last save, so no move is lost
+    closeProfiles();
+    System.exit(0);
+}
+
+/**
+ * Deals the puzzle a saved game was played on, read from its journal, or the level's puzzle
+ * for a journal saved before the givens were kept.
+ *
+ * @param file The journal of the saved game.
+ * @return A fresh game of the saved puzzle, ready for the journal to be loaded onto.
+ * @throws IllegalArgumentException if the file is not a journal, or its board does not fit this grid.
+ */
+private Sudoku dealSavedPuzzle(Path file) throws IOException {
+    Puzzle saved = MoveJournal.readPuzzle(file);
+    if (saved == null) {
+        return new Sudoku(gameType);
+    }
+    int size = Sudoku.sizeOf(gameType);
+    if (saved.getSize() != size) {
+        throw new IllegalArgumentException("it was played on a " + saved.getSize() + "x" + saved.getSize()
+                + " grid, not a " + size + "x" + size + " one.");
+    }
+    return new Sudoku(saved);
+}
+
+/**
+ * Stops journaling the current game, if it was saved.
+ */
+private void stopJournal() {
+    if (journal != null) {
+        journal.detach();
+        journal = null;
+    }
+}
+
+/**
+ * Reads a game saved as text by earlier versions, one row per line with the cells separated by spaces,
+ * and replays it as moves on a freshly dealt game.
+ *
+ * @param scanner The saved game.
+ * @param game The game the saved moves are made on.
+ */
+static void readGame(Scanner scanner, Sudoku game) {
+    for (int i = 0; i < game.getGameSize(); i++) {
+        String[] line = scanner.nextLine().trim().split(" ");
+        for (int j = 0; j < game.getGameSize(); j++) {
+            // Update the Sudoku object state
+            if (!line[j].equals("-")) {
+                game.makeMove(Integer.toString(i), Integer.toString(j), line[j]);
             }
-            JOptionPane.showMessageDialog(frame, "Game saved successfully to " + fileToSave.getAbsolutePath());
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(frame, "An error occurred while saving the game.", "Save Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
         }
     }
 }
@@ -894,19 +1201,14 @@ private void startGame() {
         // Set the game as started
     gameStarted = true;
         // Initialize the grid buttons with the actual slot states
-    for (int row = 0; row < thegame.getGameSize(); row++) {
-        for (int col = 0; col < thegame.getGameSize(); col++) {
-            // Update each grid button with the state of the corresponding slot
-            updateButtonDisplay(row, col, thegame.getIndividualMove(row, col));
-        }
-    }
+    refreshGrid();
 
     // Ensure grid panel is updated and visible
     gridPanel.revalidate();
-    gridPanel.repaint();
 
     // Start the timer
     startTime = LocalTime.now();
+    recorder.markStart(); // Restored cells still count toward the minimum solving time
     gameTimer = new Timer(100, e -> updateTimer());
     gameTimer.start();
     btnStartGame.setEnabled(false); // Disable start button after game starts
@@ -925,11 +1227,13 @@ private void startGame() {
         long seconds = duration.getSeconds() % 60;
             // Update the timer label with the formatted time
         timerLabel.setText(String.format("Timer: %02d:%02d", minutes, seconds));
+        updateSaveStatus(); // The timer ticks often enough to show the autosave status too
     }
     
 /**
  * Checks if the player has won the Sudoku game and takes appropriate actions if they have.
- * If the player has won, it stops the game timer, displays a congratulatory message with
+ * If the player has won, it stops the game timer and has the {@link SolutionVerifier} replay the recorded
+ * moves against the level's givens. Only a verified win displays a congratulatory message with
  * the time taken to solve the puzzle, updates the player's leaderboard entry, saves user data,
  * saves the updated leaderboard, awards 50 coins for winning, re-enables the start button,
  * updates the leaderboard display, and resets the game for a new round.
@@ -940,68 +1244,80 @@ private void checkWin() {
         gameTimer.stop();// Stop the game timer
                 // Calculate the time taken to solve the puzzle
         Duration timeTaken = Duration.between(startTime, LocalTime.now());
+                // Replay the win before trusting it with the leaderboard
+        Submission submission = new Submission(nickname, thegame.getBoard().toArray(), recorder.getMoves(), recorder.getStartMillis(), timeTaken);
+        SolutionVerifier.Verdict verdict = SolutionVerifier.getDefault().verify(thegame.getTemplate(), submission);
+        if (!verdict.isAccepted()) {
+            JOptionPane.showMessageDialog(frame, "Your win could not be verified: " + verdict.getMessage(), "Win Not Verified", JOptionPane.WARNING_MESSAGE);
+            btnStartGame.setEnabled(true);
+            return;
+        }
                 // Create a message to congratulate the player and display the time taken
         String timeMessage = String.format("Congratulations, you solved the puzzle in %d minutes and %d seconds! \n You earned 50 COINS!!! Hurrayyyyyyyy",
                                            timeTaken.toMinutes(), timeTaken.getSeconds() % 60);
         JOptionPane.showMessageDialog(frame, timeMessage);
-        // Update the leaderboard entry for the player
-        LeaderboardEntry entry = leaderboard.get(nickname);
-        if (entry == null) {
-            entry = new LeaderboardEntry(1, timeTaken);
-        } else {
-            entry.setWins(entry.getWins() + 1);
-            entry.setBestTime(timeTaken);
-        }
-        leaderboard.put(nickname, entry);
-        saveUserData(); // Save the user data, including leaderboard info
-        saveLeaderboard();
-        earnCoins(50); // Award 50 coins for winning
+        autosaver.discard(); // A finished game has nothing left to restore
+        autosaver = null;
         btnStartGame.setEnabled(true); // Re-enable start button
-                updateLeaderboard(timeTaken);
+        updateLeaderboard(timeTaken); // Update the leaderboard entry for the player once
         resetGame();
 
     }
 }
     
 /**
- * Updates the player's leaderboard entry, saves user data, saves the updated leaderboard,
- * and awards 50 coins for winning the game. This method is called when the player wins
- * the Sudoku game.
+ * Records the win on the player's leaderboard entry, saves user data, and awards 50 coins for
+ * winning the game. The leaderboard appends the win to its file rather than rewriting it.
+ * This method is called when the player wins the Sudoku game.
  *
  * @param timeTaken The duration of time it took the player to solve the puzzle.
  */
 private void updateLeaderboard(Duration timeTaken) {
-        // Get the current leaderboard entry for the player, or create a new one if it doesn't exist
-    LeaderboardEntry entry = leaderboard.get(nickname);
-    if (entry == null) {
-        entry = new LeaderboardEntry(1, timeTaken);
-    } else {
-        entry.setWins(entry.getWins() + 1);
-                // Update the best time if the current time is better (lower) than the previous best
-        if (entry.getBestTime() == null || timeTaken.compareTo(entry.getBestTime()) < 0) {
-            entry.setBestTime(timeTaken);
-        }
+    try {
+            // Count the win, and keep the time if it beats the player's best
+        leaderboard.recordWin(nickname, timeTaken);
+    } catch (IOException e) {
+        // Print the stack trace if the win cannot be written, but continue execution
+        e.printStackTrace();
     }
-    leaderboard.put(nickname, entry);
     saveUserData(); // Save the user data, including leaderboard info
-    saveLeaderboard();
     earnCoins(50); // Award 50 coins for winning
 }
 
 /**
- * Resets the Sudoku game to its initial state. This includes reinitializing the game,
+ * Picks the difficulty of the next puzzle from the grade the {@link DifficultyRater} gave the current one:
+ * one step harder, up to hard, so a player who keeps winning moves up the grades.
+ *
+ * @return The difficulty to deal the next puzzle at.
+ */
+private PuzzleGenerator.Difficulty nextDifficulty() {
+    DifficultyRater.Rating rating = thegame.getRating();
+    if (rating == null) {
+        return NEW_GAME_DIFFICULTY;
+    }
+    PuzzleGenerator.Difficulty[] grades = PuzzleGenerator.Difficulty.values();
+    return grades[Math.min(grades.length - 1, rating.getDifficulty().ordinal() + 1)];
+}
+
+/**
+ * Resets the Sudoku game with a fresh puzzle taken from the puzzle pool, or with the level file's puzzle
+ * while the pool has none ready, so the event thread never waits for one to be generated. This includes reinitializing the game,
  * adding the GUI as an observer to all slots, clearing move and redo history, enabling
  * the "Start Game" button, hiding the "Help" button, resetting the timer label, and
  * displaying a message to inform the player that the game has been reset.
  */
 private void resetGame() {
-    thegame = new Sudoku(gameType); // Reinitialize the game
-    thegame.addObserverToSlots(this); // Re-add this GUI as an observer to all Slots
+    stopJournal(); // The next save of the fresh puzzle starts a new journal
+    Puzzle fresh = PuzzlePool.getDefault().poll(thegame.getGameSize(), nextDifficulty());
+    thegame = fresh != null ? new Sudoku(fresh) : new Sudoku(gameType); // Deal a fresh, pre-generated puzzle if one is ready
+    thegame.addBoardListener(this); // Subscribe this GUI to the new board
+    recorder = new MoveRecorder(thegame.getBoard()); // Record the moves of the new game
+    startAutosave();
+    history = new MoveHistory(thegame.getBoard()); // Start a fresh undo and redo timeline
+    PuzzlePool.getDefault().prepare(thegame.getGameSize(), nextDifficulty()); // Have the game after this one ready too
     refreshGrid(); // Refresh the grid to initial state
+    updateTitle(); // The fresh puzzle may be easier or harder than the last
 
-        // Clear move history and redo history
-    moveHistory.clear();
-    redoHistory.clear();
 
     btnStartGame.setEnabled(true);
     btnHelp.setVisible(false);
@@ -1011,65 +1327,30 @@ private void resetGame() {
 }
 
 /**
- * Loads the leaderboard data from a file and populates the leaderboard map with
- * user entries. The data is expected to be in txt format with each line containing
- * the user's nickname, number of wins, and best time in seconds (or -1 if no best time).
- * If the file is not found or an error occurs while reading, this method prints the
- * stack trace but does not throw an exception.
+ * Opens the leaderboard file, in which each line holds a user's nickname, number of wins, and best
+ * time in seconds (or -1 if no best time), later lines replacing earlier ones. If the file cannot be
+ * read, this method prints the stack trace and keeps the leaderboard in memory only, so the file is
+ * not overwritten.
  */
     private void loadLeaderboard() {
-    try (Scanner scanner = new Scanner(new File("leaderboard.txt"))) {
-        while (scanner.hasNextLine()) {
-                        // Parse each line of the leaderboard data
-            String[] data = scanner.nextLine().split(",");
-            String user = data[0];
-            int wins = Integer.parseInt(data[1]);
-            Duration bestTime = data[2].equals("-1") ? null : Duration.ofSeconds(Long.parseLong(data[2]));
-                        // Create a LeaderboardEntry for the user and add it to the leaderboard map
-            leaderboard.put(user, new LeaderboardEntry(wins, bestTime));
-        }
-    } catch (FileNotFoundException e) {
-            // Print the stack trace if the file is not found, but continue execution
-        e.printStackTrace();
-    }
-}
-
-/**
- * Saves the current leaderboard data to a file. Each entry in the leaderboard
- * map is written as a line in the file, with the user's nickname, number of wins, and best
- * time in seconds . If an error occurs while writing the file,
- * this method prints the stack trace but does not throw an exception.
- */
-    private void saveLeaderboard() {
-    try (PrintWriter out = new PrintWriter(new File("leaderboard.txt"))) {
-        // Iterate over the leaderboard map and write each entry to the file
-        for (Map.Entry<String, LeaderboardEntry> entry : leaderboard.entrySet()) {
-            long bestTimeInSeconds = entry.getValue().getBestTime() != null ? entry.getValue().getBestTime().getSeconds() : -1;
-            out.printf("%s,%d,%d\n", entry.getKey(), entry.getValue().getWins(), bestTimeInSeconds);
-        }
+    try {
+        leaderboard = LeaderboardStore.open(Paths.get("leaderboard.txt"));
     } catch (IOException e) {
-        // Print the stack trace if an error occurs while writing the file, but continue execution
+            // Print the stack trace if the file cannot be read, but continue execution
         e.printStackTrace();
     }
 }
 
 /**
- * This is to Undo the last move made by the player. If there are moves in the move history stack,
- * the last move is popped from the stack, and the game state is reverted to the previous
- * state. The undone move is pushed to the redo history stack. The corresponding button on
- * the grid is updated to reflect the previous state. If no moves are available to undo,
- * a message is displayed to the user indicating that there are no moves to undo.
+ * This is to Undo the last move made by the player. If there are moves in the move history,
+ * the last move is reverted to the previous state and stays in the timeline to be redone.
+ * The corresponding button on the grid is updated to reflect the previous state. If no moves
+ * are available to undo, a message is displayed to the user indicating that there are no moves to undo.
  */
 private void undoMove() {
-        if (!moveHistory.isEmpty()) {
-            // Pop the last move from the move history
-            Move lastMove = moveHistory.pop();
-           // Push the undone move to the redo history
-            redoHistory.push(new Move(lastMove.row, lastMove.col, thegame.getIndividualMove(lastMove.row, lastMove.col)));
-            // Revert the game state to the previous state   
-            thegame.makeMove(Integer.toString(lastMove.row), Integer.toString(lastMove.col), lastMove.prevValue);
-            // Update the button display to reflect the previous state
-            updateButtonDisplay(lastMove.row, lastMove.col, thegame.getIndividualMove(lastMove.row, lastMove.col));
+        // Revert the last move, keeping it in the timeline to redo
+        // The board notifies this GUI, which repaints the button
+        if (history.undo()) {
             // Display a message indicating that the move has been undone
             JOptionPane.showMessageDialog(frame, "Move undone.");
         } else {
@@ -1079,22 +1360,16 @@ private void undoMove() {
     }
 
 /**
- * It will redo the last undone move made by the player. If there are moves in the redo history stack,
- * the last undone move is popped from the stack, and the game state is reverted to the state
- * before the move was undone. The redone move is pushed back to the move history stack. The
- * corresponding button on the grid is updated to reflect the redone state. If no moves are
- * available to redo, a message is displayed to the user indicating that there are no moves to redo.
+ * It will redo the last undone move made by the player. If there are undone moves in the move history,
+ * the game state is returned to the state before the move was undone. Making a new move after undoing
+ * drops the moves that could have been redone. The corresponding button on the grid is updated to
+ * reflect the redone state. If no moves are available to redo, a message is displayed to the user
+ * indicating that there are no moves to redo.
  */
 private void redoMove() {
-        if (!redoHistory.isEmpty()) {
-             // Pop the last undone move from the redo history
-            Move lastMove = redoHistory.pop();
-            // Push the redone move to the move history
-            moveHistory.push(new Move(lastMove.row, lastMove.col, thegame.getIndividualMove(lastMove.row, lastMove.col)));
-            // Revert the game state to the state before the move was undone
-            thegame.makeMove(Integer.toString(lastMove.row), Integer.toString(lastMove.col), lastMove.prevValue);
-            // Update the button display to reflect the redone state
-            updateButtonDisplay(lastMove.row, lastMove.col, thegame.getIndividualMove(lastMove.row, lastMove.col));
+        // Make the last undone move again
+        // The board notifies this GUI, which repaints the button
+        if (history.redo()) {
             // Display a message indicating that the move has been redone
             JOptionPane.showMessageDialog(frame, "Move redone.");
         } else {
@@ -1106,24 +1381,16 @@ private void redoMove() {
 /**
  * Clears the current game, resetting only the fillable cells to their initial state. This method
  * sets the game state to a non-started state, reverting fillable cells to empty ("-"). The grid
- * buttons are updated to reflect this change. The move history and redo history stacks are cleared.
+ * buttons are repainted in one pass once every cell has been reset. The move history is cleared.
  * If a game timer is active, it is stopped and the timer label is reset to "Timer: 00:00". Finally,
  * the 'Start Game' button is re-enabled, allowing the player to start a new game.
  */
 private void clearGame() {
-    // Reset only the fillable cells to their initial state
+    // Reset only the fillable cells to their initial state, in one bulk change that repaints the grid once
     gameStarted = false;
-    for (int row = 0; row < thegame.getGameSize(); row++) {
-        for (int col = 0; col < thegame.getGameSize(); col++) {
-            if (thegame.getMoves()[row][col].getFillable()) {
-                thegame.makeMove(Integer.toString(row), Integer.toString(col), "-");
-                updateButtonDisplay(row, col, "-");
-            }
-        }
-    }
-    // Clear history stacks
-    moveHistory.clear();
-    redoHistory.clear();
+    thegame.reset();
+    // Start the undo and redo timeline again from the cleared board
+    history.clear();
     // Stop the timer and reset the timer label
     if (gameTimer != null) {
         gameTimer.stop();
@@ -1156,26 +1423,38 @@ private void loadGame() {
     int userSelection = fileChooser.showOpenDialog(frame);
     if (userSelection == JFileChooser.APPROVE_OPTION) {
         File fileToLoad = fileChooser.getSelectedFile();
-        try (Scanner fileScanner = new Scanner(fileToLoad)) {
-            // Reset the game to the initial state
-            thegame = new Sudoku(gameType); 
-            thegame.addObserverToSlots(this); // Re-add observer
-
-            // Load the game state from the file
-            for (int i = 0; i < thegame.getGameSize(); i++) {
-                String[] line = fileScanner.nextLine().trim().split(" ");
-                for (int j = 0; j < thegame.getGameSize(); j++) {
-                    // Update the Sudoku object state
-                    if (!line[j].equals("-")) {
-                        thegame.makeMove(Integer.toString(i), Integer.toString(j), line[j]);
-                    }
+        try {
+            // Deal the saved puzzle, which may have been generated, or the level's puzzle for a text save
+            Path path = fileToLoad.toPath();
+            boolean isJournal = MoveJournal.isJournal(path);
+            Sudoku loaded = isJournal ? dealSavedPuzzle(path) : new Sudoku(gameType);
+            stopJournal();
+            thegame = loaded;
+            thegame.addBoardListener(this); // Subscribe to the new board
+            recorder = new MoveRecorder(thegame.getBoard()); // The loaded moves are recorded too, so the win can be replayed
+            startAutosave();
+
+            // Load the game state from the file, and keep saving to it
+            if (isJournal) {
+                journal = MoveJournal.load(path, thegame.getBoard());
+            } else {
+                try (Scanner fileScanner = new Scanner(fileToLoad)) {
+                    readGame(fileScanner, thegame); // A text save from an earlier version
                 }
             }
+            history = new MoveHistory(thegame.getBoard()); // The loaded game starts a fresh undo and redo timeline
+            if (gameStarted) {
+                // The timer starts again with the loaded game, whose restored cells count toward the minimum solving time
+                startTime = LocalTime.now();
+                recorder.markStart();
+            }
             // Refresh the GUI to reflect the loaded game
             refreshGrid(); 
             JOptionPane.showMessageDialog(frame, "Game loaded successfully from " + fileToLoad.getAbsolutePath());
-        } catch (FileNotFoundException e) {
+        } catch (FileNotFoundException | NoSuchFileException e) {
             JOptionPane.showMessageDialog(frame, "File not found.", "Load Error", JOptionPane.ERROR_MESSAGE);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(frame, "The saved game cannot be loaded: " + e.getMessage(), "Load Error", JOptionPane.ERROR_MESSAGE);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(frame, "An error occurred while loading the game.", "Load Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
@@ -1185,16 +1464,11 @@ private void loadGame() {
 
 /**
  * Refreshes the Sudoku grid in the GUI to reflect the current state of the game.
- * This method updates the display of each cell in the grid based on the values and fillable status
- * of the corresponding cells in the Sudoku game object.
+ * Every cell is marked as changed, so the whole grid is repainted in a single pass on the
+ * event dispatch thread, together with any slot changes made in the same frame.
  */
 private void refreshGrid() {
-    for (int row = 0; row < thegame.getGameSize(); row++) {
-        for (int col = 0; col < thegame.getGameSize(); col++) {
-            // Update the GUI to reflect the current state of each cell
-            updateButtonDisplay(row, col, thegame.getIndividualMove(row, col));
-        }
-    }
+    repaints.markAll(thegame.getGameSize() * thegame.getGameSize());
 }
 
     public static void main(String[] args) {
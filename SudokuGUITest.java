@@ -2,6 +2,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.Scanner;
 
 public class SudokuGUITest {
 
@@ -23,6 +24,26 @@ public class SudokuGUITest {
         // Assert that the game has started based on changes that the startGame method would make.
     }
 
+    @Test
+    public void testLoadTextSave() {
+        Sudoku game = new Sudoku("4x4");
+        int cell = 0;
+        while (!game.getMoves()[cell / 4][cell % 4].getFillable()) {
+            cell++;
+        }
+        // A save written by earlier versions, one row per line
+        StringBuilder saved = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                saved.append(i * 4 + j == cell ? "3" : game.getIndividualMove(i, j)).append(' ');
+            }
+            saved.append('\n');
+        }
+
+        SudokuGUI.readGame(new Scanner(saved.toString()), game);
+        assertEquals("3", game.getIndividualMove(cell / 4, cell % 4));
+    }
+
     // More test methods can be added here if there are non-GUI methods or if the GUI class can be stubbed.
 
     @AfterEach
@@ -2,7 +2,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.Observer;
+import java.util.ArrayList;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SudokuTest {
@@ -15,20 +16,27 @@ public class SudokuTest {
     }
 
     @Test
-    void testAddObserverToSlots() {
-        // Create a mock Observer
-        Observer mockObserver = new MockObserver();
+    void testAddBoardListener() {
+        List<CellChanged> events = new ArrayList<>();
 
-        // Add the observer to slots
-        sudoku.addObserverToSlots(mockObserver);
+        // Subscribe once for the whole board
+        sudoku.addBoardListener(events::add);
+        assertEquals(1, sudoku.getBoard().getEvents().getListenerCount());
 
-        // Assert that the observer was added to all slots
+        // Any fillable slot reports its change through the board
         Slot[][] slots = sudoku.getMoves();
         for (Slot[] row : slots) {
             for (Slot slot : row) {
-                assertTrue(slot.countObservers() > 0);
+                if (slot.getFillable()) {
+                    slot.setState("1");
+                    CellChanged last = events.get(events.size() - 1);
+                    assertEquals(slot.getRow(), last.getRow());
+                    assertEquals(slot.getCol(), last.getCol());
+                    assertEquals(1, last.getNewValue());
+                }
             }
         }
+        assertFalse(events.isEmpty());
     }
 
     @Test
@@ -71,17 +79,55 @@ public void testSudokuInitialization() {
 
 @Test
 public void testCheckWin() {
-    Sudoku sudoku = new Sudoku("9x9");
-    // Set up the board in a winning state
-    // Assert that checkWin returns true
-    // Also, test for non-winning states
+    Sudoku sudoku = new Sudoku("4x4");
+    // A freshly loaded board is not a winning state
+    assertFalse(sudoku.checkWin());
+    // Set up the board in a winning state from the solution file
+    String[] solution = {"4312", "1243", "2134", "3421"};
+    for (int row = 0; row < 4; row++) {
+        for (int col = 0; col < 4; col++) {
+            sudoku.makeMove(Integer.toString(row), Integer.toString(col), solution[row].substring(col, col + 1));
+        }
+    }
+    assertTrue(sudoku.checkWin());
+    // Changing one cell makes it a non-winning state again
+    sudoku.makeMove("0", "1", "-");
+    assertFalse(sudoku.checkWin());
 }
 
-    // MockObserver class for testing addObserverToSlots
-    private static class MockObserver implements Observer {
+@Test
+public void testResetKeepsTheGameAndItsListeners() {
+    Sudoku sudoku = new Sudoku("4x4");
+    byte[] dealt = sudoku.getBoard().toArray();
+    Slot[][] slots = sudoku.getMoves();
+    List<BoardReset> resets = new ArrayList<>();
+    sudoku.addBoardListener(new BoardListener() {
+        @Override
+        public void cellChanged(CellChanged event) {
+        }
+
         @Override
-        public void update(java.util.Observable o, Object arg) {
-            // Do nothing for mock observer
+        public void boardReset(BoardReset event) {
+            resets.add(event);
+        }
+    });
+    String[] solution = {"4312", "1243", "2134", "3421"};
+    for (int row = 0; row < 4; row++) {
+        for (int col = 0; col < 4; col++) {
+            sudoku.makeMove(Integer.toString(row), Integer.toString(col), solution[row].substring(col, col + 1));
         }
     }
+    assertTrue(sudoku.checkWin());
+
+    sudoku.reset();
+    // Back to the dealt board, with the same slots and one event for the listener
+    assertArrayEquals(dealt, sudoku.getBoard().toArray());
+    assertSame(slots, sudoku.getMoves());
+    assertFalse(sudoku.checkWin());
+    assertEquals(1, resets.size());
+    assertEquals(1, sudoku.getBoard().getEvents().getListenerCount());
+    // The game can be played again from the start
+    sudoku.makeMove("0", "1", solution[0].substring(1, 2));
+    assertEquals(solution[0].substring(1, 2), sudoku.getIndividualMove(0, 1));
+}
 }
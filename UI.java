@@ -1,14 +1,11 @@
 import java.util.Scanner;  // Import the Scanner class for reading input from the user.
-import java.io.FileWriter;// Import the FileWriter class for writing to files.
 import java.io.IOException; // Import the IOException class for handling input/output exceptions.
 import java.io.File;  // Import the File class for working with files and directories.
 import java.io.FileNotFoundException;// Import the FileNotFoundException class for handling file not found exceptions.
-import java.util.Stack; // Import the Stack class for working with stacks
-import java.io.PrintWriter; // Import the PrintWriter class for writing text to a file.
 import java.time.LocalTime;// Import the LocalTime class for working with time.
-import java.util.Map; // Import the Map interface for working with key-value mappings.
 import java.time.Duration;// Import the Duration class for working with time durations.
-import java.util.HashMap; // Import the HashMap class, which implements the Map interface, for key-value storage.
+import java.nio.file.NoSuchFileException; // Import the NoSuchFileException class for a saved game that is not found.
+import java.nio.file.Paths; // Import the Paths class for naming the save file.
 
 /**
  * This class provides a text based user interface for the player to interact with the game
@@ -19,33 +16,22 @@ public class UI {
     private Sudoku thegame;//this is the game model instance
     private String menuChoice;//this is the users choice from the menu
     private Scanner reader;//this scanner is used to read the terminal
-    private String gameType;// Stores the type of the Sudoku game 4x4 or 9x9
+    private String gameType;// Stores the type of the Sudoku game 4x4, 9x9 or 16x16
     private int coins;// Stores the player's current number of coins.
     private String nickname;// Stores the player's nickname.
     private LocalTime startTime; // Stores the start time of the game.
-    private Map<String, Duration> leaderboard = new HashMap<>(); // Keeps track of the leaderboard.
+    private LeaderboardStore leaderboard = new LeaderboardStore(); // Keeps track of the leaderboard, shared with the Sudoku GUI through its file.
+    private MoveJournal journal; // Saves the moves made since the last save, or null until the game is first saved.
+    private static final String SAVE_FILE = "sudoku_save.journal"; // The file games are saved to.
+    private static final String LEADERBOARD_FILE = "leaderboard.txt"; // The leaderboard file, shared with the Sudoku GUI.
+    private ProfileStore profiles = new ProfileStore(); // Every player's coins, kept in memory until the profile file is opened.
+    private CoinLedger ledger; // Every change to every player's coins, or null if the ledger file could not be opened.
+    private static final int NEW_USER_BONUS = 100; // The coins a new user starts with.
 
-    // Stack to keep the move history for undo functionality
-    private Stack<Move> moveHistory = new Stack<>();
-    private Stack<Move> redoHistory = new Stack<>();
+    // The undo and redo timeline of the current game
+    private MoveHistory history;
+    private MoveRecorder recorder; // Records every move of the current game, for the win to be verified.
 
-    // Inner class to hold the move details for undo functionality
-/**
- * Inner class to hold the details of a move for undo functionality.
- */
-    private class Move {
-        int row;
-        int col;
-        String prevValue;
-    
-        public Move(int row, int col, String prevValue) {
-            this.row = row;
-            this.col = col;
-            this.prevValue = prevValue;
-        }
-        
-    }
-    
 /**
  * Constructor for the UI class, providing a text-based user interface for the Sudoku game.
  * Initializes the game, handles user interactions, and manages game state.
@@ -54,14 +40,21 @@ public class UI {
         reader = new Scanner(System.in);// Initialize the scanner for user input
         this.gameType = selectGameType();// Select the game type 4*4 or 9*9
         thegame = new Sudoku(gameType); // Initialize the Sudoku game with the selected type
+        history = new MoveHistory(thegame.getBoard());
+        recorder = new MoveRecorder(thegame.getBoard());
         reader = new Scanner(System.in);// Re-initialize the scanner 
         
         // Display a welcome message and prompt for the player's nickname
         System.out.println("Hello welcome to SUDOKU,");
         System.out.print("Please enter your nickname: ");
         nickname = reader.nextLine().trim();
+        while (!ProfileStore.isValidNickname(nickname)) {
+            System.out.print("Please enter a nickname of 1 to " + ProfileStore.MAX_NICKNAME_BYTES + " characters: ");
+            nickname = reader.nextLine().trim();
+        }
 
         // Load or create user data, including coins and game progress
+        loadProfiles();
         loadOrCreateUser();
         loadLeaderboard();
         menuChoice="";
@@ -76,53 +69,110 @@ public class UI {
         if (thegame.checkWin()) {
             winningAnnouncement();
         }
+        closeProfiles();
+    }
+
+/**
+ * Opens the profile file and the coin ledger shared with the Sudoku GUI, which hold every player's coins.
+ * The GUI may have them open at the same time. If the profiles cannot be opened, they are kept in memory only for
+ * this session. If the ledger cannot be opened, coins can be neither spent nor earned this session, since the
+ * ledger is what keeps them from being spent twice.
+ */
+    private void loadProfiles() {
+        try {
+            profiles = ProfileStore.open(Paths.get(SudokuGUI.PROFILE_FILE));
+        } catch (IOException e) {
+            System.out.println("Error opening player profiles, your coins will not be saved: " + e.getMessage());
+        }
+        try {
+            ledger = CoinLedger.open(Paths.get(SudokuGUI.LEDGER_FILE));
+        } catch (IOException e) {
+            System.out.println("Error opening the coin ledger, coins cannot be spent or earned: " + e.getMessage());
+        }
+    }
+
+/**
+ * Flushes the profiles to disk and releases the profile and coin ledger files.
+ */
+    private void closeProfiles() {
+        try {
+            profiles.close();
+            if (ledger != null) {
+                ledger.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing player profiles.");
+            e.printStackTrace();
+        }
     }
 
 /**
  * Loads or creates user data, including coins and game progress, based on the user's nickname.
- * If a user file exists for the nickname, it loads the user's data. If not, it creates a new user file
- * with an initial coin bonus for new users.
+ * If the user has a profile, it loads the user's coins from it. If not, but a user file written by earlier
+ * versions exists, it moves the coins from that file into the profile store. The coin ledger holds the balance
+ * from then on: a user it has no account for yet opens one with the coins loaded here, or with a bonus for a new
+ * user. No bonus is granted while the ledger could not be opened.
  */
     private void loadOrCreateUser() {
-            // Create a file with the user's nickname as the filename
+        ProfileStore.Profile profile;
+        try {
+            profile = profiles.get(nickname);
+        } catch (IOException e) {
+            System.out.println("Error reading player profiles, your coins will not be saved: " + e.getMessage());
+            profiles = new ProfileStore();
+            profile = null;
+        }
+            // The file earlier versions kept the user's coins in, named after the user's nickname
         File userFile = new File(nickname + ".txt");
-        if (userFile.exists()) {
+        boolean newUser = profile == null && !userFile.exists();
+        if (profile != null) {
+            coins = profile.getCoins();
+        } else if (userFile.exists()) {
                     // If the user file exists, load the user's data from it
             try (Scanner fileScanner = new Scanner(userFile)) {
                 coins = fileScanner.nextInt();
-                System.out.println("Welcome back, " + nickname + "! You have " + coins + " coins.");
             } catch (FileNotFoundException e) {
                     // Handle the case where the file is not found
                 System.out.println("Error reading user file.");
                 e.printStackTrace();
             }
-        } else {
-            // If the user file doesn't exist, create a new user file with a coin bonus for new users
-            try (PrintWriter out = new PrintWriter(userFile)) {
-                coins = 100; // New user bonus
-                out.println(coins);
-                System.out.println("As a new user, you get a bonus of 100 coins!");
-            } catch (FileNotFoundException e) {
-                System.out.println("Error creating user file.");
-                e.printStackTrace();
+        }
+        if (ledger == null) {
+            return; // No bonus and no coins to spend until the ledger can be opened
+        }
+        try {
+                // The ledger's balance wins over the profile's, which only mirrors it. Whether the user has an
+                // account is decided with the ledger file locked, so the bonus is granted once across programs.
+            if (ledger.openAccount(nickname, newUser ? NEW_USER_BONUS : coins) && newUser) {
+                System.out.println("As a new user, you get a bonus of " + NEW_USER_BONUS + " coins!");
+            } else {
+                System.out.println("Welcome back, " + nickname + "! You have " + ledger.getBalance(nickname) + " coins.");
             }
+            coins = ledger.getBalance(nickname);
+        } catch (IOException e) {
+            System.out.println("Error saving coins.");
+            e.printStackTrace();
         }
+        saveCoins(); // Move the user into the profile store, or bring the profile up to date
     }
     
 /**
- * Prompts the user to select the game type (4x4 or 9x9) and returns the selected game type as a string.
+ * Prompts the user to select the game type (4x4, 9x9 or 16x16) and returns the selected game type as a string.
  *
- * @return The selected game type as a string ("4x4" or "9x9").
+ * @return The selected game type as a string ("4x4", "9x9" or "16x16").
  */
     private String selectGameType() {
     System.out.println("Select Game Type:");
     System.out.println("1: 4x4 Game");
     System.out.println("2: 9x9 Game");
-    System.out.print("Enter choice (1 or 2): ");
+    System.out.println("3: 16x16 Game");
+    System.out.print("Enter choice (1, 2 or 3): ");
     int choice = reader.nextInt();
     // Check the user's choice and return the corresponding game type
     if (choice==1) {
         return "4x4";
+    } else if (choice==3) {
+        return "16x16";
     } else {
         return "9x9";
     }
@@ -132,108 +182,90 @@ public class UI {
 /**
  * This method outputs a congratulatory announcement when the user has successfully solved the puzzle.
  * This method calculates the time taken to solve the puzzle and displays it in the announcement.
+ * The win reaches the shared leaderboard only once the {@link SolutionVerifier} has replayed the recorded
+ * moves against the level's givens, as in the Sudoku GUI.
  */
     private void winningAnnouncement() {
+        if (startTime == null) {
+            System.out.println("Congratulations, you solved the puzzle! Start the game next time to be timed on the leaderboard.");
+            return;
+        }
         // Calculate the time taken to solve the puzzle
         Duration timeTaken = Duration.between(startTime, LocalTime.now());
         System.out.println("Congratulations, you solved the puzzle in " + timeTaken.toMinutes() + " minutes.");
+        // Replay the win before trusting it with the leaderboard
+        Submission submission = new Submission(nickname, thegame.getBoard().toArray(), recorder.getMoves(), recorder.getStartMillis(), timeTaken);
+        SolutionVerifier.Verdict verdict = SolutionVerifier.getDefault().verify(thegame.getTemplate(), submission);
+        if (!verdict.isAccepted()) {
+            System.out.println("Your win could not be verified: " + verdict.getMessage());
+            return;
+        }
         updateLeaderboard(timeTaken);  // Update the leaderboard with the user's winning time
     }
 
 /**
- * Updates the leaderboard with the user's winning time and saves it to a file.
- * This method adds the user's nickname and their winning time to the leaderboard, then saves the updated leaderboard to a file.
+ * Updates the leaderboard with the user's winning time.
+ * This method counts the win for the user's nickname and keeps the time if it is their best, appending the update to the leaderboard file.
  * @param timeTaken The duration of time it took for the user to solve the puzzle and win the game.
  */
     private void updateLeaderboard(Duration timeTaken) {
-        // Add the user's nickname and winning time to the leaderboard
-        leaderboard.put(nickname, timeTaken);
-        saveLeaderboard();
-        System.out.println("Your time has been recorded in the leaderboard.");
+        try {
+            // Record the user's win and winning time in the leaderboard
+            leaderboard.recordWin(nickname, timeTaken);
+            System.out.println("Your time has been recorded in the leaderboard.");
+            System.out.println("Rank by best time: " + leaderboard.rankByBestTime(nickname) + ", rank by wins: " + leaderboard.rankByWins(nickname));
+        } catch (IOException e) {
+            System.out.println("Error saving the leaderboard: " + e.getMessage());
+        }
     }
     
 /**
- * Loads the leaderboard data.
- * Note: The logic for loading the leaderboard has been updated in the Sudoku GUI file.
+ * Loads the leaderboard data from the leaderboard file shared with the Sudoku GUI.
+ * If the file cannot be read, the leaderboard is kept in memory only, so the file is not overwritten.
  */
     private void loadLeaderboard() {
-        // Logic to load leaderboard has been updated in the sudoku GUI file
-    }
-    
-/**
- * Saves the leaderboard data.
- * Note: The logic for saving the leaderboard has been updated in the Sudoku GUI file.
- */
-    private void saveLeaderboard() {
-        // Logic to save leaderboard has been updated in the sudoku GUI file
+        try {
+            leaderboard = LeaderboardStore.open(Paths.get(LEADERBOARD_FILE));
+        } catch (IOException e) {
+            System.out.println("Error loading the leaderboard: " + e.getMessage());
+        }
     }
     
 /**
  * Displays the current state of the Sudoku game to the user.
  * This method prints the game grid to the console, showing the numbers in each cell and separating rows and columns with appropriate formatting.
- * Depending on the game size (4x4 or 9x9), the grid layout and formatting will differ.
+ * Boxes are separated by "|" and "-" lines; games larger than 9x9 use two characters per cell so numbers above 9 line up.
  */
     public void displayGame() {
-    // Check the game size (4x4 or 9x9) to determine the grid layout
-        if (thegame.getGameSize() == 9) {
-                    // Display column numbers for a 9x9 game
-            System.out.println("Col   0 1 2 3 4 5 6 7 8");
-            System.out.println("      - - - - - - - - -");
-        } else {
-                    // Display column numbers for a 4x4 game
-            System.out.println("Col   0 1 2 3 ");
-            System.out.println("      - - - - ");
+        int size = thegame.getGameSize();
+        int boxSize = thegame.getBoard().getBoxSize();
+        int width = size > 9 ? 2 : 1; // Characters needed for the largest number
+        // Display the column numbers and the top border
+        String margin = String.format("%" + (5 + width) + "s", ""); // Lines up with the "Row n|" labels
+        StringBuilder header = new StringBuilder("Col" + margin.substring(3));
+        StringBuilder border = new StringBuilder(margin);
+        StringBuilder dots = new StringBuilder(margin);
+        for (int c = 0; c < size; c++) {
+            header.append(String.format("%" + width + "d ", c));
+            border.append(String.format("%" + width + "s ", "-"));
+            dots.append(width == 1 ? ".." : "...");
         }
+        System.out.println(header);
+        System.out.println(border);
     // Iterate through rows and columns to display the game grid
-        for (int i = 0; i < thegame.getGameSize(); i++) {
-            System.out.print("Row "+i+"|");
-            for (int c = 0; c < thegame.getGameSize(); c++) {
-                if (thegame.getGameSize() == 9) {
-                    if (c == 2 || c == 5 || c == 8) {
-                        // formatting for columns in a 9x9 game
-                        if (thegame.getIndividualMove(i,c).contains("-") ){
-                            System.out.print(" " + "|");
-                        } else{
-                            System.out.print(thegame.getIndividualMove(i,c) + "|");
-                        }
-                    } else {
-                        // formatting for columns in a 4x4 game
-                        if (thegame.getIndividualMove(i,c).contains("-") ){
-                            System.out.print(" " + ".");
-                        } else{
-                            System.out.print(thegame.getIndividualMove(i,c) + ".");
-                        }
-                    }
-
-                } else if (thegame.getGameSize() == 4) {
-                    if (c == 1 || c == 3) {
-                        if (thegame.getIndividualMove(i,c).contains("-") ){
-                            System.out.print(" " + "|");
-                        } else{
-                            System.out.print(thegame.getIndividualMove(i,c) + "|");
-                        }
-                    } else {
-                        if (thegame.getIndividualMove(i,c).contains("-") ){
-                            System.out.print(" " + ".");
-                        } else{
-                            System.out.print(thegame.getIndividualMove(i,c) + ".");
-                        }
-                    }
-
-                
-                }
-                // Add horizontal separators based on the game size and current row
-            }if (thegame.getGameSize() == 9 && (i == 2 || i == 5|| i == 8)) {
-                System.out.println("\n      - - - - - - - - -");
-
-            } else if (thegame.getGameSize() == 9 ){
-                System.out.println("\n      .................");
-
-            } else if (thegame.getGameSize() == 4 && (i==1||i==3) ){
-                System.out.println("\n      - - - - ");
-
+        for (int i = 0; i < size; i++) {
+            System.out.print(String.format("Row %" + width + "d|", i));
+            for (int c = 0; c < size; c++) {
+                String move = thegame.getIndividualMove(i, c);
+                String cell = move.contains("-") ? " " : move;
+                // A "|" closes each box, a "." separates cells inside a box
+                System.out.print(String.format("%" + width + "s", cell) + ((c + 1) % boxSize == 0 ? "|" : "."));
+            }
+                // Add horizontal separators between boxes and dotted lines between rows
+            if ((i + 1) % boxSize == 0) {
+                System.out.println("\n" + border);
             } else {
-                System.out.println("\n     .........");
+                System.out.println("\n" + dots);
             }
         }
     }
@@ -251,6 +283,7 @@ public class UI {
         + "[L] load saved game\n"
         + "[U] undo move\n"
         + "[R] redo move\n" // Add redo option
+        + "[H] hint\n"
         + "[C] clear game\n"
         + "[Q] quit game\n");
 }
@@ -276,7 +309,7 @@ public class UI {
         int col = Integer.parseInt(reader.next());
 
         // Range validation
-        int maxNumber = gameType.equals("4x4") ? 4 : 9;
+        int maxNumber = thegame.getGameSize();
         int number;
         do {
             System.out.print("Which number do you want to enter (1-" + maxNumber + ")? ");
@@ -293,9 +326,9 @@ public class UI {
         String numStr = Integer.toString(number);
 
         // Sudoku rules validation and move
-        String currentState = thegame.getIndividualMove(row, col);
+        int currentValue = thegame.getBoard().get(row, col);
         if (isValidMove(row, col, numStr) && thegame.makeMove(Integer.toString(row), Integer.toString(col), numStr)) {
-            moveHistory.push(new Move(row, col, currentState));
+            history.record(thegame.getBoard().index(row, col), currentValue, number);
         } else {
             System.out.println("That move is not valid according to Sudoku rules.");
         }
@@ -307,10 +340,13 @@ public class UI {
         saveGame();
     } else if (choice.equalsIgnoreCase("L")) {
         loadGame();
+    } else if (choice.equalsIgnoreCase("H")) {
+        provideHint();
     } else if (choice.equalsIgnoreCase("C")) {
         clearGame();
     } else if (choice.equalsIgnoreCase("Q")) {
         System.out.println("Quitting the game.");
+        closeProfiles();
         System.exit(0);
     }
     return choice;
@@ -325,34 +361,8 @@ public class UI {
  * @return True if the move is valid, false otherwise.
  */
 private boolean isValidMove(int row, int col, String number) {
-    // Check row
-    for (int i = 0; i < thegame.getGameSize(); i++) {
-        if (thegame.getIndividualMove(row, i).equals(number)) {
-            return false;// Found the same number in the same row
-        }
-    }
-
-    // Check column
-    for (int i = 0; i < thegame.getGameSize(); i++) {
-        if (thegame.getIndividualMove(i, col).equals(number)) {
-            return false;// Found the same number in the same column
-        }
-    }
-
-    // Check block
-    int blockSize = (int)Math.sqrt(thegame.getGameSize());
-    int blockRowStart = row - row % blockSize;
-    int blockColStart = col - col % blockSize;
-
-    for (int i = blockRowStart; i < blockRowStart + blockSize; i++) {
-        for (int j = blockColStart; j < blockColStart + blockSize; j++) {
-            if (thegame.getIndividualMove(i, j).equals(number)) {
-                return false; // Found the same number in the same block
-            }
-        }
-    }
-
-    return true;// Move is valid
+    // The game keeps digit counts per row, column and block, so this is a constant-time check
+    return thegame.isValidMove(row, col, Integer.parseInt(number));
 }
 
 /**
@@ -361,21 +371,19 @@ private boolean isValidMove(int row, int col, String number) {
 private void startGame() {
         System.out.println("Game started! Timer is running.");
         startTime = LocalTime.now();
+        recorder.markStart(); // Restored cells still count toward the minimum solving time
     }
     
 /**
  * Saves the current state of the game to a file.
+ * The first save writes the whole board; later saves only append the moves made since.
  */
     public void saveGame() {
         try {
-        FileWriter writer = new FileWriter("sudoku_save.txt");
-        for (int i = 0; i < thegame.getGameSize(); i++) {
-            for (int j = 0; j < thegame.getGameSize(); j++) {
-                writer.write(thegame.getIndividualMove(i, j) + " ");// Write the value of each cell to the file
-            }
-            writer.write("\n");// Add a newline character to separate rows
+        if (journal == null) {
+            journal = new MoveJournal(Paths.get(SAVE_FILE), thegame.getBoard());
         }
-        writer.close();
+        journal.save();
         System.out.println("Game saved successfully!");
     } catch (IOException e) {
         System.out.println("An error occurred while saving the game.");
@@ -387,10 +395,7 @@ private void startGame() {
  * This will undo the previous move made by the player, restoring the previous state of the game board.
  */
      public void undoMove() {
-    if (!moveHistory.isEmpty()) {
-        Move lastMove = moveHistory.pop();
-        redoHistory.push(new Move(lastMove.row, lastMove.col, thegame.getIndividualMove(lastMove.row, lastMove.col)));
-        thegame.makeMove(Integer.toString(lastMove.row), Integer.toString(lastMove.col), lastMove.prevValue);
+    if (history.undo()) {
         System.out.println("Move undone.");
     } else {
         System.out.println("No moves to undo.");
@@ -402,12 +407,8 @@ private void startGame() {
  * This method should redo the previously undone move in the game.
  */
 public void redoMove() {
-    if (!redoHistory.isEmpty()) {
-        Move lastMove = redoHistory.pop();
-        // Use the prevValue from the lastMove to update the game
-        thegame.makeMove(Integer.toString(lastMove.row), Integer.toString(lastMove.col), lastMove.prevValue);
-        // Push this move back onto the moveHistory stack
-        moveHistory.push(new Move(lastMove.row, lastMove.col, thegame.getIndividualMove(lastMove.row, lastMove.col)));
+    if (history.redo()) {
+        // The move history keeps undone moves until a new move is made
         System.out.println("Move redone.");
     } else {
         System.out.println("No moves to redo.");
@@ -420,74 +421,136 @@ public void redoMove() {
 */
     public void loadGame() {
         try {
-        File file = new File("sudoku_save.txt");
-        Scanner fileReader = new Scanner(file);
-        thegame = new Sudoku(gameType); // Resetting the game to the initial state
-        while (fileReader.hasNextLine()) {
-            for (int i = 0; i < thegame.getGameSize(); i++) {
-                String[] line = fileReader.nextLine().trim().split(" ");
-                for (int j = 0; j < thegame.getGameSize(); j++) {
-                    if (!line[j].equals("-") && thegame.getMoves()[i][j].getFillable()) {
-                        thegame.makeMove(Integer.toString(i), Integer.toString(j), line[j]);
-                    }
-                }
-            }
+        Puzzle saved = MoveJournal.readPuzzle(Paths.get(SAVE_FILE)); // Null for a save that did not keep its givens
+        stopJournal();
+        thegame = saved != null ? new Sudoku(saved) : new Sudoku(gameType); // Dealing the saved puzzle afresh
+        recorder = new MoveRecorder(thegame.getBoard()); // The loaded moves are recorded too, so the win can be replayed
+        journal = MoveJournal.load(Paths.get(SAVE_FILE), thegame.getBoard()); // Replays the saved moves, and keeps saving to the file
+        history = new MoveHistory(thegame.getBoard());
+        if (startTime != null) {
+            // The timer starts again with the loaded game
+            startTime = LocalTime.now();
+            recorder.markStart();
         }
-        fileReader.close();
         System.out.println("Game loaded successfully!");
-    } catch (FileNotFoundException e) {
+    } catch (NoSuchFileException e) {
         System.out.println("Saved game file not found.");
+    } catch (IllegalArgumentException e) {
+        System.out.println("The saved game cannot be loaded: " + e.getMessage());
     } catch (Exception e) {
         System.out.println("An error occurred while loading the game.");
         e.printStackTrace();
     }
     }
 
+/**
+ * Stops journaling the current game, if it was saved.
+ */
+    private void stopJournal() {
+        if (journal != null) {
+            journal.detach();
+            journal = null;
+        }
+    }
+
 /**
  * Clears the game board and resets any records of moves, effectively resetting the game to its initial state.
  */
     public void clearGame() {
-        thegame = new Sudoku(gameType);
+        thegame.reset(); // The same game, back to its givens; a later save records the cleared cells
+        history.clear();
         System.out.println("Game has been resetted");
 
     }
 
 /**
  * Provides a hint to the user if they have enough coins to cover the hint cost.
- * If the user has enough coins, deducts the hint cost from their coins and provides a hint.
+ * If the user has enough coins, deducts the hint cost from their coins, fills in the next cell 
+ * that can be found by logic and prints the reasoning behind it.
  * If the user doesn't have enough coins, informs them that there are not enough coins for a hint.
+ *
+ * @return The hint given, or {@code null} if no hint was given.
  */
-    public void provideHint() {
+    public Hint provideHint() {
         int hintCost = 100; // Cost of a hint
-        if (coins >= hintCost) {
-            coins -= hintCost;
-            saveCoins();
-            // Provides the hint to the user
+        Hint hint = thegame.getHint();
+        if (hint == null) {
+            System.out.println("There are no empty cells left to hint.");
+            return null;
+        }
+        if (spendCoins(hintCost)) {
+            // Provides the hint to the user and fills it in
             System.out.println("Providing a hint. It costs you " + hintCost + " coins.");
+            System.out.println(hint.getReason());
+            int currentValue = thegame.getBoard().get(hint.getRow(), hint.getCol());
+            thegame.makeMove(Integer.toString(hint.getRow()), Integer.toString(hint.getCol()), Integer.toString(hint.getValue()));
+            history.record(thegame.getBoard().index(hint.getRow(), hint.getCol()), currentValue, hint.getValue());
+            return hint;
         } else {
             System.out.println("Not enough coins for a hint.");
+            return null;
         }
     }
     
 /**
- * Saves the user's current coin balance to a file named after their nickname.
+ * Takes coins from the user's balance through the coin ledger, which checks the balance and takes
+ * the coins in one step, so a session can never spend coins another session already spent.
+ *
+ * @param amount The coins to take.
+ * @return {@code true} if the coins were spent, {@code false} if the user has too few or they cannot be saved.
+ */
+    private boolean spendCoins(int amount) {
+        if (ledger == null) {
+            System.out.println("Coins cannot be spent, as the coin ledger could not be opened.");
+            return false;
+        }
+        try {
+            if (!ledger.debit(nickname, amount)) {
+                return false;
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving coins.");
+            e.printStackTrace();
+            return false;
+        }
+        coins = ledger.getBalance(nickname);
+        saveCoins();
+        return true;
+    }
+
+/**
+ * Saves the user's current coin balance to the user's record in the profile store, mirroring the coin ledger.
+ * The record is written behind, so this never waits for the disk. Nothing is saved while the ledger could not
+ * be opened, so the profile never loses the coins it mirrors.
  * In case of an error while saving, prints an error message and stack trace.
  */
     private void saveCoins() {
-        try (PrintWriter out = new PrintWriter(nickname + ".txt")) {
-            out.println(coins);
-        } catch (FileNotFoundException e) {
+        if (ledger == null) {
+            return;
+        }
+        try {
+            profiles.setCoins(nickname, coins);
+        } catch (IOException e) {
             System.out.println("Error saving coins.");
             e.printStackTrace();
         }
     }
     
 /**
- * Awards 50 coins to the user as a reward for solving a puzzle and saves the updated coin balance to a file.
+ * Awards 50 coins to the user as a reward for solving a puzzle and records them in the coin ledger.
  * Prints a congratulatory message to inform the user about their reward.
  */
 public void rewardCoinsForSolving() {
-        coins += 50; // Reward for solving a puzzle
+        if (ledger == null) {
+            return; // The user was told coins cannot be earned when the ledger failed to open
+        }
+        try {
+            coins = ledger.credit(nickname, 50); // Reward for solving a puzzle
+        } catch (IOException e) {
+            System.out.println("Error saving coins.");
+            e.printStackTrace();
+            return;
+        }
         saveCoins();
         System.out.println("Congratulations! You earned 50 coins for solving the puzzle.");
     }